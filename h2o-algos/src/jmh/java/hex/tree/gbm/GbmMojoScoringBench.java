@@ -25,6 +25,9 @@ public class GbmMojoScoringBench {
   @Param({"1000", "100000"})
   private int rows;
 
+  @Param({"false", "true"})
+  private boolean compiledTrees;
+
   private SharedTreeMojoModel _mojo;
   private double[][] _data;
 
@@ -39,6 +42,8 @@ public class GbmMojoScoringBench {
   @Setup(Level.Invocation)
   public void setup() throws IOException {
     _mojo = (SharedTreeMojoModel) ClasspathReaderBackend.loadMojo("prostate");
+    if (compiledTrees)
+      _mojo.compileTrees();
     _data = ProstateData.ROWS;
   }
 
@@ -54,6 +59,23 @@ public class GbmMojoScoringBench {
     return sum;
   }
 
+  @Benchmark
+  public double measureGbmScoreBatch() throws Exception {
+    final int batchSize = 256;
+    double sum = 0;
+    double[][] batch = new double[batchSize][];
+    double[][] preds = new double[batchSize][3];
+    for (int i = 0; i < rows; i += batchSize) {
+      int n = Math.min(batchSize, rows - i);
+      for (int j = 0; j < n; j++)
+        batch[j] = _data[(i + j) % _data.length];
+      _mojo.scoreBatch(batch, null, preds, n);
+      for (int j = 0; j < n; j++)
+        sum += preds[j][1];
+    }
+    return sum;
+  }
+
   @TearDown(Level.Invocation)
   public void tearDown() {
     _mojo = null;
@@ -1225,6 +1225,16 @@ public class DataInfo extends Keyed<DataInfo> {
 
 
   public final Row extractDenseRow(Chunk[] chunks, int rid, Row row) {
+    return extractDenseRow(chunks, rid, row, null, 0);
+  }
+
+  /**
+   * Same as {@link #extractDenseRow(Chunk[], int, Row)}, numeric values are taken from the given block of
+   * pre-decoded columns (see {@link Chunk#getDoubles(double[], int, int)}) where available.
+   * @param nums block of decoded numeric columns, column is null if it has to be read from the chunk
+   * @param off chunk row of the first row in the block
+   */
+  private Row extractDenseRow(Chunk[] chunks, int rid, Row row, double[][] nums, int off) {
     row.predictors_bad = false;
     row.response_bad = false;
     row.rid = rid + chunks[0].start();
@@ -1264,7 +1274,7 @@ public class DataInfo extends Keyed<DataInfo> {
           row.numVals[numValsIdx++]=d;
         }
       } else {
-        double d = chunks[_cats + i].atd(rid); // can be NA if skipMissing() == false
+        double d = nums != null && nums[i] != null ? nums[i][rid - off] : chunks[_cats + i].atd(rid); // can be NA if skipMissing() == false
         if (Double.isNaN(d))
           d = _numNAFill[numValsIdx];
         if (_normMul != null && _normSub != null)
@@ -1316,6 +1326,10 @@ public class DataInfo extends Keyed<DataInfo> {
     private final Row [] _sparseRows;
     public final boolean _sparse;
     private final Chunk [] _chks;
+    // dense rows are extracted from blocks of bulk-decoded numeric columns
+    private static final int BLOCK = 1024;
+    private double [][] _numBlock;
+    private int _blockStart = -1;
 
     private Rows(Chunk [] chks, boolean sparse) {
       _nrows = chks[0]._len;
@@ -1331,7 +1345,23 @@ public class DataInfo extends Keyed<DataInfo> {
         _sparseRows = null;
       }
     }
-    public Row row(int i) {return _sparse?_sparseRows[i]:extractDenseRow(_chks,i,_denseRow);}
+    public Row row(int i) {
+      if(_sparse) return _sparseRows[i];
+      if(_blockStart < 0 || i < _blockStart || i >= _blockStart + BLOCK)
+        decodeBlock(i);
+      return extractDenseRow(_chks,i,_denseRow,_numBlock,_blockStart);
+    }
+
+    private void decodeBlock(int i) {
+      if(_numBlock == null) _numBlock = new double[_nums][];
+      _blockStart = i;
+      int to = Math.min(_nrows, i + BLOCK);
+      for(int c = 0; c < _numBlock.length; ++c) {
+        if(isInteractionVec(_cats + c)) continue;
+        if(_numBlock[c] == null) _numBlock[c] = MemoryManager.malloc8d(Math.min(_nrows, BLOCK));
+        _chks[_cats + c].getDoubles(_numBlock[c], i, to);
+      }
+    }
   }
 
   public Rows rows(Chunk [] chks) {
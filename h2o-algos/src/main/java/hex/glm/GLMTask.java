@@ -60,8 +60,11 @@ public abstract class GLMTask  {
       Chunk r = chks[i];
       if(_glmf._family != Family.multinomial) {
         double ymu = _glmf.link(_ymu[0]);
+        double [] ws = w.getDoubles(MemoryManager.malloc8d(len),0,len);
+        double [] os = o.getDoubles(MemoryManager.malloc8d(len),0,len);
+        double [] rs = r.getDoubles(MemoryManager.malloc8d(len),0,len);
         for (int j = 0; j < len; ++j)
-          _nullDev += w.atd(j)*_glmf.deviance(r.atd(j), _glmf.linkInv(ymu + o.atd(j)));
+          _nullDev += ws[j]*_glmf.deviance(rs[j], _glmf.linkInv(ymu + os[j]));
       } else {
         throw H2O.unimpl();
       }
@@ -316,13 +319,22 @@ public abstract class GLMTask  {
        numsResponse = MemoryManager.malloc8d(_nClasses);
      }
      // compute basic stats for numeric predictors
+     double [] vals = null;
      for(int i = 0; i < _nums; ++i) {
        Chunk c = chunks[i + _numOff];
        double w;
-       for (int r = c.nextNZ(-1); r < c._len; r = c.nextNZ(r)) {
-         if ((w = ws[r]) == 0) continue;
-         double d = c.atd(r);
-         _basicStats.add(d, w, i);
+       if(c.isSparseZero() || c.isSparseNA()) {
+         for (int r = c.nextNZ(-1); r < c._len; r = c.nextNZ(r)) {
+           if ((w = ws[r]) == 0) continue;
+           double d = c.atd(r);
+           _basicStats.add(d, w, i);
+         }
+       } else { // dense chunk, decode it at once
+         if(vals == null) vals = MemoryManager.malloc8d(c._len);
+         c.getDoubles(vals,0,c._len);
+         for (int r = 0; r < c._len; ++r)
+           if ((w = ws[r]) != 0)
+             _basicStats.add(vals[r], w, i);
        }
      }
      if (response == null) return;
@@ -335,6 +347,7 @@ public abstract class GLMTask  {
      _basicStats.setNobs(nobs,wsum);
      // compute the mean for the response
      // autoexpand categoricals into binary vecs
+     double [] ys = response.getDoubles(MemoryManager.malloc8d(response._len),0,response._len);
      for(int r = 0; r < response._len; ++r) {
        double w;
        if((w = ws[r]) == 0)
@@ -346,7 +359,7 @@ public abstract class GLMTask  {
              numsResponse[i] = chunks[chunks.length - _nClasses + i].atd(r);
          } else {
            Arrays.fill(numsResponse,0);
-           double d = response.atd(r);
+           double d = ys[r];
            if(Double.isNaN(d))
              Arrays.fill(numsResponse,Double.NaN);
            else
@@ -354,7 +367,7 @@ public abstract class GLMTask  {
          }
          _basicStatsResponse.add(numsResponse,w);
        }
-       double d = response.atd(r);
+       double d = ys[r];
        if(!Double.isNaN(d)) {
          if (_nClasses > 2)
            _yMu[(int) d] += w;
@@ -433,6 +446,7 @@ public abstract class GLMTask  {
       _beta = beta.clone();
       _reg = reg;
       _currentLambda = lambda;
+      withWorkStealing(); // map only reads its chunks, reduce sums up
     }
 
     protected GLMGradientTask(Key jobKey, DataInfo dinfo, double reg, double lambda, double[] beta, 
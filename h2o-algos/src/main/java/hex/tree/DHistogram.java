@@ -45,7 +45,7 @@ import static hex.tree.SharedTreeModel.SharedTreeParameters.HistogramType;
  *  available as well, via {@code _histoType}.
  *
  */
-public final class DHistogram extends Iced<DHistogram> {
+public final class DHistogram extends DHistogramVals<DHistogram> {
   
   private static final Logger LOG = Logger.getLogger(DHistogram.class);
 
@@ -64,7 +64,7 @@ public final class DHistogram extends Iced<DHistogram> {
   public final double _pred1; // We calculate what would be the SE for a possible fallback predictions _pred1
   public final double _pred2; // and _pred2. Currently used for min-max bounds in monotonic GBMs.
 
-  protected double [] _vals; // Values w, wY and wYY encoded per bin in a single array. 
+  // _vals: Values w, wY and wYY encoded per bin in a single array (see DHistogramVals).
   // If _pred1 or _pred2 are specified they are included as well.
   // If constraints are used and gamma denominator or nominator needs to be calculated its will be included.
   protected final int _vals_dim; // _vals.length == _vals_dim * _nbin; How many values per bin are encoded in _vals.
@@ -77,7 +77,7 @@ public final class DHistogram extends Iced<DHistogram> {
   // also see functions hasPreds() and hasDenominator()
 
   protected final boolean _useUplift;
-  protected double [] _valsUplift; // if not null always dimension 4: 
+  // _valsUplift: if not null always dimension 4: 
   // 0 treatment group nominator 
   // 1 treatment group denominator
   // 2 control group nominator
@@ -86,6 +86,10 @@ public final class DHistogram extends Iced<DHistogram> {
   protected final Divergence _upliftMetric;
 
   private final Distribution _dist;
+
+  @Override int valsDim() { return _vals_dim; }
+  @Override int valsDimUplift() { return _valsDimUplift; }
+
   public double w(int i){  return _vals[_vals_dim*i+0];}
   public double wY(int i){ return _vals[_vals_dim*i+1];}
   public double wYY(int i){return _vals[_vals_dim*i+2];}
@@ -0,0 +1,96 @@
+package hex.tree;
+
+import water.AutoBuffer;
+import water.Iced;
+import water.MemoryManager;
+
+/**
+ * Bin values of a {@link DHistogram}, with a compact serialization.
+ *
+ * Histograms of every active leaf and column are shipped back from every node
+ * after each tree level - at deeper levels most of their bins are empty.  Only
+ * the non-empty bins are sent (delta-encoded bin index, followed by the
+ * values), and each value goes as a float if that is exact (e.g. integer
+ * weights).  Histograms which would not get smaller are sent dense.
+ */
+abstract class DHistogramVals<T extends DHistogramVals<T>> extends Iced<T> {
+  private static final byte NULL = 0, DENSE = 1, SPARSE = 2;
+
+  protected double [] _vals;       // See DHistogram
+  protected double [] _valsUplift;
+
+  /** Number of values per bin in {@link #_vals} */
+  abstract int valsDim();
+  /** Number of values per bin in {@link #_valsUplift} */
+  abstract int valsDimUplift();
+
+  public final AutoBuffer write_impl(AutoBuffer ab) {
+    putVals(ab, _vals, valsDim());
+    return putVals(ab, _valsUplift, valsDimUplift());
+  }
+
+  public final DHistogramVals read_impl(AutoBuffer ab) {
+    _vals = getVals(ab);
+    _valsUplift = getVals(ab);
+    return this;
+  }
+
+  private static boolean isEmpty(double[] vals, int off, int dim) {
+    for (int i = off; i < off + dim; i++)
+      if (Double.doubleToRawLongBits(vals[i]) != 0) return false;
+    return true;
+  }
+
+  private static boolean isFloat(double d) { return (double) (float) d == d || Double.isNaN(d); }
+
+  static AutoBuffer putVals(AutoBuffer ab, double[] vals, int dim) {
+    if (vals == null) return ab.put1(NULL);
+    assert dim > 0 && dim < 8 && vals.length % dim == 0;
+    // Size of the sparse encoding, without the bin index deltas
+    int nonEmpty = 0;
+    long sparseSize = 0;
+    for (int off = 0; off < vals.length; off += dim) {
+      if (isEmpty(vals, off, dim)) continue;
+      nonEmpty++;
+      sparseSize += 2;
+      for (int i = off; i < off + dim; i++)
+        sparseSize += isFloat(vals[i]) ? 4 : 8;
+    }
+    if (sparseSize >= 8L * vals.length)
+      return ab.put1(DENSE).putA8d(vals);
+    ab.put1(SPARSE).put1(dim).putInt(vals.length / dim).putInt(nonEmpty);
+    int last = -1;
+    for (int off = 0, bin = 0; off < vals.length; off += dim, bin++) {
+      if (isEmpty(vals, off, dim)) continue;
+      int floats = 0;
+      for (int i = 0; i < dim; i++)
+        if (isFloat(vals[off + i])) floats |= 1 << i;
+      ab.putInt(bin - last).put1(floats);
+      for (int i = 0; i < dim; i++) {
+        if ((floats & (1 << i)) != 0) ab.put4f((float) vals[off + i]);
+        else ab.put8d(vals[off + i]);
+      }
+      last = bin;
+    }
+    return ab;
+  }
+
+  static double[] getVals(AutoBuffer ab) {
+    switch (ab.get1()) {
+      case NULL: return null;
+      case DENSE: return ab.getA8d();
+      case SPARSE: break;
+      default: throw new IllegalStateException("Unexpected histogram encoding");
+    }
+    final int dim = ab.get1();
+    final double[] vals = MemoryManager.malloc8d(ab.getInt() * dim);
+    int bin = -1;
+    for (int n = ab.getInt(); n > 0; n--) {
+      bin += ab.getInt();
+      int floats = ab.get1U();
+      for (int i = 0; i < dim; i++)
+        vals[bin * dim + i] = (floats & (1 << i)) != 0 ? ab.get4f() : ab.get8d();
+    }
+    return vals;
+  }
+}
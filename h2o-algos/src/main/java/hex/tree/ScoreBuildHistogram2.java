@@ -76,6 +76,7 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
   final boolean _reduceHistoPrecision; // if enabled allows to test that histograms are 100% reproducible when reproducibleHistos are enabled
   transient Consumer<DHistogram[][]> _hcsMonitor;
   final int _treatmentIdx;
+  transient boolean _driver; // Set only on the node launching the task (not shipped)
 
   public ScoreBuildHistogram2(ScoreBuildOneTree sb, int treeNum, int k, int ncols, int nbins, DTree tree, int leaf,
                               DHistogram[][] hcs, DistributionFamily family,
@@ -109,6 +110,7 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
       Log.info("Using a deterministic way of building histograms");
     }
     _hcsMonitor = dp.makeDHistogramMonitor(treeNum, k, leaf);
+    _driver = true;
   }
 
   void dfork2(Frame fr) {
@@ -452,6 +454,17 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
     }
   }
 
+  // Histograms of leaves without any local rows are not shipped back, the
+  // driver has them all already (and they are skipped in the reduce)
+  @Override protected void closeLocal() {
+    if (_driver) return;
+    for (DHistogram[] ary : _hcs)
+      if (ary != null)
+        for (int i = 0; i < ary.length; i++)
+          if (ary[i] != null && ary[i]._vals == null)
+            ary[i] = null;
+  }
+
   @Override public void postGlobal(){
     _hcs = ArrayUtils.transpose(_hcs);
     for(DHistogram [] ary:_hcs)
@@ -537,6 +537,57 @@ public class DataInfoTest extends TestUtil {
     };
   }
 
+  @Test
+  public void testDenseRowsMatchExtractDenseRow() { // dense Rows are extracted from blocks of bulk-decoded columns
+    Scope.enter();
+    try {
+      final int n = 3000;
+      double[] x1 = new double[n], x2 = new double[n], y = new double[n];
+      String[] c = new String[n];
+      java.util.Random r = new java.util.Random(42);
+      for (int i = 0; i < n; i++) {
+        x1[i] = r.nextInt(50) == 0 ? Double.NaN : r.nextInt(100);
+        x2[i] = r.nextGaussian();
+        c[i] = r.nextInt(30) == 0 ? null : "l" + r.nextInt(5);
+        y[i] = r.nextDouble();
+      }
+      Frame fr = Scope.track(new TestFrameBuilder()
+              .withColNames("c", "x1", "x2", "y")
+              .withVecTypes(Vec.T_CAT, Vec.T_NUM, Vec.T_NUM, Vec.T_NUM)
+              .withDataForCol(0, c)
+              .withDataForCol(1, x1)
+              .withDataForCol(2, x2)
+              .withDataForCol(3, y)
+              .withChunkLayout(n - 500, 500)
+              .build());
+      for (Model.InteractionSpec interactions : new Model.InteractionSpec[]{null, Model.InteractionSpec.allPairwise(new String[]{"x1", "x2"})}) {
+        final DataInfo di = new DataInfo(fr.clone(), null, 1, true, DataInfo.TransformType.STANDARDIZE, DataInfo.TransformType.NONE,
+                false, true, false, false, false, false, interactions);
+        try {
+          new MRTask() {
+            @Override public void map(Chunk[] cs) {
+              DataInfo.Rows rows = di.rows(cs, false);
+              DataInfo.Row expected = di.newDenseRow();
+              for (int i = 0; i < rows._nrows; ++i) {
+                DataInfo.Row row = rows.row(i);
+                di.extractDenseRow(cs, i, expected);
+                assertEquals(expected.isBad(), row.isBad());
+                assertEquals(expected.response(0), row.response(0), 0);
+                for (int j = 0; j < di.fullN(); ++j)
+                  assertEquals("row " + i + ", col " + j, expected.get(j), row.get(j), 0);
+              }
+            }
+          }.doAll(di._adaptedFrame);
+        } finally {
+          di.dropInteractions();
+          di.remove();
+        }
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
   @Test
   public void testInnerProduct() {
     Scope.enter();
@@ -3,6 +3,7 @@ package hex.mojo;
 import hex.genmodel.tools.PredictCsv;
 import hex.tree.gbm.GBM;
 import hex.tree.gbm.GBMModel;
+import org.apache.commons.io.IOUtils;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
@@ -16,11 +17,10 @@ import water.runner.CloudSize;
 import water.runner.H2ORunner;
 
 
-import java.io.ByteArrayOutputStream;
-import java.io.File;
-import java.io.IOException;
-import java.io.PrintStream;
+import java.io.*;
+import java.nio.file.Files;
 import java.security.Permission;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.Assert.*;
 import static water.TestUtil.parseAndTrackTestFile;
@@ -145,6 +145,52 @@ public class PredictCsvTest {
   }
 
 
+  @Test
+  public void testScoreParallel() throws IOException {
+    try {
+      Scope.enter();
+      Frame train = parseAndTrackTestFile("smalldata/junit/iris.csv");
+
+      GBMModel.GBMParameters p = new GBMModel.GBMParameters();
+      p._train = train._key;
+      p._seed = 0xC0DE;
+      p._response_column = "class";
+      p._ntrees = 5;
+
+      GBMModel model = new GBM(p).trainModel().get();
+      Scope.track_generic(model);
+      final File modelFile = folder.newFile();
+      model.exportMojo(modelFile.getAbsolutePath(), true);
+
+      final String input = TestUtil.makeNfsFileVec("smalldata/junit/iris.csv").getPath();
+      final File sequentialOutput = folder.newFile();
+      final File parallelOutput = new File(folder.getRoot(), "parallel.csv.gz");
+      runPredictCsv("--mojo", modelFile.getAbsolutePath(), "--input", input,
+              "--output", sequentialOutput.getAbsolutePath());
+      runPredictCsv("--mojo", modelFile.getAbsolutePath(), "--input", input,
+              "--output", parallelOutput.getAbsolutePath(), "--threads", "3", "--batchSize", "7");
+
+      byte[] expected = Files.readAllBytes(sequentialOutput.toPath());
+      byte[] actual;
+      try (InputStream is = new GZIPInputStream(new FileInputStream(parallelOutput))) {
+        actual = IOUtils.toByteArray(is);
+      }
+      assertEquals(new String(expected), new String(actual));
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  private static void runPredictCsv(String... args) {
+    try {
+      PredictCsv.main(args);
+      fail("Expected PredictCSV to exit");
+    } catch (PreventedExitException e) {
+      assertEquals(0, e.status); // PredictCsv is expected to finish without errors
+    }
+  }
+
+
   protected static class PreventedExitException extends SecurityException {
     public final int status;
 
@@ -317,4 +317,41 @@ public class DHistogramTest extends TestUtil {
     assertEquals(2, histo.nonEmptyBins());
   }
 
+  @Test
+  public void testSerializeSparseBins() {
+    DHistogram histo = new DHistogram("sparse", 1000, 1024, (byte) 1, 0, 1000, false, false, -0.001,
+            SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive, 42L, null, null, false, false, null, null);
+    byte[] bytes = new AutoBuffer().put(histo).buf();
+    assertNull(((DHistogram) new AutoBuffer(bytes).get())._vals);
+
+    histo.init();
+    histo.updateHisto(null, null, new double[]{10, Double.NaN, 999, 999}, new double[]{0.1, -0.0, 0.3, 1.5}, null, new int[]{0, 1, 2, 3}, 4, 0, null);
+    bytes = new AutoBuffer().put(histo).buf();
+    DHistogram copy = new AutoBuffer(bytes).get();
+    assertEquals(histo._vals.length, copy._vals.length);
+    for (int i = 0; i < histo._vals.length; i++) // bit-exact, including the -0.0
+      assertEquals(Double.doubleToRawLongBits(histo._vals[i]), Double.doubleToRawLongBits(copy._vals[i]));
+    assertEquals(2, copy.nonEmptyBins());
+    assertTrue(bytes.length < histo._vals.length); // way less than a byte per value
+  }
+
+  @Test
+  public void testSerializeDenseBins() {
+    int N = 10000;
+    double[] ys = new double[N];
+    double[] data = new double[N];
+    Random r = new Random(42);
+    for (int i = 0; i < N; i++) {
+      ys[i] = r.nextGaussian();
+      data[i] = r.nextDouble() * 1000;
+    }
+    DHistogram histo = new DHistogram("dense", 1000, 1024, (byte) 0, 0, 1000, false, false, -0.001,
+            SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive, 42L, null, null, false, false, null, null);
+    histo.init();
+    histo.updateHisto(null, null, data, ys, null, ArrayUtils.seq(0, N), N, 0, null);
+    DHistogram copy = new AutoBuffer(new AutoBuffer().put(histo).buf()).get();
+    assertArrayEquals(histo._vals, copy._vals, 0);
+    assertEquals(histo.nonEmptyBins(), copy.nonEmptyBins());
+  }
+
 }
@@ -0,0 +1,153 @@
+package water;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import water.fvec.Chunk;
+import water.fvec.NewChunk;
+
+/**
+ * Per-row access (atd/at8/isNA) vs. bulk decode (getDoubles/getLongs/getIntegers/getNAs) of a single chunk type
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChunkBulkDecodeBench {
+
+  @Param({"C1N", "C1", "C2", "C4", "C8", "C1S", "C8D", "CBS", "CBP", "CRLE", "CDelta"})
+  private String type;
+  @Param({"100000"})
+  private int rows;
+  private Chunk chunk;
+  private double[] ds;
+  private long[] ls;
+  private int[] is;
+  private long[] nas;
+  private boolean integral; // getLongs supported
+  private boolean fitsInt;  // getIntegers supported
+
+  @Benchmark
+  public double atd() {
+    double sum = 0;
+    final Chunk c = chunk;
+    for (int row = 0; row < rows; ++row) {
+      double d = c.atd(row);
+      if (!Double.isNaN(d)) sum += d;
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public double getDoubles() {
+    double sum = 0;
+    chunk.getDoubles(ds, 0, rows, 0);
+    for (int row = 0; row < rows; ++row)
+      sum += ds[row];
+    return sum;
+  }
+
+  @Benchmark
+  public long at8() {
+    long sum = 0;
+    final Chunk c = chunk;
+    for (int row = 0; row < rows; ++row)
+      if (!c.isNA(row)) sum += c.at8(row);
+    return sum;
+  }
+
+  @Benchmark
+  public long getLongs() {
+    if (!integral) return 0;
+    long sum = 0;
+    chunk.getLongs(ls, 0, rows, 0);
+    for (int row = 0; row < rows; ++row)
+      sum += ls[row];
+    return sum;
+  }
+
+  @Benchmark
+  public long getIntegers() {
+    if (!fitsInt) return 0;
+    long sum = 0;
+    chunk.getIntegers(is, 0, rows, 0);
+    for (int row = 0; row < rows; ++row)
+      sum += is[row];
+    return sum;
+  }
+
+  @Benchmark
+  public int isNA() {
+    int cnt = 0;
+    final Chunk c = chunk;
+    for (int row = 0; row < rows; ++row)
+      if (c.isNA(row)) cnt++;
+    return cnt;
+  }
+
+  @Benchmark
+  public int getNAs() {
+    return chunk.getNAs(nas, 0, rows);
+  }
+
+  @Setup
+  public void setup() {
+    Random r = new Random(42);
+    NewChunk nc = new NewChunk(null, 0);
+    for (int row = 0; row < rows; ++row) {
+      if (!"C1N".equals(type) && !"CRLE".equals(type) && !"CDelta".equals(type) && r.nextInt(100) == 0) {
+        nc.addNA();
+        continue;
+      }
+      switch (type) {
+        case "C1N": nc.addNum(r.nextInt(256), 0); break;
+        case "C1": nc.addNum(r.nextInt(255), 0); break;
+        case "C2": nc.addNum(r.nextInt(64000) - 32000, 0); break;
+        case "C4": nc.addNum(r.nextInt(), 0); break;
+        case "C8": nc.addNum(r.nextLong() >> 4, 0); break;
+        case "C1S": nc.addNum(1000 + r.nextInt(255), 0); break;
+        case "C8D": nc.addNum(r.nextDouble()); break;
+        case "CBS": nc.addNum(r.nextInt(2), 0); break;
+        case "CBP": nc.addNum(r.nextInt(1 << 12), 0); break;
+        case "CRLE": nc.addNum(row / 100, 0); break;
+        case "CDelta": nc.addNum(1_600_000_000_000L + 1000L * row + r.nextInt(10), 0); break;
+        default: throw H2O.unimpl();
+      }
+    }
+    chunk = nc.compress();
+    if (!chunk.getClass().getSimpleName().equals(type + "Chunk"))
+      throw new IllegalStateException("Expected " + type + "Chunk, got " + chunk.getClass().getSimpleName());
+    integral = !chunk.hasFloat();
+    fitsInt = integral && !"C8".equals(type) && !"CDelta".equals(type);
+    ds = new double[rows];
+    ls = new long[rows];
+    is = new int[rows];
+    nas = new long[(rows + 63) >> 6];
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(ChunkBulkDecodeBench.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+}
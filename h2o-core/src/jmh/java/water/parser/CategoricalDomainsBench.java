@@ -0,0 +1,81 @@
+package water.parser;
+
+import hex.CreateFrame;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import water.fvec.Frame;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static water.TestUtil.parseTestFile;
+import static water.TestUtil.stall_till_cloudsize;
+
+/**
+ * Parse of high cardinality categorical columns generated by {@link CreateFrame}, with the domains
+ * unified partitioned by hash ({@link PartitionedCategoricalDomains}) vs. merged up the reduce tree.
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CategoricalDomainsBench {
+
+  @Param({"1000000"})
+  private long rows;
+  @Param({"10000", "1000000"})
+  private int factors;
+  @Param({"true", "false"})
+  private boolean partitioned;
+
+  private File csv;
+  private Frame parsed;
+
+  @Setup
+  public void setup() throws IOException {
+    stall_till_cloudsize(1);
+    CreateFrame cf = new CreateFrame();
+    cf.rows = rows;
+    cf.cols = 4;
+    cf.categorical_fraction = 1;
+    cf.integer_fraction = 0;
+    cf.binary_fraction = 0;
+    cf.missing_fraction = 0.01;
+    cf.factors = factors;
+    cf.seed = 1234;
+    Frame fr = cf.execImpl().get();
+    try {
+      csv = File.createTempFile("categorical_domains", ".csv");
+      csv.deleteOnExit();
+      Frame.export(fr, csv.getAbsolutePath(), fr._key.toString(), true, 1).get();
+    } finally {
+      fr.delete();
+    }
+    ParseDataset.PARTITIONED_CATEGORICALS = partitioned;
+  }
+
+  @Benchmark
+  public Frame parse() {
+    return parsed = parseTestFile(csv.getAbsolutePath());
+  }
+
+  @TearDown(Level.Invocation)
+  public void tearDownInvocation() {
+    if (parsed != null) parsed.delete();
+    parsed = null;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(CategoricalDomainsBench.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -386,37 +386,43 @@ abstract public class ModelBuilder<M extends Model<M,P,O>, P extends Model.Param
     if (error_count() > 0)
       throw H2OModelBuilderIllegalArgumentException.makeFromBuilder(this);
     startClock();
-    if (!nFoldCV()) {
-      Driver driver = trainModelImpl();
-      driver.setCallback(callback);
-      return _job.start(driver, _parms.progressUnits(), _parms._max_runtime_secs);
-    } else {
-      // cross-validation needs to be forked off to allow continuous (non-blocking) progress bar
-      return _job.start(new H2O.H2OCountedCompleter() {
-                          @Override
-                          public void compute2() {
-                            computeCrossValidation();
-                            tryComplete();
-                          }
-
-                          @Override
-                          public void onCompletion(CountedCompleter caller) {
-                            if (callback != null) callback.onModelSuccess(_result.get());
-                          }
-
-                          @Override
-                          public boolean onExceptionalCompletion(Throwable ex, CountedCompleter caller) {
-                            Log.warn("Model training job " + _job._description + " completed with exception: " + ex);
-                            if (callback != null) callback.onModelFailure(ex, _parms);
-                            try {
-                              Keyed.remove(_job._result); // ensure there's no incomplete model left for manipulation after crash or cancellation
-                            } catch (Exception logged) {
-                              Log.warn("Exception thrown when removing result from job " + _job._description, logged);
+    _job.protect(train(), valid()); // Keep the training data in memory in preference to other data
+    try {
+      if (!nFoldCV()) {
+        Driver driver = trainModelImpl();
+        driver.setCallback(callback);
+        return _job.start(driver, _parms.progressUnits(), _parms._max_runtime_secs);
+      } else {
+        // cross-validation needs to be forked off to allow continuous (non-blocking) progress bar
+        return _job.start(new H2O.H2OCountedCompleter() {
+                            @Override
+                            public void compute2() {
+                              computeCrossValidation();
+                              tryComplete();
+                            }
+
+                            @Override
+                            public void onCompletion(CountedCompleter caller) {
+                              if (callback != null) callback.onModelSuccess(_result.get());
+                            }
+
+                            @Override
+                            public boolean onExceptionalCompletion(Throwable ex, CountedCompleter caller) {
+                              Log.warn("Model training job " + _job._description + " completed with exception: " + ex);
+                              if (callback != null) callback.onModelFailure(ex, _parms);
+                              try {
+                                Keyed.remove(_job._result); // ensure there's no incomplete model left for manipulation after crash or cancellation
+                              } catch (Exception logged) {
+                                Log.warn("Exception thrown when removing result from job " + _job._description, logged);
+                              }
+                              return true;
                             }
-                            return true;
-                          }
-                        },
-          (nFoldWork() + 1/*main model*/) * _parms.progressUnits(), _parms._max_runtime_secs);
+                          },
+            (nFoldWork() + 1/*main model*/) * _parms.progressUnits(), _parms._max_runtime_secs);
+      }
+    } catch (RuntimeException | Error e) {
+      _job.unprotect(); // Not started, so never stopped either
+      throw e;
     }
   }
 
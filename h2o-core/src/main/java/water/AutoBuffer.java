@@ -106,6 +106,13 @@ public final class AutoBuffer implements AutoCloseable {
   // I/O persistence flavor: Value.ICE, NFS, HDFS, S3, TCP.  Used to record I/O time.
   final byte _persist;
 
+  // Large TCP messages between nodes can be compressed, see TCPCompression
+  private TCPCompression.Writer _zout; // Set when writing a compressed message
+  private long _sendNs, _sendWire;     // Start and wire bytes of a TCP send to another node
+  private TCPCompression.Reader _zin;  // Set when reading a compressed message
+  private boolean _tcpIn;              // Reading a TCP message from another node
+  private long _wireIn;                // Wire bytes already counted in PeerStats
+
   // The assumed max UDP packetsize
   static final int MTU = 1500-8/*UDP packet header size*/;
 
@@ -130,6 +137,7 @@ public final class AutoBuffer implements AutoCloseable {
    *  */
   public AutoBuffer( ByteChannel sock, InetAddress remoteAddress, short timestamp ) {
     _chan = sock;
+    _tcpIn = remoteAddress != null;
     raisePriority();            // Make TCP priority high
     _bb = BBP_BIG.make();       // Get a big / TPC-sized ByteBuffer
     _bb.flip();
@@ -139,6 +147,7 @@ public final class AutoBuffer implements AutoCloseable {
     if(remoteAddress!=null) {
       assert timestamp != 0;
       _h2o = H2ONode.intern(remoteAddress, getPort(), timestamp);
+      countIn(_size);           // Read before we knew the sender
     }else{
       // In case the communication originates from non-h2o node, we set _h2o node to null.
       // It is done for 2 reasons:
@@ -465,6 +474,7 @@ public final class AutoBuffer implements AutoCloseable {
             // either TCP con was dropped or other side closed connection without reading/confirming (e.g. task was cancelled).
             if( x == -1 ) throw new IOException("Other side closed connection before handshake byte read");
             assert x == 0xcd : "Handshake; writer expected a 0xcd from reader but got "+x;
+            TCPCompression.recordSend(_h2o, _sendWire, System.nanoTime() - _sendNs - (_zout == null ? 0 : _zout._zns));
           }
         } catch( IOException ioe ) {
           try { _chan.close(); } catch( IOException ignore ) {} // Silently close
@@ -632,6 +642,7 @@ public final class AutoBuffer implements AutoCloseable {
           throw new AutoBufferException(new EOFException("Reading "+sz+" bytes, AB="+this));
         if( _is != null ) _bb.position(_bb.position()+res); // Advance BB for Streams manually
         _size += res;            // What we read
+        if( _tcpIn && _h2o != null ) countIn(res);
       } catch( IOException e ) { // Dunno how to handle so crash-n-burn
         // Linux/Ubuntu message for a reset-channel
         if( e.getMessage().equals("An existing connection was forcibly closed by the remote host") )
@@ -650,7 +661,22 @@ public final class AutoBuffer implements AutoCloseable {
   }
 
   private int readAnInt() throws IOException {
-    if (_is == null) return ((ReadableByteChannel) _chan).read(_bb);
+    if (_is == null) {
+      ReadableByteChannel chan = (ReadableByteChannel) _chan;
+      if (_zin != null) return _zin.read(chan, _bb);
+      if (_tcpIn && _size == 0) { // First byte of a message from another node: compressed?
+        ByteBuffer first = _bb.duplicate();
+        first.limit(first.position() + 1);
+        int res = chan.read(first);
+        if (res == 1 && _bb.get(_bb.position()) == TCPCompression.MARKER) {
+          _zin = new TCPCompression.Reader();
+          return _zin.read(chan, _bb);
+        }
+        if (res > 0) _bb.position(_bb.position() + res);
+        return res;
+      }
+      return chan.read(_bb);
+    }
 
     final byte[] array = _bb.array();
     final int position = _bb.position();
@@ -662,6 +688,16 @@ public final class AutoBuffer implements AutoCloseable {
     }
   }
 
+  // Count bytes read from another node in its PeerStats
+  private void countIn(int bytes) {
+    long wire = bytes;
+    if (_zin != null) {         // Compressed; count what came over the wire
+      wire = _zin._wire - _wireIn;
+      _wireIn = _zin._wire;
+    }
+    _h2o._peerStats.received(bytes, wire);
+  }
+
   /** Put as needed to keep from overflowing the ByteBuffer. */
   private ByteBuffer putSp( int sz ) {
     assert !_read;
@@ -685,16 +721,29 @@ public final class AutoBuffer implements AutoCloseable {
 
     _bb.flip(); // Prep for writing.
     try {
-      if( _chan == null )
+      if( _chan == null ) {
         tcpOpen(); // This is a big operation.  Open a TCP socket as-needed.
+        _sendNs = System.nanoTime();
+        if( TCPCompression.shouldCompress(_h2o, _bb.remaining()) ) {
+          _zout = new TCPCompression.Writer(_h2o);
+          _zout.start((WritableByteChannel) _chan);
+        }
+      }
       //for( int i=0; i < _bb.limit(); i++ ) if( _bb.get(i)==0 ) _zeros++;
+      int len = _bb.remaining(), wire = len;
       long ns = System.nanoTime();
-      while( _bb.hasRemaining() ) {
+      if( _zout != null ) wire = _zout.write((WritableByteChannel) _chan, _bb);
+      else while( _bb.hasRemaining() ) {
         ((WritableByteChannel) _chan).write(_bb);
         if( RANDOM_TCP_DROP != null && SocketChannelUtils.isSocketChannel(_chan) && RANDOM_TCP_DROP.nextInt(100) == 0 )
           throw new IOException("Random TCP Write Fail");
       }
-      _time_io_ns += (System.nanoTime()-ns);
+      ns = System.nanoTime()-ns;
+      _time_io_ns += ns;
+      if( _h2o != null ) {      // To another node
+        _sendWire += wire;
+        _h2o._peerStats.sent(len, wire);
+      }
     } catch( IOException e ) {  // Some kind of TCP fail?
       // Change to an unchecked exception (so we don't have to annotate every
       // frick'n put1/put2/put4/read/write call).  Retry & recovery happens at
@@ -1329,6 +1378,22 @@ public final class AutoBuffer implements AutoCloseable {
     }
     return this;
   }
+  /** Same as {@link #putA1(byte[])}, for the remaining bytes of the given buffer (they get consumed); the bytes
+   *  are copied straight from the buffer, which can be a direct one. */
+  public AutoBuffer putA1( ByteBuffer buf ) {
+    int length = buf.remaining();
+    putInt(length);
+    if (length > _bb.remaining()) expandByteBuffer(length);
+    while( buf.hasRemaining() ) {
+      int len = Math.min(buf.remaining(), _bb.remaining());
+      ByteBuffer part = buf.duplicate();
+      part.limit(part.position() + len);
+      _bb.put(part);
+      buf.position(buf.position() + len);
+      if( buf.hasRemaining() ) sendPartial();
+    }
+    return this;
+  }
   AutoBuffer putA2( short[] ary ) {
     //_arys++;
     if( ary == null ) return putInt(-1);
@@ -1602,7 +1667,7 @@ public final class AutoBuffer implements AutoCloseable {
   // Note: These are heck-a-lot more expensive than their Freezable equivalents.
 
   @SuppressWarnings("unused") public AutoBuffer putSer( Object obj ) {
-    if (obj == null) return putA1(null);
+    if (obj == null) return putA1((byte[])null);
     return putA1(javaSerializeWritePojo(obj));
   }
 
@@ -2,6 +2,7 @@ package water;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import water.fvec.Chunk;
 import water.util.Log;
@@ -23,6 +24,13 @@ class Cleaner extends Thread {
   static volatile long HEAP_USED_AT_LAST_GC;
   static volatile long KV_USED_AT_LAST_GC;
   static volatile long TIME_AT_LAST_GC=System.currentTimeMillis();
+  // Order in which Values are swapped out, see MemoryManager.setEvictionPolicy
+  static volatile EvictionPolicy POLICY = new CostAwareEvictionPolicy();
+  // Eviction time of the Value per the policy, no later than now
+  static long evictionTime( EvictionPolicy policy, Key k, Value val, long now ) {
+    return Math.min(now, policy.evictionTime(k, val, now));
+  }
+
   static final Cleaner THE_CLEANER = new Cleaner();
   static void kick_store_cleaner() {
     synchronized(THE_CLEANER) { THE_CLEANER.notifyAll(); }
@@ -76,6 +84,7 @@ class Cleaner extends Thread {
 
       // Get a recent histogram, computing one as needed
       Histo h = Histo.current(false);
+      EvictionPolicy policy = h._policy; // Order Values the same as the histogram did
       long now = System.currentTimeMillis();
       long dirty = _dirty; // When things first got dirtied
 
@@ -83,7 +92,8 @@ class Cleaner extends Thread {
       // the desired cache levels. Inverse: go back to sleep if the cache
       // is below desired levels & nothing has been dirty awhile.
       if( h._cached < DESIRED && // Cache is low and
-          (now-dirty < 5000) ) { // not dirty a long time
+          (now-dirty < 5000) &&  // not dirty a long time and
+          !MemoryManager.offHeapLow() ) { // room in the off-heap store
         // Block asleep, waking every 5 secs to check for stuff, or when poked
         block_store_cleaner();
         continue; // Awoke; loop back and re-check histogram.
@@ -113,6 +123,13 @@ class Cleaner extends Thread {
       long cleaned = 0;         // Disk i/o bytes
       long freed = 0;           // memory freed bytes
       long io_ns = 0;           // i/o ns writing
+      long compressed = 0;      // memory freed by compressing cold Chunks
+      boolean coldCompress = ColdCompressor.isEnabled();
+      long cold_age = ColdCompressor.coldSince(now);
+      // Swap out off-heap Chunks down to 3/4 of the off-heap budget
+      long offHeapMax = MemoryManager.offHeapMax();
+      boolean offHeapForce = MemoryManager.offHeapLow();
+      long offHeapFreed = 0;    // off-heap memory freed
 
       // For faster K/V store walking get the NBHM raw backing array,
       // and walk it directly.
@@ -127,13 +144,32 @@ class Cleaner extends Thread {
         Value val = (Value)ov;
         byte[] m = val.rawMem();
         Object p = val.rawPOJO();
-        if( m == null && p == null ) continue; // Nothing to throw out
+        byte[] cm = val.rawCompressedMem();
+        ByteBuffer ob = val.rawOffHeapMem();
+        if( m == null && p == null && cm == null && ob == null ) continue; // Nothing to throw out
         if( val.isLockable() ) continue; // we do not want to throw out Lockables.
-        boolean isChunk = p instanceof Chunk && !((Chunk)p).isVolatile();
+        // Only Chunks are ever compressed
+        boolean isChunk = (p instanceof Chunk && !((Chunk)p).isVolatile()) || (p == null && (cm != null || ob != null));
         // Ignore things younger than the required age.  In particular, do
         // not spill-to-disk all dirty things we find.
         long touched = val._lastAccessedTime;
-        if( touched > clean_to_age ) { // Too recently touched?
+        long evict_at = evictionTime(policy, (Key)ok, val, now);
+        // Block-compress cold Chunks, keeping only the compressed bytes.
+        // Chunks without a POJO are not compressed, they might be swapped-in
+        // file data or Chunks received from a remote node.
+        if( coldCompress && isChunk && p != null && val.canCompressCold() ) {
+          if( touched >= cold_age ) // Not cold yet, wake up again when it is
+            dirty_store(touched + (now - cold_age) - 5000);
+          else if( val.compressCold() ) {
+            cm = val.rawCompressedMem();
+            ob = val.rawOffHeapMem();
+            compressed += val._max - (cm != null ? cm.length : 0); // Off-heap bytes do not count
+            m = null;  p = null;
+          }
+        }
+        // Off-heap Chunks are cold already, swap them out regardless of age
+        boolean offHeapSwap = offHeapForce && ob != null;
+        if( evict_at > clean_to_age && !offHeapSwap ) { // Too recently touched (or too valuable)?
           // But can toss out a byte-array if already deserialized & on disk
           // (no need for both forms).  Note no savings for Chunks, for which m==p._mem
           if( val.isPersisted() && m != null && p != null && !isChunk ) {
@@ -166,13 +202,23 @@ class Cleaner extends Thread {
           }
           if( m == null ) m = val.rawMem();
           if( m != null ) cleaned += m.length; // Accumulate i/o bytes
+          else if( cm != null ) cleaned += cm.length;
+          else if( ob != null ) cleaned += ob.capacity();
           io_ns += System.nanoTime() - now_ns; // Accumulate i/o time
         }
         // And, under pressure, free all
         if( isChunk && force && (val.isPersisted() || !((Key)ok).home()) ) {
-          val.freeMem ();  if( m != null ) freed += val._max;  m = null;
-          val.freePOJO();  if( p != null ) freed += val._max;  p = null;
-          if( isChunk ) freed -= val._max; // Double-counted freed mem for Chunks since val._pojo._mem & val._mem are the same.
+          // Count the uncompressed bytes once, val._pojo._mem & val._mem are the same for Chunks
+          if( m != null || p != null ) freed += val._max;
+          val.freeMem ();  m = null;
+          val.freePOJO();  p = null;
+          if( cm != null ) { val.freeCompressedMem(); freed += cm.length; cm = null; }
+        }
+        // And, under off-heap pressure, free the off-heap copy
+        if( offHeapSwap && (val.isPersisted() || !((Key)ok).home()) ) {
+          val.freeCompressedMem();
+          offHeapFreed += ob.capacity();
+          ob = null;
         }
         // If we have both forms, toss the byte[] form - can be had by
         // serializing again.
@@ -184,10 +230,15 @@ class Cleaner extends Thread {
         // If a GC cycle happened and we can no longer alloc, start forcing
         // from RAM as we go
         force = (h._cached >= DESIRED || !MemoryManager.CAN_ALLOC); // Forced to clean
+        offHeapForce = MemoryManager.offHeapUsed() > offHeapMax - (offHeapMax>>2);
       }
 
       String s1 = "Cleaner pass took: "+PrettyPrint.msecs(System.currentTimeMillis()-now,true)+
-                  ", spilled "+PrettyPrint.bytes(cleaned)+" in "+PrettyPrint.usecs(io_ns>>10);
+                  ", spilled "+PrettyPrint.bytes(cleaned)+" in "+PrettyPrint.usecs(io_ns>>10)+
+                  ", compressed away "+PrettyPrint.bytes(compressed)+
+                  (offHeapMax > 0 ? ", freed off-heap "+PrettyPrint.bytes(offHeapFreed) : "");
+      Metrics.CLEANER_SWAPPED.add(cleaned);
+      Metrics.CLEANER_SWAP_TIME.add(io_ns);
       h = Histo.current(true); // Force a new histogram
       MemoryManager.set_goals("postclean",false);
       // No logging if under memory pressure: can deadlock the cleaner thread
@@ -216,7 +267,7 @@ class Cleaner extends Thread {
       final Histo h = H; // Grab current best histogram
       if( !force && System.currentTimeMillis() < h._when+2000 )
         return h; // It is recent; use it
-      if( h != null && h._clean && _dirty==Long.MAX_VALUE )
+      if( h != null && h._clean && _dirty==Long.MAX_VALUE && h._policy==POLICY )
         return h; // No change to the K/V store, so no point
       // Use last oldest value for computing the next histogram in-place
       return (H = new Histo(h==null ? 0 : h._oldest)); // Record current best histogram & return it
@@ -235,6 +286,10 @@ class Cleaner extends Thread {
     long _total;  // Total data in local K/V
     long _when;   // When was this histogram computed
     long _swapped;// On-disk stuff
+    EvictionPolicy _policy; // Ordering the Values in the histogram
+    // Access counts are halved every DECAY_MSECS
+    static final long DECAY_MSECS = 30000;
+    static private long LAST_DECAY = System.currentTimeMillis();
     Value _vold;  // For assertions: record the oldest Value
     boolean _clean; // Was "clean" K/V when built?
 
@@ -244,6 +299,9 @@ class Cleaner extends Thread {
       _when = System.currentTimeMillis();
       _eldest = eldest; // Eldest seen in some prior pass
       _hStep = Math.max(1,(_when-eldest)/_hs.length);
+      EvictionPolicy policy = _policy = POLICY;
+      boolean decay = _when - LAST_DECAY >= DECAY_MSECS;
+      if( decay ) LAST_DECAY = _when;
       boolean clean = _dirty==Long.MAX_VALUE;
       // Compute the hard way
       Object[] kvs = H2O.STORE.raw_array();
@@ -265,18 +323,22 @@ class Cleaner extends Thread {
         int len = 0;
         byte[] m = val.rawMem();
         Object p = val.rawPOJO();
+        byte[] cm = val.rawCompressedMem();
         if( m != null ) len += val._max;
         if( p != null ) len += val._max;
         if( m != null && p instanceof Chunk ) len -= val._max; // Do not double-count Chunks
+        if( cm != null && m == null && p == null ) len += cm.length; // Cold compressed Chunk
         if( len == 0 ) continue;
         cached += len; // Accumulate total amount of cached keys
 
-        if( val._lastAccessedTime < oldest ) { // Found an older Value?
+        long evict_at = evictionTime(policy, (Key)ok, val, _when);
+        if( decay ) val.decayAccessCount(); // Age the access frequency
+        if( evict_at < oldest ) { // Found an older Value?
           vold = val; // Record oldest Value seen
-          oldest = val._lastAccessedTime;
+          oldest = evict_at;
         }
         // Compute histogram bucket
-        int idx = (int)((val._lastAccessedTime - eldest)/_hStep);
+        int idx = (int)((evict_at - eldest)/_hStep);
         if( idx < 0 ) idx = 0;
         else if( idx >= _hs.length ) idx = _hs.length-1;
         _hs[idx] += len;      // Bump histogram bucket
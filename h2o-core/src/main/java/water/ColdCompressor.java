@@ -0,0 +1,59 @@
+package water;
+
+import com.github.luben.zstd.Zstd;
+import water.util.Log;
+
+/**
+ * Block compression of the serialized bytes of cold Values.
+ *
+ * Chunks which were not accessed for {@code -cold_compress_secs} seconds are compressed by the {@link Cleaner},
+ * the compressed bytes are kept in memory instead of both the serialized and the POJO form and are also what
+ * gets swapped to disk and shipped over the wire. The Value is decompressed on first access.
+ *
+ * Uses the fastest Zstandard level, the codec is only used if the native library can be loaded.
+ */
+final class ColdCompressor {
+  private static final int LEVEL = 1;
+  // Compression must save at least 1/4 of the memory, otherwise the Value is left alone
+  private static final int MIN_SAVING_SHIFT = 2;
+  // Values smaller than this are not worth compressing
+  static final int MIN_SIZE = 1 << 10;
+
+  private static final boolean AVAILABLE = checkAvailable();
+
+  private ColdCompressor() {}
+
+  private static boolean checkAvailable() {
+    try {
+      byte[] probe = new byte[64];
+      return Zstd.decompress(Zstd.compress(probe, LEVEL), probe.length).length == probe.length;
+    } catch (Throwable t) { // typically UnsatisfiedLinkError
+      Log.warn("Cold chunk compression is not available: " + t);
+      return false;
+    }
+  }
+
+  /** Is cold compression turned on? */
+  static boolean isEnabled() { return H2O.ARGS.cold_compress_secs > 0 && AVAILABLE; }
+
+  /** Values not accessed since this time are considered cold. */
+  static long coldSince(long now) { return now - H2O.ARGS.cold_compress_secs * 1000L; }
+
+  /**
+   * Compresses the given bytes.
+   * @return compressed bytes or null if the compression doesn't save enough memory
+   */
+  static byte[] compress(byte[] mem) {
+    if( mem.length < MIN_SIZE ) return null;
+    byte[] cmem = Zstd.compress(mem, LEVEL);
+    return cmem.length <= mem.length - (mem.length >> MIN_SAVING_SHIFT) ? cmem : null;
+  }
+
+  static byte[] decompress(byte[] cmem, int len) {
+    byte[] mem = Zstd.decompress(cmem, len);
+    if( mem.length != len )
+      throw new IllegalStateException("Corrupted compressed value: expected " + len + " bytes, got " + mem.length);
+    return mem;
+  }
+
+}
@@ -0,0 +1,39 @@
+package water;
+
+/**
+ * Default {@link EvictionPolicy}: LRU, adjusted for how often a Value is used,
+ * what it costs to swap out and back in, and the {@link EvictionHints}.
+ *
+ * <ul>
+ * <li>Frequency: every doubling of the (decaying) access count delays the
+ * eviction by {@link #HIT_MSECS}; a Value scanned by every iteration of a model
+ * builder outlives one touched once by a large ad-hoc query.</li>
+ * <li>Size: every doubling of the size beyond 1MB brings the eviction forward
+ * by {@link #SIZE_MSECS}; a big Value frees more memory for a single reload.</li>
+ * <li>Cost: a home Value not on disk yet has to be written out first, and is
+ * kept {@link #DIRTY_MSECS} longer than one which can simply be dropped.</li>
+ * <li>Hints: Vecs protected by a running Job are kept {@link #PROTECT_MSECS}
+ * longer, temporaries go {@link #EVICT_FIRST_MSECS} earlier.</li>
+ * </ul>
+ */
+public class CostAwareEvictionPolicy implements EvictionPolicy {
+  public static final long HIT_MSECS = 2000;
+  public static final long SIZE_MSECS = 1000;
+  public static final long DIRTY_MSECS = 1000;
+  public static final long PROTECT_MSECS = 10 * 60 * 1000;
+  public static final long EVICT_FIRST_MSECS = 60 * 1000;
+
+  @Override public long evictionTime(Key k, Value val, long now) {
+    long t = val.lastAccessedTime();
+    t += HIT_MSECS * log2(1 + val.accessCount());
+    t -= SIZE_MSECS * log2(val._max >> 20);
+    if( !val.isPersisted() && k.home() ) t += DIRTY_MSECS;
+    int hint = EvictionHints.hint(k);
+    if( hint == EvictionHints.PROTECT ) t += PROTECT_MSECS;
+    else if( hint == EvictionHints.EVICT_FIRST ) t -= EVICT_FIRST_MSECS;
+    return t;
+  }
+
+  // floor(log2(x)), 0 for x <= 1
+  private static int log2(long x) { return x <= 1 ? 0 : 63 - Long.numberOfLeadingZeros(x); }
+}
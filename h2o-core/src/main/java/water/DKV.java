@@ -1,5 +1,7 @@
 package water;
 
+import java.util.*;
+
 /** A Distributed Key/Value Store.
  *  <p>
  *  Functions to Get and Put Values into the K/V store by Key.
@@ -186,14 +188,94 @@ public abstract class DKV {
    *  Non-blocking. */
   static public void prefetch( String key_name ) {        get(Key.make(key_name),false); }
 
+  /** Return the {@link Value}s mapped to the given keys, null where there is
+   *  no mapping.  Values missing in the local cache are fetched with a single
+   *  batched request per home node instead of one request per key.  Blocks
+   *  till data available, always caches.
+   *  @return The {@link Value}s in the order of the keys */
+  static public Value[] getAll( Key... keys ) {
+    Value[] vals = new Value[keys.length];
+    int[] idxs = new int[keys.length];
+    for( int i = 0; i < idxs.length; i++ ) idxs[i] = i;
+    // Home nodes answer with a bounded amount of data, ask again for the rest
+    while( idxs.length > 0 ) {
+      int[] rest = new int[idxs.length];
+      int nrest = 0;
+      for( RPC<TaskGetKeys> rpc : startAll(keys, idxs, vals) ) {
+        TaskGetKeys tgks = rpc.get();
+        for( int i = 0; i < tgks._idxs.length; i++ )
+          if( i < tgks._n ) vals[tgks._idxs[i]] = tgks._vals[i];
+          else rest[nrest++] = tgks._idxs[i];
+      }
+      idxs = Arrays.copyOf(rest, nrest);
+    }
+    return vals;
+  }
+
+  /** Prefetch and cache the Values for all the given keys, with a single
+   *  batched request per home node.  Non-blocking, the pending requests are
+   *  added to the given {@link Futures}.
+   *  @return the given Futures */
+  static public Futures prefetchAll( Key[] keys, Futures fs ) {
+    int[] idxs = new int[keys.length];
+    for( int i = 0; i < idxs.length; i++ ) idxs[i] = i;
+    for( RPC<TaskGetKeys> rpc : startAll(keys, idxs, null) )
+      fs.add(rpc);
+    return fs;
+  }
+
+  // Resolve the given keys locally like get() does, fill in vals (if any),
+  // and start a TaskGetKeys for each home node of the remaining keys.
+  static private List<RPC<TaskGetKeys>> startAll( Key[] keys, int[] idxs, Value[] vals ) {
+    H2O cloud = H2O.CLOUD;
+    Map<H2ONode,List<Integer>> remote = new HashMap<>();
+    for( int idx : idxs ) {
+      Key key = keys[idx];
+      Value val = Value.STORE_get(key);
+      if( val == null || !isLoaded(val) ) {
+        H2ONode home = cloud._memary[key.home(cloud)];
+        val = null;
+        if( home != H2O.SELF ) {
+          TaskPutKey tpk = home.pendingPutKey(key);
+          if( tpk == null ) {
+            Metrics.DKV_GETS_REMOTE.inc();
+            List<Integer> ids = remote.get(home);
+            if( ids == null ) remote.put(home, ids = new ArrayList<>());
+            ids.add(idx);
+            continue;
+          }
+          Metrics.DKV_GETS_PENDING.inc();
+          val = tpk._xval == null || tpk._xval.isNull() ? null : tpk._xval;
+        } else Metrics.DKV_GETS_MISSING.inc();
+      } else Metrics.DKV_GETS_LOCAL.inc();
+      if( vals != null ) vals[idx] = val;
+    }
+    List<RPC<TaskGetKeys>> rpcs = new ArrayList<>(remote.size());
+    for( Map.Entry<H2ONode,List<Integer>> e : remote.entrySet() ) {
+      List<Integer> ids = e.getValue();
+      Key[] ks = new Key[ids.size()];
+      int[] is = new int[ids.size()];
+      for( int i = 0; i < is.length; i++ ) ks[i] = keys[is[i] = ids.get(i)];
+      rpcs.add(TaskGetKeys.start(e.getKey(), ks, is));
+    }
+    return rpcs;
+  }
+
+  // Is the data of a locally cached Value available without a remote fetch?
+  static private boolean isLoaded( Value val ) {
+    return val.rawMem() != null || val.rawPOJO() != null || val.isCompressed() || val.isPersisted();
+  }
+
   static private Value get( Key key, boolean blocking ) {
     // Read the Cloud once per put-attempt, to keep a consistent snapshot.
     H2O cloud = H2O.CLOUD;
     Value val = Value.STORE_get(key);
     // Hit in local cache?
     if( val != null ) {
-      if( val.rawMem() != null || val.rawPOJO() != null || val.isPersisted() )
+      if( isLoaded(val) ) {
+        Metrics.DKV_GETS_LOCAL.inc();
         return val;
+      }
       assert !key.home(); // Master must have *something*; we got nothing & need to fetch
     }
 
@@ -205,7 +287,7 @@ public abstract class DKV {
 
     // If we missed in the cache AND we are the home node, then there is
     // no V for this K (or we have a disk failure).
-    if( home == H2O.SELF ) return null;
+    if( home == H2O.SELF ) { Metrics.DKV_GETS_MISSING.inc(); return null; }
 
     // Pending write to same key from this node?  Take that write instead.
     // Moral equivalent of "peeking into the cpu store buffer".  Can happen,
@@ -213,9 +295,10 @@ public abstract class DKV {
     // send to the remote, so the local get has missed above, but a remote
     // get still might 'win' because the remote 'remove' is still in-progress.
     TaskPutKey tpk = home.pendingPutKey(key);
-    if( tpk != null ) return tpk._xval == null || tpk._xval.isNull() ? null : tpk._xval;
+    if( tpk != null ) { Metrics.DKV_GETS_PENDING.inc(); return tpk._xval == null || tpk._xval.isNull() ? null : tpk._xval; }
 
     // Get data "the hard way"
+    Metrics.DKV_GETS_REMOTE.inc();
     RPC<TaskGetKey> tgk = TaskGetKey.start(home,key);
     return blocking ? TaskGetKey.get(tgk) : null;
   }
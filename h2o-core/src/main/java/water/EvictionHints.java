@@ -0,0 +1,161 @@
+package water;
+
+import jsr166y.CountedCompleter;
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.nbhm.NonBlockingHashMap;
+import water.util.Log;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-Vec hints to the {@link EvictionPolicy}, set on all the nodes of the
+ * cloud: the Chunks of a {@link #PROTECT}ed Vec are swapped out last, the ones
+ * of an {@link #EVICT_FIRST} Vec first.  A Vec both protected and marked as
+ * temporary is protected.
+ *
+ * Hints are counted: every {@link #protect} or {@link #evictFirst} needs a
+ * matching {@link #release}.  They take effect on this node right away, and on
+ * the other nodes asynchronously, in batches.  Usually set through {@link Job#protect} (for the
+ * lifetime of a Job) or {@link Scope#evictFirst} (for the lifetime of a Scope).
+ */
+public final class EvictionHints {
+  public static final int EVICT_FIRST = -1;
+  public static final int NONE = 0;
+  public static final int PROTECT = 1;
+
+  // Vec key -> {#protect, #evictFirst}; updated under the class lock
+  private static final NonBlockingHashMap<Key,int[]> HINTS = new NonBlockingHashMap<>();
+
+  private EvictionHints() {}
+
+  /** Protect the Vecs of the given Frames from eviction, on all nodes */
+  public static Key<Vec>[] protect(Frame... frames) { return set(vecKeys(frames), PROTECT, 1); }
+  /** Evict the Vecs of the given Frames first, on all nodes */
+  public static Key<Vec>[] evictFirst(Frame... frames) { return set(vecKeys(frames), EVICT_FIRST, 1); }
+  /** Evict the given Vecs first, on all nodes */
+  public static Key<Vec>[] evictFirst(Key<Vec>[] vecs) { return set(vecs, EVICT_FIRST, 1); }
+  /** Drop one count of the given hint from the given Vecs, on all nodes */
+  public static void release(Key<Vec>[] vecs, int hint) { set(vecs, hint, -1); }
+
+  /** @return the hint for the given Key; Chunk keys have the hint of their Vec */
+  public static int hint(Key k) {
+    if( HINTS.isEmpty() || !k.isChunkKey() ) return NONE;
+    int[] cnts = HINTS.get(k.getVecKey());
+    if( cnts == null ) return NONE;
+    return cnts[0] > 0 ? PROTECT : (cnts[1] > 0 ? EVICT_FIRST : NONE);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Key<Vec>[] vecKeys(Frame[] frames) {
+    int n = 0;
+    for( Frame fr : frames ) if( fr != null ) n += fr.numCols();
+    Key<Vec>[] keys = new Key[n];
+    n = 0;
+    for( Frame fr : frames )
+      if( fr != null )
+        for( Key<Vec> k : fr.keys() ) keys[n++] = k;
+    return keys;
+  }
+
+  // Applied here right away; batched up for the other nodes, see send()
+  private static Key<Vec>[] set(Key<Vec>[] vecs, int hint, int delta) {
+    if( vecs != null && vecs.length > 0 ) {
+      setLocal(vecs, hint, delta);
+      if( H2O.CLOUD.size() > 1 ) {
+        queue(vecs, hint, delta);
+        send();
+      }
+    }
+    return vecs;
+  }
+
+  // Updates not sent to the other nodes yet: Vec key -> net {#protect, #evictFirst}
+  // deltas.  At most one batch is in flight, so the batches of a node arrive
+  // in order; a release in the same batch as its set cancels it out.
+  private static HashMap<Key,int[]> PENDING = new HashMap<>();
+  private static boolean SENDING;
+
+  static synchronized void queue(Key[] vecs, int hint, int delta) {
+    int idx = hint == PROTECT ? 0 : 1;
+    for( Key k : vecs ) {
+      if( k == null ) continue;
+      int[] d = PENDING.get(k);
+      if( d == null ) PENDING.put(k, d = new int[2]);
+      d[idx] += delta;
+      if( d[0] == 0 && d[1] == 0 ) PENDING.remove(k);
+    }
+  }
+
+  static synchronized int pending() { return PENDING.size(); }
+
+  // Start the next batch, unless one is in flight: its completion sends the
+  // updates queued meanwhile.  Never blocks, the hints are set by callbacks
+  // of Jobs and Scopes.
+  private static void send() {
+    SetHints batch;
+    synchronized( EvictionHints.class ) {
+      if( SENDING || PENDING.isEmpty() ) return;
+      SENDING = true;
+      batch = new SetHints(PENDING);
+      PENDING = new HashMap<>();
+    }
+    batch.asyncExecOnAllNodes();
+  }
+
+  private static void sent() {
+    synchronized( EvictionHints.class ) { SENDING = false; }
+    send();
+  }
+
+  private static class SetHints extends MRTask<SetHints> {
+    private final Key[] _vecs;
+    private final int[] _protects, _evictFirsts;
+    private final int _origin;
+    SetHints(Map<Key,int[]> deltas) {
+      super(new H2O.H2OCountedCompleter() {
+        @Override public void compute2() { throw H2O.fail(); }
+        @Override public void onCompletion(CountedCompleter caller) { sent(); }
+        @Override public boolean onExceptionalCompletion(Throwable ex, CountedCompleter caller) {
+          Log.warn("Failed to set eviction hints on the cloud: " + ex); // Only hints
+          sent();
+          return true;
+        }
+      });
+      _vecs = deltas.keySet().toArray(new Key[0]);
+      _protects = new int[_vecs.length];
+      _evictFirsts = new int[_vecs.length];
+      for( int i = 0; i < _vecs.length; i++ ) {
+        int[] d = deltas.get(_vecs[i]);
+        _protects[i] = d[0];
+        _evictFirsts[i] = d[1];
+      }
+      _origin = H2O.SELF.index();
+    }
+    @Override public void setupLocal() {
+      if( H2O.SELF.index() == _origin ) return; // Applied already
+      synchronized( EvictionHints.class ) {
+        for( int i = 0; i < _vecs.length; i++ )
+          add(_vecs[i], _protects[i], _evictFirsts[i]);
+      }
+    }
+  }
+
+  static synchronized void setLocal(Key[] vecs, int hint, int delta) {
+    for( Key k : vecs )
+      if( k != null )
+        add(k, hint == PROTECT ? delta : 0, hint == PROTECT ? 0 : delta);
+  }
+
+  // Under the class lock
+  private static void add(Key k, int protects, int evictFirsts) {
+    int[] cnts = HINTS.get(k);
+    if( cnts == null ) cnts = new int[2];
+    else cnts = cnts.clone();  // Readers are not locked, do not change in place
+    cnts[0] = Math.max(0, cnts[0] + protects);
+    cnts[1] = Math.max(0, cnts[1] + evictFirsts);
+    if( cnts[0] == 0 && cnts[1] == 0 ) HINTS.remove(k);
+    else HINTS.put(k, cnts);
+  }
+}
@@ -0,0 +1,28 @@
+package water;
+
+/**
+ * Decides the order in which the {@link Cleaner} swaps Values out of memory.
+ *
+ * The Cleaner orders Values by an <em>eviction time</em>: Values with the
+ * earliest ones are swapped out first, and the Cleaner keeps going until the
+ * cached data is below the desired level.  Plain LRU uses the time of the last
+ * access; policies can move a Value earlier (cheap to reload, a temporary) or
+ * later (frequently used, on the working set of a running {@link Job}).
+ * Results later than {@code now} are treated as {@code now}, so under enough
+ * memory pressure everything can still go.
+ *
+ * Called by the Cleaner for every cached Value, on every pass: it must be cheap
+ * and must not block.  Install with {@link MemoryManager#setEvictionPolicy}.
+ */
+public interface EvictionPolicy {
+
+  /** @param k Key of the Value
+   *  @param val the cached Value
+   *  @param now current time, msec
+   *  @return the time (msec) to order the Value by; earliest is evicted first */
+  long evictionTime(Key k, Value val, long now);
+
+  /** Least recently used goes first */
+  EvictionPolicy LRU = (k, val, now) -> val.lastAccessedTime();
+
+}
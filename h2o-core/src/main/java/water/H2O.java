@@ -131,6 +131,29 @@ final public class H2O {
             "          The directory where H2O stores saved flows.\n" +
             defaultFlowDirMessage +
             "\n" +
+            "    -cold_compress_secs <seconds>\n" +
+            "          Block-compress data chunks in memory after they were not accessed\n" +
+            "          for the given number of seconds (0 disables, the default).\n" +
+            "\n" +
+            "    -off_heap_mb <megabytes>\n" +
+            "          Keep block-compressed cold data chunks (see -cold_compress_secs)\n" +
+            "          in up to the given amount of off-heap memory, instead of the Java\n" +
+            "          heap (0 disables, the default). Chunks in use are decompressed back\n" +
+            "          onto the heap.\n" +
+            "\n" +
+            "    -tcp_compress\n" +
+            "          Compress large messages sent over TCP to other nodes, while it\n" +
+            "          pays off (i.e. not on links faster than the compression).\n" +
+            "\n" +
+            "    -profile_jobs <percent>\n" +
+            "          Profile the MRTasks of the given percentage of the Jobs, per\n" +
+            "          node and phase (see /3/Jobs/{job_id}/profile); 0 disables, the\n" +
+            "          default, 100 profiles every Job.\n" +
+            "\n" +
+            "    -ice_mmap\n" +
+            "          Swap data to a single memory-mapped file in the ice_root\n" +
+            "          directory, instead of a file per data chunk.\n" +
+            "\n" +
             "    -nthreads <#threads>\n" +
             "          Maximum number of threads in the low priority batch-work queue.\n" +
             "          (The default is " + (char)H2ORuntime.availableProcessors() + ".)\n" +
@@ -374,6 +397,21 @@ final public class H2O {
     /** -cleaner; enable user-mode spilling of big data to disk in ice_root */
     public boolean cleaner = false;
 
+    /** -cold_compress_secs=secs; block-compress Chunks in memory after they were not accessed for secs seconds, 0 to disable */
+    public int cold_compress_secs = 0;
+
+    /** -off_heap_mb=megabytes; keep cold compressed Chunks in up to this much off-heap memory, 0 to disable */
+    public int off_heap_mb = 0;
+
+    /** -tcp_compress; compress large TCP messages to other nodes, when it pays off */
+    public boolean tcp_compress = false;
+
+    /** -profile_jobs=percent; profile the MRTask phases of this percentage of the Jobs, see {@link JobProfiler} */
+    public int profile_jobs = 0;
+
+    /** -ice_mmap; swap Values to a memory-mapped slab file in the ice_root, instead of a file per Value */
+    public boolean ice_mmap = false;
+
     /** -nthreads=nthreads; Max number of F/J threads in the low-priority batch queue */
     public short nthreads= (short)H2ORuntime.availableProcessors();
 
@@ -742,6 +780,27 @@ final public class H2O {
       else if(s.matches("cleaner")) {
         trgt.cleaner = true;
       }
+      else if (s.matches("cold_compress_secs")) {
+        i = s.incrementAndCheck(i, args);
+        trgt.cold_compress_secs = s.parseInt(args[i]);
+        if (trgt.cold_compress_secs < 0) parseFailed("Argument cold_compress_secs must be a non-negative integer");
+      }
+      else if (s.matches("off_heap_mb")) {
+        i = s.incrementAndCheck(i, args);
+        trgt.off_heap_mb = s.parseInt(args[i]);
+        if (trgt.off_heap_mb < 0) parseFailed("Argument off_heap_mb must be a non-negative integer");
+      }
+      else if (s.matches("tcp_compress")) {
+        trgt.tcp_compress = true;
+      }
+      else if (s.matches("profile_jobs")) {
+        i = s.incrementAndCheck(i, args);
+        trgt.profile_jobs = s.parseInt(args[i]);
+        if (trgt.profile_jobs < 0 || trgt.profile_jobs > 100) parseFailed("Argument profile_jobs must be a percentage between 0 and 100");
+      }
+      else if (s.matches("ice_mmap")) {
+        trgt.ice_mmap = true;
+      }
       else if (s.matches("jks")) {
         i = s.incrementAndCheck(i, args);
         trgt.jks = args[i];
@@ -1686,7 +1745,12 @@ final public class H2O {
             t._priority = p;      // Set & do it now!
             t.setPriority(Thread.MAX_PRIORITY-1);
             set_t_prior = true;
-            h2o.compute2();       // Do it ahead of normal F/J work
+            final Object prof = JobProfiler.enter(h2o);
+            try {
+              h2o.compute2();     // Do it ahead of normal F/J work
+            } finally {
+              JobProfiler.exit(prof);
+            }
             p++;                  // Check again the same queue
           }
         }
@@ -1699,9 +1763,14 @@ final public class H2O {
         t._priority = pp;
         if( pp == MIN_PRIORITY && set_t_prior ) t.setPriority(Thread.NORM_PRIORITY-1);
       }
-      // Now run the task as planned
-      if( this instanceof DTask ) icer().compute1(this);
-      else compute2();
+      // Now run the task as planned, on behalf of its profiled Job if any
+      final Object prof = JobProfiler.enter(this);
+      try {
+        if( this instanceof DTask ) icer().compute1(this);
+        else compute2();
+      } finally {
+        JobProfiler.exit(prof);
+      }
     }
 
     public void compute1() { compute2(); }
@@ -2194,6 +2263,7 @@ final public class H2O {
     // If the K/V mapping is changing, let the store cleaner just overwrite.
     // If the K/V mapping is new, let the store cleaner just create
     if( old != null && val == null ) old.removePersist(); // Remove the old guy
+    if( old != null && old != val ) old.releaseOffHeap(); // Replaced; stop counting its off-heap bytes
     if( val != null ) {
       Cleaner.dirty_store(); // Start storing the new guy
       if( old==null ) Scope.track_internal(key); // New Key - start tracking
@@ -2204,7 +2274,7 @@ final public class H2O {
   // Get the value from the store
   public static void raw_remove(Key key) {
     Value v = STORE.remove(key);
-    if( v != null ) v.removePersist();
+    if( v != null ) { v.removePersist(); v.releaseOffHeap(); }
   }
   public static void raw_clear() { STORE.clear(); }
   
@@ -35,6 +35,7 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
   transient public long _last_heard_from; // Time in msec since we last heard from this Node
   transient public volatile HeartBeat _heartbeat;  // My health info.  Changes 1/sec.
   transient public int _tcp_readers;               // Count of started TCP reader threads
+  transient public final PeerStats _peerStats = new PeerStats(); // Traffic to and from this Node
     
   transient private short _timestamp;
   transient private boolean _removed_from_cloud;
@@ -603,6 +604,7 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
     void sendBuffer(){
       int retries = 0;
       _bb.flip();                 // limit set to old position; position set to 0
+      _peerStats.sent(_bb.limit(), _bb.limit());
       while (keepSending() && _bb.hasRemaining()) {
         try {
           ByteChannel chan = _chan == null ? (_chan=openChan()) : _chan;
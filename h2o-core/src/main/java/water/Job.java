@@ -3,6 +3,8 @@ package water;
 import jsr166y.CountedCompleter;
 import water.H2O.H2OCountedCompleter;
 import water.api.schemas3.KeyV3;
+import water.fvec.Frame;
+import water.fvec.Vec;
 import water.util.ArrayUtils;
 import water.util.Log;
 
@@ -330,6 +332,9 @@ public final class Job<T extends Keyed> extends Keyed<Job> {
     // lest the finder be confused about the job state, so 2 after 1
     // 1 - set state to running
 
+    if( !_profiled ) _profiled = JobProfiler.sample();
+    if( _profiled ) JobProfiler.jobStarted();
+
     // 1 - Change state from created to running
     _start_time = System.currentTimeMillis();
     assert !created() && running() && !stopped();
@@ -355,6 +360,52 @@ public final class Job<T extends Keyed> extends Keyed<Job> {
   }
   transient private Barrier2 _barrier; // Top-level task to block on
 
+  /** Keep the Vecs of the given Frames in memory in preference to other data
+   *  while this Job runs (see {@link EvictionHints}), e.g. the training frame of
+   *  a model builder.  Released when the Job stops.  Call before {@link #start}.
+   *  @return this Job */
+  public Job<T> protect(Frame... frames) {
+    assert created() : "Protect the working set before starting the Job";
+    Key<Vec>[] vecs = EvictionHints.protect(frames);
+    _protected = _protected == null ? vecs : ArrayUtils.append(_protected, vecs);
+    return this;
+  }
+  transient private Key<Vec>[] _protected; // Protected by this Job, see protect()
+
+  /** Release the Vecs of {@link #protect}, for a Job which failed to start;
+   *  a started Job releases them when it stops. */
+  public void unprotect() {
+    releaseProtected();
+  }
+
+  private void releaseProtected() {
+    Key<Vec>[] vecs = _protected;
+    if( vecs == null ) return;
+    _protected = null;
+    try {
+      EvictionHints.release(vecs, EvictionHints.PROTECT);
+    } catch (Throwable t) {     // Only a hint; do not fail the Job over it
+      Log.warn("Failed to release the Vecs protected by job " + _key + ": " + t);
+    }
+  }
+
+  /** Profile the MRTasks of this Job (see {@link JobProfiler}), regardless of
+   *  -profile_jobs.  Call before {@link #start}.
+   *  @return this Job */
+  public Job<T> profile() {
+    assert created() : "Profile the Job before starting it";
+    _profiled = true;
+    return this;
+  }
+  private boolean _profiled;
+  public boolean isProfiled() { return _profiled; }
+
+  /** @return the Job of the given barrier task, the completer of a Job's
+   *  top-level task; null if the task is something else */
+  static Job ofBarrier(CountedCompleter cc) {
+    return cc instanceof Job.Barrier1 ? ((Job.Barrier1) cc).job() : null;
+  }
+
   // Handy for assertion
   private static class AssertNoKey extends MRTask<AssertNoKey> {
     private final Key<Job> _key;
@@ -380,12 +431,17 @@ public final class Job<T extends Keyed> extends Keyed<Job> {
   // onExceptionCompletion code.
   private class Barrier1 extends CountedCompleter {
     Barrier1(CountedCompleter cc) { super(cc,0); }
+    Job job() { return Job.this; }
     @Override public void compute() { }
     @Override public void onCompletion(CountedCompleter caller) {
+      releaseProtected();
+      if( _profiled ) JobProfiler.jobStopped();
       new Barrier1OnCom().apply(Job.this);
       _barrier = null;          // Free for GC
     }
     @Override public boolean onExceptionalCompletion(Throwable ex, CountedCompleter caller) {
+      releaseProtected();
+      if( _profiled ) JobProfiler.jobStopped();
       if(Job.isCancelledException(ex)) {
         new Barrier1OnCom().apply(Job.this);
       } else {
@@ -0,0 +1,205 @@
+package water;
+
+import jsr166y.CountedCompleter;
+import water.H2O.H2OCountedCompleter;
+import water.nbhm.NonBlockingHashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Attributes the time of {@link MRTask}s to the phases of their execution -
+ * setupLocal, map, local reduce, waiting on the remote nodes, closeLocal,
+ * postGlobal - per node and per MRTask class, for profiled {@link Job}s.
+ *
+ * A Job is profiled if asked for ({@link Job#profile}) or sampled at start
+ * (see -profile_jobs).  MRTasks launched by its driver, or nested in other
+ * profiled MRTasks, carry the Job key to all the nodes they run on, and each
+ * node accumulates the phase times locally.  {@link #collect} gathers them
+ * from the whole cloud, see {@code GET /3/Jobs/{job_id}/profile}.
+ *
+ * Unlike the stack samples of {@link water.util.JProfile}, this shows where
+ * the distributed time goes, e.g. a slow node or a big remote reduce.
+ */
+public final class JobProfiler {
+
+  /** Phases of an MRTask; times are in nanoseconds, except {@link #SENT} and {@link #RECEIVED} */
+  public enum Phase {
+    SETUP_LOCAL, MAP, REDUCE, CLOSE_LOCAL, REMOTE_WAIT, BLOCK_PENDING, POST_GLOBAL,
+    /** Serialized bytes of the remote tasks sent to other nodes */ SENT,
+    /** Serialized bytes of the results received from other nodes */ RECEIVED;
+    public boolean isBytes() { return this == SENT || this == RECEIVED; }
+  }
+  private static final Phase[] PHASES = Phase.values();
+
+  // Keep the profiles of this many Jobs per node, dropping the oldest
+  static final int MAX_JOBS = 64;
+
+  // Job key -> task class -> phases, on this node
+  private static final NonBlockingHashMap<Key,JobEntry> PROFILES = new NonBlockingHashMap<>();
+  // Profiled Jobs running their driver on this node
+  private static final AtomicInteger ACTIVE = new AtomicInteger();
+  // Profiled Job of the task running in this thread
+  private static final ThreadLocal<Key<Job>> CURRENT = new ThreadLocal<>();
+  private static final Object UNCHANGED = new Object();
+
+  private JobProfiler() {}
+
+  private static final class JobEntry {
+    final long _created = System.nanoTime();
+    final NonBlockingHashMap<String,TaskEntry> _tasks = new NonBlockingHashMap<>();
+  }
+
+  private static final class TaskEntry {
+    final LongAdder _launched = new LongAdder(); // Top-level launches from this node
+    final LongAdder _maps = new LongAdder();     // map calls on this node
+    final LongAdder[] _phases = new LongAdder[PHASES.length];
+    TaskEntry() { for( int i = 0; i < _phases.length; i++ ) _phases[i] = new LongAdder(); }
+  }
+
+  /** Should a starting Job be profiled, per -profile_jobs? */
+  static boolean sample() {
+    int pct = H2O.ARGS.profile_jobs;
+    return pct > 0 && (pct >= 100 || ThreadLocalRandom.current().nextInt(100) < pct);
+  }
+
+  static void jobStarted() { ACTIVE.incrementAndGet(); }
+  static void jobStopped() { ACTIVE.decrementAndGet(); }
+
+  /** @return the profiled Job of the task running in this thread, or null */
+  static Key<Job> current() { return CURRENT.get(); }
+
+  /** Attribute the work of the given task to its profiled Job, if any, until {@link #exit}.
+   *  @return the state to restore on exit */
+  static Object enter(H2OCountedCompleter task) {
+    Key<Job> job;
+    if( task instanceof MRTask ) job = ((MRTask) task)._profiledJob;
+    else if( ACTIVE.get() > 0 ) job = findJob(task);
+    else return UNCHANGED;      // Nothing profiled, leave the thread alone
+    if( job == null ) return UNCHANGED;
+    Key<Job> prev = CURRENT.get();
+    CURRENT.set(job);
+    return prev;
+  }
+
+  static void exit(Object prev) {
+    if( prev == UNCHANGED ) return;
+    if( prev == null ) CURRENT.remove();
+    else CURRENT.set((Key<Job>) prev);
+  }
+
+  // Driver task of a profiled Job, or some task completing into it
+  private static Key<Job> findJob(CountedCompleter task) {
+    for( CountedCompleter c = task; c != null; c = c.getCompleter() ) {
+      if( c instanceof MRTask ) return ((MRTask) c)._profiledJob;
+      Job job = Job.ofBarrier(c);
+      if( job != null ) return job.isProfiled() ? job._key : null;
+    }
+    return null;
+  }
+
+  private static TaskEntry entry(Key job, MRTask task) {
+    JobEntry je = PROFILES.get(job);
+    if( je == null ) {
+      JobEntry je2 = new JobEntry();
+      je = PROFILES.putIfAbsent(job, je2);
+      if( je == null ) { je = je2; trim(); }
+    }
+    String clz = task.getClass().getName();
+    TaskEntry te = je._tasks.get(clz);
+    if( te == null ) {
+      TaskEntry te2 = new TaskEntry();
+      te = je._tasks.putIfAbsent(clz, te2);
+      if( te == null ) te = te2;
+    }
+    return te;
+  }
+
+  // Drop the profiles of the oldest Jobs; nodes other than the driver never learn when a Job ends
+  private static void trim() {
+    while( PROFILES.size() > MAX_JOBS ) {
+      Key oldest = null;
+      long created = Long.MAX_VALUE;
+      for( Map.Entry<Key,JobEntry> e : PROFILES.entrySet() )
+        if( e.getValue()._created < created ) { created = e.getValue()._created; oldest = e.getKey(); }
+      if( oldest == null ) return;
+      PROFILES.remove(oldest);
+    }
+  }
+
+  static void record(MRTask task, Phase phase, long v) {
+    entry(task._profiledJob, task)._phases[phase.ordinal()].add(v);
+  }
+  static void recordMap(MRTask task, long ns) {
+    TaskEntry te = entry(task._profiledJob, task);
+    te._maps.increment();
+    te._phases[Phase.MAP.ordinal()].add(ns);
+  }
+  static void recordLaunch(MRTask task) { entry(task._profiledJob, task)._launched.increment(); }
+
+  /** Phase totals of one MRTask class on one node */
+  public static class TaskProfile extends Iced<TaskProfile> {
+    public String _node;
+    public String _task;
+    public long _launched;      // Launched from this node
+    public long _maps;          // map calls on this node
+    public long[] _phases;      // Indexed by Phase
+
+    public long get(Phase p) { return _phases[p.ordinal()]; }
+  }
+
+  /** @return the profile of the given Job on all the nodes, empty if the Job was not profiled */
+  public static TaskProfile[] collect(Key<Job> job) {
+    return new Collect(job).doAllNodes()._profiles;
+  }
+
+  private static class Collect extends MRTask<Collect> {
+    private final Key<Job> _job;
+    TaskProfile[] _profiles;
+    Collect(Key<Job> job) { super(H2O.GUI_PRIORITY); _job = job; }
+
+    @Override public void setupLocal() {
+      JobEntry je = PROFILES.get(_job);
+      List<TaskProfile> res = new ArrayList<>();
+      if( je != null ) {
+        for( Map.Entry<String,TaskEntry> e : je._tasks.entrySet() ) {
+          TaskProfile tp = new TaskProfile();
+          tp._node = H2O.SELF.toString();
+          tp._task = e.getKey();
+          tp._launched = e.getValue()._launched.sum();
+          tp._maps = e.getValue()._maps.sum();
+          tp._phases = new long[PHASES.length];
+          for( int i = 0; i < PHASES.length; i++ ) tp._phases[i] = e.getValue()._phases[i].sum();
+          res.add(tp);
+        }
+      }
+      _profiles = res.toArray(new TaskProfile[0]);
+    }
+
+    @Override public void reduce(Collect mrt) {
+      _profiles = water.util.ArrayUtils.append(_profiles, mrt._profiles);
+    }
+  }
+
+  /**
+   * The profile in the collapsed-stack format of flame graph tools: one line
+   * per MRTask class, node and phase, with the time in microseconds.  Byte
+   * counts are left out.
+   */
+  public static String folded(TaskProfile[] profiles) {
+    StringBuilder sb = new StringBuilder();
+    for( TaskProfile tp : profiles ) {
+      for( Phase p : PHASES ) {
+        long v = tp.get(p);
+        if( p.isBytes() || v / 1000 == 0 ) continue;
+        sb.append(tp._task).append(';').append(tp._node).append(';').append(p.name().toLowerCase())
+          .append(' ').append(v / 1000).append('\n');
+      }
+    }
+    return sb.toString();
+  }
+}
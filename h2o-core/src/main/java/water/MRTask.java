@@ -159,6 +159,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
 
   /** Internal field to track if this is a top-level call. */
   transient boolean _topGlobal = false;
+  transient private long _launched; // nanoTime of the launch, on the top global task
 
   /** Internal field to track the left &amp; right sub-range of chunks to work on */
   transient protected T _left, _rite; // In-progress execution tree
@@ -166,6 +167,14 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   /** Internal field upon which all reduces occur. */
   transient private T _res;           // Result
 
+  /** Work stealing: id of the task on all nodes, 0 if not stealing; the
+   *  subtree stealing chunks from other nodes, on the top local task; the
+   *  stolen chunks, which _lo and _hi index into. */
+  long _stealId;
+  transient boolean _stealWork, _stealer;
+  transient T _thief;
+  transient int[] _stolen;
+
   /** The range of Nodes to work on remotely */
   protected short _nlo, _nhi;
 
@@ -187,12 +196,27 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     return this;
   }
 
+  /** Let nodes which mapped all their chunks steal unstarted chunks from the
+   *  other nodes, fetching them remotely - for compute-heavy tasks over
+   *  skewed data, or on uneven machines.  Chunks only move while mapping them
+   *  takes much longer than moving them (see {@link WorkStealing}).  Only
+   *  for tasks over a Frame; map must not rely on its chunks being homed on
+   *  the node, nor on node-local state other than set by setupLocal.
+   *  @return this */
+  public T withWorkStealing() {
+    _stealWork = true;
+    return self();
+  }
+
   public String profString() { return _profile != null ? _profile.toString() : "Profiling turned off"; }
   MRProfile _profile;
 
   /** Used to invoke profiling.  Call as: <code>new MRTask().profile().doAll();*/
   public T profile() { _profile = new MRProfile(this); return (T)this; }
 
+  /** Profiled Job this task works for, if any; see {@link JobProfiler} */
+  Key<Job> _profiledJob;
+
   /** Get the resulting Frame from this invoked MRTask.  <b>This Frame is not
    *  in the DKV.</b> AppendableVec instances are closed into Vec instances,
    *  which then appear in the DKV.
@@ -558,7 +582,9 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   // Special mode doing 1 map per key.  No frame
   public void dfork(Key... keys ) {
     _topGlobal = true;
+    launched();
     _keys = keys;
+    _stealId = 0;
     _nlo = selfidx(); _nhi = (short)H2O.CLOUD.size(); // Do Whole Cloud
     setupLocal0();              // Local setup
     H2O.submitTask(this);       // Begin normal execution on a FJ thread
@@ -618,6 +644,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
    */
   public final T dfork(byte[] outputTypes, Frame fr, boolean runLocal) {
     _topGlobal = true;
+    launched();
     _output_types = outputTypes;
     if( outputTypes != null && outputTypes.length > 0 )
       _vid = fr.anyVec().group().reserveKeys(outputTypes.length);
@@ -625,11 +652,19 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     _nlo = selfidx(); _nhi = (short)H2O.CLOUD.size(); // Do Whole Cloud
     _run_local = runLocal;     // Run locally by copying data, or run globally?
     assert checkRunLocal() : "MRTask is expected to be running in a local-mode but _run_local = false";
+    _stealId = _stealWork && !runLocal && !H2O.ARGS.client && H2O.CLOUD.size() > 1 && fr.numCols() > 0 ? WorkStealing.newId() : 0;
     setupLocal0();              // Local setup
     H2O.submitTask(this);       // Begin normal execution on a FJ thread
     return self();
   }
 
+  private void launched() {
+    _launched = System.nanoTime();
+    Metrics.MRTASK_LAUNCHED.labels(getClass().getName()).inc();
+    _profiledJob = JobProfiler.current();
+    if( _profiledJob != null ) JobProfiler.recordLaunch(this);
+  }
+
   private boolean checkRunLocal() {
     if (!Boolean.getBoolean(H2O.OptArgs.SYSTEM_PROP_PREFIX + "debug.checkRunLocal"))
       return true;
@@ -731,7 +766,15 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     }
     // Setup any user's shared local structures for both normal cluster nodes
     // and any client; want this for possible reduction ONTO client
+    long ns = _profiledJob != null ? System.nanoTime() : 0;
     setupLocal();
+    if( _profiledJob != null ) JobProfiler.record(this, JobProfiler.Phase.SETUP_LOCAL, System.nanoTime() - ns);
+    if( _stealId != 0 ) {       // Steal chunks once the local ones are done
+      _thief = copyAndInit();
+      _thief._stealer = true;
+      addToPendingCount(1);
+      WorkStealing.register(_stealId, _fr.vecs(), _thief);
+    }
     if(_profile!=null) _profile._localdone = System.currentTimeMillis();
   }
 
@@ -763,6 +806,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
    *  internal by F/J.  Not expected to be user-called.  */
   @Override public final void compute2() {
     assert _left == null && _rite == null && _res == null;
+    if( _stealer ) { steal(); return; }
     if(_profile!=null) _profile._mapstart = System.currentTimeMillis();
     if( (_hi-_lo) >= 2 ) { // Multi-chunk case: just divide-and-conquer to 1 chunk
       final int mid = (_lo+_hi)>>>1; // Mid-point
@@ -782,20 +826,24 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
           _hi > _lo && _keys[_lo].home() ) {
         assert(_keys == null || !H2O.ARGS.client) : "Client node should not process any keys in MRTask!";
         if(_profile!=null) _profile._userstart = System.currentTimeMillis();
+        long ns = _profiledJob != null ? System.nanoTime() : 0;
         if( _keys != null ) map(_keys[_lo]);
         _res = self();        // Save results since called map() at least once!
         if (_postMap != null)
           _postMap.call(_keys[_lo]);
+        if( _profiledJob != null ) JobProfiler.recordMap(this, System.nanoTime() - ns);
         if(_profile!=null) _profile._closestart = System.currentTimeMillis();
       }
     } else if( _hi > _lo ) {    // Frame, Single chunk?
       Vec v0 = _fr.anyVec();
-      if( _run_local || v0.chunkKey(_lo).home() ) { // And chunk is homed here?
+      final int cidx = _stolen == null ? _lo : _stolen[_lo];
+      final boolean remote = _run_local || _stolen != null;
+      if( remote || v0.chunkKey(cidx).home() && (_stealId == 0 || WorkStealing.claim(_stealId, cidx)) ) { // And chunk is homed here?
         assert(_run_local || !H2O.ARGS.client) : "Client node should not process any keys in MRTask!";
 
         // Make decompression chunk headers for these chunks
         NewChunk[] appendableChunks = null;
-        Chunk[] bvs = FrameUtils.extractChunks(_fr, _lo, _run_local);
+        Chunk[] bvs = FrameUtils.extractChunks(_fr, cidx, remote);
 
         if(_output_types != null) {
           final VectorGroup vg = v0.group();
@@ -803,12 +851,13 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
           appendableChunks = new NewChunk[_output_types.length];
           for(int i = 0; i < _appendables.length; ++i) {
             _appendables[i] = new AppendableVec(vg.vecKey(_vid+i),_output_types[i]);
-            appendableChunks[i] = _appendables[i].chunkForChunkIdx(_lo);
+            appendableChunks[i] = _appendables[i].chunkForChunkIdx(cidx);
           }
         }
         // Call all the various map() calls that apply
         if(_profile!=null)
           _profile._userstart = System.currentTimeMillis();
+        long ns = _profiledJob != null || _stealId != 0 ? System.nanoTime() : 0;
 
         int num_fr_vecs = _fr.vecs().length;
         int num_outputs = _output_types == null? 0 : _output_types.length;
@@ -841,8 +890,10 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
           _profile._closestart = System.currentTimeMillis();
         if (_postMap != null)
           _postMap.call(bvs);
-        for( Chunk bv : bvs )  bv.close(_lo,_fs);
-        if( _output_types != null) for(NewChunk nch:appendableChunks)nch.close(_lo, _fs);
+        for( Chunk bv : bvs )  bv.close(cidx,_fs);
+        if( _output_types != null) for(NewChunk nch:appendableChunks)nch.close(cidx, _fs);
+        if( _profiledJob != null ) JobProfiler.recordMap(this, System.nanoTime() - ns);
+        if( _stealId != 0 && _stolen == null ) WorkStealing.mapped(_stealId, System.nanoTime() - ns);
       }
     }
     if(_profile!=null)
@@ -850,6 +901,25 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     tryComplete();
   }
 
+  // Steal a batch of chunks from the other nodes and map them, then go for
+  // the next batch; done when no node gives any more.  The other nodes are
+  // asked asynchronously, see stolen().
+  private void steal() { WorkStealing.steal(_stealId, this); }
+
+  /** The batch of chunks stolen by this stealer, null if no node gave any */
+  void stolen(int[] chunks) {
+    if( chunks == null ) { tryComplete(); return; }
+    _left = copyAndInit();      // Maps the batch
+    _left._stealer = false;
+    _left._stolen = chunks;
+    _left._lo = 0;
+    _left._hi = chunks.length;
+    _rite = copyAndInit();      // Next batch
+    addToPendingCount(1);
+    H2O.submitTask(_left);
+    H2O.submitTask(_rite);
+  }
+
   /** OnCompletion - reduce the left and right into self.  Called internal by
    *  F/J.  Not expected to be user-called. */
   @Override public final void onCompletion( CountedCompleter caller ) {
@@ -857,8 +927,11 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     // Reduce results into 'this' so they collapse going up the execution tree.
     // NULL out child-references so we don't accidentally keep large subtrees
     // alive since each one may be holding large partial results.
+    long ns = _profiledJob != null ? System.nanoTime() : 0;
     reduce2(_left); _left = null;
     reduce2(_rite); _rite = null;
+    reduce2(_thief); _thief = null;
+    if( _profiledJob != null ) JobProfiler.record(this, JobProfiler.Phase.REDUCE, System.nanoTime() - ns);
     if(_profile!=null) _profile._reducedone = System.currentTimeMillis();
     // Only on the top local call, have more completion work
     if( _topLocal ) postLocal0();
@@ -886,12 +959,17 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   // Block for other queued pending tasks.
   // Copy any final results into 'this', such that a return of 'this' has the results.
   private void postLocal0() {
+    if( _stealId != 0 ) WorkStealing.unregister(_stealId);
+    long ns = _profiledJob != null ? System.nanoTime() : 0;
     closeLocal();               // User's node-local cleanup
+    ns = recordPhase(JobProfiler.Phase.CLOSE_LOCAL, ns);
     if(_profile!=null) _profile._closeLocalDone = System.currentTimeMillis();
     reduce3(_nleft);            // Reduce global results from neighbors.
     reduce3(_nrite);
     if(_profile!=null) _profile._remoteBlkDone = System.currentTimeMillis();
+    if( _profiledJob != null ) ns = System.nanoTime();
     _fs.blockForPending();      // Block any pending user tasks
+    ns = recordPhase(JobProfiler.Phase.BLOCK_PENDING, ns);
     if(_profile!=null) _profile._localBlkDone = System.currentTimeMillis();
     // Finally, must return all results in 'this' because that is the API -
     // what the user expects
@@ -904,14 +982,31 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
       if (_fr != null)     // Do any post-writing work (zap rollup fields, etc)
         _fr.postWrite(_fs).blockForPending();
       postGlobal();             // User's continuation work
+      recordPhase(JobProfiler.Phase.POST_GLOBAL, ns);
+      Metrics.MRTASK_DURATION.labels(getClass().getName()).observe(System.nanoTime() - _launched);
     }
 
   }
 
+  // Time since the given nanoTime to the given phase of a profiled Job, if any.
+  // Returns the current nanoTime.
+  private long recordPhase( JobProfiler.Phase phase, long ns ) {
+    if( _profiledJob == null ) return 0;
+    long now = System.nanoTime();
+    JobProfiler.record(this, phase, now - ns);
+    return now;
+  }
+
   // Block for RPCs to complete, then reduce global results into self results
   private void reduce3( RPC<T> rpc ) {
     if( rpc == null ) return;
+    long ns = _profiledJob != null ? System.nanoTime() : 0;
     T mrt = rpc.get();          // This is a blocking remote call
+    if( _profiledJob != null ) {
+      ns = recordPhase(JobProfiler.Phase.REMOTE_WAIT, ns);
+      JobProfiler.record(this, JobProfiler.Phase.SENT, rpc.size_sent());
+      JobProfiler.record(this, JobProfiler.Phase.RECEIVED, rpc.size_rez());
+    }
     // Note: because _fs is transient it is not set or cleared by the RPC.
     // Because the MRT object is a clone of 'self' it's likely to contain a ptr
     // to the self _fs which will be not-null and still have local pending
@@ -923,6 +1018,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
       if( _res == null ) _res = mrt;
       else _res.reduce4(mrt);
     }
+    recordPhase(JobProfiler.Phase.REDUCE, ns);
   }
 
   /** Call user's reduction.  Also reduce any new AppendableVecs.  Called
@@ -942,12 +1038,14 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   private void self_cancel1() {
     T l = _left; if( l != null ) { l.self_cancel2(); }
     T r = _rite; if( r != null ) { r.self_cancel2(); }
+    T t = _thief; if( t != null ) { t.self_cancel2(); }
   }
 
   /** Cancel/kill all work as we can, then rethrow... do not invisibly swallow
    *  exceptions (which is the F/J default).  Called internal by F/J.  Not
    *  expected to be user-called.  */
   @Override public final boolean onExceptionalCompletion( Throwable ex, CountedCompleter caller ) {
+    if( _topLocal && _stealId != 0 ) WorkStealing.unregister(_stealId);
     self_cancel1();
     // Block for completion - we don't want the work, but we want all the
     // workers stopped before we complete this task.  Otherwise this task quits
@@ -970,6 +1068,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     x._topLocal = false;  // Not a top job
     x._nleft = x._nrite = null;
     x. _left = x. _rite = null;
+    x._thief = null;
     x._fs = _fs;
     if( _profile!=null )  x._profile = new MRProfile(this);
     else                  x._profile = null;    // Clone needs its own profile
@@ -8,6 +8,7 @@ import water.util.PrettyPrint;
 import javax.management.Notification;
 import javax.management.NotificationEmitter;
 import java.lang.management.*;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -38,6 +39,13 @@ import java.util.concurrent.atomic.AtomicLong;
  * (counted by us). We compute the free heap as MEM_MAX-heapUsage (after GC),
  * and we compute POJO size as (heapUsage - K/V cache usage).
  *
+ * Optionally (-off_heap_mb), the block-compressed bytes of cold Chunks are
+ * kept in direct buffers, outside of the heap and of the reach of the GC.
+ * This off-heap store has its own budget; the Cleaner swaps off-heap Chunks
+ * to disk when it runs low, the same way it does for the heap.  Dropped
+ * buffers are reclaimed by the GC (as are any direct buffers), so set
+ * -XX:MaxDirectMemorySize somewhat above the budget.
+ *
  * @author tomas
  * @author cliffc
  */
@@ -82,6 +90,50 @@ abstract public class MemoryManager {
   }
   static boolean canAlloc() { return CAN_ALLOC; }
 
+  // Bytes held off-heap by cold Chunks.  Buffers dropped by their Values are
+  // no longer counted, even if not reclaimed by the GC yet.
+  private static final AtomicLong OFF_HEAP_USED = new AtomicLong();
+
+  /** Off-heap budget for cold Chunks, 0 if the off-heap store is off. */
+  public static long offHeapMax() { return (long)H2O.ARGS.off_heap_mb << 20; }
+  /** Off-heap memory currently held by cold Chunks. */
+  public static long offHeapUsed() { return OFF_HEAP_USED.get(); }
+  // Off-heap store above 7/8 of its budget?  Then the Cleaner swaps it out.
+  static boolean offHeapLow() {
+    long max = offHeapMax();
+    return max > 0 && OFF_HEAP_USED.get() > max - (max>>3);
+  }
+
+  /** Copy the bytes into a new off-heap buffer.
+   *  @return the (flipped) buffer, or null if the off-heap store is off or full */
+  static ByteBuffer mallocOffHeap(byte[] bytes) {
+    long max = offHeapMax();
+    if( max == 0 ) return null;
+    if( OFF_HEAP_USED.addAndGet(bytes.length) > max ) {
+      OFF_HEAP_USED.addAndGet(-bytes.length);
+      Cleaner.kick_store_cleaner(); // Make room for the next ones
+      return null;
+    }
+    try {
+      ByteBuffer buf = ByteBuffer.allocateDirect(bytes.length);
+      buf.put(bytes).flip();
+      return buf;
+    } catch( OutOfMemoryError oom ) { // -XX:MaxDirectMemorySize is lower than our budget
+      OFF_HEAP_USED.addAndGet(-bytes.length);
+      return null;
+    }
+  }
+  // An off-heap buffer of the given size got dropped
+  static void freeOffHeap(int len) { OFF_HEAP_USED.addAndGet(-len); }
+
+  /** Replace the policy ordering the Values swapped out by the Cleaner, on
+   *  this node; the default is a {@link CostAwareEvictionPolicy}. */
+  public static void setEvictionPolicy(EvictionPolicy policy) {
+    if( policy == null ) throw new IllegalArgumentException("Eviction policy cannot be null");
+    Cleaner.POLICY = policy;
+  }
+  public static EvictionPolicy evictionPolicy() { return Cleaner.POLICY; }
+
   static void set_goals( String msg, boolean oom){
     set_goals(msg, oom, 0);
   }
@@ -153,7 +205,8 @@ abstract public class MemoryManager {
     }
 
     // No logging if under memory pressure: can deadlock the cleaner thread
-    String s = m+msg+", (K/V:"+PrettyPrint.bytes(cacheUsageGC)+" + POJO:"+PrettyPrint.bytes(pojoUsedGC)+" + FREE:"+PrettyPrint.bytes(freeHeap)+" == MEM_MAX:"+PrettyPrint.bytes(MEM_MAX)+"), desiredKV="+PrettyPrint.bytes(Cleaner.DESIRED)+(oom?" OOM!":" NO-OOM");
+    String s = m+msg+", (K/V:"+PrettyPrint.bytes(cacheUsageGC)+" + POJO:"+PrettyPrint.bytes(pojoUsedGC)+" + FREE:"+PrettyPrint.bytes(freeHeap)+" == MEM_MAX:"+PrettyPrint.bytes(MEM_MAX)+"), desiredKV="+PrettyPrint.bytes(Cleaner.DESIRED)+
+        (offHeapMax() > 0 ? ", off-heap:"+PrettyPrint.bytes(offHeapUsed())+"/"+PrettyPrint.bytes(offHeapMax()) : "")+(oom?" OOM!":" NO-OOM");
     if( CAN_ALLOC ) { if( oom ) Log.warn(s); else Log.debug(s); }
     else            System.err.println(s);
   }
@@ -234,9 +287,11 @@ abstract public class MemoryManager {
           // case.  This is probably an allocation for logging (ouch! shades of
           // logging-induced deadlock!) which will probably be recycled quickly.
           !(Thread.currentThread() instanceof Cleaner) ) {
+        long ns = System.nanoTime();
         synchronized(_lock) {
           try { _lock.wait(300*1000); } catch (InterruptedException ex) { }
         }
+        Metrics.MEMORY_BLOCKED_ALLOC.observe(System.nanoTime() - ns);
       }
       try {
         switch( type ) {
@@ -344,7 +399,10 @@ abstract public class MemoryManager {
   private static Object _taskMemLock = new Object();
   static void reserveTaskMem(long m){
     final long bytes = m;
+    final long ns = System.nanoTime();
+    boolean blocked = false;
     while(!tryReserveTaskMem(bytes)){
+      blocked = true;
       try {
         ForkJoinPool.managedBlock(new ManagedBlocker() {
           @Override public boolean isReleasable() {return _taskMem.get() >= bytes;}
@@ -357,6 +415,7 @@ abstract public class MemoryManager {
         });
       } catch (InterruptedException e){ Log.throwErr(e); }
     }
+    if( blocked ) Metrics.MEMORY_BLOCKED_TASK_MEM.observe(System.nanoTime() - ns);
   }
 
   /**
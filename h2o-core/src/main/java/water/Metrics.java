@@ -0,0 +1,238 @@
+package water;
+
+import water.nbhm.NonBlockingHashMap;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Registry of the internal metrics of this node - MRTasks, RPCs, the DKV, the
+ * Cleaner, the MemoryManager and the F/J queues - served in the Prometheus
+ * text format at {@code GET /3/Metrics}.  Each node serves its own metrics.
+ *
+ * Counters are striped ({@link LongAdder}), so hot paths only pay for an
+ * uncontended add.  Values which are tracked elsewhere anyway ({@link
+ * PeerStats}, queue depths) are sampled by {@link Collector}s when the
+ * metrics are served.
+ */
+public final class Metrics {
+  public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+  public static final double NANOS = 1e-9; // Scale of nanosecond durations to seconds
+  public static final double MILLIS = 1e-3;
+
+  private static final List<Collector> COLLECTORS = new CopyOnWriteArrayList<>();
+
+  private Metrics() {}
+
+  /** Writes samples of some metrics */
+  public interface Collector {
+    void collect(Writer w);
+  }
+
+  /** Add a Collector of metrics, e.g. of an extension */
+  public static void register(Collector c) { COLLECTORS.add(c); }
+
+  /** A monotonic count */
+  public static final class Counter {
+    private final LongAdder _n = new LongAdder();
+    public void inc() { _n.increment(); }
+    public void add(long n) { _n.add(n); }
+    public long get() { return _n.sum(); }
+  }
+
+  /** Number and total of observations, e.g. durations; a Prometheus summary without quantiles */
+  public static final class Summary {
+    private final LongAdder _count = new LongAdder();
+    private final LongAdder _sum = new LongAdder();
+    public void observe(long v) { _count.increment(); _sum.add(v); }
+    public long count() { return _count.sum(); }
+    public long sum() { return _sum.sum(); }
+  }
+
+  /** Metrics of the same name, one per combination of label values */
+  public static final class Family<M> implements Collector {
+    private final String _name, _help, _type;
+    private final String[] _labels;
+    private final double _scale;
+    private final Supplier<M> _make;
+    private final NonBlockingHashMap<String,Child<M>> _children = new NonBlockingHashMap<>();
+
+    private Family(String name, String help, String type, double scale, Supplier<M> make, String[] labels) {
+      _name = name; _help = help; _type = type; _scale = scale; _make = make; _labels = labels;
+    }
+
+    /** @return the metric for the given label values, in the order of the label names */
+    public M labels(String... values) {
+      assert values.length == _labels.length : "Expected labels " + String.join(",", _labels);
+      String key = values.length == 1 ? values[0] : String.join("\0", values);
+      Child<M> c = _children.get(key);
+      if( c == null ) {
+        Child<M> c2 = new Child<>(values.clone(), _make.get());
+        c = _children.putIfAbsent(key, c2);
+        if( c == null ) c = c2;
+      }
+      return c._metric;
+    }
+
+    /** @return the metric of a Family without labels */
+    public M get() { return labels(); }
+
+    @Override public void collect(Writer w) {
+      w.family(_name, _type, _help);
+      for( Child<M> c : _children.values() ) {
+        String[] pairs = c.labelPairs(_labels);
+        if( c._metric instanceof Counter ) {
+          w.sample(_name, ((Counter) c._metric).get(), _scale, pairs);
+        } else {
+          Summary s = (Summary) c._metric;
+          w.sample(_name + "_count", s.count(), 1, pairs);
+          w.sample(_name + "_sum", s.sum(), _scale, pairs);
+        }
+      }
+    }
+  }
+
+  private static final class Child<M> {
+    final String[] _values;
+    final M _metric;
+    Child(String[] values, M metric) { _values = values; _metric = metric; }
+    String[] labelPairs(String[] names) {
+      String[] pairs = new String[2 * names.length];
+      for( int i = 0; i < names.length; i++ ) { pairs[2 * i] = names[i]; pairs[2 * i + 1] = _values[i]; }
+      return pairs;
+    }
+  }
+
+  /** New registered family of counters; names of counters should end with {@code _total} */
+  public static Family<Counter> counter(String name, String help, String... labels) {
+    return counter(name, help, 1, labels);
+  }
+  /** New registered family of counters, exported multiplied by the given scale (e.g. {@link #NANOS}) */
+  public static Family<Counter> counter(String name, String help, double scale, String... labels) {
+    Family<Counter> f = new Family<>(name, help, "counter", scale, Counter::new, labels);
+    register(f);
+    return f;
+  }
+  /** New registered family of summaries, with sums exported multiplied by the given scale */
+  public static Family<Summary> summary(String name, String help, double scale, String... labels) {
+    Family<Summary> f = new Family<>(name, help, "summary", scale, Summary::new, labels);
+    register(f);
+    return f;
+  }
+
+  /** Writes the Prometheus text format */
+  public static final class Writer {
+    private final StringBuilder _sb = new StringBuilder();
+
+    public Writer family(String name, String type, String help) {
+      _sb.append("# HELP ").append(name).append(' ').append(help.replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+      _sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+      return this;
+    }
+
+    /** @param labels label names and values, alternating */
+    public Writer sample(String name, long value, double scale, String... labels) {
+      sampleName(name, labels);
+      if( scale == 1 ) _sb.append(value);
+      else _sb.append(value * scale);
+      _sb.append('\n');
+      return this;
+    }
+
+    /** @param labels label names and values, alternating */
+    public Writer sample(String name, double value, String... labels) {
+      sampleName(name, labels);
+      _sb.append(Double.isNaN(value) ? "NaN" : Double.isInfinite(value) ? (value > 0 ? "+Inf" : "-Inf") : Double.toString(value));
+      _sb.append('\n');
+      return this;
+    }
+
+    private void sampleName(String name, String[] labels) {
+      _sb.append(name);
+      if( labels.length > 0 ) {
+        _sb.append('{');
+        for( int i = 0; i < labels.length; i += 2 ) {
+          if( i > 0 ) _sb.append(',');
+          _sb.append(labels[i]).append("=\"")
+             .append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n")).append('"');
+        }
+        _sb.append('}');
+      }
+      _sb.append(' ');
+    }
+
+    @Override public String toString() { return _sb.toString(); }
+  }
+
+  /** @return all the metrics of this node, in the Prometheus text format */
+  public static String toPrometheus() {
+    Writer w = new Writer();
+    for( Collector c : COLLECTORS ) c.collect(w);
+    return w.toString();
+  }
+
+  // Metrics of the internals
+  static final Family<Counter> MRTASK_LAUNCHED =
+      counter("h2o_mrtask_launched_total", "MRTasks launched from this node, per class", "task");
+  static final Family<Summary> MRTASK_DURATION =
+      summary("h2o_mrtask_duration_seconds", "Time of the completed MRTasks launched from this node, per class", NANOS, "task");
+  private static final Family<Counter> DKV_GETS =
+      counter("h2o_dkv_gets_total", "DKV gets on this node, by where the value came from: local (cached or homed here), " +
+          "pending (a local write in flight), remote (fetched from the home node) or missing", "source");
+  static final Counter DKV_GETS_LOCAL = DKV_GETS.labels("local");
+  static final Counter DKV_GETS_PENDING = DKV_GETS.labels("pending");
+  static final Counter DKV_GETS_REMOTE = DKV_GETS.labels("remote");
+  static final Counter DKV_GETS_MISSING = DKV_GETS.labels("missing");
+  static final Counter CLEANER_SWAPPED =
+      counter("h2o_cleaner_swapped_bytes_total", "Bytes written to disk by the Cleaner").get();
+  static final Counter CLEANER_SWAP_TIME =
+      counter("h2o_cleaner_swap_seconds_total", "Time the Cleaner spent writing to disk", NANOS).get();
+  private static final Family<Summary> MEMORY_BLOCKED =
+      summary("h2o_memory_blocked_seconds", "Time threads were blocked waiting for memory: " +
+          "alloc (allocations while swapping) or task_mem (reservations of task memory)", NANOS, "reason");
+  static final Summary MEMORY_BLOCKED_ALLOC = MEMORY_BLOCKED.labels("alloc");
+  static final Summary MEMORY_BLOCKED_TASK_MEM = MEMORY_BLOCKED.labels("task_mem");
+
+  // Metrics sampled from state kept elsewhere
+  static {
+    register(Metrics::collectQueues);
+    register(Metrics::collectPeers);
+  }
+
+  private static void collectQueues(Writer w) {
+    w.family("h2o_fj_queue_depth", "gauge", "Tasks queued in the F/J pool of each priority");
+    for( int p = 0; p <= H2O.MAX_PRIORITY; p++ ) {
+      int n = H2O.getWrkQueueSize(p);
+      if( n >= 0 ) w.sample("h2o_fj_queue_depth", n, 1, "priority", Integer.toString(p));
+    }
+    w.family("h2o_fj_pool_threads", "gauge", "Threads in the F/J pool of each priority");
+    for( int p = 0; p <= H2O.MAX_PRIORITY; p++ ) {
+      int n = H2O.getWrkThrPoolSize(p);
+      if( n >= 0 ) w.sample("h2o_fj_pool_threads", n, 1, "priority", Integer.toString(p));
+    }
+  }
+
+  private static void collectPeers(Writer w) {
+    H2O cloud = H2O.CLOUD;
+    if( cloud == null ) return;
+    H2ONode[] peers = cloud.members();
+    w.family("h2o_peer_sent_bytes_total", "counter", "Serialized bytes sent to the peer node");
+    for( H2ONode n : peers ) if( n != H2O.SELF ) w.sample("h2o_peer_sent_bytes_total", n._peerStats.bytesSent(), 1, "peer", n.toString());
+    w.family("h2o_peer_sent_wire_bytes_total", "counter", "Bytes sent to the peer node on the wire, after compression");
+    for( H2ONode n : peers ) if( n != H2O.SELF ) w.sample("h2o_peer_sent_wire_bytes_total", n._peerStats.wireBytesSent(), 1, "peer", n.toString());
+    w.family("h2o_peer_received_bytes_total", "counter", "Serialized bytes received from the peer node");
+    for( H2ONode n : peers ) if( n != H2O.SELF ) w.sample("h2o_peer_received_bytes_total", n._peerStats.bytesReceived(), 1, "peer", n.toString());
+    w.family("h2o_peer_received_wire_bytes_total", "counter", "Bytes received from the peer node on the wire, before decompression");
+    for( H2ONode n : peers ) if( n != H2O.SELF ) w.sample("h2o_peer_received_wire_bytes_total", n._peerStats.wireBytesReceived(), 1, "peer", n.toString());
+    w.family("h2o_rpc_latency_seconds", "summary", "Time of the completed RPCs to the peer node");
+    for( H2ONode n : peers ) {
+      if( n == H2O.SELF ) continue;
+      w.sample("h2o_rpc_latency_seconds_count", n._peerStats.rpcs(), 1, "peer", n.toString());
+      w.sample("h2o_rpc_latency_seconds_sum", n._peerStats.rpcMillis(), MILLIS, "peer", n.toString());
+    }
+    w.family("h2o_rpc_retries_total", "counter", "RPCs to the peer node sent again, after a timeout or a failed send");
+    for( H2ONode n : peers ) if( n != H2O.SELF ) w.sample("h2o_rpc_retries_total", n._peerStats.rpcRetries(), 1, "peer", n.toString());
+  }
+}
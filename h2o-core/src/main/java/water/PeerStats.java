@@ -0,0 +1,63 @@
+package water;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Traffic between this node and one other node ({@link H2ONode#_peerStats}):
+ * bytes sent and received - both as serialized by the {@link AutoBuffer}s and
+ * as they went over the wire, after {@link TCPCompression} - and the latency of
+ * the RPCs made to the other node (see also {@link Metrics}).
+ *
+ * Also keeps the running estimates {@link TCPCompression} uses to decide if
+ * compressing large messages to this node pays off.
+ */
+public final class PeerStats {
+  private final AtomicLong _bytesSent = new AtomicLong();
+  private final AtomicLong _wireBytesSent = new AtomicLong();
+  private final AtomicLong _bytesReceived = new AtomicLong();
+  private final AtomicLong _wireBytesReceived = new AtomicLong();
+  private final AtomicLong _rpcs = new AtomicLong();
+  private final AtomicLong _rpcMillis = new AtomicLong();
+  private final AtomicLong _rpcRetries = new AtomicLong();
+  private volatile long _maxRpcMillis;
+
+  // Estimates for TCPCompression; racy updates are fine
+  volatile double _linkBytesPerSec;   // Measured on large sends, 0 if unknown
+  volatile double _zBytesPerSec;      // Compression speed, 0 if unknown
+  volatile double _zRatio = 0.5;      // Compressed / raw size
+  final AtomicInteger _largeSends = new AtomicInteger(); // Large TCP messages sent, for probing
+
+  /** Serialized bytes sent */
+  public long bytesSent() { return _bytesSent.get(); }
+  /** Bytes sent on the wire, after compression */
+  public long wireBytesSent() { return _wireBytesSent.get(); }
+  /** Serialized bytes received */
+  public long bytesReceived() { return _bytesReceived.get(); }
+  /** Bytes received on the wire, before decompression */
+  public long wireBytesReceived() { return _wireBytesReceived.get(); }
+  /** Number of completed RPCs to the node */
+  public long rpcs() { return _rpcs.get(); }
+  /** Total time of the completed RPCs to the node, in msec */
+  public long rpcMillis() { return _rpcMillis.get(); }
+  /** Longest completed RPC to the node, in msec */
+  public long maxRpcMillis() { return _maxRpcMillis; }
+  /** Number of times RPCs to the node were sent again, after a timeout or a failed send */
+  public long rpcRetries() { return _rpcRetries.get(); }
+
+  void sent(long bytes, long wire) { _bytesSent.addAndGet(bytes); _wireBytesSent.addAndGet(wire); }
+  void received(long bytes, long wire) { _bytesReceived.addAndGet(bytes); _wireBytesReceived.addAndGet(wire); }
+  void rpcDone(long millis) {
+    _rpcs.incrementAndGet();
+    _rpcMillis.addAndGet(millis);
+    if( millis > _maxRpcMillis ) _maxRpcMillis = millis;
+  }
+  void rpcRetried() { _rpcRetries.incrementAndGet(); }
+
+  @Override public String toString() {
+    long rpcs = rpcs();
+    return "sent " + bytesSent() + "B (" + wireBytesSent() + "B on the wire), received " + bytesReceived() +
+        "B (" + wireBytesReceived() + "B on the wire), " + rpcs + " RPCs" +
+        (rpcs > 0 ? " (avg " + rpcMillis() / rpcs + "ms, max " + maxRpcMillis() + "ms)" : "");
+  }
+}
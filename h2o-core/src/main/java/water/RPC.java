@@ -69,7 +69,7 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
   final long _started;
   long _retry;                  // When we should attempt a retry
 
-  int _resendsCnt;
+  int _resendsCnt;              // Times the task was (re)sent, i.e. 1 + retries after timeouts
 
   // A list of CountedCompleters we will call tryComplete on when the RPC
   // finally completes.  Frequently null/zero.
@@ -85,6 +85,7 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
   // To help with asserts, record the size of the sent DTask - if we resend
   // if should remain the same size.
   int _size;
+  int _size_sent;               // Size of the sent DTask
   int _size_rez;                // Size of received results
 
   // Magic Cookies
@@ -192,6 +193,7 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
       // finish off the current AutoBuffer (which is now going TCP style), and
       // make a new UDP-sized packet.  On a re-send of a TCP-sized hunk, just
       // send the basic UDP control packet.
+      if( _resendsCnt++ > 0 ) _target._peerStats.rpcRetried();
       if( !_sentTcp ) {
         while( true ) {         // Retry loop for broken TCP sends
           AutoBuffer ab = new AutoBuffer(_target,_dt.priority());
@@ -202,11 +204,13 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
             t = ab.hasTCP();
             assert sz_check(ab) : "Resend of " + _dt.getClass() + " changes size from " + _size + " to " + ab.size() + " for task#" + _tasknum;
             ab.close();        // Then close; send final byte
+            _size_sent = ab.size();
             _sentTcp = t;  // Set after close (and any other possible fail)
             break;             // Break out of retry loop
           } catch( AutoBuffer.AutoBufferException e ) {
             Log.info("IOException during RPC call: " + e._ioe.getMessage() + ",  AB=" + ab + ", for task#" + _tasknum + ", waiting and retrying...");
             ab.drainClose();
+            _target._peerStats.rpcRetried();
             try { Thread.sleep(500); } catch (InterruptedException ignore) {}
           }
         } // end of while(true)
@@ -624,6 +628,7 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
           if (!isCancelled())       // Can be canceled already (locally by MRTask while recieving remote answer)
             _dt.onAck();            // One time only execute (before sending ACKACK)
           _done = true;             // Only read one (of many) response packets
+          ab._h2o._peerStats.rpcDone(System.currentTimeMillis() - _started);
           ab._h2o.taskRemove(_tasknum); // Flag as task-completed, even if the result is null
           notifyAll();              // And notify in any case
         }
@@ -670,6 +675,8 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
   }
   // Size of received results
   int size_rez() { return _size_rez; }
+  // Size of the sent task
+  int size_sent() { return _size_sent; }
 
   // ---
   static final long RETRY_MS = 10000; // Initial UDP packet retry in msec
@@ -72,6 +72,8 @@ public class Scope {
       }
     }
     final Level exitingLevel = scope._levels.pop();
+    for (Key<Vec>[] vecs : exitingLevel._evictFirst)
+      EvictionHints.release(vecs, EvictionHints.EVICT_FIRST);
     keepKeys.addAll(exitingLevel._protectedKeys);
     Key[] arrkeep = keepKeys.toArray(new Key[0]);
     Arrays.sort(arrkeep);
@@ -261,6 +263,20 @@ public class Scope {
     level._protectedKeys.add(key);           // track-protect key
   }
 
+  /**
+   * Hints that the Vecs of the listed frames are temporaries, to be swapped out of memory before other data
+   * (see {@link EvictionHints}), until this scope is exited.
+   * @param frames
+   * @return the first frame.
+   */
+  public static Frame evictFirst(Frame... frames) {
+    if (frames.length == 0) return null;
+    Level level = lget();           // Pay the price of T.L.S. lookup
+    if (level == null) return frames[0]; // Could never be released
+    level._evictFirst.add(EvictionHints.evictFirst(frames));
+    return frames[0];
+  }
+
   /**
    * Enters a new scope and protects the passed frames in that scope.
    * To be used as a resource in a try block: the new "safe" scope will then be auto-exited.
@@ -287,6 +303,7 @@ public class Scope {
     final Set<Key> _keys;
     final Set<Key> _protectedKeys;
     final Map<Key, TrackingInfo> _trackingInfo;
+    final List<Key<Vec>[]> _evictFirst = new ArrayList<>(); // Eviction hints to release on exit
 
     Level() {
       _keys = new HashSet<>();
@@ -304,6 +321,7 @@ public class Scope {
       _keys.clear();
       _protectedKeys.clear();
       _trackingInfo.clear();
+      _evictFirst.clear();
     }
   }
 
@@ -0,0 +1,173 @@
+package water;
+
+import com.github.luben.zstd.Zstd;
+import water.util.Log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Compression of large {@link AutoBuffer} messages sent over TCP to other nodes (see -tcp_compress).
+ *
+ * A compressed message starts with the {@link #MARKER} byte - never the first byte of a plain message,
+ * which is a {@link UDP.udp} type - followed by one frame per page of the message: compressed length
+ * (4 bytes), raw length (4 bytes) and the compressed bytes.  Pages which do not compress are sent raw,
+ * with a compressed length of 0.  Readers always understand both forms, the sender decides per message.
+ *
+ * Only messages of at least {@link #MIN_SIZE} bytes are considered, and only while compression pays off:
+ * per peer ({@link PeerStats}) we keep running estimates of the link bandwidth, the compression speed and
+ * the compression ratio, and compress while compressing and sending fewer bytes is faster than sending the
+ * raw bytes - e.g. sparse histograms over a 10GbE link yes, random doubles over loopback no.  Every
+ * {@link #PROBE}-th large message is compressed regardless, to keep the estimates current.
+ *
+ * Uses the fastest Zstandard level, and only if the native library can be loaded.
+ */
+final class TCPCompression {
+  static final byte MARKER = (byte) 0xFE;
+  // First page of the message must be at least this big
+  static final int MIN_SIZE = AutoBuffer.BBP_BIG._size >> 1;
+  static final int PROBE = 16;
+  private static final int LEVEL = 1;
+  // Running averages weight the latest sample this much
+  private static final double ALPHA = 0.2;
+  // Largest page we ever expect; guards against reading garbage lengths
+  private static final int MAX_FRAME = 1 << 24;
+  // Messages of at least this many bytes on the wire are timed to estimate the link bandwidth
+  static final int LINK_SAMPLE = 4 * AutoBuffer.BBP_BIG._size;
+
+  private static final boolean AVAILABLE = checkAvailable();
+
+  private TCPCompression() {}
+
+  private static boolean checkAvailable() {
+    try {
+      byte[] probe = new byte[64];
+      return Zstd.decompress(Zstd.compress(probe, LEVEL), probe.length).length == probe.length;
+    } catch (Throwable t) { // typically UnsatisfiedLinkError
+      Log.warn("TCP compression is not available: " + t);
+      return false;
+    }
+  }
+
+  static boolean isEnabled() { return H2O.ARGS.tcp_compress && AVAILABLE; }
+
+  /** Compress a message to the given node, given the size of its first page? */
+  static boolean shouldCompress(H2ONode h2o, int firstPage) {
+    if( !isEnabled() || firstPage < MIN_SIZE ) return false;
+    PeerStats ps = h2o._peerStats;
+    if( ps._largeSends.getAndIncrement() % PROBE == 0 ) return true;
+    double link = ps._linkBytesPerSec, z = ps._zBytesPerSec;
+    if( link == 0 || z == 0 ) return true; // Nothing known yet
+    // raw/link > raw/z + raw*ratio/link
+    return link < z * (1 - ps._zRatio);
+  }
+
+  // Running average
+  private static double avg(double old, double sample) { return old == 0 ? sample : old + ALPHA * (sample - old); }
+
+  // Record the time to send a large message, compressed or not: from its first
+  // write until the reader acknowledged all of it, less the time spent
+  // compressing.  Socket writes alone return as soon as the bytes are in the
+  // kernel's send buffer, timing them overestimates the link.
+  static void recordSend(H2ONode h2o, long wire, long ns) {
+    if( wire >= LINK_SAMPLE && ns > 0 ) {
+      PeerStats ps = h2o._peerStats;
+      ps._linkBytesPerSec = avg(ps._linkBytesPerSec, wire * 1e9 / ns);
+    }
+  }
+
+  /** Writes the pages of a compressed message */
+  static final class Writer {
+    private final H2ONode _h2o;
+    private final ByteBuffer _hdr = ByteBuffer.allocate(8);
+    private byte[] _raw = new byte[0], _buf = new byte[0];
+    long _zns;                  // Time spent compressing
+
+    Writer(H2ONode h2o) { _h2o = h2o; }
+
+    /** Start the message */
+    void start(WritableByteChannel chan) throws IOException {
+      writeFully(chan, ByteBuffer.wrap(new byte[]{MARKER}));
+    }
+
+    /** Send the remaining bytes of the page as one frame.
+     *  @return the number of bytes sent on the wire */
+    int write(WritableByteChannel chan, ByteBuffer page) throws IOException {
+      int len = page.remaining();
+      if( _raw.length < len ) {
+        _raw = new byte[len];
+        _buf = new byte[(int) Zstd.compressBound(len)];
+      }
+      page.get(_raw, 0, len);
+      long ns = System.nanoTime();
+      long clen = Zstd.compressByteArray(_buf, 0, _buf.length, _raw, 0, len, LEVEL);
+      long zns = System.nanoTime() - ns;
+      _zns += zns;
+      boolean z = !Zstd.isError(clen) && clen < len;
+      PeerStats ps = _h2o._peerStats;
+      if( !Zstd.isError(clen) && zns > 0 ) {
+        ps._zBytesPerSec = avg(ps._zBytesPerSec, len * 1e9 / zns);
+        ps._zRatio = avg(ps._zRatio, Math.min(1.0, (double) clen / len));
+      }
+      _hdr.clear();
+      _hdr.putInt(z ? (int) clen : 0).putInt(len).flip();
+      writeFully(chan, _hdr);
+      writeFully(chan, z ? ByteBuffer.wrap(_buf, 0, (int) clen) : ByteBuffer.wrap(_raw, 0, len));
+      return 8 + (z ? (int) clen : len);
+    }
+
+    private static void writeFully(WritableByteChannel chan, ByteBuffer bb) throws IOException {
+      while( bb.hasRemaining() ) chan.write(bb);
+    }
+  }
+
+  /** Reads the pages of a compressed message */
+  static final class Reader {
+    private final ByteBuffer _hdr = ByteBuffer.allocate(8);
+    private byte[] _raw = new byte[0], _buf = new byte[0];
+    private int _pos, _lim;     // Unread part of the current page
+    long _wire = 1;             // Bytes read off the wire, including the marker
+
+    /** Move decompressed bytes into the buffer, reading the next frame as needed.
+     *  @return the number of bytes moved, -1 at the end of the stream */
+    int read(ReadableByteChannel chan, ByteBuffer bb) throws IOException {
+      if( _pos == _lim && !nextFrame(chan) ) return -1;
+      int n = Math.min(bb.remaining(), _lim - _pos);
+      bb.put(_raw, _pos, n);
+      _pos += n;
+      return n;
+    }
+
+    private boolean nextFrame(ReadableByteChannel chan) throws IOException {
+      _hdr.clear();
+      if( !readFully(chan, _hdr) ) return false;
+      _hdr.flip();
+      int clen = _hdr.getInt(), len = _hdr.getInt();
+      if( clen < 0 || len <= 0 || clen > MAX_FRAME || len > MAX_FRAME )
+        throw new IOException("Corrupted compressed TCP frame: " + clen + "/" + len + " bytes");
+      if( _raw.length < len ) _raw = new byte[len];
+      if( clen == 0 ) {         // Raw page
+        if( !readFully(chan, ByteBuffer.wrap(_raw, 0, len)) ) return false;
+      } else {
+        if( _buf.length < clen ) _buf = new byte[clen];
+        if( !readFully(chan, ByteBuffer.wrap(_buf, 0, clen)) ) return false;
+        long res = Zstd.decompressByteArray(_raw, 0, len, _buf, 0, clen);
+        if( Zstd.isError(res) || res != len )
+          throw new IOException("Corrupted compressed TCP frame: expected " + len + " bytes, got " +
+              (Zstd.isError(res) ? Zstd.getErrorName(res) : res));
+      }
+      _wire += 8 + (clen == 0 ? len : clen);
+      _pos = 0;
+      _lim = len;
+      return true;
+    }
+
+    private static boolean readFully(ReadableByteChannel chan, ByteBuffer bb) throws IOException {
+      while( bb.hasRemaining() )
+        if( chan.read(bb) < 0 ) return false;
+      return true;
+    }
+  }
+}
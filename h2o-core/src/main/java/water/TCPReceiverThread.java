@@ -241,6 +241,7 @@ public class TCPReceiverThread extends Thread {
           assert sz < AutoBuffer.BBP_SML._size : "Incoming message is too big, should've been sent by TCP-BIG, got " + sz + " bytes";
           byte[] ary = MemoryManager.malloc1(Math.max(16,sz));
           int sentinel = read(sz+1).get(ary,0,sz).get(); // extract the message bytes, then the sentinel byte
+          _h2o._peerStats.received(sz+3, sz+3);
           assert (0xFF & sentinel) == 0xef : "Missing expected sentinel (0xef) at the end of the message from " + _h2o + ", likely out of sync, size = " + sz + ", position = " + _bb.position() +", bytes = " + printBytes(_bb, _bb.position(), sz);
           // package the raw bytes into an array and pass it on to FJQ for further processing
           basic_packet_handling(new AutoBuffer(_h2o, ary, 0, sz));
@@ -0,0 +1,84 @@
+package water;
+
+import java.util.Arrays;
+
+/**
+ * Get a batch of keys from the same remote (home) node, with a single RPC.
+ *
+ * The home node ships the Values in the order of the requested keys, up to
+ * {@link #MAX_BYTES} of serialized data (but always at least one Value).
+ * Keys which did not fit are left for the caller to request again, see
+ * {@link DKV#getAll(Key[])}.
+ */
+public class TaskGetKeys extends DTask<TaskGetKeys> {
+  // Budget for the Values shipped in one reply
+  static final int MAX_BYTES = 16 << 20;
+
+  Key[] _keys;               // Set by client/sender JVM, cleared by server JVM
+  Value[] _vals;             // Set by server JVM, read by client JVM
+  int _n;                    // Number of keys answered (length of _vals), set by server JVM
+  transient Key[] _xkeys;    // Set by client, read by client
+  transient int[] _idxs;     // Set by client, positions of the keys in the caller's request
+  transient H2ONode _h2o;    // Set by server JVM, read by server JVM on ACKACK
+
+  // Start an RPC to fetch the Values of the given keys, all homed on the target node
+  static RPC<TaskGetKeys> start( H2ONode target, Key[] keys, int[] idxs ) {
+    TaskGetKeys tgks = new TaskGetKeys(keys);
+    tgks._idxs = idxs;
+    RPC<TaskGetKeys> rpc = new RPC<>(target,tgks,1.0f);
+    rpc.setTaskNum().call();    // Start the op
+    return rpc;
+  }
+
+  private TaskGetKeys( Key[] keys ) { super(H2O.GET_KEY_PRIORITY); _keys = _xkeys = keys; }
+
+  // Top-level non-recursive invoke
+  @Override public void dinvoke( H2ONode sender ) {
+    _h2o = sender;
+    Key[] ks = _keys;
+    _keys = null;         // Not part of the return result
+    Value[] vals = new Value[ks.length];
+    long bytes = 0;
+    int n = 0;
+    while( n < ks.length && (n == 0 || bytes < MAX_BYTES) ) {
+      Key k = ks[n];
+      assert k.home();    // Gets are always from home (less we do replication)
+      // Track replicas so we can invalidate, see TaskGetKey
+      Value val;
+      do  val = Value.STORE_get(k);
+      while( val != null && !val.setReplica(sender) );
+      if( val != null ) {
+        int clen = val.compressedSize(); // shipped compressed, see Value.write_impl
+        bytes += clen > 0 ? clen : val._max;
+      }
+      vals[n++] = val;
+    }
+    _n = n;
+    _vals = n == vals.length ? vals : Arrays.copyOf(vals,n);
+    tryComplete();
+  }
+  @Override public void compute2() { throw H2O.fail(); }
+
+  // Received an ACK; executes on the node asking&receiving the Values
+  @Override public void onAck() {
+    // Update the local store, caching the results; same rules as for TaskGetKey
+    for( int i = 0; i < _n; i++ ) {
+      Key k = _xkeys[i];
+      Value val = _vals[i];
+      if( val != null ) {       // Set transient fields after deserializing
+        assert !k.home() && val._key == null;
+        val._key = k;
+      }
+      Value old = H2O.STORE.get(k);
+      if( old != null && !old.isEmpty() ) old=null;
+      Value res = H2O.putIfMatch(k,val,old);
+      if( res != old ) _vals[i] = res;
+    }
+  }
+
+  // Received an ACKACK; executes on the node sending the Values
+  @Override public void onAckAck() {
+    for( Value val : _vals )
+      if( val != null ) val.lowerActiveGetCount(_h2o);
+  }
+}
@@ -1,8 +1,10 @@
 package water;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import jsr166y.ForkJoinPool;
 import water.fvec.Frame;
@@ -95,6 +97,29 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
   private volatile Freezable _pojo;
   Freezable rawPOJO() { return _pojo; }
 
+  // ---
+  // Block-compressed version of the _mem array of a cold Chunk, or null.  Set
+  // by the Cleaner (see ColdCompressor) in place of both the _mem and the POJO,
+  // or when a compressed Value is received over the wire.  Cleared on first
+  // access, when the _mem array is rebuilt by decompressing it.
+  private volatile byte[] _cmem;
+  final byte[] rawCompressedMem() { return _cmem; }
+  // Off-heap copy of the block-compressed bytes, in place of _cmem when the
+  // off-heap store is on (see MemoryManager).  Never both.  Cleared the same
+  // way as _cmem; dropped buffers are reclaimed by the GC.
+  private transient volatile ByteBuffer _cbuf;
+  final ByteBuffer rawOffHeapMem() { return _cbuf; }
+  // Size of _cbuf counted by the MemoryManager, 0 once released
+  private transient volatile int _cbufLen;
+  private static final AtomicIntegerFieldUpdater<Value> CBUF_LEN_UPDATER =
+    AtomicIntegerFieldUpdater.newUpdater(Value.class, "_cbufLen");
+  // Set when the compression was tried and didn't pay off; the contents of
+  // _mem are immutable, so there is no point in trying again.
+  private transient volatile boolean _incompressible;
+  // Length of the compressed bytes written to disk, or 0 if the on-disk
+  // version is not compressed.
+  private transient int _dskCompressedLen;
+
   /** Invalidate byte[] cache.  Only used to eagerly free memory, for data
    *  which is expected to be read-once. */
   public final void freeMem() {
@@ -104,8 +129,78 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
   /** Invalidate POJO cache.  Only used to eagerly free memory, for data
    *  which is expected to be read-once. */
   public final void freePOJO() {
-    assert isPersisted() || _mem != null;
+    assert isPersisted() || _mem != null || isCompressed();
+    _pojo = null;
+  }
+  /** Invalidate the compressed cache, the Value must be persisted. */
+  final void freeCompressedMem() {
+    assert isPersisted() || !_key.home();
+    _cmem = null;
+    _cbuf = null;
+    releaseOffHeap();
+  }
+
+  /** Stop counting the off-heap copy against the off-heap budget; called
+   *  when the off-heap copy is dropped, or the Value is replaced in the K/V
+   *  store.  The buffer stays valid for any racing readers. */
+  final void releaseOffHeap() {
+    int len = _cbufLen;         // Read once!
+    if( len > 0 && CBUF_LEN_UPDATER.compareAndSet(this, len, 0) )
+      MemoryManager.freeOffHeap(len);
+  }
+
+  /** Replace the serialized and the POJO forms of this Value with a
+   *  block-compressed copy of the serialized form.  Only called by the
+   *  Cleaner on cold Chunks.
+   *  @return true if the Value was compressed */
+  final boolean compressCold() {
+    if( !canCompressCold() ) return false;
+    byte[] mem = memOrLoad();
+    byte[] cmem = ColdCompressor.compress(mem);
+    if( cmem == null ) { _incompressible = true; return false; }
+    ByteBuffer cbuf = MemoryManager.mallocOffHeap(cmem);
+    if( cbuf != null ) { _cbufLen = cbuf.capacity(); _cbuf = cbuf; }
+    else _cmem = cmem;          // Set compressed form before dropping the others
+    _mem = null;
     _pojo = null;
+    return true;
+  }
+
+  /** False if already compressed, or known not to compress well. */
+  final boolean canCompressCold() { return !_incompressible && !isCompressed(); }
+
+  /** True if the Value is currently held only in the compressed form. */
+  public final boolean isCompressed() { return _cmem != null || _cbuf != null; }
+  /** True if the compressed form is held off-heap. */
+  public final boolean isOffHeap() { return _cbuf != null; }
+
+  /** Size of the compressed form, on or off heap.
+   *  @return number of compressed bytes, or 0 if not compressed */
+  final int compressedSize() {
+    byte[] cmem = _cmem;        // Read once!
+    if( cmem != null ) return cmem.length;
+    ByteBuffer cbuf = _cbuf;    // Read once!
+    return cbuf == null ? 0 : cbuf.capacity();
+  }
+
+  // The compressed form without copying it: a private view of the off-heap
+  // buffer or the wrapped on-heap array; or null
+  private ByteBuffer compressedBuf() {
+    byte[] cmem = _cmem;        // Read once!
+    if( cmem != null ) return ByteBuffer.wrap(cmem);
+    ByteBuffer cbuf = _cbuf;    // Read once!
+    return cbuf == null ? null : cbuf.duplicate(); // Readers do not share the buffer position
+  }
+
+  // The compressed form, copied onto the heap if held off-heap; or null
+  private byte[] compressedMem() {
+    byte[] cmem = _cmem;        // Read once!
+    if( cmem != null ) return cmem;
+    ByteBuffer cbuf = _cbuf;    // Read once!
+    if( cbuf == null ) return null;
+    byte[] bs = new byte[cbuf.remaining()];
+    cbuf.duplicate().get(bs);   // Readers do not share the buffer position
+    return bs;
   }
 
   public final boolean isConsistent() {
@@ -135,12 +230,22 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
     Freezable pojo = _pojo;     // Read once!
     if( pojo != null )          // Has the POJO, make raw bytes
       return _mem = pojo.asBytes();
+    byte[] cmem = compressedMem();
+    if( cmem != null ) {        // Cold value, decompress
+      _mem = mem = ColdCompressor.decompress(cmem, _max);
+      _cmem = null;             // Drop compressed form after _mem is set
+      _cbuf = null;
+      releaseOffHeap();
+      return mem;
+    }
+    mem = _mem;                 // Racing decompression in another thread?
+    if( mem != null ) return mem;
     if( _max == 0 ) return (_mem = new byte[0]);
     return (_mem = loadPersist());
   }
   // Just an empty shell of a Value, no local data but the Value is "real".
   // Any attempt to look at the Value will require a remote fetch.
-  final boolean isEmpty() { return _max > 0 && _mem==null && _pojo == null && !isPersisted(); }
+  final boolean isEmpty() { return _max > 0 && _mem==null && _pojo == null && !isCompressed() && !isPersisted(); }
 
   /** The FAST path get-POJO as an {@link Iced} subclass - final method for
    *  speed.  Will (re)build the POJO from the _mem array.  Never returns NULL.
@@ -176,9 +281,20 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
   // ---
   // Time of last access to this value.
   transient long _lastAccessedTime = System.currentTimeMillis();
-  private void touch() {_lastAccessedTime = System.currentTimeMillis();}
+  // Number of recent accesses, saturating; halved by the Cleaner as it ages.
+  // Racy increments are fine, it is a heuristic.
+  private transient byte _hits;
+  private void touch() {
+    _lastAccessedTime = System.currentTimeMillis();
+    if( _hits != Byte.MAX_VALUE ) _hits++;
+  }
   // Exposed and used for testing only; used to trigger premature cleaning/disk-swapping
   void touchAt(long time) {_lastAccessedTime = time;}
+  /** Time of the last access, in msec */
+  public final long lastAccessedTime() { return _lastAccessedTime; }
+  /** Number of recent accesses (decaying over time), for the {@link EvictionPolicy} */
+  public final int accessCount() { return _hits; }
+  void decayAccessCount() { _hits >>= 1; }
 
   // ---
 
@@ -197,6 +313,8 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
   public  final static byte HTTP= 6<<0; // HTTP/HTTPS data source (that accepts byte ranges, "Accept-Ranges: bytes")
   public  final static byte TCP = 7<<0; // TCP: For profile purposes, not a storage system
   private final static byte BACKEND_MASK = (8-1);
+  // Wire-only flag: the serialized bytes are shipped block-compressed
+  private final static byte WIRE_COMPRESSED = 1<<4;
   final byte backend() { return (byte)(_persist&BACKEND_MASK); }
   boolean onICE (){ return (backend()) ==  ICE; }
   private boolean onHDFS(){ return (backend()) == HDFS; }
@@ -259,10 +377,30 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
     try {
       byte[] res = H2O.getPM().load(backend(), this);
       assert !isDeleted();        // Race in user-land: load-after-delete
+      if( res != null && _dskCompressedLen > 0 ) // Swapped out compressed
+        res = ColdCompressor.decompress(res, _max);
       return res;
     } catch( IOException ioe ) { throw Log.throwErr(ioe); }
   }
 
+  /** Bytes to be written to the persistent store: the compressed form of a
+   *  cold Chunk if available (it is decompressed on load), the serialized
+   *  bytes otherwise.  Off-heap bytes are not copied, the returned buffer is
+   *  a view of them.  Only called by the backends while storing the Value.
+   *  @return buffer holding the bytes to be persisted (from its position to its limit) */
+  public final ByteBuffer persistBuffer() {
+    ByteBuffer cbuf = compressedBuf();
+    if( cbuf != null ) {
+      _dskCompressedLen = cbuf.remaining();
+      return cbuf;
+    }
+    _dskCompressedLen = 0;
+    return ByteBuffer.wrap(memOrLoad());
+  }
+  /** Size of the persisted form of this Value.
+   *  @return number of bytes held by the persistent store */
+  public final int persistedSize() { return _dskCompressedLen > 0 ? _dskCompressedLen : _max; }
+
   String nameOfPersist() { return nameOfPersist(backend()); }
   /** One of ICE, HDFS, S3, GCS, NFS or TCP, according to where this Value is persisted.
    *  @return Short String of the persitance name */
@@ -382,16 +520,26 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
   // and the normal serializer then might ship over a null instead of the
   // intended byte[].  Also, the value is NOT on the deserialize'd machines disk
   public final AutoBuffer write_impl( AutoBuffer ab ) {
+    ByteBuffer cbuf = compressedBuf();
+    if( cbuf != null )          // Cold value, ship compressed
+      return ab.put1(_persist|WIRE_COMPRESSED).put2(_type).put4(_max).putA1(cbuf);
     return ab.put1(_persist).put2(_type).putA1(memOrLoad());
   }
   // Custom serializer: set _max from _mem length; set replicas & timestamp.
   public final Value read_impl(AutoBuffer bb) {
     assert _key == null;        // Not set yet
     // Set persistence backend but... strip off saved-to-disk bit
-    _persist = (byte)(bb.get1()&BACKEND_MASK);
+    byte persist = (byte)bb.get1();
+    _persist = (byte)(persist&BACKEND_MASK);
     _type = (short) bb.get2();
-    _mem = bb.getA1();
-    _max = _mem.length;
+    if( (persist&WIRE_COMPRESSED) != 0 ) { // Stays compressed until first access
+      _max = bb.get4();
+      _cmem = bb.getA1();
+      _mem = null;
+    } else {
+      _mem = bb.getA1();
+      _max = _mem.length;
+    }
     assert _max < MAX : "Value size=0x"+Integer.toHexString(_max)+" during read is larger than "+Integer.toHexString(MAX)+", type: "+TypeMap.className(_type);
     _pojo = null;
     // On remote nodes _rwlock is initialized to 1 (signaling a remote PUT is
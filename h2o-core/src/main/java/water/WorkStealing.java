@@ -0,0 +1,232 @@
+package water;
+
+import jsr166y.CountedCompleter;
+import water.fvec.Vec;
+import water.nbhm.NonBlockingHashMapLong;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stealing of unstarted chunks between the nodes running an {@link MRTask},
+ * see {@link MRTask#withWorkStealing}.
+ *
+ * Every node registers the chunks homed on it, and its F/J threads claim each
+ * chunk before mapping it.  Once all the chunks of a node are claimed and
+ * mapped, the node asks the other nodes for some of their unclaimed chunks,
+ * fetches them and maps them itself, until no node gives any more.  Nothing
+ * blocks: the other nodes are asked by chained RPC completions, and a node
+ * which cannot tell yet (it did not map any chunk) answers once it can.
+ *
+ * A node only gives away chunks it could not start soon itself (more unclaimed
+ * chunks than F/J threads), and only while mapping a chunk took longer than
+ * {@link #COST_RATIO} times moving it to the other node - estimated from the
+ * measured link bandwidth ({@link PeerStats}), and the chunk sizes.
+ */
+final class WorkStealing {
+  // Steal a chunk only if mapping it takes this many times longer than moving it
+  static final double COST_RATIO = 2;
+  // Bandwidth assumed to a node with no measurements yet
+  static final double DEFAULT_LINK_BYTES_PER_SEC = 100e6;
+  private static final int[] LATER = new int[0];
+
+  private static final AtomicLong SEQ = new AtomicLong();
+  // Tasks running on this node, by stealing id
+  private static final NonBlockingHashMapLong<State> TASKS = new NonBlockingHashMapLong<>();
+
+  private WorkStealing() {}
+
+  /** @return a new cloud-wide unique id of a task */
+  static long newId() { return ((long) (H2O.SELF.index() + 1) << 40) | SEQ.incrementAndGet(); }
+
+  /** Chunks of one task homed on this node */
+  static final class State {
+    private final Vec[] _vecs;
+    private final int[] _home;             // Chunks homed here, ascending
+    private final AtomicLongArray _claimed; // Bit per chunk
+    private final AtomicInteger _unclaimed;
+    private final AtomicInteger _remaining; // Neither mapped here nor stolen
+    private final LongAdder _mapped = new LongAdder(), _mapNs = new LongAdder();
+    private final MRTask _stealer;          // Started once nothing remains
+    private final AtomicBoolean _started = new AtomicBoolean();
+    // Requests to answer once the cost of a chunk is known; under the State lock
+    private ArrayList<StealRequest> _waiting;
+    private boolean _closed;
+
+    State(Vec[] vecs, MRTask stealer) {
+      _vecs = vecs;
+      _stealer = stealer;
+      Vec v0 = vecs[0];
+      int nchks = v0.nChunks(), n = 0;
+      int[] home = new int[nchks];
+      for( int i = 0; i < nchks; i++ )
+        if( v0.chunkKey(i).home() ) home[n++] = i;
+      _home = Arrays.copyOf(home, n);
+      _claimed = new AtomicLongArray((nchks + 63) >> 6);
+      _unclaimed = new AtomicInteger(n);
+      _remaining = new AtomicInteger(n);
+    }
+
+    /** Claim the chunk for mapping; false if another node stole it */
+    boolean claim(int cidx) {
+      int i = cidx >> 6;
+      long bit = 1L << (cidx & 63);
+      while( true ) {
+        long old = _claimed.get(i);
+        if( (old & bit) != 0 ) return false;
+        if( _claimed.compareAndSet(i, old, old | bit) ) { _unclaimed.decrementAndGet(); return true; }
+      }
+    }
+
+    /** A claimed chunk was mapped here, in the given time */
+    void mapped(long ns) {
+      _mapped.increment();
+      _mapNs.add(ns);
+      done(1);
+      answerWaiting();
+    }
+
+    // Answer the request now, or once a chunk was mapped here
+    private void answer(StealRequest req) {
+      int[] chunks;
+      synchronized( this ) {
+        chunks = _closed ? null : steal(req._thief, req._max);
+        if( chunks == LATER ) {
+          if( _waiting == null ) _waiting = new ArrayList<>();
+          _waiting.add(req);
+          return;
+        }
+      }
+      req.answer(chunks);
+    }
+
+    private void answerWaiting() {
+      ArrayList<StealRequest> waiting;
+      synchronized( this ) {
+        if( (waiting = _waiting) == null ) return;
+        _waiting = null;
+      }
+      for( StealRequest req : waiting ) answer(req);
+    }
+
+    // The task is done here: nothing more to give
+    private void close() {
+      synchronized( this ) { _closed = true; }
+      answerWaiting();
+    }
+
+    private void done(int n) {
+      if( _remaining.addAndGet(-n) == 0 ) startStealing();
+    }
+
+    void startStealing() {
+      if( _started.compareAndSet(false, true) ) H2O.submitTask(_stealer);
+    }
+
+    /** Claim chunks for the given node, if moving them there pays off.
+     *  @return the chunks, null if none, empty to ask again later */
+    int[] steal(H2ONode thief, int max) {
+      // Keep what the local threads would start next anyway, give at most half the rest
+      int n = Math.min(max, (_unclaimed.get() - H2O.ARGS.nthreads + 1) / 2);
+      if( n <= 0 ) return null;
+      long mapped = _mapped.sum();
+      if( mapped == 0 ) return LATER; // No idea of the cost of a chunk yet
+      double mapNs = (double) _mapNs.sum() / mapped;
+      double bw = thief._peerStats._linkBytesPerSec;
+      if( bw == 0 ) bw = DEFAULT_LINK_BYTES_PER_SEC;
+      int[] res = new int[n];
+      int k = 0;
+      for( int i = _home.length - 1; i >= 0 && k < n; i-- ) {
+        int cidx = _home[i];
+        if( mapNs < COST_RATIO * chunkBytes(cidx) * 1e9 / bw ) continue; // Cheaper to map it here
+        if( claim(cidx) ) res[k++] = cidx;
+      }
+      if( k == 0 ) return null;
+      done(k);
+      return Arrays.copyOf(res, k);
+    }
+
+    private long chunkBytes(int cidx) {
+      long bytes = 0;
+      for( Vec v : _vecs ) {
+        Value val = H2O.STORE.get(v.chunkKey(cidx));
+        if( val != null ) bytes += val._max;
+      }
+      return bytes;
+    }
+  }
+
+  /** Register the chunks of a task on this node.  The stealer is started once
+   *  they are all mapped or stolen - right away, if there are none. */
+  static void register(long id, Vec[] vecs, MRTask stealer) {
+    State s = new State(vecs, stealer);
+    TASKS.put(id, s);
+    if( s._home.length == 0 ) s.startStealing();
+  }
+
+  static void unregister(long id) {
+    State s = TASKS.remove(id);
+    if( s != null ) s.close();
+  }
+
+  /** Claim a chunk homed here for mapping; false if another node stole it */
+  static boolean claim(long id, int cidx) {
+    State s = TASKS.get(id);
+    return s == null || s.claim(cidx);
+  }
+
+  static void mapped(long id, long ns) {
+    State s = TASKS.get(id);
+    if( s != null ) s.mapped(ns);
+  }
+
+  /** Steal chunks of the given task from the other nodes, asking each in
+   *  turn; calls {@link MRTask#stolen} with the chunks stolen from the first
+   *  node which gave any, or null. */
+  static void steal(long id, MRTask thief) { ask(id, thief, 1); }
+
+  private static void ask(final long id, final MRTask thief, final int i) {
+    H2ONode[] nodes = H2O.CLOUD.members();
+    if( i >= nodes.length ) { thief.stolen(null); return; }
+    H2ONode victim = nodes[(H2O.SELF.index() + i) % nodes.length];
+    new RPC<>(victim, new StealRequest(id, H2O.ARGS.nthreads)).addCompleter(new H2O.H2OCallback<StealRequest>() {
+      @Override public void callback(StealRequest req) {
+        if( req._chunks == null ) ask(id, thief, i + 1);
+        else thief.stolen(req._chunks);
+      }
+      @Override public boolean onExceptionalCompletion(Throwable ex, CountedCompleter caller) {
+        thief.completeExceptionally(ex);
+        return true;
+      }
+    }).call();
+  }
+
+  private static class StealRequest extends DTask<StealRequest> {
+    final long _id;
+    final int _max;
+    int[] _chunks;
+    transient H2ONode _thief;
+    StealRequest(long id, int max) { _id = id; _max = max; }
+
+    @Override public void dinvoke(H2ONode sender) {
+      _thief = sender;
+      super.dinvoke(sender);
+    }
+
+    @Override public void compute2() {
+      State s = TASKS.get(_id);
+      if( s != null ) s.answer(this);
+      else tryComplete();
+    }
+
+    void answer(int[] chunks) {
+      _chunks = chunks;
+      tryComplete();
+    }
+  }
+}
@@ -252,7 +252,7 @@ public class FramesHandler<I extends FramesHandler.Frames, S extends SchemaV3<I,
       if (s.parallel) {
         Log.warn("Parallel export to a single file is not supported for parquet format! Export will continue with a parquet-specific setup.");
       }
-      s.job = new JobV3(Frame.exportParquet(fr, s.path, s.force, s.compression, s.write_checksum, s.tz_adjust_from_local));
+      s.job = new JobV3(Frame.exportParquet(fr, s.path, s.force, s.compression, s.write_checksum, s.tz_adjust_from_local, s.row_group_size));
     } else {
       Frame.CSVStreamParams csvParms = new Frame.CSVStreamParams()
               .setSeparator(s.separator)
@@ -281,7 +281,7 @@ public class FramesHandler<I extends FramesHandler.Frames, S extends SchemaV3<I,
         throw new IllegalArgumentException("Frame " + req.frame_id + " already exists.");
       }
     }
-    req.job = new JobV3(FramePersist.loadFrom(req.frame_id.key(), req.dir));
+    req.job = new JobV3(FramePersist.loadFrom(req.frame_id.key(), req.dir, req.columns, req.lazy));
     return req;
   }
 
@@ -292,14 +292,16 @@ public class FramesHandler<I extends FramesHandler.Frames, S extends SchemaV3<I,
 
     if( null != frame) {
       Futures fs = new Futures();
+      List<Vec> present = new ArrayList<>();
       int i = 0;
       for( Vec v : frame.vecs() ) {
         if (null == DKV.get(v._key))
           Log.warn("For Frame: " + frame._key + ", Vec number: " + i + " (" + frame.name(i)+ ") is missing; not returning it.");
         else
-          v.startRollupStats(fs, Vec.DO_HISTOGRAMS);
+          present.add(v);
         i++;
       }
+      Vec.startRollupStats(present.toArray(new Vec[present.size()]), fs, Vec.DO_HISTOGRAMS);
       fs.blockForPending();
     }
 
@@ -1,6 +1,7 @@
 package water.api;
 
 import water.*;
+import water.api.schemas3.JobProfileV3;
 import water.api.schemas3.JobV3;
 import water.api.schemas3.JobsV3;
 import water.api.schemas4.input.JobIV4;
@@ -55,6 +56,38 @@ public class JobsHandler extends Handler {
     return s;
   }
 
+  @SuppressWarnings("unused") // called through reflection by RequestServer
+  public JobProfileV3 profile(int version, JobProfileV3 s) {
+    Key<Job> key = s.job_id.key();
+    Job j = DKV.getGet(key);
+    if (j == null) {
+      throw new H2ONotFoundArgumentException("No job with key " + key, "No job with key " + key);
+    }
+    s.profiled = j.isProfiled();
+    JobProfiler.TaskProfile[] profiles = JobProfiler.collect(key);
+    s.entries = new JobProfileV3.JobProfileEntryV3[profiles.length];
+    for (int i = 0; i < profiles.length; i++) {
+      JobProfiler.TaskProfile tp = profiles[i];
+      JobProfileV3.JobProfileEntryV3 e = new JobProfileV3.JobProfileEntryV3();
+      e.node = tp._node;
+      e.task = tp._task;
+      e.launched = tp._launched;
+      e.maps = tp._maps;
+      e.setup_local_ms = tp.get(JobProfiler.Phase.SETUP_LOCAL) / 1e6;
+      e.map_ms = tp.get(JobProfiler.Phase.MAP) / 1e6;
+      e.reduce_ms = tp.get(JobProfiler.Phase.REDUCE) / 1e6;
+      e.close_local_ms = tp.get(JobProfiler.Phase.CLOSE_LOCAL) / 1e6;
+      e.remote_wait_ms = tp.get(JobProfiler.Phase.REMOTE_WAIT) / 1e6;
+      e.block_pending_ms = tp.get(JobProfiler.Phase.BLOCK_PENDING) / 1e6;
+      e.post_global_ms = tp.get(JobProfiler.Phase.POST_GLOBAL) / 1e6;
+      e.sent_bytes = tp.get(JobProfiler.Phase.SENT);
+      e.received_bytes = tp.get(JobProfiler.Phase.RECEIVED);
+      s.entries[i] = e;
+    }
+    s.folded = JobProfiler.folded(profiles);
+    return s;
+  }
+
   static long fetchJobTimeoutMs() {
     String timeoutSpec = ServletUtils.getSessionProperty("job.fetch_timeout_ms", null);
     if (timeoutSpec == null) {
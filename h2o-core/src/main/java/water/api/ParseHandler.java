@@ -42,6 +42,12 @@ class ParseHandler extends Handler {
       setup.setSyntheticColumns(parse.partition_by, partitionValues, Vec.T_CAT);
     }
 
+    if (parse.row_filter != null && !parse.row_filter.trim().isEmpty()) {
+      if (!"parquet".equals(setup.getParseType().name().toLowerCase()))
+        throw new H2OIllegalArgumentException("Parser: row_filter is only supported for Parquet files.");
+      setup.setRowFilter(parse.row_filter);
+    }
+
     if ((setup.getParseType().name().toLowerCase().equals("svmlight") ||
             (setup.getParseType().name().toLowerCase().equals("avro") ))
             && ((setup.getSkippedColumns() != null) && (setup.getSkippedColumns().length >0)))
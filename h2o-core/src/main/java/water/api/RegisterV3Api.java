@@ -152,6 +152,10 @@ public class RegisterV3Api extends AbstractRegister {
             "GET /3/Jobs/{job_id}", JobsHandler.class, "fetch",
             "Get the status of the given H2O Job (long-running action).");
 
+    context.registerEndpoint("jobProfile",
+            "GET /3/Jobs/{job_id}/profile", JobsHandler.class, "profile",
+            "Get the time of the MRTasks of the given H2O Job per node and phase, if the Job is profiled (see -profile_jobs).");
+
     context.registerEndpoint("cancelJob",
             "POST /3/Jobs/{job_id}/cancel", JobsHandler.class, "cancel",
             "Cancel a running job.");
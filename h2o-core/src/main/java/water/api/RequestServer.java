@@ -731,6 +731,8 @@ public class RequestServer extends HttpServlet {
         return LogsHandler.downloadLogsViaRestAPI(container);
       }
       if (path[2].equals("NodePersistentStorage.bin") && path.length == 6) return downloadNps(path[3], path[4]);
+      // Metrics of this node in the Prometheus text format
+      if (path[2].equals("Metrics") && path.length == 4) return new NanoResponse(HTTP_OK, Metrics.CONTENT_TYPE, Metrics.toPrometheus());
     }
     return null;
   }
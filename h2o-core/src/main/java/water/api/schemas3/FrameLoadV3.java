@@ -17,6 +17,13 @@ public class FrameLoadV3 extends RequestSchemaV3<Iced, FrameLoadV3> {
   @API(help="Override existing frame in case it exists or throw exception if set to false")
   public boolean force = true;
 
+  @API(help="Names of the columns to load, all columns if not set")
+  public String[] columns;
+
+  @API(help="Only load the frame metadata, the data is read from the source directory when first used. The source " +
+          "directory must stay available as long as the frame is used.")
+  public boolean lazy = false;
+
   @API(help = "Job indicating progress", direction = API.Direction.OUTPUT)
   public JobV3 job;
 
@@ -17,6 +17,9 @@ import water.util.FrameUtils;
 import water.util.Log;
 import water.util.PrettyPrint;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * All the details on a Frame.  Note that inside ColV3 there are fields which won't be
  * populated if we don't compute rollups, e.g. via
@@ -285,11 +288,13 @@ public class FrameV3 extends FrameBaseV3<Frame, FrameV3> {
     // Compute rollups in parallel as needed, by starting all of them and using
     // them when filling in the ColV3 Schemas.
     // NOTE: SKIP deleted Vecs!  The columns entry will be null for deleted Vecs.
+    List<Vec> present = new ArrayList<>(column_count);
     for( int i = 0; i < column_count; i++ )
       if (null == DKV.get(vecs[column_offset + i]._key))
         Log.warn("For Frame: " + f._key + ", Vec number: " + (column_offset + i) + " (" + f.name((column_offset + i))+ ") is missing; not returning it.");
       else
-        vecs[column_offset + i].startRollupStats(fs);
+        present.add(vecs[column_offset + i]);
+    Vec.startRollupStats(present.toArray(new Vec[present.size()]), fs, false);
 
 
     for( int i = 0; i < column_count; i++ )
@@ -56,6 +56,9 @@ public class FramesV3 extends RequestSchemaV3<Frames, FramesV3> {
   @API(help="Specifies if the timezone should be adjusted from local to UTC timezone (parquet only).")
   public boolean tz_adjust_from_local = false;
 
+  @API(help="Target size of the row groups in bytes (parquet only, 0 = default of 128MB).")
+  public int row_group_size;
+
   @API(help="Field separator (default ',')")
   public byte separator = Frame.CSVStreamParams.DEFAULT_SEPARATOR;
 
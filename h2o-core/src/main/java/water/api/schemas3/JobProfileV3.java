@@ -0,0 +1,60 @@
+package water.api.schemas3;
+
+import water.Iced;
+import water.api.API;
+
+public class JobProfileV3 extends RequestSchemaV3<Iced, JobProfileV3> {
+
+  public static class JobProfileEntryV3 extends SchemaV3<Iced, JobProfileEntryV3> {
+    @API(help="Node", direction=API.Direction.OUTPUT)
+    public String node;
+
+    @API(help="MRTask class", direction=API.Direction.OUTPUT)
+    public String task;
+
+    @API(help="Tasks launched from this node", direction=API.Direction.OUTPUT)
+    public long launched;
+
+    @API(help="Calls to map on this node", direction=API.Direction.OUTPUT)
+    public long maps;
+
+    @API(help="Time in setupLocal (ms)", direction=API.Direction.OUTPUT)
+    public double setup_local_ms;
+
+    @API(help="Time in map, including closing the chunks (ms, summed over threads)", direction=API.Direction.OUTPUT)
+    public double map_ms;
+
+    @API(help="Time in reduce, of local and remote results (ms, summed over threads)", direction=API.Direction.OUTPUT)
+    public double reduce_ms;
+
+    @API(help="Time in closeLocal (ms)", direction=API.Direction.OUTPUT)
+    public double close_local_ms;
+
+    @API(help="Time waiting for the results of other nodes, including the network transfers (ms)", direction=API.Direction.OUTPUT)
+    public double remote_wait_ms;
+
+    @API(help="Time blocked on pending writes after the local work (ms)", direction=API.Direction.OUTPUT)
+    public double block_pending_ms;
+
+    @API(help="Time in postGlobal (ms)", direction=API.Direction.OUTPUT)
+    public double post_global_ms;
+
+    @API(help="Serialized bytes of the tasks sent to other nodes", direction=API.Direction.OUTPUT)
+    public long sent_bytes;
+
+    @API(help="Serialized bytes of the results received from other nodes", direction=API.Direction.OUTPUT)
+    public long received_bytes;
+  }
+
+  @API(help="Job identifier", required=true)
+  public KeyV3.JobKeyV3 job_id;
+
+  @API(help="Whether the Job is profiled", direction=API.Direction.OUTPUT)
+  public boolean profiled;
+
+  @API(help="Phase times per node and MRTask class", direction=API.Direction.OUTPUT)
+  public JobProfileEntryV3[] entries;
+
+  @API(help="The profile in the collapsed-stack format of flame graph tools: task;node;phase microseconds", direction=API.Direction.OUTPUT)
+  public String folded;
+}
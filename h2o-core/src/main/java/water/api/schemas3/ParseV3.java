@@ -69,6 +69,11 @@ public class ParseV3 extends RequestSchemaV3<Iced, ParseV3> {
   @API(help = "Name of the column the persisted dataset has been partitioned by.")
   public String[] partition_by;
 
+  @API(help="Rows to parse, as conditions on single columns joined by '&&', e.g. \"year >= 2020 && state == 'CA'\". " +
+          "Only supported for Parquet files, where row groups are skipped based on their statistics.",
+          direction=API.Direction.INPUT)
+  public String row_filter;
+
   // Output fields
   @API(help="Parse job", direction=API.Direction.OUTPUT)
   public JobV3 job;
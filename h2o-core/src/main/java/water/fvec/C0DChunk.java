@@ -3,6 +3,7 @@ package water.fvec;
 import water.parser.BufferedString;
 import water.util.UnsafeUtils;
 
+import java.util.Arrays;
 import java.util.UUID;
 
 /**
@@ -94,4 +95,18 @@ public class C0DChunk extends Chunk {
     return v;
   }
 
+  @Override public double [] getDoubles(double [] vals, int from, int to, double NA){
+    Arrays.fill(vals, 0, to - from, Double.isNaN(_con) ? NA : _con);
+    return vals;
+  }
+  @Override public int getNAs(long [] naBits, int from, int to){
+    int nwords = (to - from + 63) >> 6;
+    if( !Double.isNaN(_con) ) {
+      Arrays.fill(naBits, 0, nwords, 0);
+      return 0;
+    }
+    Arrays.fill(naBits, 0, nwords, -1L);
+    if( ((to - from) & 63) != 0 ) naBits[nwords - 1] = (1L << (to - from)) - 1;
+    return to - from;
+  }
 }
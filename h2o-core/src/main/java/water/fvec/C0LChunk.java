@@ -2,6 +2,8 @@ package water.fvec;
 
 import water.util.UnsafeUtils;
 
+import java.util.Arrays;
+
 /**
  * The constant 'long' column.
  */
@@ -57,4 +59,22 @@ public class C0LChunk extends Chunk {
         v.addValue(_con);
     return v;
   }
+
+  @Override public double [] getDoubles(double [] vals, int from, int to, double NA){
+    Arrays.fill(vals, 0, to - from, _con);
+    return vals;
+  }
+  @Override public int [] getIntegers(int [] vals, int from, int to, int NA){
+    if( (int)_con != _con ) throw new RuntimeException(_con + " does not fit into int");
+    Arrays.fill(vals, 0, to - from, (int)_con);
+    return vals;
+  }
+  @Override public long [] getLongs(long [] vals, int from, int to, long NA){
+    Arrays.fill(vals, 0, to - from, _con);
+    return vals;
+  }
+  @Override public int getNAs(long [] naBits, int from, int to){
+    Arrays.fill(naBits, 0, (to - from + 63) >> 6, 0);
+    return 0;
+  }
 }
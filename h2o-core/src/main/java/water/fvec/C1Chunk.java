@@ -62,6 +62,14 @@ public class C1Chunk extends Chunk {
     return vals;
   }
 
+  @Override public long [] getLongs(long [] vals, int from, int to, long NA){
+    for(int i = from; i < to; i++) {
+      int x = 0xFF&_mem[i];
+      vals[i-from] = (x == _NA)?NA:x;
+    }
+    return vals;
+  }
+
   @Override public double [] getDoubles(double [] vals, int from, int to, double NA){
     for(int i = from; i < to; i++) {
       int x = 0xFF&_mem[i];
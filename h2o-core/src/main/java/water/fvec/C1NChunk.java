@@ -1,5 +1,7 @@
 package water.fvec;
 
+import java.util.Arrays;
+
 /**
  * The empty-compression function, if all elements fit directly on UNSIGNED bytes.
  * [In particular, this is the compression style for data read in from files.]
@@ -49,4 +51,18 @@ public class C1NChunk extends Chunk {
     return v;
   }
 
+  @Override public int [] getIntegers(int [] vals, int from, int to, int NA){
+    for(int i = from; i < to; i++)
+      vals[i-from] = 0xFF&_mem[i];
+    return vals;
+  }
+  @Override public long [] getLongs(long [] vals, int from, int to, long NA){
+    for(int i = from; i < to; i++)
+      vals[i-from] = 0xFF&_mem[i];
+    return vals;
+  }
+  @Override public int getNAs(long [] naBits, int from, int to){
+    Arrays.fill(naBits, 0, (to - from + 63) >> 6, 0);
+    return 0;
+  }
 }
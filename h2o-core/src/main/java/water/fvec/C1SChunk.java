@@ -60,6 +60,29 @@ public final class C1SChunk extends CSChunk {
       vals[i-from] = getD(0xFF&_mem[_OFF+i],C1Chunk._NA,NA);
     return vals;
   }
+  @Override public int [] getIntegers(int [] vals, int from, int to, int NA){
+    if(hasFloat()) return super.getIntegers(vals,from,to,NA);
+    for(int i = from; i < to; i++) {
+      int x = 0xFF&_mem[_OFF+i];
+      if(x == C1Chunk._NA) vals[i-from] = NA;
+      else {
+        long l = get8(x);
+        if(l != (int)l) throw new RuntimeException(l + " does not fit into int");
+        vals[i-from] = (int)l;
+      }
+    }
+    return vals;
+  }
+
+  @Override public long [] getLongs(long [] vals, int from, int to, long NA){
+    if(hasFloat()) return super.getLongs(vals,from,to,NA);
+    for(int i = from; i < to; i++) {
+      int x = 0xFF&_mem[_OFF+i];
+      vals[i-from] = x == C1Chunk._NA ? NA : get8(x);
+    }
+    return vals;
+  }
+
   /**
    * Dense bulk interface, fetch values from the given ids
    * @param vals
@@ -66,6 +66,15 @@ public class C2Chunk extends Chunk {
     return vals;
   }
 
+  @Override
+  public long [] getLongs(long [] vals, int from, int to, long NA){
+    for(int i = from; i < to; i++) {
+      int x = UnsafeUtils.get2(_mem, 2*i);
+      vals[i-from] = (x == _NA)?NA:x;
+    }
+    return vals;
+  }
+
   @Override
   public <T extends ChunkVisitor> T processRows(T v, int from, int to) {
     for(int i = from; i < to; i++) processRow(i,v);
@@ -56,6 +56,29 @@ public class C2SChunk extends CSChunk {
     return vals;
   }
 
+  @Override public int [] getIntegers(int [] vals, int from, int to, int NA){
+    if(hasFloat()) return super.getIntegers(vals,from,to,NA);
+    for(int i = from; i < to; i++) {
+      int x = getMantissa(i);
+      if(x == C2Chunk._NA) vals[i-from] = NA;
+      else {
+        long l = get8(x);
+        if(l != (int)l) throw new RuntimeException(l + " does not fit into int");
+        vals[i-from] = (int)l;
+      }
+    }
+    return vals;
+  }
+
+  @Override public long [] getLongs(long [] vals, int from, int to, long NA){
+    if(hasFloat()) return super.getLongs(vals,from,to,NA);
+    for(int i = from; i < to; i++) {
+      int x = getMantissa(i);
+      vals[i-from] = x == C2Chunk._NA ? NA : get8(x);
+    }
+    return vals;
+  }
+
   @Override public double [] getDoubles(double [] vals, int [] ids){
     int k = 0;
     for(int i:ids)
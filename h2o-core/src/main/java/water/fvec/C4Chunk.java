@@ -77,4 +77,11 @@ public class C4Chunk extends Chunk {
     return vals;
   }
 
+  @Override public long [] getLongs(long [] vals, int from, int to, long NA){
+    for(int i = from; i < to; i++) {
+      int x = UnsafeUtils.get4(_mem, 4*i);
+      vals[i-from] = (x == _NA)?NA:x;
+    }
+    return vals;
+  }
 }
@@ -64,4 +64,21 @@ public class C8Chunk extends Chunk {
     }
     return vals;
   }
+
+  @Override public int [] getIntegers(int [] vals, int from, int to, int NA){
+    for(int i = from; i < to; i++) {
+      long x = UnsafeUtils.get8(_mem, 8*i);
+      if(x == _NA) vals[i-from] = NA;
+      else if(x != (int)x) throw new RuntimeException(x + " does not fit into int");
+      else vals[i-from] = (int)x;
+    }
+    return vals;
+  }
+  @Override public long [] getLongs(long [] vals, int from, int to, long NA){
+    for(int i = from; i < to; i++) {
+      long x = UnsafeUtils.get8(_mem, 8*i);
+      vals[i-from] = (x == _NA)?NA:x;
+    }
+    return vals;
+  }
 }
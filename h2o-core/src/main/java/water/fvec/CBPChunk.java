@@ -0,0 +1,182 @@
+package water.fvec;
+
+import water.MemoryManager;
+import water.util.UnsafeUtils;
+
+import java.nio.ByteOrder;
+
+/**
+ * Bit-packed integer chunk with a frame of reference (bias).
+ *
+ * Values are stored as non-negative offsets from the bias (minimum of the chunk), each offset uses the same
+ * number of bits (1 to 32 bits per value). The largest offset representable in the given number of bits is reserved
+ * as a marker for NA.
+ *
+ * value(i) = bias + stored_bits(i)
+ *
+ * Compared to C1/C2/C4 chunks this saves memory for columns which span a range that doesn't fill a whole
+ * byte/short/int, eg. values in [0, 20] need only 5 bits per value instead of 8.
+ *
+ * Memory layout: bias (8 bytes), length (4 bytes), bits per value (1 byte), padding (3 bytes), packed values
+ * (little-endian bit order) followed by 7 padding bytes (every value can be read with a single 8-byte load).
+ */
+public class CBPChunk extends Chunk {
+  static protected final int _OFF = 8+4+4;
+  static protected final int _PAD = 7;
+  static public final int MAX_BPV = 32;
+  private static final boolean LITTLE_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+
+  private transient long _bias;
+  private transient int _bpv;
+  private transient long _na; // NA marker == mask of the value bits
+
+  public CBPChunk(byte[] bs) { _mem = bs; initFromBytes(); }
+
+  CBPChunk(long bias, int bpv, int len) {
+    assert 0 < bpv && bpv <= MAX_BPV;
+    byte[] bs = MemoryManager.malloc1(byteSize(len, bpv));
+    UnsafeUtils.set8(bs, 0, bias);
+    UnsafeUtils.set4(bs, 8, len);
+    bs[12] = (byte) bpv;
+    _mem = bs;
+    initFromBytes();
+  }
+
+  /** Number of bits needed to represent values in range [0, range] plus the NA marker. */
+  public static int bitsPerValue(long range) {
+    assert range >= 0;
+    return 64 - Long.numberOfLeadingZeros(range + 1);
+  }
+
+  /** Size of the chunk's memory (in bytes) for the given number of values and bits per value. */
+  public static int byteSize(int len, int bpv) {
+    return _OFF + (int) (((long) len * bpv + 7) >> 3) + _PAD;
+  }
+
+  public int bpv() { return _bpv; }
+  public long bias() { return _bias; }
+
+  private static long word(byte[] mem, int off) {
+    long w = UnsafeUtils.get8(mem, off);
+    return LITTLE_ENDIAN ? w : Long.reverseBytes(w);
+  }
+
+  /** Reads bit-packed value starting at bit {@code bit} of the packed data (located at {@code off}). */
+  static long unpack(byte[] mem, int off, long bit, long mask) {
+    return (word(mem, off + (int) (bit >>> 3)) >>> (bit & 7)) & mask;
+  }
+
+  /** Writes bit-packed value starting at bit {@code bit} of the packed data (located at {@code off}). */
+  static void pack(byte[] mem, int off, long bit, long mask, long x) {
+    assert 0 <= x && x <= mask;
+    off += (int) (bit >>> 3);
+    int shift = (int) (bit & 7);
+    long w = (word(mem, off) & ~(mask << shift)) | (x << shift);
+    UnsafeUtils.set8(mem, off, LITTLE_ENDIAN ? w : Long.reverseBytes(w));
+  }
+
+  private long read(int i) { return unpack(_mem, _OFF, (long) i * _bpv, _na); }
+
+  void write(int i, long x) { pack(_mem, _OFF, (long) i * _bpv, _na, x); }
+
+  @Override protected final long at8_impl(int i) {
+    long x = read(i);
+    if( x == _na ) throw new IllegalArgumentException("at8_abs but value is missing");
+    return _bias + x;
+  }
+  @Override protected final double atd_impl(int i) {
+    long x = read(i);
+    return x == _na ? Double.NaN : _bias + x;
+  }
+  @Override protected final boolean isNA_impl(int i) { return read(i) == _na; }
+
+  @Override boolean set_impl(int i, long l) {
+    if( l < _bias ) return false;
+    long x = l - _bias;
+    if( x < 0 || x >= _na ) return false; // overflow or out of range
+    write(i, x);
+    return true;
+  }
+  @Override boolean set_impl(int i, double d) {
+    if( Double.isNaN(d) ) return setNA_impl(i);
+    long l = (long) d;
+    return l == d && set_impl(i, l);
+  }
+  @Override boolean set_impl(int i, float f) { return set_impl(i, (double) f); }
+  @Override boolean setNA_impl(int i) { write(i, _na); return true; }
+
+  @Override public double [] getDoubles(double [] vals, int from, int to, double NA) {
+    final int bpv = _bpv;
+    final long na = _na;
+    long bit = (long) from * bpv;
+    for( int i = from; i < to; i++, bit += bpv ) {
+      long x = unpack(_mem, _OFF, bit, na);
+      vals[i-from] = x == na ? NA : _bias + x;
+    }
+    return vals;
+  }
+
+  @Override public double [] getDoubles(double [] vals, int [] ids) {
+    int k = 0;
+    for( int i : ids ) {
+      long x = read(i);
+      vals[k++] = x == _na ? Double.NaN : _bias + x;
+    }
+    return vals;
+  }
+
+  @Override public int [] getIntegers(int [] vals, int from, int to, int NA) {
+    if( _bias != (int) _bias || _bias + _na - 1 != (int) (_bias + _na - 1) )
+      return super.getIntegers(vals, from, to, NA); // values might not fit, checked per value
+    final int bpv = _bpv;
+    final long na = _na;
+    long bit = (long) from * bpv;
+    for( int i = from; i < to; i++, bit += bpv ) {
+      long x = unpack(_mem, _OFF, bit, na);
+      vals[i-from] = x == na ? NA : (int) (_bias + x);
+    }
+    return vals;
+  }
+
+  @Override public long [] getLongs(long [] vals, int from, int to, long NA) {
+    final int bpv = _bpv;
+    final long na = _na;
+    long bit = (long) from * bpv;
+    for( int i = from; i < to; i++, bit += bpv ) {
+      long x = unpack(_mem, _OFF, bit, na);
+      vals[i-from] = x == na ? NA : _bias + x;
+    }
+    return vals;
+  }
+
+  private void processRow(int r, ChunkVisitor v) {
+    long x = read(r);
+    if( x == _na ) v.addNAs(1);
+    else v.addValue(_bias + x);
+  }
+
+  @Override
+  public <T extends ChunkVisitor> T processRows(T v, int from, int to) {
+    for( int i = from; i < to; i++ ) processRow(i, v);
+    return v;
+  }
+
+  @Override
+  public <T extends ChunkVisitor> T processRows(T v, int[] ids) {
+    for( int i : ids ) processRow(i, v);
+    return v;
+  }
+
+  @Override public final void initFromBytes() {
+    _start = -1;  _cidx = -1;
+    _bias = UnsafeUtils.get8(_mem, 0);
+    set_len(UnsafeUtils.get4(_mem, 8));
+    _bpv = _mem[12];
+    _na = (1L << _bpv) - 1;
+    assert _mem.length == byteSize(_len, _bpv);
+  }
+
+  @Override
+  public boolean hasFloat() { return false; }
+
+}
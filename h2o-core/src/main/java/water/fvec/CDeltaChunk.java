@@ -0,0 +1,239 @@
+package water.fvec;
+
+import water.MemoryManager;
+import water.util.UnsafeUtils;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Delta encoded integer chunk.
+ *
+ * Each value is stored as the (bit-packed) difference from the previous non-missing value, offset by the smallest
+ * difference in the chunk. The largest code representable in the given number of bits is reserved as a marker for NA.
+ * Absolute values are stored every {@link #BLOCK} rows as anchors, random access decodes at most {@link #BLOCK} deltas,
+ * sequential access (per row or bulk) decodes every delta just once.
+ *
+ * value(i) = anchor(i / BLOCK) + sum_{j = BLOCK * (i / BLOCK)}^{i} (code(j) + minDelta), NA codes are skipped
+ *
+ * This is typically much smaller than C4/C8 chunks for near-monotonic integer columns - timestamps of event logs,
+ * sequential ids, sorted integer columns.
+ *
+ * Memory layout: minimum delta (8 bytes), length (4 bytes), bits per value (1 byte), padding (3 bytes),
+ * anchors (8 bytes per block), packed codes followed by 7 padding bytes.
+ */
+public class CDeltaChunk extends Chunk {
+  static protected final int _OFF = 8+4+4;
+  static protected final int _PAD = 7;
+  static final int BLOCK_SHIFT = 6;
+  static public final int BLOCK = 1 << BLOCK_SHIFT;
+
+  private transient long _minDelta;
+  private transient int _bpv;
+  private transient long _na; // NA marker == mask of the code bits
+  private transient int _codeOff;
+  // Last decoded row (low 32 bits) and its value relative to the block's anchor (high 32 bits); a single long keeps
+  // the pair consistent when the chunk is read by several threads
+  private transient volatile long _last;
+
+  private static final AtomicLongFieldUpdater<CDeltaChunk> LAST = AtomicLongFieldUpdater.newUpdater(CDeltaChunk.class, "_last");
+
+  public CDeltaChunk(byte[] bs) { _mem = bs; initFromBytes(); }
+
+  private CDeltaChunk(long minDelta, int bpv, int len) {
+    byte[] bs = MemoryManager.malloc1(byteSize(len, bpv));
+    UnsafeUtils.set8(bs, 0, minDelta);
+    UnsafeUtils.set4(bs, 8, len);
+    bs[12] = (byte) bpv;
+    _mem = bs;
+    initFromBytes();
+  }
+
+  private static int numBlocks(int len) { return (len + BLOCK - 1) >> BLOCK_SHIFT; }
+
+  /** Size of the chunk's memory (in bytes) for the given number of values and bits per value. */
+  public static int byteSize(int len, int bpv) {
+    return _OFF + (numBlocks(len) << 3) + (int) (((long) len * bpv + 7) >> 3) + _PAD;
+  }
+
+  /**
+   * Delta encodes an integer chunk if it makes the chunk at least 25% smaller.
+   * @param c chunk to encode, values are read using at8
+   * @return delta encoded chunk or null if the encoding doesn't save enough memory
+   */
+  static CDeltaChunk encode(Chunk c) {
+    final int len = c._len;
+    if( len == 0 || c.hasFloat() ) return null;
+    final long budget = (long) c._mem.length * 3 / 4;
+    final long fixed = _OFF + ((long) numBlocks(len) << 3) + _PAD;
+    final int maxBpv = (int) Math.min(CBPChunk.MAX_BPV, ((budget - fixed) << 3) / len);
+    if( maxBpv < 1 ) return null;
+    // Find the range of deltas (starting from the second value), give up as soon as they can't fit into the budget
+    long first = 0, prev = 0, minD = Long.MAX_VALUE, maxD = Long.MIN_VALUE;
+    boolean started = false;
+    for( int i = 0; i < len; i++ ) {
+      if( c.isNA(i) ) continue;
+      long v = c.at8(i);
+      if( !started ) { first = prev = v; started = true; continue; }
+      long d = v - prev;
+      if( ((v ^ prev) & (v ^ d)) < 0 ) return null; // overflow
+      prev = v;
+      if( d < minD ) minD = d;
+      if( d > maxD ) maxD = d;
+      long range = maxD - minD;
+      if( range < 0 || CBPChunk.bitsPerValue(range) > maxBpv ) return null;
+    }
+    if( !started ) return null; // all NAs
+    if( minD > maxD ) minD = maxD = 0; // single value
+    // The first value is stored as a delta of minD from the anchor of the first block
+    prev = first - minD;
+    if( ((first ^ minD) & (first ^ prev)) < 0 ) return null; // overflow
+    CDeltaChunk res = new CDeltaChunk(minD, CBPChunk.bitsPerValue(maxD - minD), len);
+    for( int i = 0; i < len; i++ ) {
+      if( (i & (BLOCK - 1)) == 0 )
+        UnsafeUtils.set8(res._mem, _OFF + ((i >> BLOCK_SHIFT) << 3), prev);
+      long code;
+      if( c.isNA(i) ) code = res._na;
+      else {
+        long v = c.at8(i);
+        code = v - prev - minD;
+        prev = v;
+      }
+      CBPChunk.pack(res._mem, res._codeOff, (long) i * res._bpv, res._na, code);
+    }
+    return res;
+  }
+
+  public int bpv() { return _bpv; }
+
+  private long anchor(int block) { return UnsafeUtils.get8(_mem, _OFF + (block << 3)); }
+
+  private long code(int i) { return CBPChunk.unpack(_mem, _codeOff, (long) i * _bpv, _na); }
+
+  // Decodes the value at row i (or previous non-missing value if the row is missing). Continues from the last decoded
+  // row if it precedes row i in the same block, so sequential access decodes each delta just once.
+  private long decode(int i) {
+    final int blockStart = i & ~(BLOCK - 1);
+    final long anchor = anchor(i >> BLOCK_SHIFT);
+    long v = anchor;
+    int j = blockStart;
+    final long last = _last;
+    final int lastRow = (int) last;
+    if( blockStart <= lastRow && lastRow <= i ) {
+      if( lastRow == i ) return anchor + (last >> 32);
+      v += last >> 32;
+      j = lastRow + 1;
+    }
+    for( ; j <= i; j++ ) {
+      long code = code(j);
+      if( code != _na ) v += code + _minDelta;
+    }
+    long off = v - anchor;
+    if( off == (int) off ) LAST.lazySet(this, (off << 32) | (i & 0xFFFFFFFFL));
+    return v;
+  }
+
+  @Override protected final long at8_impl(int i) {
+    if( isNA_impl(i) ) throw new IllegalArgumentException("at8_abs but value is missing");
+    return decode(i);
+  }
+  @Override protected final double atd_impl(int i) { return isNA_impl(i) ? Double.NaN : decode(i); }
+  @Override protected final boolean isNA_impl(int i) { return code(i) == _na; }
+
+  // Changing a value changes the deltas of the following rows - only allow setting the same value
+  @Override boolean set_impl(int i, long l) { return !isNA_impl(i) && decode(i) == l; }
+  @Override boolean set_impl(int i, double d) {
+    if( Double.isNaN(d) ) return setNA_impl(i);
+    long l = (long) d;
+    return l == d && set_impl(i, l);
+  }
+  @Override boolean set_impl(int i, float f) { return set_impl(i, (double) f); }
+  @Override boolean setNA_impl(int i) { return isNA_impl(i); }
+
+  @Override public double [] getDoubles(double [] vals, int from, int to, double NA) {
+    if( from >= to ) return vals;
+    final int bpv = _bpv;
+    final long na = _na, minDelta = _minDelta;
+    long v = from == 0 ? anchor(0) : decode(from - 1);
+    long bit = (long) from * bpv;
+    for( int i = from; i < to; i++, bit += bpv ) {
+      long code = CBPChunk.unpack(_mem, _codeOff, bit, na);
+      if( code == na ) vals[i - from] = NA;
+      else vals[i - from] = v += code + minDelta;
+    }
+    return vals;
+  }
+
+  @Override public double [] getDoubles(double [] vals, int [] ids) {
+    int k = 0;
+    for( int i : ids ) vals[k++] = atd_impl(i);
+    return vals;
+  }
+
+  @Override public int [] getIntegers(int [] vals, int from, int to, int NA) {
+    if( from >= to ) return vals;
+    final int bpv = _bpv;
+    final long na = _na, minDelta = _minDelta;
+    long v = from == 0 ? anchor(0) : decode(from - 1);
+    long bit = (long) from * bpv;
+    for( int i = from; i < to; i++, bit += bpv ) {
+      long code = CBPChunk.unpack(_mem, _codeOff, bit, na);
+      if( code == na ) vals[i - from] = NA;
+      else {
+        v += code + minDelta;
+        if( v != (int) v ) throw new RuntimeException(v + " does not fit into int");
+        vals[i - from] = (int) v;
+      }
+    }
+    return vals;
+  }
+
+  @Override public long [] getLongs(long [] vals, int from, int to, long NA) {
+    if( from >= to ) return vals;
+    final int bpv = _bpv;
+    final long na = _na, minDelta = _minDelta;
+    long v = from == 0 ? anchor(0) : decode(from - 1);
+    long bit = (long) from * bpv;
+    for( int i = from; i < to; i++, bit += bpv ) {
+      long code = CBPChunk.unpack(_mem, _codeOff, bit, na);
+      if( code == na ) vals[i - from] = NA;
+      else vals[i - from] = v += code + minDelta;
+    }
+    return vals;
+  }
+
+  @Override
+  public <T extends ChunkVisitor> T processRows(T v, int from, int to) {
+    if( from >= to ) return v;
+    long x = from == 0 ? anchor(0) : decode(from - 1);
+    for( int i = from; i < to; i++ ) {
+      long code = code(i);
+      if( code == _na ) v.addNAs(1);
+      else v.addValue(x += code + _minDelta);
+    }
+    return v;
+  }
+
+  @Override
+  public <T extends ChunkVisitor> T processRows(T v, int[] ids) {
+    for( int i : ids ) {
+      if( isNA_impl(i) ) v.addNAs(1);
+      else v.addValue(decode(i));
+    }
+    return v;
+  }
+
+  @Override public final void initFromBytes() {
+    _start = -1;  _cidx = -1;
+    _minDelta = UnsafeUtils.get8(_mem, 0);
+    set_len(UnsafeUtils.get4(_mem, 8));
+    _bpv = _mem[12];
+    _na = (1L << _bpv) - 1;
+    _codeOff = _OFF + (numBlocks(_len) << 3);
+    _last = -1;
+    assert _mem.length == byteSize(_len, _bpv);
+  }
+
+  @Override
+  public boolean hasFloat() { return false; }
+
+}
@@ -0,0 +1,258 @@
+package water.fvec;
+
+import water.MemoryManager;
+import water.util.UnsafeUtils;
+
+import java.util.Arrays;
+
+/**
+ * Run-length encoded numeric chunk.
+ *
+ * The chunk is a sequence of runs of identical values, each run is stored as its starting row and its value.
+ * Values are stored as longs (integer chunks, NA is Long.MIN_VALUE) or as doubles (NA is NaN). Random access
+ * finds the run using binary search over the run starts, sequential access re-uses the last run found.
+ *
+ * Chunks are run-length encoded by {@link NewChunk#compress()} if the encoding is at least 2x smaller than
+ * the regular compression - this is typical for sorted columns (eg. after merge) and columns with long runs of repeated values
+ * (ids, dates, segment keys,...).
+ *
+ * Memory layout: length (4 bytes), number of runs (4 bytes), float flag (1 byte), padding (7 bytes),
+ * run starts (4 bytes each, padded to 8 bytes), run values (8 bytes each).
+ */
+public class CRLEChunk extends Chunk {
+  static protected final int _OFF = 4+4+8;
+  static protected final long _NA = Long.MIN_VALUE;
+  private static final int MAX_SCAN_BATCH = 1024;
+
+  private transient int _nruns;
+  private transient boolean _isFloat;
+  private transient int _valOff;
+  private transient int _lastRun; // run of the last accessed row, speeds-up sequential access
+
+  public CRLEChunk(byte[] bs) { _mem = bs; initFromBytes(); }
+
+  private CRLEChunk(int len, int nruns, boolean isFloat) {
+    byte[] bs = MemoryManager.malloc1(byteSize(nruns));
+    UnsafeUtils.set4(bs, 0, len);
+    UnsafeUtils.set4(bs, 4, nruns);
+    bs[8] = (byte) (isFloat ? 1 : 0);
+    _mem = bs;
+    initFromBytes();
+  }
+
+  private static int valOff(int nruns) { return _OFF + (((nruns << 2) + 7) & ~7); }
+
+  /** Size of the chunk's memory (in bytes) for the given number of runs. */
+  public static int byteSize(int nruns) { return valOff(nruns) + (nruns << 3); }
+
+  /**
+   * Run-length encodes a dense numeric chunk if it makes the chunk at least 2x smaller (random access into
+   * a run-length encoded chunk is slower, small savings are not worth it).
+   * @param c chunk to encode
+   * @return run-length encoded chunk or null if the encoding doesn't save enough memory
+   */
+  static CRLEChunk encode(Chunk c) {
+    if( c._len == 0 ) return null;
+    final int maxRuns = (c._mem.length / 2 - valOff(0) - 4) / 12;
+    if( maxRuns < 2 ) return null;
+    // Count the runs first (on decoded doubles), give up early if there are too many of them
+    final boolean isFloat = c.hasFloat();
+    double[] vals = new double[Math.min(c._len, MAX_SCAN_BATCH)];
+    int nruns = 0;
+    long prev = 0;
+    for( int from = 0; from < c._len; from += vals.length ) {
+      int to = Math.min(from + vals.length, c._len);
+      c.getDoubles(vals, from, to);
+      for( int i = 0; i < to - from; i++ ) {
+        long bits = Double.doubleToLongBits(vals[i]);
+        if( (from + i) == 0 || bits != prev ) {
+          if( ++nruns > maxRuns ) return null;
+          prev = bits;
+        }
+      }
+    }
+    if( !isFloat ) { // longs don't have to be exactly representable by doubles, count the runs exactly
+      nruns = 0;
+      for( int i = 0; i < c._len; i++ ) {
+        long l = c.isNA(i) ? _NA : c.at8(i);
+        if( i == 0 || l != prev ) {
+          if( ++nruns > maxRuns ) return null;
+          prev = l;
+        }
+      }
+    }
+    CRLEChunk rle = new CRLEChunk(c._len, nruns, isFloat);
+    int run = -1;
+    for( int i = 0; i < c._len; i++ ) {
+      long bits = isFloat ? Double.doubleToLongBits(c.atd(i)) : c.isNA(i) ? _NA : c.at8(i);
+      if( i == 0 || bits != prev ) {
+        run++;
+        UnsafeUtils.set4(rle._mem, _OFF + (run << 2), i);
+        UnsafeUtils.set8(rle._mem, rle._valOff + (run << 3), bits);
+        prev = bits;
+      }
+    }
+    assert run + 1 == nruns;
+    return rle;
+  }
+
+  public int numRuns() { return _nruns; }
+
+  private int runStart(int run) { return run == _nruns ? _len : UnsafeUtils.get4(_mem, _OFF + (run << 2)); }
+  private long runBits(int run) { return UnsafeUtils.get8(_mem, _valOff + (run << 3)); }
+
+  private int findRun(int row) {
+    int run = _lastRun;
+    if( run >= _nruns ) run = 0; // hint could be updated concurrently, it is always validated
+    if( runStart(run) <= row ) {
+      if( row < runStart(run + 1) ) return run;
+      if( row < runStart(run + 2 > _nruns ? _nruns : run + 2) ) return _lastRun = run + 1;
+    }
+    // Binary search for the last run starting before the row
+    int lo = 0, hi = _nruns - 1;
+    while( lo < hi ) {
+      int mid = (lo + hi + 1) >>> 1;
+      if( runStart(mid) <= row ) lo = mid;
+      else hi = mid - 1;
+    }
+    return _lastRun = lo;
+  }
+
+  private boolean isNABits(long bits) {
+    return _isFloat ? Double.isNaN(Double.longBitsToDouble(bits)) : bits == _NA;
+  }
+
+  private double toDouble(long bits, double NA) {
+    if( _isFloat ) {
+      double d = Double.longBitsToDouble(bits);
+      return Double.isNaN(d) ? NA : d;
+    }
+    return bits == _NA ? NA : bits;
+  }
+
+  @Override protected final long at8_impl(int i) {
+    long bits = runBits(findRun(i));
+    if( isNABits(bits) ) throw new IllegalArgumentException("at8_abs but value is missing");
+    return _isFloat ? (long) Double.longBitsToDouble(bits) : bits;
+  }
+  @Override protected final double atd_impl(int i) { return toDouble(runBits(findRun(i)), Double.NaN); }
+  @Override protected final boolean isNA_impl(int i) { return isNABits(runBits(findRun(i))); }
+
+  // Values can only be changed if they don't break the run
+  @Override boolean set_impl(int idx, long l) {
+    if( _isFloat ) return set_impl(idx, (double) l);
+    return l != _NA && runBits(findRun(idx)) == l;
+  }
+  @Override boolean set_impl(int idx, double d) {
+    long bits = runBits(findRun(idx));
+    if( _isFloat ) return Double.doubleToLongBits(d) == bits;
+    return Double.isNaN(d) ? bits == _NA : (long) d == d && bits != _NA && bits == (long) d;
+  }
+  @Override boolean set_impl(int idx, float f) { return set_impl(idx, (double) f); }
+  @Override boolean setNA_impl(int idx) { return isNA_impl(idx); }
+
+  @Override public double [] getDoubles(double [] vals, int from, int to, double NA) {
+    if( from >= to ) return vals;
+    int run = findRun(from);
+    int i = from;
+    while( i < to ) {
+      int end = Math.min(runStart(run + 1), to);
+      Arrays.fill(vals, i - from, end - from, toDouble(runBits(run), NA));
+      i = end;
+      run++;
+    }
+    return vals;
+  }
+
+  @Override public double [] getDoubles(double [] vals, int [] ids) {
+    int k = 0;
+    for( int i : ids ) vals[k++] = atd_impl(i);
+    return vals;
+  }
+
+  @Override public int [] getIntegers(int [] vals, int from, int to, int NA) {
+    if( from >= to ) return vals;
+    int run = findRun(from);
+    int i = from;
+    while( i < to ) {
+      int end = Math.min(runStart(run + 1), to);
+      long bits = runBits(run);
+      int x;
+      if( isNABits(bits) ) x = NA;
+      else {
+        double d = _isFloat ? Double.longBitsToDouble(bits) : bits;
+        x = (int) d;
+        if( x != d ) throw new RuntimeException(d + " does not fit into int");
+      }
+      Arrays.fill(vals, i - from, end - from, x);
+      i = end;
+      run++;
+    }
+    return vals;
+  }
+
+  @Override public long [] getLongs(long [] vals, int from, int to, long NA) {
+    if( from >= to ) return vals;
+    int run = findRun(from);
+    int i = from;
+    while( i < to ) {
+      int end = Math.min(runStart(run + 1), to);
+      long bits = runBits(run);
+      long x;
+      if( isNABits(bits) ) x = NA;
+      else if( !_isFloat ) x = bits;
+      else {
+        double d = Double.longBitsToDouble(bits);
+        x = (long) d;
+        if( x != d ) throw new RuntimeException(d + " does not fit into long");
+      }
+      Arrays.fill(vals, i - from, end - from, x);
+      i = end;
+      run++;
+    }
+    return vals;
+  }
+
+  private void addRun(ChunkVisitor v, long bits, int n) {
+    if( isNABits(bits) ) v.addNAs(n);
+    else if( _isFloat ) {
+      double d = Double.longBitsToDouble(bits);
+      for( int i = 0; i < n; i++ ) v.addValue(d);
+    } else if( bits == 0 ) v.addZeros(n);
+    else for( int i = 0; i < n; i++ ) v.addValue(bits);
+  }
+
+  @Override
+  public <T extends ChunkVisitor> T processRows(T v, int from, int to) {
+    if( from >= to ) return v;
+    int run = findRun(from);
+    int i = from;
+    while( i < to ) {
+      int end = Math.min(runStart(run + 1), to);
+      addRun(v, runBits(run), end - i);
+      i = end;
+      run++;
+    }
+    return v;
+  }
+
+  @Override
+  public <T extends ChunkVisitor> T processRows(T v, int[] ids) {
+    for( int i : ids ) addRun(v, runBits(findRun(i)), 1);
+    return v;
+  }
+
+  @Override public final void initFromBytes() {
+    _start = -1;  _cidx = -1;
+    set_len(UnsafeUtils.get4(_mem, 0));
+    _nruns = UnsafeUtils.get4(_mem, 4);
+    _isFloat = _mem[8] != 0;
+    _valOff = valOff(_nruns);
+    _lastRun = 0;
+    assert _mem.length == byteSize(_nruns);
+  }
+
+  @Override
+  public boolean hasFloat() { return _isFloat; }
+
+}
@@ -10,12 +10,20 @@ import java.util.Arrays;
 
 /**
  * The empty-compression function, where data is in 'string's.
+ *
+ * The chunk can optionally be dictionary encoded - every distinct string is stored just once and all rows
+ * holding the same string share its offset. The offset then serves as a chunk-local dictionary code, see
+ * {@link #isDictionaryEncoded()}, {@link #codeAt(int)} and {@link #dictionaryValue(BufferedString, int)}.
  */
 public class CStrChunk extends Chunk {
   static final int NA = -1;
   static protected final int _OFF=4+1;
+  private static final byte ASCII_FLAG = 1;
+  private static final byte DICTIONARY_FLAG = 2;
   private int _valstart;
   public boolean _isAllASCII = false;
+  private boolean _isDictionary = false;
+  private transient int[] _dictOffsets; // lazily computed offsets of the dictionary entries
 
   public CStrChunk() {}
 
@@ -44,6 +52,18 @@ public class CStrChunk extends Chunk {
     init(sslen,ss,sparseLen,idxLen,id,is);
   }
 
+  /**
+   * Dictionary encoded strings
+   * @param sslen Length of the dictionary bytes
+   * @param ss Bytes of distinct strings, each is stored once including trailing 0
+   * @param len Length of chunk
+   * @param is Offsets of row values into ss[]. is[i] == -1 means NA
+   */
+  CStrChunk(int sslen, byte[] ss, int len, int[] is) {
+    _isDictionary = true;
+    init(sslen,ss,len,len,null,is);
+  }
+
   private void init (int sslen, byte[] ss, int sparseLen, int idxLen, int[] id, int[] is) {
     _start = -1;
     _valstart = idx(idxLen);
@@ -63,7 +83,7 @@ public class CStrChunk extends Chunk {
         break;
       }
     }
-    UnsafeUtils.set1(_mem, 4, (byte) (_isAllASCII ? 1 : 0)); // isAllASCII flag
+    UnsafeUtils.set1(_mem, 4, (byte) ((_isAllASCII ? ASCII_FLAG : 0) | (_isDictionary ? DICTIONARY_FLAG : 0)));
   }
 
   private int idx(int i) { return _OFF+(i<<2); }
@@ -100,10 +120,52 @@ public class CStrChunk extends Chunk {
     _start = -1;  _cidx = -1;
     _valstart = UnsafeUtils.get4(_mem, 0);
     byte b = UnsafeUtils.get1(_mem,4);
-    _isAllASCII = b != 0;
+    _isAllASCII = (b & ASCII_FLAG) != 0;
+    _isDictionary = (b & DICTIONARY_FLAG) != 0;
     set_len((_valstart-_OFF)>>2);
   }
 
+  /** @return true if every distinct string is stored just once (rows share offsets of the same strings) */
+  public boolean isDictionaryEncoded() { return _isDictionary; }
+
+  /** @return number of distinct strings of a dictionary encoded chunk */
+  public int dictionarySize() { return dictionaryOffsets().length; }
+
+  /**
+   * Chunk-local dictionary code of the row value, codes are assigned in order of the first occurrence.
+   * @param i row index
+   * @return dictionary code (0 to dictionarySize() - 1) or -1 if the value is missing
+   */
+  public int codeAt(int i) {
+    assert _isDictionary;
+    int off = intAt(i);
+    return off == NA ? -1 : Arrays.binarySearch(dictionaryOffsets(), off);
+  }
+
+  /** Fills the BufferedString with the dictionary entry of the given code, no bytes are copied. */
+  public BufferedString dictionaryValue(BufferedString bStr, int code) {
+    int off = dictionaryOffsets()[code];
+    return bStr.set(_mem,_valstart+off,lengthAtOffset(off));
+  }
+
+  private int[] dictionaryOffsets() {
+    assert _isDictionary;
+    int[] offsets = _dictOffsets;
+    if (offsets == null) { // dictionary entries are stored back-to-back, zero terminated
+      int n = 0;
+      for (int i = _valstart; i < _mem.length; i++)
+        if (_mem[i] == 0) n++;
+      offsets = new int[n];
+      int off = 0;
+      for (int k = 0; k < n; k++) {
+        offsets[k] = off;
+        off += lengthAtOffset(off) + 1;
+      }
+      _dictOffsets = offsets;
+    }
+    return offsets;
+  }
+
   @Override public ChunkVisitor processRows(ChunkVisitor nc, int from, int to){
     BufferedString bs = new BufferedString();
     for(int i = from; i < to; i++)
@@ -176,17 +238,19 @@ public class CStrChunk extends Chunk {
     // copy existing data
     nc = this.extractRows(nc, 0,_len);
     //update offsets and byte array
+    //offsets of the NewChunk can differ from this chunk's offsets (dictionary encoded chunks)
+    byte[] ss = nc._ss;
     for(int i=0; i < _len; i++) {
       int j = 0;
-      int off = UnsafeUtils.get4(_mem,idx(i));
+      int off = nc.get_is(i);
       if (off != NA) {
         //UTF chars will appear as negative values. In Java spec, space is any char 0x20 and lower
-        while( _mem[_valstart+off+j] > 0 && _mem[_valstart+off+j] < 0x21) j++;
+        while( ss[off+j] > 0 && ss[off+j] < 0x21) j++;
         if (j > 0) nc.set_is(i,off + j);
-        while( _mem[_valstart+off+j] != 0 ) j++; //Find end
+        while( ss[off+j] != 0 ) j++; //Find end
         j--;
-        while( _mem[_valstart+off+j] > 0 && _mem[_valstart+off+j] < 0x21) { //March back to find first non-space
-          nc._ss[off+j] = 0; //Set new end
+        while( ss[off+j] > 0 && ss[off+j] < 0x21) { //March back to find first non-space
+          ss[off+j] = 0; //Set new end
           j--;
         }
       }
@@ -208,14 +272,16 @@ public class CStrChunk extends Chunk {
     // copy existing data
     nc = this.extractRows(nc, 0,_len);
     //update offsets and byte array
+    //offsets of the NewChunk can differ from this chunk's offsets (dictionary encoded chunks)
+    byte[] ss = nc._ss;
     for (int i = 0; i < _len; i++) {
-      int off = UnsafeUtils.get4(_mem, idx(i));
+      int off = nc.get_is(i);
       if (off != NA) {
         int len = 0;
-        while (_mem[_valstart + off + len] != 0) len++; //Find length
+        while (ss[off + len] != 0) len++; //Find length
         nc.set_is(i,startIndex < len ? off + startIndex : off + len);
         for (; len > endIndex - 1; len--) {
-          nc._ss[off + len] = 0; //Set new end
+          ss[off + len] = 0; //Set new end
         }
       }
     }
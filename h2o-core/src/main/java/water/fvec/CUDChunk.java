@@ -56,8 +56,8 @@ public class CUDChunk extends Chunk {
       if(Double.isNaN(uniques[i]))
         uniques[i] = NA;
     }
-    for(int i = 0; i < _len; ++i)
-      vals[i] = uniques[(UnsafeUtils.get1(_mem, 8 + (numUniques << 3) + i)+128)];
+    for(int i = from; i < to; ++i)
+      vals[i - from] = uniques[(UnsafeUtils.get1(_mem, 8 + (numUniques << 3) + i)+128)];
     return vals;
   }
 
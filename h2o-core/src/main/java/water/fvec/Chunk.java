@@ -3,6 +3,7 @@ package water.fvec;
 import water.*;
 import water.parser.BufferedString;
 
+import java.util.Arrays;
 import java.util.UUID;
 
 /** A compression scheme, over a chunk of data - a single array of bytes.
@@ -789,9 +790,45 @@ public abstract class Chunk extends Iced<Chunk> implements Vec.Holder {
   public double[] getDoubles() {
     return getDoubles(MemoryManager.malloc8d(_len), 0, _len);
   }
+  /**
+   * Dense bulk interface, fetch integer values from the given range.
+   * Values which do not fit into an int cause a RuntimeException.
+   * @param vals holds extracted values, length must be >= to - from
+   * @param from first row (inclusive)
+   * @param to last row (exclusive)
+   * @param NA value to use for missing rows
+   */
   public int [] getIntegers(int [] vals, int from, int to, int NA){
     return processRows(new ChunkVisitor.IntAryVisitor(vals,NA),from,to).vals;
   }
+  /**
+   * Dense bulk interface, fetch long values from the given range.
+   * @param vals holds extracted values, length must be >= to - from
+   * @param from first row (inclusive)
+   * @param to last row (exclusive)
+   * @param NA value to use for missing rows
+   */
+  public long [] getLongs(long [] vals, int from, int to, long NA){
+    return processRows(new ChunkVisitor.LongAryVisitor(vals,NA),from,to).vals;
+  }
+  /**
+   * Dense bulk interface, fetch the missing values of the given range as a bitmap - bit (i - from) is set
+   * if row i is missing.  To be used with the bulk getters when no value can be used as an NA sentinel.
+   * @param naBits bitmap of missing values, length must be >= (to - from + 63) / 64
+   * @param from first row (inclusive)
+   * @param to last row (exclusive)
+   * @return number of missing values in the range
+   */
+  public int getNAs(long [] naBits, int from, int to){
+    Arrays.fill(naBits, 0, (to - from + 63) >> 6, 0);
+    int nas = 0;
+    for( int i = from; i < to; i++ )
+      if( isNA_impl(i) ) {
+        naBits[(i - from) >> 6] |= 1L << (i - from);
+        nas++;
+      }
+    return nas;
+  }
   /**
    * Dense bulk interface, fetch values from the given ids
    * @param vals
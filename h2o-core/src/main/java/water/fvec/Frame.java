@@ -333,10 +333,10 @@ public class Frame extends Lockable<Frame> {
 
   // Compute vectors for caching
   private Vec[] vecs_impl() {
-    // Load all Vec headers; load them all in parallel by starting prefetches
-    for( Key<Vec> key : _keys ) DKV.prefetch(key);
+    // Load all Vec headers; load them all at once, one request per home node
+    Value [] vals = DKV.getAll(_keys);
     Vec [] vecs = new Vec[_keys.length];
-    for( int i=0; i<_keys.length; i++ ) vecs[i] = _keys[i].get();
+    for( int i=0; i<_keys.length; i++ ) vecs[i] = vals[i] == null ? null : (Vec) vals[i].get();
     return vecs;
   }
 
@@ -509,7 +509,7 @@ public class Frame extends Lockable<Frame> {
   public Vec[] bulkRollups() {
     Futures fs = new Futures();
     Vec[] vecs = vecs();
-    for(Vec v : vecs)  v.startRollupStats(fs);
+    Vec.startRollupStats(vecs, fs, false);
     fs.blockForPending();
     return vecs;
   }
@@ -1615,6 +1615,15 @@ public class Frame extends Lockable<Frame> {
   }
 
   public static Job exportParquet(Frame fr, String path, boolean overwrite, String compression, boolean writeChecksum, boolean tzAdjustFromLocal) {
+    return exportParquet(fr, path, overwrite, compression, writeChecksum, tzAdjustFromLocal, 0);
+  }
+
+  /**
+   * Exports the frame to a directory of Parquet files, one part file per node, written in parallel.
+   * Missing numeric values are written as nulls, they used to be written as NaN.
+   * @param rowGroupSize target size of the Parquet row groups in bytes, 0 to use the default
+   */
+  public static Job exportParquet(Frame fr, String path, boolean overwrite, String compression, boolean writeChecksum, boolean tzAdjustFromLocal, int rowGroupSize) {
     // Validate input
     if (H2O.getPM().isFileAccessDenied(path)) {
       throw new H2OFileAccessDeniedException("File " + path + " access denied");
@@ -1638,7 +1647,7 @@ public class Frame extends Lockable<Frame> {
     }
     Job job =  new Job<>(fr._key, "water.fvec.Frame", "Export dataset");
 
-    H2O.H2OCountedCompleter t = parquetExporter.export(fr, path, overwrite, compression, writeChecksum, tzAdjustFromLocal);
+    H2O.H2OCountedCompleter t = parquetExporter.export(fr, path, overwrite, compression, writeChecksum, tzAdjustFromLocal, rowGroupSize);
     return job.start(t, fr.anyVec().nChunks());
   }
 
@@ -1908,7 +1917,11 @@ public class Frame extends Lockable<Frame> {
         if (_curChkIdx > _lastChkIdx) {
           return -1;
         }
-        // fetch the next non-empty chunks
+        // fetch the next non-empty chunks, of all columns at once
+        List<Key> keys = new ArrayList<>();
+        for (Chunk c : _curChks)
+          keys.addAll(Arrays.asList(c._vec.chunkKeys(_curChkIdx)));
+        DKV.getAll(keys.toArray(new Key[0]));
         Chunk[] newChks = new Chunk[_curChks.length];
         for (int i = 0; i < _curChks.length; i++) {
           newChks[i] = _curChks[i]._vec.chunkForChunkIdx(_curChkIdx);
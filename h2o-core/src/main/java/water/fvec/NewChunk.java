@@ -14,6 +14,7 @@ import java.nio.ByteOrder;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 
 import static water.H2OConstants.MAX_STR_LEN;
@@ -38,6 +39,7 @@ public class NewChunk extends Chunk {
   public int is(int i) { return _is[i];}
 
   public void set_is(int i, int val) {_is[i] = val;}
+  int get_is(int i) { return _is[i]; }
 
   public void alloc_nums(int len) { _ms = new Mantissas(len); _xs = new Exponents(len);}
 
@@ -336,6 +338,7 @@ public class NewChunk extends Chunk {
   public int _timCnt = 0;
   protected static final int MIN_SPARSE_RATIO = 8;
   private int _sparseRatio = MIN_SPARSE_RATIO;
+  protected static final int REENCODE_MIN_LEN = 64; // don't bother run-length/delta encoding tiny chunks
   public boolean _isAllASCII = true; //For cat/string col, are all characters in chunk ASCII?
 
   public NewChunk( Vec vec, int cidx ) {
@@ -1131,7 +1134,7 @@ public class NewChunk extends Chunk {
   // Study this NewVector and determine an appropriate compression scheme.
   // Return the data so compressed.
   public Chunk compress() {
-    Chunk res = compress2();
+    Chunk res = reencode(compress2());
     byte type = type();
     assert _vec == null ||  // Various testing scenarios do not set a Vec
       type == _vec._type || // Equal types
@@ -1159,6 +1162,50 @@ public class NewChunk extends Chunk {
     return res;
   }
 
+  // Replace the compressed chunk with a run-length encoded one if it is at least 2x smaller,
+  // integer chunks are alternatively delta encoded if it saves at least 25%.
+  // Constant, sparse and non-numeric chunks are left alone.
+  private static Chunk reencode(Chunk c) {
+    if( c._len < REENCODE_MIN_LEN || c.isSparseZero() || c.isSparseNA() ||
+        c instanceof C0LChunk || c instanceof C0DChunk || c instanceof CStrChunk || c instanceof C16Chunk )
+      return c;
+    CRLEChunk rle = CRLEChunk.encode(c);
+    if( rle != null ) return rle;
+    CDeltaChunk delta = CDeltaChunk.encode(c);
+    return delta != null ? delta : c;
+  }
+
+  // Chunk-local dictionary of strings: every distinct string is stored just once and rows share its offset.
+  // Used for dense chunks only and only if it saves at least 25% of the string bytes.
+  private CStrChunk compressStrDictionary() {
+    if( _id != null || _len < REENCODE_MIN_LEN ) return null;
+    assert _sparseLen == _len;
+    final int budget = _sslen - (_sslen >> 2);
+    HashMap<BufferedString, Integer> dict = new HashMap<>();
+    int[] is = MemoryManager.malloc4(_len);
+    int sslen = 0;
+    for( int i = 0; i < _len; i++ ) {
+      int off = _is[i];
+      if( off == CStrChunk.NA ) { is[i] = CStrChunk.NA; continue; }
+      int len = 0;
+      while( _ss[off + len] != 0 ) len++;
+      BufferedString str = new BufferedString(_ss, off, len);
+      Integer doff = dict.get(str);
+      if( doff == null ) {
+        if( sslen + len + 1 > budget ) return null;
+        dict.put(str, doff = sslen);
+        sslen += len + 1;
+      }
+      is[i] = doff;
+    }
+    byte[] ss = MemoryManager.malloc1(sslen);
+    for( Map.Entry<BufferedString, Integer> e : dict.entrySet() ) { // trailing zeros come from malloc
+      BufferedString str = e.getKey();
+      System.arraycopy(str.getBuffer(), str.getOffset(), ss, e.getValue(), str.length());
+    }
+    return new CStrChunk(sslen, ss, _len, is);
+  }
+
   private static long leRange(long lemin, long lemax){
     if(lemin < 0 && lemax >= (Long.MAX_VALUE + lemin))
       return Long.MAX_VALUE; // if overflow return 64 as the max possible value
@@ -1171,8 +1218,10 @@ public class NewChunk extends Chunk {
     byte mode = type();
     if( mode==Vec.T_BAD ) // ALL NAs, nothing to do
       return new C0DChunk(Double.NaN, _len);
-    if( mode==Vec.T_STR )
-      return new CStrChunk(_sslen, _ss, _sparseLen, _len, _id, _is);
+    if( mode==Vec.T_STR ) {
+      CStrChunk dict = compressStrDictionary();
+      return dict != null ? dict : new CStrChunk(_sslen, _ss, _sparseLen, _len, _id, _is);
+    }
     boolean rerun=false;
     if(mode == Vec.T_CAT) {
       for(int i = 0; i< _sparseLen; i++ )
@@ -1409,6 +1458,14 @@ public class NewChunk extends Chunk {
       return chunkD();
     } // else an integer column
 
+    // Bit-packed offsets from the minimum, if it is smaller than the byte-aligned chunks below
+    if( xmin == 0 && leRange < (1L << CBPChunk.MAX_BPV) - 1 ) {
+      int bpv = CBPChunk.bitsPerValue(leRange);
+      int alignedBytes = (0<=lemin && lemax <= 255 && (_naCnt + _catCnt)==0) || leRange < 255 ? 1 : leRange < 65535 ? 2 : 4;
+      if( CBPChunk.byteSize(_len, bpv) < (long) _len * alignedBytes )
+        return bufBP(lemin, bpv);
+    }
+
     // Compress column into a byte
     if(xmin == 0 &&  0<=lemin && lemax <= 255 && ((_naCnt + _catCnt)==0) )
       return new C1NChunk( bufX(0,0,C1NChunk._OFF,0));
@@ -1601,6 +1658,23 @@ public class NewChunk extends Chunk {
     return chk;
   }
 
+  // Compute bit-packed integer buffer
+  private CBPChunk bufBP(long bias, int bpv) {
+    assert _sparseLen == _len;
+    CBPChunk chk = new CBPChunk(bias, bpv, _len);
+    for( int i = 0; i < _len; ++i ) {
+      if( isNA2(i) ) chk.setNA_impl(i);
+      else {
+        int x = _xs.get(i)==Integer.MIN_VALUE+1 ? 0 : _xs.get(i);
+        long le = x >= 0
+            ? _ms.get(i)*PrettyPrint.pow10i( x)
+            : _ms.get(i)/PrettyPrint.pow10i(-x);
+        chk.write(i, le - bias);
+      }
+    }
+    return chk;
+  }
+
   // Set & At on NewChunks are weird: only used after inflating some other
   // chunk.  At this point the NewChunk is full size, no more appends allowed,
   // and the xs exponent array should be only full of zeros.  Accesses must be
@@ -1,12 +1,15 @@
 package water.fvec;
 
 import jsr166y.CountedCompleter;
+import water.DKV;
 import water.Futures;
 import water.H2O;
 import water.Key;
 import water.MRTask;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  *  Created by tomasnykodym on 3/28/14.
@@ -123,7 +126,20 @@ public class RebalanceDataSet extends H2O.H2OCountedCompleter {
       }
       nc.close(_fs);
     }
+    // Bring in the source chunks of all columns covering this chunk's rows, with one request per home node
+    private void fetchSrcChunks(Chunk c) {
+      if (H2O.CLOUD.size() == 1 || c._len == 0) return;
+      int from = _srcVecs[0].elem2ChunkIdx(c._start);
+      int to = _srcVecs[0].elem2ChunkIdx(c._start + c._len - 1);
+      int[] cidxs = new int[to - from + 1];
+      for (int i = 0; i < cidxs.length; ++i) cidxs[i] = from + i;
+      List<Key> keys = new ArrayList<>();
+      for (Vec v : _srcVecs)
+        keys.addAll(Arrays.asList(v.chunkKeys(cidxs)));
+      DKV.getAll(keys.toArray(new Key[0]));
+    }
     @Override public void map(Chunk [] chks){
+      fetchSrcChunks(chks[0]);
       for(int c = 0; c < chks.length; ++c){
         rebalanceChunk(c,chks[c],new NewChunk(chks[c]));
       }
@@ -14,7 +14,7 @@ import water.parser.BufferedString;
 import water.util.ArrayUtils;
 import water.util.Log;
 
-import java.util.Arrays;
+import java.util.*;
 
 /** A class to compute the rollup stats.  These are computed lazily, thrown
  *  away if the Vec is written into, and then recomputed lazily.  Error to ask
@@ -262,6 +262,35 @@ final class RollupStats extends Iced {
     return _maxs[_maxs.length-1];
   }
 
+  // Final touches on the reduced rollups of the given Vec, after the 1st pass
+  private static RollupStats finish( RollupStats rs, Vec vec ) {
+    if( rs == null )
+      rs = new RollupStats(0);
+    else {
+      rs._sigma = Math.sqrt(rs._sigma/(rs._rows-1));
+      if (rs._rows == 1) rs._sigma = 0;
+      if (rs._rows < 5) for (int i=0; i<5-rs._rows; i++) {  // Fix PUBDEV-150 for files under 5 rows
+        rs._maxs[4-i] = Double.NaN;
+        rs._mins[4-i] = Double.NaN;
+      }
+    }
+    // mean & sigma not allowed on more than 2 classes; for 2 classes the assumption is that it's true/false
+    String[] ss = vec.domain();
+    if( vec.isCategorical() && ss.length > 2 )
+      rs._mean = rs._sigma = Double.NaN;
+    if( ss != null ) {
+      long dsz = (2/*hdr*/+1/*len*/+ss.length)*8;  // Size of base domain array
+      for( String s : ss )
+        if( s != null )
+          dsz += 2*s.length() + (2/*hdr*/+1/*value*/+1/*hash*/+2/*hdr*/+1/*len*/)*8;
+      rs._size += dsz;             // Account for domain size in Vec size
+      // Account for Chunk key size
+      int keysize = (2/*hdr*/+1/*kb*/+1/*hash*/+2/*hdr*/+1/*len*/)*8+ vec._key._kb.length;
+      rs._size += vec.nChunks()*(keysize*4/*key+value ptr in DKV, plus 50% fill rate*/);
+    }
+    return rs;
+  }
+
   private static class Roll extends MRTask<Roll> {
     final Key _rskey;
     RollupStats _rs;
@@ -272,33 +301,7 @@ final class RollupStats extends Iced {
     Roll( H2OCountedCompleter cmp, Key rskey ) { super(cmp); _rskey=rskey; }
     @Override public void map( Chunk c ) { _rs = new RollupStats(0).map(c); }
     @Override public void reduce( Roll roll ) { _rs.reduce(roll._rs); }
-    @Override public void postGlobal() {
-      if( _rs == null )
-        _rs = new RollupStats(0);
-      else {
-        _rs._sigma = Math.sqrt(_rs._sigma/(_rs._rows-1));
-        if (_rs._rows == 1) _rs._sigma = 0;
-        if (_rs._rows < 5) for (int i=0; i<5-_rs._rows; i++) {  // Fix PUBDEV-150 for files under 5 rows
-          _rs._maxs[4-i] = Double.NaN;
-          _rs._mins[4-i] = Double.NaN;
-        }
-      }
-      // mean & sigma not allowed on more than 2 classes; for 2 classes the assumption is that it's true/false
-      Vec vec = _fr.anyVec();
-      String[] ss = vec.domain();
-      if( vec.isCategorical() && ss.length > 2 )
-        _rs._mean = _rs._sigma = Double.NaN;
-      if( ss != null ) {
-        long dsz = (2/*hdr*/+1/*len*/+ss.length)*8;  // Size of base domain array
-        for( String s : vec.domain() )
-          if( s != null )
-            dsz += 2*s.length() + (2/*hdr*/+1/*value*/+1/*hash*/+2/*hdr*/+1/*len*/)*8;
-        _rs._size += dsz;             // Account for domain size in Vec size
-        // Account for Chunk key size
-        int keysize = (2/*hdr*/+1/*kb*/+1/*hash*/+2/*hdr*/+1/*len*/)*8+ vec._key._kb.length;
-        _rs._size += vec.nChunks()*(keysize*4/*key+value ptr in DKV, plus 50% fill rate*/);
-      }
-    }
+    @Override public void postGlobal() { _rs = finish(_rs,_fr.anyVec()); }
     // Just toooo common to report always.  Drowning in multi-megabyte log file writes.
     @Override public boolean logVerbose() { return false; }
 
@@ -382,6 +385,72 @@ final class RollupStats extends Iced {
   double h_stride() { return h_stride(_bins.length); }
   private double h_stride(int nbins) { return (_maxs[0]-_mins[0]+(_isInt?1:0))/nbins; }
 
+  // Number of histogram bins for the 2nd pass, or 0 if no pass is needed:
+  // all NAs, non-math or constant columns get their (trivial) histogram here.
+  private int histoBins( Vec vec ) {
+    // All NAs or non-math; histogram has zero bins
+    if (_naCnt == vec.length() || vec.isUUID()) {
+      _bins = new long[0];
+      return 0;
+    }
+    // Constant: use a single bin
+    double span = _maxs[0] - _mins[0];
+    final long rows = vec.length() - _naCnt;
+    assert rows > 0 : "rows = " + rows + ", vec.len() = " + vec.length() + ", naCnt = " + _naCnt;
+    if (span == 0) {
+      _bins = new long[]{rows};
+      return 0;
+    }
+    // Number of bins: MAX_SIZE by default.  For integers, bins for each unique int
+    // - unless the count gets too high; allow a very high count for categoricals.
+    int nbins = MAX_SIZE;
+    if (_isInt && span < Integer.MAX_VALUE) {
+      nbins = (int) span + 1;      // 1 bin per int
+      int lim = vec.isCategorical() ? Categorical.MAX_CATEGORICAL_COUNT : MAX_SIZE;
+      nbins = Math.min(lim, nbins); // Cap nbins at sane levels
+    }
+    return nbins;
+  }
+
+  // Install the histogram computed by the 2nd pass, and the percentiles from it
+  private void setHisto( long[] bins, Vec vec ) {
+    final long rows = vec.length() - _naCnt;
+    long sum = ArrayUtils.sum(bins);
+    assert sum == rows:"expected " + rows + " rows, got " + sum;
+    _bins = bins;
+    // Compute percentiles from histogram
+    _pctiles = new double[Vec.PERCENTILES.length];
+    int j = 0;                 // Histogram bin number
+    int k = 0;                 // The next non-zero bin after j
+    long hsum = 0;             // Rolling histogram sum
+    double base = h_base();
+    double stride = h_stride();
+    double lastP = -1.0;       // any negative value to pass assert below first time
+    for (int i = 0; i < Vec.PERCENTILES.length; i++) {
+      final double P = Vec.PERCENTILES[i];
+      assert P >= 0 && P <= 1 && P >= lastP;   // rely on increasing percentiles here. If P has dup then strange but accept, hence >= not >
+      lastP = P;
+      double pdouble = 1.0 + P * (rows - 1);   // following stats:::quantile.default type 7
+      long pint = (long) pdouble;          // 1-based into bin vector
+      double h = pdouble - pint;           // any fraction h to linearly interpolate between?
+      assert P != 1 || (h == 0.0 && pint == rows);  // i.e. max
+      while (hsum < pint) hsum += _bins[j++];
+      // j overshot by 1 bin; we added _bins[j-1] and this goes from too low to either exactly right or too big
+      // pint now falls in bin j-1 (the ++ happened even when hsum==pint), so grab that bin value now
+      _pctiles[i] = base + stride * (j - 1);
+      if (h > 0 && pint == hsum) {
+        // linearly interpolate between adjacent non-zero bins
+        //      i) pint is the last of (j-1)'s bin count (>1 when either duplicates exist in input, or stride makes dups at lower accuracy)
+        // AND ii) h>0 so we do need to find the next non-zero bin
+        if (k < j) k = j; // if j jumped over the k needed for the last P, catch k up to j
+        // Saves potentially winding k forward over the same zero stretch many times
+        while (_bins[k] == 0) k++;  // find the next non-zero bin
+        _pctiles[i] += h * stride * (k - j + 1);
+      } // otherwise either h==0 and we know which bin, or fraction is between two positions that fall in the same bin
+      // this guarantees we are within one bin of the exact answer; i.e. within (max-min)/MAX_SIZE
+    }
+  }
+
   // Compute expensive histogram
   private static class Histo extends MRTask<Histo> {
     final double _base, _stride; // Inputs
@@ -417,12 +486,16 @@ final class RollupStats extends Iced {
     final boolean _computeHisto;
 
     public ComputeRollupsTask(Vec v, boolean computeHisto){
-      super((byte)(Thread.currentThread() instanceof H2O.FJWThr ? currThrPriority()+1 : H2O.MIN_HI_PRIORITY-3));
+      super(rollupsPriority());
       _vecKey = v._key;
       _rsKey = v.rollupStatsKey();
       _computeHisto = computeHisto;
     }
 
+    static byte rollupsPriority() {
+      return (byte)(Thread.currentThread() instanceof H2O.FJWThr ? currThrPriority()+1 : H2O.MIN_HI_PRIORITY-3);
+    }
+
     private Value makeComputing(){
       RollupStats newRs = RollupStats.makeComputing();
       CountedCompleter cc = getCompleter(); // should be null or RPCCall
@@ -508,65 +581,318 @@ final class RollupStats extends Iced {
     }
 
     final void computeHisto(final RollupStats rs, Vec vec, final Value nnn) {
-      // All NAs or non-math; histogram has zero bins
-      if (rs._naCnt == vec.length() || vec.isUUID()) {
-        rs._bins = new long[0];
-        installResponse(nnn, rs);
-        return;
+      int nbins = rs.histoBins(vec);
+      if (nbins > 0)
+        rs.setHisto(new Histo(null, rs, nbins).doAll(vec)._bins, vec);
+      installResponse(nnn, rs);
+    }
+  }
+
+  // ------------------------------------------------------------------------
+  // Frame-level rollups.  Calling start() for every Vec of a wide Frame runs
+  // one MRTask (two with the histogram) per column.  Instead, all the columns
+  // sharing a row layout are rolled up with a single multi-column MRTask, and
+  // a single multi-column pass computes all the histograms.
+  //
+  // The DKV protocol is the same as for a single Vec: the rollup keys are set
+  // to "computing" on their home nodes before the pass (with one RPC per home
+  // node), and the results replace them afterwards (again one RPC per home
+  // node).  Any Vec written into meanwhile gets its rollups marked as
+  // mutating, and the results for it are dropped.  Vecs already being
+  // computed by somebody else go through the per-Vec path, i.e. wait for it.
+
+  static void startAll(Vec[] vecs, Futures fs, boolean computeHisto) {
+    List<Vec> todo = new ArrayList<>();
+    Set<Key> seen = new HashSet<>();
+    for( Vec vec : vecs ) {
+      if( vec instanceof InteractionWrappedVec || !seen.add(vec._key) ) continue;
+      if( DKV.get(vec._key)== null )
+        throw new H2OConcurrentModificationException("Rollups not possible, because Vec was deleted: "+vec._key);
+      RollupStats rs = getOrNull(vec,vec.rollupStatsKey());
+      if( rs == null || (computeHisto && !vec.isString() && !rs.hasHisto()) )
+        todo.add(vec);
+    }
+    // Group by row layout; every group is rolled up by a single pass
+    while( !todo.isEmpty() ) {
+      Vec v0 = todo.get(0);
+      List<Vec> group = new ArrayList<>(), rest = new ArrayList<>();
+      for( Vec vec : todo )
+        (v0.isCompatibleWith(vec) ? group : rest).add(vec);
+      if( group.size() == 1 ) start(v0,fs,computeHisto);
+      else fs.add(H2O.submitTask(new ComputeFrameRollupsTask(group.toArray(new Vec[group.size()]),computeHisto)));
+      todo = rest;
+    }
+  }
+
+  // Rollups of all the (compatible) Vecs, in one pass
+  private static class RollAll extends MRTask<RollAll> {
+    RollupStats[] _rs;
+
+    @Override
+    protected boolean modifiesVolatileVecs(){return false;}
+
+    @Override public void map( Chunk[] cs ) {
+      _rs = new RollupStats[cs.length];
+      for( int i=0; i<cs.length; i++ )
+        _rs[i] = new RollupStats(0).map(cs[i]);
+    }
+    @Override public void reduce( RollAll ra ) {
+      for( int i=0; i<_rs.length; i++ )
+        _rs[i].reduce(ra._rs[i]);
+    }
+    @Override public void postGlobal() {
+      Vec[] vecs = _fr.vecs();
+      if( _rs == null ) _rs = new RollupStats[vecs.length];
+      for( int i=0; i<vecs.length; i++ )
+        _rs[i] = finish(_rs[i],vecs[i]);
+    }
+    // Just toooo common to report always.  Drowning in multi-megabyte log file writes.
+    @Override public boolean logVerbose() { return false; }
+  }
+
+  // Histograms of all the (compatible) Vecs, in one pass
+  private static class HistoAll extends MRTask<HistoAll> {
+    final double[] _base, _stride; // Inputs
+    final int[] _nbins;            // Inputs
+    long[][] _bins;                // Outputs
+    HistoAll( RollupStats[] rs, int[] nbins ) {
+      _base = new double[rs.length];
+      _stride = new double[rs.length];
+      for( int i=0; i<rs.length; i++ ) { _base[i] = rs[i].h_base(); _stride[i] = rs[i].h_stride(nbins[i]); }
+      _nbins = nbins;
+    }
+    @Override public void map( Chunk[] cs ) {
+      _bins = new long[cs.length][];
+      for( int col=0; col<cs.length; col++ ) {
+        Chunk c = cs[col];
+        long[] bins = _bins[col] = new long[_nbins[col]];
+        for( int i=c.nextNZ(-1); i< c._len; i=c.nextNZ(i) ) {
+          double d = c.atd(i);
+          if( !Double.isNaN(d) ) bins[idx(col,d)]++;
+        }
+        // Sparse?  We skipped all the zeros; do them now
+        if( c.isSparseZero() )
+          bins[idx(col,0.0)] += (c._len - c.sparseLenZero());
+      }
+    }
+    private int idx( int col, double d ) { int idx = (int)((d-_base[col])/_stride[col]); return Math.min(idx,_nbins[col]-1); }
+
+    @Override public void reduce( HistoAll h ) {
+      for( int col=0; col<_bins.length; col++ )
+        ArrayUtils.add(_bins[col],h._bins[col]);
+    }
+    // Just toooo common to report always.  Drowning in multi-megabyte log file writes.
+    @Override public boolean logVerbose() { return false; }
+  }
+
+  // Rollup keys locked by ComputeFrameRollupsTask, homed on this node; maps
+  // to the "computing" Value holding the lock
+  private static final NonBlockingHashMap<Key,Value> _frameLocks = new NonBlockingHashMap<>();
+
+  // Stands in for the task computing the rollups on the rollup key's home
+  // node, for the ComputeRollupsTasks waiting for them.  Completed when the
+  // results get installed.
+  private static final class FrameRollupsLatch extends H2OCountedCompleter<FrameRollupsLatch> {
+    @Override public void compute2() { throw H2O.fail(); }
+  }
+
+  // Locks the rollup keys homed on this node, for those Vecs needing (re)computation
+  private static final class LockRollupsTask extends DTask<LockRollupsTask> {
+    final Key[] _rsKeys;
+    final boolean[] _histo;
+    boolean[] _locked;          // Output
+
+    LockRollupsTask(Key[] rsKeys, boolean[] histo) { super(ComputeRollupsTask.rollupsPriority()); _rsKeys = rsKeys; _histo = histo; }
+
+    @Override public void compute2() {
+      FrameRollupsLatch latch = new FrameRollupsLatch();
+      _locked = new boolean[_rsKeys.length];
+      Futures fs = new Futures();
+      try {
+        for( int i=0; i<_rsKeys.length; i++ ) {
+          Key rskey = _rsKeys[i];
+          assert rskey.home();
+          Value v = DKV.get(rskey);
+          RollupStats rs = (v == null) ? null : v.<RollupStats>get();
+          // Computing, mutating, or done already: leave it to the per-Vec path
+          if( rs != null && !(rs.isReady() && _histo[i] && !rs.hasHisto()) ) continue;
+          RollupStats newRs = makeComputing();
+          newRs._tsk = latch;
+          Value nnn = new Value(rskey,newRs);
+          if( DKV.DputIfMatch(rskey,nnn,v,fs) == v ) {
+            _frameLocks.put(rskey,nnn);
+            _locked[i] = true;
+          }
+        }
+        fs.blockForPending();
+      } catch( Throwable t ) {
+        // The caller never learns what was locked; release it here
+        List<Key> mine = new ArrayList<>();
+        for( int i=0; i<_rsKeys.length; i++ )
+          if( _locked[i] ) mine.add(_rsKeys[i]);
+        InstallRollupsTask.install(mine.toArray(new Key[mine.size()]),new RollupStats[mine.size()]);
+        throw t;
+      }
+      tryComplete();
+    }
+  }
+
+  // Replaces the locks on rollup keys homed on this node with the results
+  // (or with nothing, when the computation failed), and wakes up any waiters
+  private static final class InstallRollupsTask extends DTask<InstallRollupsTask> {
+    final Key[] _rsKeys;
+    final RollupStats[] _rs;
+
+    InstallRollupsTask(Key[] rsKeys, RollupStats[] rs) { super(ComputeRollupsTask.rollupsPriority()); _rsKeys = rsKeys; _rs = rs; }
+
+    @Override public void compute2() {
+      install(_rsKeys,_rs);
+      tryComplete();
+    }
+
+    static void install(Key[] rsKeys, RollupStats[] rss) {
+      Set<ForkJoinTask> latches = new HashSet<>();
+      try {
+        Futures fs = new Futures();
+        for( int i=0; i<rsKeys.length; i++ ) {
+          Key rskey = rsKeys[i];
+          Value nnn = _frameLocks.remove(rskey);
+          if( nnn == null ) continue;
+          latches.add(nnn.<RollupStats>get()._tsk);
+          // Fails if the Vec got modified meanwhile; the rollups are gone then
+          DKV.DputIfMatch(rskey, rss[i] == null ? null : new Value(rskey,rss[i]), nnn, fs);
+        }
+        fs.blockForPending();
+      } finally {
+        for( ForkJoinTask latch : latches )
+          ((FrameRollupsLatch)latch).tryComplete();
+      }
+    }
+  }
+
+  // Computes the rollups (and histograms) of a group of compatible Vecs,
+  // locally driving the lock/compute/install steps described above
+  static final class ComputeFrameRollupsTask extends H2OCountedCompleter<ComputeFrameRollupsTask> {
+    final Vec[] _vecs;
+    final boolean _computeHisto;
+
+    ComputeFrameRollupsTask(Vec[] vecs, boolean computeHisto) { _vecs = vecs; _computeHisto = computeHisto; }
+
+    @Override public void compute2() {
+      Key[] rskeys = new Key[_vecs.length];
+      boolean[] histo = new boolean[_vecs.length];
+      for( int i=0; i<_vecs.length; i++ ) {
+        rskeys[i] = _vecs[i].rollupStatsKey();
+        histo[i] = _computeHisto && !_vecs[i].isString(); // No histogram for string columns
       }
-      // Constant: use a single bin
-      double span = rs._maxs[0] - rs._mins[0];
-      final long rows = vec.length() - rs._naCnt;
-      assert rows > 0 : "rows = " + rows + ", vec.len() = " + vec.length() + ", naCnt = " + rs._naCnt;
-      if (span == 0) {
-        rs._bins = new long[]{rows};
-        installResponse(nnn, rs);
-        return;
+      // 1. lock, one RPC per home node
+      Map<H2ONode,List<Integer>> homes = byHome(rskeys,null);
+      Map<List<Integer>,RPC<LockRollupsTask>> locks = new HashMap<>();
+      for( Map.Entry<H2ONode,List<Integer>> e : homes.entrySet() ) {
+        List<Integer> ids = e.getValue();
+        boolean[] hs = new boolean[ids.size()];
+        for( int j=0; j<hs.length; j++ ) hs[j] = histo[ids.get(j)];
+        locks.put(ids, new RPC<>(e.getKey(),new LockRollupsTask(select(rskeys,ids),hs)).call());
       }
-      // Number of bins: MAX_SIZE by default.  For integers, bins for each unique int
-      // - unless the count gets too high; allow a very high count for categoricals.
-      int nbins = MAX_SIZE;
-      if (rs._isInt && span < Integer.MAX_VALUE) {
-        nbins = (int) span + 1;      // 1 bin per int
-        int lim = vec.isCategorical() ? Categorical.MAX_CATEGORICAL_COUNT : MAX_SIZE;
-        nbins = Math.min(lim, nbins); // Cap nbins at sane levels
+      // Keys locked so far; whatever happens next, they are installed (with nulls on failure), otherwise the
+      // ComputeRollupsTasks waiting for them would never be woken up
+      boolean[] locked = new boolean[rskeys.length];
+      RollupStats[] rs = new RollupStats[rskeys.length];
+      boolean installed = false;
+      Futures fs = new Futures();
+      try {
+        // Collect all the responses, so no lock is taken after we gave up
+        RuntimeException lockFailure = null;
+        for( Map.Entry<List<Integer>,RPC<LockRollupsTask>> e : locks.entrySet() ) {
+          try {
+            boolean[] res = e.getValue().get()._locked;
+            for( int j=0; j<res.length; j++ ) locked[e.getKey().get(j)] = res[j];
+          } catch( RuntimeException t ) {
+            if( lockFailure == null ) lockFailure = t;
+          }
+        }
+        if( lockFailure != null ) throw lockFailure;
+        // 2. the rest is computed (or waited for) one by one
+        List<Integer> mine = new ArrayList<>();
+        for( int i=0; i<_vecs.length; i++ )
+          if( locked[i] ) mine.add(i);
+          else start(_vecs[i],fs,_computeHisto);
+        // 3. compute & install
+        if( !mine.isEmpty() ) {
+          compute(mine, rs, histo);
+          install(rskeys,locked,rs);
+          installed = true;
+          // fetch the new results, to enable caching of them
+          DKV.prefetchAll(select(rskeys,mine),fs);
+        }
+      } catch( Throwable t ) {
+        Log.err(t);
+        throw t;
+      } finally {
+        if( !installed ) {
+          Arrays.fill(rs,null);   // Release the locks
+          install(rskeys,locked,rs);
+        }
       }
-      Histo histo = new Histo(null, rs, nbins).doAll(vec);
-      long sum = ArrayUtils.sum(histo._bins);
-      assert sum == rows:"expected " + rows + " rows, got " + sum;
-      rs._bins = histo._bins;
-      // Compute percentiles from histogram
-      rs._pctiles = new double[Vec.PERCENTILES.length];
-      int j = 0;                 // Histogram bin number
-      int k = 0;                 // The next non-zero bin after j
-      long hsum = 0;             // Rolling histogram sum
-      double base = rs.h_base();
-      double stride = rs.h_stride();
-      double lastP = -1.0;       // any negative value to pass assert below first time
-      for (int i = 0; i < Vec.PERCENTILES.length; i++) {
-        final double P = Vec.PERCENTILES[i];
-        assert P >= 0 && P <= 1 && P >= lastP;   // rely on increasing percentiles here. If P has dup then strange but accept, hence >= not >
-        lastP = P;
-        double pdouble = 1.0 + P * (rows - 1);   // following stats:::quantile.default type 7
-        long pint = (long) pdouble;          // 1-based into bin vector
-        double h = pdouble - pint;           // any fraction h to linearly interpolate between?
-        assert P != 1 || (h == 0.0 && pint == rows);  // i.e. max
-        while (hsum < pint) hsum += rs._bins[j++];
-        // j overshot by 1 bin; we added _bins[j-1] and this goes from too low to either exactly right or too big
-        // pint now falls in bin j-1 (the ++ happened even when hsum==pint), so grab that bin value now
-        rs._pctiles[i] = base + stride * (j - 1);
-        if (h > 0 && pint == hsum) {
-          // linearly interpolate between adjacent non-zero bins
-          //      i) pint is the last of (j-1)'s bin count (>1 when either duplicates exist in input, or stride makes dups at lower accuracy)
-          // AND ii) h>0 so we do need to find the next non-zero bin
-          if (k < j) k = j; // if j jumped over the k needed for the last P, catch k up to j
-          // Saves potentially winding k forward over the same zero stretch many times
-          while (rs._bins[k] == 0) k++;  // find the next non-zero bin
-          rs._pctiles[i] += h * stride * (k - j + 1);
-        } // otherwise either h==0 and we know which bin, or fraction is between two positions that fall in the same bin
-        // this guarantees we are within one bin of the exact answer; i.e. within (max-min)/MAX_SIZE
+      fs.blockForPending();
+      tryComplete();
+    }
+
+    private void compute(List<Integer> mine, RollupStats[] res, boolean[] histo) {
+      Vec[] vecs = new Vec[mine.size()];
+      for( int j=0; j<vecs.length; j++ ) vecs[j] = _vecs[mine.get(j)];
+      RollupStats[] rs = new RollAll().doAll(vecs)._rs;
+      List<Integer> hcols = new ArrayList<>();
+      List<Integer> hbins = new ArrayList<>();
+      for( int j=0; j<vecs.length; j++ ) {
+        rs[j]._checksum ^= vecs[j].length();
+        res[mine.get(j)] = rs[j];
+        if( !histo[mine.get(j)] ) continue;
+        int nbins = rs[j].histoBins(vecs[j]);
+        if( nbins > 0 ) { hcols.add(j); hbins.add(nbins); }
       }
-      installResponse(nnn, rs);
+      if( hcols.isEmpty() ) return;
+      Vec[] hvecs = new Vec[hcols.size()];
+      RollupStats[] hrs = new RollupStats[hcols.size()];
+      int[] nbins = new int[hcols.size()];
+      for( int k=0; k<hvecs.length; k++ ) {
+        hvecs[k] = vecs[hcols.get(k)];
+        hrs[k] = rs[hcols.get(k)];
+        nbins[k] = hbins.get(k);
+      }
+      long[][] bins = new HistoAll(hrs,nbins).doAll(hvecs)._bins;
+      for( int k=0; k<hvecs.length; k++ )
+        hrs[k].setHisto(bins[k],hvecs[k]);
+    }
+
+    private static void install(Key[] rskeys, boolean[] locked, RollupStats[] rs) {
+      List<RPC<InstallRollupsTask>> rpcs = new ArrayList<>();
+      for( Map.Entry<H2ONode,List<Integer>> e : byHome(rskeys,locked).entrySet() ) {
+        List<Integer> ids = e.getValue();
+        RollupStats[] rss = new RollupStats[ids.size()];
+        for( int j=0; j<rss.length; j++ ) rss[j] = rs[ids.get(j)];
+        rpcs.add(new RPC<>(e.getKey(),new InstallRollupsTask(select(rskeys,ids),rss)).call());
+      }
+      for( RPC<InstallRollupsTask> rpc : rpcs ) rpc.get();
+    }
+
+    // Indices of the (selected) keys, grouped by their home node
+    private static Map<H2ONode,List<Integer>> byHome(Key[] keys, boolean[] sel) {
+      Map<H2ONode,List<Integer>> homes = new HashMap<>();
+      for( int i=0; i<keys.length; i++ ) {
+        if( sel != null && !sel[i] ) continue;
+        H2ONode home = keys[i].home_node();
+        List<Integer> ids = homes.get(home);
+        if( ids == null ) homes.put(home, ids = new ArrayList<>());
+        ids.add(i);
+      }
+      return homes;
+    }
+
+    private static Key[] select(Key[] keys, List<Integer> ids) {
+      Key[] ks = new Key[ids.size()];
+      for( int j=0; j<ks.length; j++ ) ks[j] = keys[ids.get(j)];
+      return ks;
     }
   }
 }
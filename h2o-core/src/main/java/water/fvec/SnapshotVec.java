@@ -0,0 +1,47 @@
+package water.fvec;
+
+import water.*;
+import water.fvec.persist.PersistUtils;
+import water.util.FileUtils;
+
+/**
+ * A Vec loaded from a frame snapshot, see {@link water.fvec.persist.FramePersist}.
+ *
+ * The Chunks are read from the snapshot the first time they are touched, and then kept in the K/V
+ * store like the Chunks of any other Vec.  Since MRTasks touch the Chunks on their home nodes, the
+ * Chunks are spread over the cluster by their keys, whatever the size of the cluster which saved them.
+ */
+public class SnapshotVec extends Vec {
+  private final String _chunkUri;      // Prefix of the chunk files, followed by the chunk index
+  private final long[] _offsets;       // Offset of each Chunk in its file
+  private final int[] _lens;           // Byte size of each Chunk
+  private final String[] _chunkTypes;  // Chunk class names
+  private final byte[] _types;          // Class of each Chunk, index into _chunkTypes
+
+  public SnapshotVec(Key<Vec> key, int rowLayout, String[] domain, byte type,
+                     String chunkUri, long[] offsets, int[] lens, String[] chunkTypes, byte[] types) {
+    super(key, rowLayout, domain, type);
+    _chunkUri = chunkUri;
+    _offsets = offsets;
+    _lens = lens;
+    _chunkTypes = chunkTypes;
+    _types = types;
+  }
+
+  /** @return whether the Chunk was already read from the snapshot */
+  public boolean isLoaded(int cidx) { return DKV.get(chunkKey(cidx)) != null; }
+
+  // Lazily read the Chunk from the snapshot, see FileVec.chunkIdx
+  @Override Value chunkIdx( int cidx ) {
+    Key dkey = chunkKey(cidx);
+    Value val1 = DKV.get(dkey);
+    if( val1 != null ) return val1;
+    byte[] mem = PersistUtils.readBytes(FileUtils.getURI(_chunkUri + cidx), _offsets[cidx], _lens[cidx]);
+    Value val2 = new Value(dkey, mem.length, mem, (short) TypeMap.onIce(_chunkTypes[_types[cidx]]), Value.ICE);
+    Futures fs = dkey.home() ? null : new Futures();
+    // Atomically insert: fails on a race, but then return the old version
+    Value val3 = DKV.DputIfMatch(dkey, val2, null, fs);
+    if( fs != null ) fs.blockForPending();
+    return val3 == null ? val2 : val3;
+  }
+}
@@ -2,6 +2,8 @@ package water.fvec;
 
 import water.*;
 
+import java.util.Arrays;
+
 /**
  *  A simple wrapper for looking at only a subset of rows
  */
@@ -20,7 +22,26 @@ public class SubsetVec extends WrappedVec {
   // A subset chunk
   @Override public Chunk chunkForChunkIdx(int cidx) {
     Chunk crows = rows().chunkForChunkIdx(cidx);
-    return new SubsetChunk(crows,this,masterVec());
+    Vec masterVec = masterVec();
+    fetchMasterChunks(crows, masterVec);
+    return new SubsetChunk(crows,this,masterVec);
+  }
+
+  // Rows are read from the master Vec one at a time; bring in all the master
+  // Chunks we are going to touch at once, with one request per home node.
+  private static void fetchMasterChunks(Chunk crows, Vec masterVec) {
+    if( H2O.CLOUD.size() == 1 || crows._len == 0 ) return; // all local
+    int[] cidxs = new int[crows._len];
+    int n = 0;
+    for( int i = 0; i < crows._len; i++ ) {
+      int c = masterVec.elem2ChunkIdx(crows.at8(i));
+      if( n == 0 || cidxs[n-1] != c ) cidxs[n++] = c; // subset rows are mostly ordered
+    }
+    Arrays.sort(cidxs, 0, n);
+    int m = 1;
+    for( int i = 1; i < n; i++ )
+      if( cidxs[i] != cidxs[m-1] ) cidxs[m++] = cidxs[i];
+    DKV.getAll(masterVec.chunkKeys(Arrays.copyOf(cidxs, m)));
   }
 
   @Override public Futures remove_impl(Futures fs, boolean cascade) {
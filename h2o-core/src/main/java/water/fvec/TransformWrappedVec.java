@@ -78,11 +78,9 @@ public class TransformWrappedVec extends WrappedVec {
     Vec[] masterVecs = _masterVecs;
     if (masterVecs == null) {
       masterVecs = new Vec[_masterVecKeys.length];
+      Value[] vals = DKV.getAll(_masterVecKeys);
       for (int i = 0; i < masterVecs.length; i++) {
-        DKV.prefetch(_masterVecKeys[i]);
-      }
-      for (int i = 0; i < masterVecs.length; i++) {
-        masterVecs[i] = _masterVecKeys[i].get();
+        masterVecs[i] = vals[i] == null ? null : (Vec) vals[i].get();
       }
       _masterVecs = masterVecs; // publish fetched Vecs
     }
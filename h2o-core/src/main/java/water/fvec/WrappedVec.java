@@ -26,4 +26,7 @@ abstract class WrappedVec extends Vec {
 
   /** Map from chunk-index to Chunk.  These wrappers are making custom Chunks */
   public abstract Chunk chunkForChunkIdx(int cidx);
+
+  /** Custom Chunks are not stored in the DKV */
+  @Override public Key[] chunkKeys(int... cidxs) { return new Key[0]; }
 }
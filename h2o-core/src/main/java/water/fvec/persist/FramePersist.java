@@ -4,12 +4,13 @@ import jsr166y.CountedCompleter;
 import water.*;
 import water.fvec.Chunk;
 import water.fvec.Frame;
+import water.fvec.SnapshotVec;
 import water.fvec.Vec;
+import water.util.ArrayUtils;
 import water.util.FileUtils;
 
 import java.net.URI;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
 
 import static water.fvec.persist.PersistUtils.*;
 
@@ -26,19 +27,88 @@ public class FramePersist {
         this.frame = frame;
     }
 
+    /**
+     * Version of the snapshot format, written ahead of the {@link FrameMeta}.
+     * 
+     * The snapshot of a frame is its meta file, holding the column metadata and the index of the chunks, and
+     * one data file per chunk index holding the compressed bytes of the chunks of all the columns, one after
+     * the other. The files do not depend on the nodes which wrote them, so any cluster can load the snapshot.
+     */
+    static final int FORMAT_VERSION = 2;
+
     private static class FrameMeta extends Iced<FrameMeta> {
         Key<Frame> key;
         String[] names;
-        Vec[] vecs;
+        byte[] types;
+        String[][] domains;
         long[] espc;
-        int numNodes;
+        String[] chunkTypes;   // chunk class names
+        byte[][] chunkTypeIdx; // [col][cidx]: index into chunkTypes
+        int[][] chunkLens;     // [col][cidx]: byte size of the chunk
 
-        FrameMeta(Frame f) {
+        FrameMeta(Frame f, SaveChunksTask task) {
             key = f._key;
             names = f.names();
-            vecs = f.vecs();
+            Vec[] vecs = f.vecs();
+            types = new byte[vecs.length];
+            domains = new String[vecs.length][];
+            for (int i = 0; i < vecs.length; i++) {
+                types[i] = vecs[i].get_type();
+                domains[i] = vecs[i].domain();
+            }
             espc = f.anyVec().espc();
-            numNodes = H2O.CLOUD.size();
+            List<String> typeNames = new ArrayList<>();
+            Map<Integer, Byte> typeIdx = new HashMap<>();
+            chunkTypeIdx = new byte[vecs.length][task.chunkTypes[0].length];
+            for (int i = 0; i < vecs.length; i++) {
+                for (int cidx = 0; cidx < chunkTypeIdx[i].length; cidx++) {
+                    int type = task.chunkTypes[i][cidx];
+                    Byte idx = typeIdx.get(type);
+                    if (idx == null) {
+                        typeIdx.put(type, idx = (byte) typeNames.size());
+                        typeNames.add(TypeMap.className(type));
+                    }
+                    chunkTypeIdx[i][cidx] = idx;
+                }
+            }
+            chunkTypes = typeNames.toArray(new String[0]);
+            chunkLens = task.chunkLens;
+        }
+
+        int[] columnIndices(String[] columns) {
+            if (columns == null) {
+                int[] all = new int[names.length];
+                for (int i = 0; i < all.length; i++) all[i] = i;
+                return all;
+            }
+            int[] cols = new int[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                cols[i] = ArrayUtils.find(names, columns[i]);
+                if (cols[i] < 0) {
+                    throw new IllegalArgumentException("Column " + columns[i] + " is not in the saved frame " + key + ".");
+                }
+            }
+            return cols;
+        }
+
+        /**
+         * @return [col][cidx]: offset of the chunk in its data file, the sum of the lengths of the chunks
+         * of the previous columns
+         */
+        long[][] chunkOffsets() {
+            int nchunks = espc.length - 1;
+            long[][] offsets = new long[names.length][nchunks];
+            for (int col = 1; col < offsets.length; col++) {
+                for (int cidx = 0; cidx < nchunks; cidx++) {
+                    offsets[col][cidx] = offsets[col-1][cidx] + chunkLens[col-1][cidx];
+                }
+            }
+            return offsets;
+        }
+
+        Vec vec(int col, long[] offsets, Key<Vec> vecKey, int rowLayout, String chunkUri) {
+            return new SnapshotVec(vecKey, rowLayout, domains[col], types[col], chunkUri, 
+                offsets, chunkLens[col], chunkTypes, chunkTypeIdx[col]);
         }
     }
 
@@ -46,8 +116,12 @@ public class FramePersist {
         return FileUtils.getURI(dest + "/" + key);
     }
 
+    private static String getChunkUriPrefix(String metaUri) {
+        return metaUri + "_c";
+    }
+
     private static URI getDataUri(String metaUri, int cidx) {
-        return FileUtils.getURI(metaUri + "_n" + H2O.SELF.index() + "_c" + cidx);
+        return FileUtils.getURI(getChunkUriPrefix(metaUri) + cidx);
     }
 
     private SaveFrameDriver setupDriver(String uri, boolean overwrite) {
@@ -55,8 +129,6 @@ public class FramePersist {
         if (exists(metaUri) && !overwrite) {
             throw new IllegalArgumentException("File already exists at " + metaUri);
         }
-        FrameMeta frameMeta = new FrameMeta(frame);
-        write(metaUri, ab -> ab.put(frameMeta));
         Job<Frame> job = new Job<>(frame._key, "water.fvec.Frame", "Save frame");
         return new SaveFrameDriver(job, frame, metaUri);
     }
@@ -98,6 +170,9 @@ public class FramePersist {
         public void compute2() {
             frame.read_lock(job._key);
             task.doAll(frame).join();
+            // The meta is written last, an interrupted save leaves no loadable snapshot
+            FrameMeta frameMeta = new FrameMeta(frame, task);
+            PersistUtils.write(metaUri, ab -> ab.put4(FORMAT_VERSION).put(frameMeta));
             tryComplete();
         }
 
@@ -118,25 +193,37 @@ public class FramePersist {
         private final Job<Frame> job;
         private final String metaUri;
         public String[] writtenFiles;
+        int[][] chunkTypes;   // [col][cidx]
+        int[][] chunkLens;    // [col][cidx]
         
         SaveChunksTask(Job<Frame> job, Frame frame, String metaUri) {
             this.job = job;
             this.metaUri = metaUri;
-            this.writtenFiles = new String[frame.anyVec().nChunks()];
+            int nchunks = frame.anyVec().nChunks();
+            this.writtenFiles = new String[nchunks];
+            this.chunkTypes = new int[frame.numCols()][nchunks];
+            this.chunkLens = new int[frame.numCols()][nchunks];
         }
 
         @Override
         public void map(Chunk[] cs) {
-            URI dataUri = getDataUri(metaUri, cs[0].cidx());
-            writtenFiles[cs[0].cidx()] = dataUri.toString();
-            PersistUtils.write(dataUri, ab -> writeChunks(ab, cs));
-            job.update(1);
-        }
-
-        private void writeChunks(AutoBuffer autoBuffer, Chunk[] chunks) {
-            for (Chunk c : chunks) {
-                autoBuffer.put(c);
+            int cidx = cs[0].cidx();
+            URI dataUri = getDataUri(metaUri, cidx);
+            byte[][] mems = new byte[cs.length][];
+            for (int i = 0; i < cs.length; i++) {
+                Chunk c = cs[i];
+                if (c.asBytes() == null) {
+                    c = c.inflate().compress(); // chunks of wrapped vecs
+                }
+                mems[i] = c.asBytes();
+                chunkTypes[i][cidx] = c.frozenType();
+                chunkLens[i][cidx] = mems[i].length;
             }
+            writtenFiles[cidx] = dataUri.toString();
+            PersistUtils.writeBytes(dataUri, os -> {
+                for (byte[] mem : mems) os.write(mem);
+            });
+            job.update(1);
         }
 
         @Override
@@ -147,19 +234,44 @@ public class FramePersist {
                         "When merging written files expecting " + writtenFiles[i] + " to be null or equal to " +
                             mrt.writtenFiles[i];
                     writtenFiles[i] = mrt.writtenFiles[i];
+                    for (int col = 0; col < chunkTypes.length; col++) {
+                        chunkTypes[col][i] = mrt.chunkTypes[col][i];
+                        chunkLens[col][i] = mrt.chunkLens[col][i];
+                    }
                 }
             }
         }
     }
 
+    /**
+     * Loads a frame from its snapshot, reading all the chunks.
+     */
     public static Job<Frame> loadFrom(Key<Frame> key, String uri) {
+        return loadFrom(key, uri, null, false);
+    }
+
+    /**
+     * Loads a frame from its snapshot, on a cluster of any size.
+     *
+     * @param key key of the saved frame
+     * @param uri directory of the snapshot
+     * @param columns names of the columns to load, all if null
+     * @param lazy whether to only load the metadata, the chunks are then read when first touched
+     *             and the snapshot must stay available as long as the frame is used
+     */
+    public static Job<Frame> loadFrom(Key<Frame> key, String uri, String[] columns, boolean lazy) {
         URI metaUri = getMetaUri(key, sanitizeUri(uri));
-        FrameMeta meta = read(metaUri, AutoBuffer::get);
-        if (meta.numNodes != H2O.CLOUD.size()) {
-            throw new IllegalArgumentException("To load this frame a cluster with " + meta.numNodes + " nodes is needed.");
-        }
+        FrameMeta meta = read(metaUri, ab -> {
+            int version = ab.get4();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Frame " + key + " was not saved in the supported snapshot format " +
+                    "(version " + FORMAT_VERSION + "), save it again to load it.");
+            }
+            return ab.get();
+        });
+        int[] cols = meta.columnIndices(columns);
         Job<Frame> job = new Job<>(meta.key, "water.fvec.Frame", "Load frame");
-        return job.start(new LoadFrameDriver(job, metaUri.toString(), meta), meta.espc.length-1);
+        return job.start(new LoadFrameDriver(job, metaUri.toString(), meta, cols, lazy), lazy ? 1 : meta.espc.length-1);
     }
 
     public static class LoadFrameDriver extends H2O.H2OCountedCompleter<LoadFrameDriver> {
@@ -167,73 +279,62 @@ public class FramePersist {
         private final Job<Frame> job;
         private final String metaUri;
         private final FrameMeta meta;
+        private final int[] cols;
+        private final boolean lazy;
 
-        public LoadFrameDriver(
+        private LoadFrameDriver(
             Job<Frame> job,
             String metaUri, 
-            FrameMeta meta
+            FrameMeta meta,
+            int[] cols,
+            boolean lazy
         ) {
             this.job = job;
             this.metaUri = metaUri;
             this.meta = meta;
+            this.cols = cols;
+            this.lazy = lazy;
         }
 
         @Override
         public void compute2() {
-            Vec con = null;
-            Key<Vec>[] vecKeys = new Vec.VectorGroup().addVecs(meta.vecs.length);
-            try {
-                long nrow = meta.espc[meta.espc.length-1];
-                int nchunk = meta.espc.length-1;
-                con = Vec.makeConN(nrow, nchunk);
-                new LoadChunksTask(job, metaUri, vecKeys).doAll(con).join();
-            } finally {
-                if (con != null) con.remove();
-            }
+            Key<Vec>[] vecKeys = new Vec.VectorGroup().addVecs(cols.length);
             int rowLayout = Vec.ESPC.rowLayout(vecKeys[0], meta.espc);
+            String chunkUri = getChunkUriPrefix(metaUri);
+            long[][] offsets = meta.chunkOffsets();
+            String[] names = new String[cols.length];
+            Vec[] vecs = new Vec[cols.length];
             Futures fs = new Futures();
-            for (int i = 0; i < meta.vecs.length; i++) {
-                Vec v = meta.vecs[i];
-                v._rowLayout = rowLayout;
-                v._key = vecKeys[i];
-                DKV.put(v, fs);
+            for (int i = 0; i < cols.length; i++) {
+                names[i] = meta.names[cols[i]];
+                vecs[i] = meta.vec(cols[i], offsets[cols[i]], vecKeys[i], rowLayout, chunkUri);
+                DKV.put(vecs[i], fs);
             }
             fs.blockForPending();
-            Frame frame = new Frame(meta.key, meta.names, meta.vecs);
+            Frame frame = new Frame(meta.key, names, vecs);
+            if (!lazy) {
+                new LoadChunksTask(job).doAll(frame);
+            }
             DKV.put(frame);
             tryComplete();
         }
 
     }
 
+    // Touches all the chunks, which reads them on their home nodes
     static class LoadChunksTask extends MRTask<LoadChunksTask> {
 
         private final Job<Frame> job;
-        private final String metaUri;
-        private final Key[] vecKeys;
 
-        LoadChunksTask(Job<Frame> job, String metaUri, Key[] vecKeys) {
+        LoadChunksTask(Job<Frame> job) {
             this.job = job;
-            this.metaUri = metaUri;
-            this.vecKeys = vecKeys;
         }
 
         @Override
-        public void map(Chunk c) {
-            PersistUtils.read(getDataUri(metaUri, c.cidx()), ab -> readChunks(ab, c.cidx()));
+        public void map(Chunk[] cs) {
             job.update(1);
         }
 
-        @SuppressWarnings("rawtypes")
-        private int readChunks(AutoBuffer autoBuffer, int cidx) {
-            for (Key k : vecKeys) {
-                Key chunkKey = Vec.chunkKey(k, cidx);
-                Chunk chunk = autoBuffer.get();
-                DKV.put(chunkKey, new Value(chunkKey, chunk));
-            }
-            return vecKeys.length;
-        }
-
     }
 
 }
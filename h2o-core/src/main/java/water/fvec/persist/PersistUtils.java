@@ -64,6 +64,41 @@ public class PersistUtils {
         }
     }
 
+    /**
+     * Writes raw bytes, without any AutoBuffer framing.
+     */
+    public static void writeBytes(URI uri, BytesWriter w) {
+        final Persist persist = H2O.getPM().getPersistForURI(uri);
+        try (final OutputStream outputStream = new BufferedOutputStream(persist.create(uri.toString(), true))) {
+            w.write(outputStream);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write to " + uri, e);
+        }
+    }
+
+    /**
+     * Reads a range of raw bytes, as written by {@link #writeBytes}.
+     */
+    public static byte[] readBytes(URI uri, long offset, int len) {
+        final Persist persist = H2O.getPM().getPersistForURI(uri);
+        try (final InputStream inputStream = persist.open(uri.toString())) {
+            long toSkip = offset;
+            while (toSkip > 0) {
+                long skipped = inputStream.skip(toSkip);
+                if (skipped <= 0) {
+                    if (inputStream.read() < 0) throw new EOFException("Offset " + offset + " is past the end of " + uri);
+                    skipped = 1;
+                }
+                toSkip -= skipped;
+            }
+            byte[] bytes = new byte[len];
+            new DataInputStream(inputStream).readFully(bytes);
+            return bytes;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read from " + uri, e);
+        }
+    }
+
     public static boolean exists(URI uri) {
         final Persist persist = H2O.getPM().getPersistForURI(uri);
         return persist.exists(uri.toString());
@@ -77,6 +112,10 @@ public class PersistUtils {
         void write(AutoBuffer ab);
     }
 
+    public interface BytesWriter {
+        void write(OutputStream os) throws IOException;
+    }
+
     public interface StreamWriter {
         void write(OutputStreamWriter w) throws IOException;
     }
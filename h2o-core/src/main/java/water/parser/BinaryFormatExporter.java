@@ -6,7 +6,7 @@ import water.util.ExportFileFormat;
 
 public interface BinaryFormatExporter {
 
-    H2O.H2OCountedCompleter export(Frame frame, String path, boolean force, String compression, boolean writeChecksum, boolean tzAdjustFromLocal);
+    H2O.H2OCountedCompleter export(Frame frame, String path, boolean force, String compression, boolean writeChecksum, boolean tzAdjustFromLocal, int rowGroupSize);
 
     boolean supports(ExportFileFormat format);
 }
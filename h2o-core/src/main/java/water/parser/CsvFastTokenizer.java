@@ -0,0 +1,299 @@
+package water.parser;
+
+import water.fvec.Vec;
+import water.util.ArrayUtils;
+import water.util.UnsafeUtils;
+
+import java.nio.ByteOrder;
+
+import static water.parser.Parser.CHAR_CR;
+import static water.parser.Parser.CHAR_DOUBLE_QUOTE;
+import static water.parser.Parser.CHAR_LF;
+import static water.parser.Parser.CHAR_SINGLE_QUOTE;
+import static water.parser.Parser.CHAR_SPACE;
+import static water.parser.Parser.CHAR_TAB;
+
+/**
+ * Fast path of {@link CsvParser} for clean lines: LF terminated, the expected number of
+ * fields, no escapes, and fields which are either unquoted or simply quoted ({@code "abc"}).
+ *
+ * Every line is tokenized in two passes.  The first one finds the separators and the line end
+ * eight bytes at a time (SWAR: SIMD within a register, on longs), and flags the lines with
+ * quotes, non-ASCII or unexpected bytes.  The second one parses the fields into numbers or
+ * strings, without any state machine.  The line is only written out once all of its fields
+ * parsed, exactly like the state machine of {@link CsvParser} would have.
+ *
+ * Tokenizing stops at the first line it cannot handle (comments, empty lines, CR, numbers
+ * with currency or percent signs, quotes inside fields, ...); the state machine parses the
+ * rest of the chunk from there, and the line continuing into the next chunk.
+ */
+final class CsvFastTokenizer {
+  /** Words are read in the native byte order, the first byte must be the lowest one */
+  static final boolean SUPPORTED = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+
+  private static final long ONES = 0x0101010101010101L;
+  private static final long LOW7 = 0x7F7F7F7F7F7F7F7FL;
+  private static final long HIGH = 0x8080808080808080L;
+  private static final long LF_MASK = broadcast(CHAR_LF);
+  private static final long CR_MASK = broadcast(CHAR_CR);
+  // Longest number parsed here, the state machine starts skipping digits beyond Parser.LARGEST_DIGIT_NUMBER
+  private static final int MAX_DIGITS = 18;
+
+  // Kinds of the parsed fields
+  private static final byte NA = 0, NUM = 1, STR = 2, STR_NOT_ASCII = 3;
+
+  private final ParseSetup _setup;
+  private final byte[] _nonDataLineMarkers;
+  private final byte _sep, _quote, _escape;
+  private final boolean _quoting;
+  private final long _sepMask, _quoteMask, _escapeMask;
+  private final boolean[] _keep;
+  private final int _ncols;
+  private final int[] _pcol;         // Parsed column of each field
+  private final boolean[] _forced;   // Forced to a string or categorical column
+  // Fields of the current line
+  private final int[] _ends;
+  private final byte[] _kinds;
+  private final long[] _nums;
+  private final int[] _exps, _starts, _lens;
+  private boolean _quoted, _ascii;   // Any quote, only ASCII bytes
+  private final BufferedString _str = new BufferedString();
+
+  static long broadcast(byte b) { return ONES * (b & 0xFF); }
+
+  /** @return 0x80 in each zero byte of the word, 0 in the others */
+  static long zeroBytes(long w) { return ~(((w & LOW7) + LOW7) | w | LOW7); }
+
+  /** @return whether the separator can be tokenized here, e.g. not a space (repeated spaces are a single separator) */
+  static boolean isSupportedSeparator(byte sep) {
+    return sep == ',' || sep == ';' || sep == '|' || sep == CHAR_TAB || sep == CsvParser.HIVE_SEP;
+  }
+
+  CsvFastTokenizer(ParseSetup setup, boolean[] keepColumns, byte[] nonDataLineMarkers, boolean forceable) {
+    _setup = setup;
+    _nonDataLineMarkers = nonDataLineMarkers;
+    _sep = setup._separator;
+    _quote = setup._single_quotes ? CHAR_SINGLE_QUOTE : CHAR_DOUBLE_QUOTE;
+    _quoting = _sep != CsvParser.HIVE_SEP; // Only allow quoting in CSV not Hive files
+    _escape = setup._escapechar;
+    _sepMask = broadcast(_sep);
+    _quoteMask = broadcast(_quote);
+    _escapeMask = broadcast(_escape);
+    _keep = keepColumns;
+    _ncols = keepColumns.length;
+    _pcol = new int[_ncols];
+    _forced = new boolean[_ncols];
+    int parseIndexNum = setup._parse_columns_indices.length - 1;
+    for (int f = 0, p = 0; f < _ncols; f++) {
+      _pcol[f] = p;
+      if (forceable && f < setup._column_types.length) {
+        byte type = setup._column_types[setup._parse_columns_indices[p]];
+        _forced[f] = type == Vec.T_STR || type == Vec.T_CAT;
+      }
+      if (_keep[f] && p < parseIndexNum) p++;
+    }
+    _ends = new int[_ncols];
+    _kinds = new byte[_ncols];
+    _nums = new long[_ncols];
+    _exps = new int[_ncols];
+    _starts = new int[_ncols];
+    _lens = new int[_ncols];
+  }
+
+  /**
+   * Tokenizes the lines of the chunk from the given line start, up to the last line ending
+   * before the last byte of the chunk, or up to the first line it cannot handle.
+   * @return the start of the first line left to the state machine, or -1 if no line was tokenized
+   */
+  int tokenize(byte[] bits, int start, ParseWriter dout) {
+    int limit = bits.length - 2;  // Leave the line ending on the last byte to the state machine
+    while (limit >= start && bits[limit] != CHAR_LF) limit--;
+    int pos = start;
+    while (pos <= limit) {
+      int lf = scanLine(bits, pos);
+      if (lf < 0 || !parseLine(bits, pos, dout)) break;
+      writeLine(bits, dout);
+      pos = lf + 1;
+    }
+    return pos == start ? -1 : pos;
+  }
+
+  /**
+   * First pass: finds the ends of the fields of the line.
+   * @return the line end, or -1 if the line cannot be tokenized here
+   */
+  private int scanLine(byte[] bits, int pos) {
+    byte c0 = bits[pos];
+    if (c0 == CHAR_LF || ArrayUtils.contains(_nonDataLineMarkers, c0)) return -1;
+    int nf = 0;
+    long quotes = 0, bad = 0, high = 0;
+    int p = pos;
+    for (; p + 8 <= bits.length; p += 8) {
+      long w = UnsafeUtils.get8(bits, p);
+      long ends = zeroBytes(w ^ _sepMask) | zeroBytes(w ^ LF_MASK);
+      long q = zeroBytes(w ^ _quoteMask);
+      long b = zeroBytes(w ^ CR_MASK) | zeroBytes(w) | zeroBytes(w ^ _escapeMask);
+      long h = w & HIGH;
+      while (ends != 0) {
+        int i = p + (Long.numberOfTrailingZeros(ends) >>> 3);
+        if (bits[i] == CHAR_LF) {
+          long before = (1L << ((i - p) << 3)) - 1;
+          if (((bad | (b & before)) != 0) || nf != _ncols - 1) return -1;
+          _ends[nf] = i;
+          _quoted = (quotes | (q & before)) != 0;
+          _ascii = (high | (h & before)) == 0;
+          return i;
+        }
+        if (nf == _ncols - 1) return -1; // Too many fields
+        _ends[nf++] = i;
+        ends &= ends - 1;
+      }
+      quotes |= q;
+      bad |= b;
+      high |= h;
+    }
+    boolean quoted = quotes != 0, ascii = high == 0;
+    if (bad != 0) return -1;
+    for (; p < bits.length; p++) {
+      byte c = bits[p];
+      if (c == CHAR_LF) {
+        if (nf != _ncols - 1) return -1;
+        _ends[nf] = p;
+        _quoted = quoted;
+        _ascii = ascii;
+        return p;
+      }
+      if (c == _sep) {
+        if (nf == _ncols - 1) return -1;
+        _ends[nf++] = p;
+      } else if (c == _quote) quoted = true;
+      else if (c == CHAR_CR || c == 0 || c == _escape) return -1;
+      else if (c < 0) ascii = false;
+    }
+    return -1;
+  }
+
+  /** Second pass: parses all the fields of the line, false if any cannot be parsed here */
+  private boolean parseLine(byte[] bits, int pos, ParseWriter dout) {
+    int a = pos;
+    for (int f = 0; f < _ncols; f++) {
+      int b = _ends[f];
+      while (a < b && (bits[a] == CHAR_SPACE || (bits[a] == CHAR_TAB && _sep != CHAR_TAB))) a++;
+      if (a == b) {
+        if (_ncols == 1) return false; // Blank line
+        _kinds[f] = NA;
+      } else if (_quoted && indexOf(bits, _quote, a, b) >= 0) {
+        if (!parseQuoted(bits, f, a, b, dout)) return false;
+      } else if (!parseToken(bits, f, a, b, dout.isString(_pcol[f]))) return false;
+      a = b + 1;
+    }
+    return true;
+  }
+
+  private static int indexOf(byte[] bits, byte c, int from, int to) {
+    for (int i = from; i < to; i++) if (bits[i] == c) return i;
+    return -1;
+  }
+
+  private static boolean isNumberStart(byte c) {
+    return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.';
+  }
+
+  /** An unquoted field, from its first non-blank byte */
+  private boolean parseToken(byte[] bits, int f, int a, int b, boolean isString) {
+    byte c = bits[a];
+    if (isString) return string(bits, f, a, b);
+    if (c == '$') return false;         // Maybe a currency
+    if (!isNumberStart(c)) return string(bits, f, a, b);
+    if (!parseNumber(bits, f, a, b, true)) return false;
+    return !_forced[f] || string(bits, f, a, b);
+  }
+
+  /** A field with a quote, it must be {@code "..."} followed by spaces at most */
+  private boolean parseQuoted(byte[] bits, int f, int a, int b, ParseWriter dout) {
+    if (!_quoting || bits[a] != _quote) return false;
+    int close = indexOf(bits, _quote, a + 1, b);
+    if (close <= a + 1) return false;   // Unmatched or empty
+    for (int i = close + 1; i < b; i++) if (bits[i] != CHAR_SPACE) return false;
+    a++;
+    if (dout.isString(_pcol[f])) return string(bits, f, a, close);
+    byte c = bits[a];
+    if (c == '$') return false;
+    if (!isNumberStart(c)) return string(bits, f, a, close);
+    return !_forced[f] && parseNumber(bits, f, a, close, false);
+  }
+
+  private boolean string(byte[] bits, int f, int a, int b) {
+    _kinds[f] = _ascii || indexOfNotAscii(bits, a, b) < 0 ? STR : STR_NOT_ASCII;
+    _starts[f] = a;
+    _lens[f] = b - a;
+    return true;
+  }
+
+  private static int indexOfNotAscii(byte[] bits, int from, int to) {
+    for (int i = from; i < to; i++) if (bits[i] < 0) return i;
+    return -1;
+  }
+
+  /**
+   * Parses {@code [+-]digits[.digits][(e|E)[+-]digits]}, into the same mantissa and exponent as
+   * the state machine.  Anything else is left to the state machine.
+   */
+  private boolean parseNumber(byte[] bits, int f, int a, int b, boolean trailingBlanks) {
+    int i = a;
+    boolean neg = false;
+    if (bits[i] == '-') { neg = true; i++; }
+    else if (bits[i] == '+') i++;
+    long number = 0;
+    int digits = 0, fraction = 0;
+    byte c;
+    while (i < b && (c = bits[i]) >= '0' && c <= '9') { number = number * 10 + (c - '0'); digits++; i++; }
+    if (i < b && bits[i] == '.') {
+      i++;
+      while (i < b && (c = bits[i]) >= '0' && c <= '9') { number = number * 10 + (c - '0'); digits++; fraction++; i++; }
+    }
+    if (digits == 0 || digits > MAX_DIGITS) return false;
+    int exp = 0;
+    if (i < b && (bits[i] == 'e' || bits[i] == 'E')) {
+      i++;
+      int sgn = 1;
+      if (i < b && bits[i] == '-') { sgn = -1; i++; }
+      else if (i < b && bits[i] == '+') i++;
+      int expDigits = 0;
+      while (i < b && (c = bits[i]) >= '0' && c <= '9') { exp = exp * 10 + (c - '0'); expDigits++; i++; }
+      if (expDigits == 0) return false;
+      exp *= sgn;
+    }
+    if (trailingBlanks)
+      while (i < b && (bits[i] == CHAR_SPACE || bits[i] == CHAR_TAB)) i++;
+    if (i != b) return false;
+    _kinds[f] = NUM;
+    _nums[f] = neg ? -number : number;
+    _exps[f] = exp - fraction;
+    return true;
+  }
+
+  /** Writes out the parsed line */
+  private void writeLine(byte[] bits, ParseWriter dout) {
+    for (int f = 0; f < _ncols; f++) {
+      if (!_keep[f]) continue;
+      int p = _pcol[f];
+      switch (_kinds[f]) {
+        case NUM:
+          dout.addNumCol(p, _nums[f], _exps[f]);
+          break;
+        case NA:
+          dout.addInvalidCol(p);
+          break;
+        default:
+          _str.set(bits, _starts[f], _lens[f]);
+          if (_setup.isNA(p, _str)) dout.addInvalidCol(p);
+          else {
+            dout.addStrCol(p, _str);
+            if (_kinds[f] == STR_NOT_ASCII) dout.setIsAllASCII(p, false);
+          }
+      }
+    }
+    dout.newLine();
+  }
+}
@@ -1,6 +1,7 @@
 package water.parser;
 
 import org.apache.commons.lang.math.NumberUtils;
+import water.H2O;
 import water.Key;
 import water.fvec.FileVec;
 import water.fvec.Vec;
@@ -20,6 +21,9 @@ public class CsvParser extends Parser {
   private static final int HAS_HEADER = ParseSetup.HAS_HEADER;
   private static final byte[] NON_DATA_LINE_MARKERS_DEFAULT = {'#'};
 
+  // Tokenize the clean lines of the chunks with CsvFastTokenizer, the state machine does the rest
+  static boolean FAST_TOKENIZER = CsvFastTokenizer.SUPPORTED && H2O.getSysBoolProperty("parse.csv.fastTokenizer", true);
+
   private final byte[] _nonDataLineMarkers; 
 
   CsvParser( ParseSetup ps, Key jobKey ) {
@@ -32,11 +36,49 @@ public class CsvParser extends Parser {
   }
 
   // Parse this one Chunk (in parallel with other Chunks)
-  @SuppressWarnings("fallthrough")
   @Override public ParseWriter parseChunk(int cidx, final ParseReader din, final ParseWriter dout) {
-    CharSkippingBufferedString str = new CharSkippingBufferedString();
     byte[] bits = din.getChunkData(cidx);
     if( bits == null ) return dout;
+    if (_setup._parse_columns_indices==null) {  // _parse_columns_indices not properly set
+      _setup.setParseColumnIndices(_setup.getNumberColumns(), _setup.getSkippedColumns());
+    }
+    int resume = -1;
+    if( FAST_TOKENIZER && dout instanceof FVecParseWriter && CsvFastTokenizer.isSupportedSeparator(CHAR_SEPARATOR) ) {
+      int start = firstLineStart(cidx, bits, din.getChunkDataStart(cidx));
+      if( start >= 0 ) {
+        final boolean forceable = ((FVecParseWriter)dout)._ctypes != null && _setup._column_types != null;
+        resume = new CsvFastTokenizer(_setup, _keepColumns, _nonDataLineMarkers, forceable).tokenize(bits, start, dout);
+      }
+    }
+    return parseChunk(cidx, din, dout, resume);
+  }
+
+  /** @return where the first data line of the chunk starts, or -1 if unsure (CR, no line end, ...) */
+  private int firstLineStart(int cidx, byte[] bits, int offset) {
+    if( offset >= 0 ) return offset;  // Just past the prior partial line
+    int i = 0;
+    if( cidx == 0 ) {  // Skip the leading comments and blank lines, as the state machine does
+      while( i < bits.length && (bits[i] == CHAR_LF || ArrayUtils.contains(_nonDataLineMarkers, bits[i])) ) {
+        for( ; i < bits.length && bits[i] != CHAR_LF; i++ )
+          if( bits[i] == CHAR_CR ) return -1;
+        i++;
+      }
+      if( i >= bits.length || bits[i] == CHAR_CR ) return -1;
+      if( _setup._check_header != ParseSetup.HAS_HEADER ) return i;
+    }
+    for( ; i < bits.length - 1; i++ ) {  // Skip the header or the partial line
+      if( bits[i] == CHAR_LF ) return i + 1;
+      if( bits[i] == CHAR_CR ) return -1;
+    }
+    return -1;
+  }
+
+  // Parse the chunk with the state machine, from the start of the chunk or
+  // from the given line start (after the fast tokenizer)
+  @SuppressWarnings("fallthrough")
+  private ParseWriter parseChunk(int cidx, final ParseReader din, final ParseWriter dout, int resume) {
+    CharSkippingBufferedString str = new CharSkippingBufferedString();
+    byte[] bits = din.getChunkData(cidx);
     int offset  = din.getChunkDataStart(cidx); // General cursor into the giant array of bytes
     final byte[] bits0 = bits;  // Bits for chunk0
     boolean firstChunk = true;  // Have not rolled into the 2nd chunk
@@ -44,8 +86,13 @@ public class CsvParser extends Parser {
     int state;
     boolean isNa = false;
     boolean isAllASCII = true;
+    // Resuming after the fast tokenizer, at the start of a line
+    if( resume >= 0 ) {
+      offset = resume;
+      state = POSSIBLE_EMPTY_LINE;
+    }
     // If handed a skipping offset, then it points just past the prior partial line.
-    if( offset >= 0 ) state = WHITESPACE_BEFORE_TOKEN;
+    else if( offset >= 0 ) state = WHITESPACE_BEFORE_TOKEN;
     else {
       offset = 0; // Else start skipping at the start
       // Starting state.  Are we skipping the first (partial) line, or not?  Skip
@@ -68,7 +115,7 @@ public class CsvParser extends Parser {
     int colIdx = 0; // count each actual column in the dataset including the skipped columns
     byte c = bits[offset];
     // skip comments for the first chunk (or if not a chunk)
-    if( cidx == 0 ) {
+    if( cidx == 0 && resume < 0 ) {
       while (ArrayUtils.contains(_nonDataLineMarkers, c) || isEOL(c)) {
         while ((offset < bits.length) && (bits[offset] != CHAR_CR) && (bits[offset  ] != CHAR_LF)) {
 //          System.out.print(String.format("%c",bits[offset]));
@@ -86,10 +133,6 @@ public class CsvParser extends Parser {
 
     final boolean forceable = dout instanceof FVecParseWriter && ((FVecParseWriter)dout)._ctypes != null && _setup._column_types != null;
     int colIndexNum = _keepColumns.length-1;
-
-    if (_setup._parse_columns_indices==null) {  // _parse_columns_indices not properly set
-      _setup.setParseColumnIndices(_setup.getNumberColumns(), _setup.getSkippedColumns());
-    }
     int parseIndexNum = _setup._parse_columns_indices.length-1;
 MAIN_LOOP:
     while (true) {
@@ -138,6 +138,12 @@ public class FVecParseWriter extends Iced implements StreamParseWriter {
     }
     _col = -1;
   }
+  /** Ends the given number of lines, whose values were all added column by
+   *  column (e.g. by a columnar reader) rather than line by line. */
+  public void newLines(long n) {
+    _nLines += n;
+    _col = -1;
+  }
   @Override public void addNumCol(int colIdx, long number, int exp) {
     if( colIdx < _nCols ) {
       _nvs[_col = colIdx].addNum(number, exp);
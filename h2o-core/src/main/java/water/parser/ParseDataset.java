@@ -239,10 +239,44 @@ public final class ParseDataset {
     }
   }
 
-  private static class CategoricalUpdateMap extends Iced {
-    final int [][] map;
-    public CategoricalUpdateMap(int[][] map){this.map = map;}
+  static class CategoricalUpdateMap extends Iced {
+    final int [][] map; // Per column, null if the column is left as it is
+    public CategoricalUpdateMap(int[][] map){
+      for (int i = 0; i < map.length; i++)
+        if (isIdentity(map[i])) map[i] = null; // Local ids are the global ones already
+      this.map = map;
+    }
+    private static boolean isIdentity(int[] map) {
+      if (map == null) return false;
+      for (int i = 0; i < map.length; i++)
+        if (map[i] != i) return false;
+      return true;
+    }
+  }
+
+  /** Key of the local to global categorical maps of a node */
+  static Key categoricalUpdateMapKey(Key cKey, int node) {
+    return Key.make(cKey.toString() + "parseCatMapNode" + node);
+  }
+
+  /** Node-local categoricals of a running parse, null if this node parsed none of its chunks */
+  static Categorical[] localCategoricals(Key cKey) {
+    return MultiFileParseTask._categoricals.get(cKey);
   }
+
+  /** Node-local categoricals of a parse, made if this node has none yet */
+  static Categorical[] localCategoricals(Key cKey, int ncols) {
+    return MultiFileParseTask.categoricals(cKey, ncols);
+  }
+
+  /** Drops the node-local categoricals of a parse */
+  static void dropLocalCategoricals(Key cKey) {
+    MultiFileParseTask._categoricals.remove(cKey);
+  }
+
+  /** Whether to unify the categorical domains partitioned by hash, see {@link PartitionedCategoricalDomains} */
+  static boolean PARTITIONED_CATEGORICALS = H2O.getSysBoolProperty("parse.categoricals.partitioned", true);
+
   // --------------------------------------------------------------------------
   // Top-level parser driver
   private static ParseDataset parseAllKeys(ParseDataset pds, Key[] fkeys, ParseSetup setup, boolean deleteOnDone) {
@@ -308,61 +342,76 @@ public final class ParseDataset {
     ParseFinalizer finalizer = ParseFinalizer.get(setup);
     // If we have any, go gather unified categorical domains
     if( n > 0 ) {
-      if (!setup.getParseType().isDomainProvided) { // Domains are not provided via setup we need to collect them
-        job.update(0, "Collecting categorical domains across nodes.");
-        {
-          GatherCategoricalDomainsTask gcdt = new GatherCategoricalDomainsTask(mfpt._cKey, ecols,
-                  mfpt._parseSetup._parse_columns_indices).doAllNodes();
-          //Test domains for excessive length.
-          List<String> offendingColNames = new ArrayList<>();
-          for (int i = 0; i < ecols.length; i++) {
-            if (gcdt.getDomainLength(i) < Categorical.MAX_CATEGORICAL_COUNT) {
-              if( gcdt.getDomainLength(i)==0 ) avs[ecols[i]].setBad(); // The all-NA column
-              else avs[ecols[i]].setDomain(gcdt.getDomain(i));
+      PartitionedCategoricalDomains pcd = null;
+      boolean unified = false;
+      try {
+        if (!setup.getParseType().isDomainProvided) { // Domains are not provided via setup we need to collect them
+          job.update(0, "Collecting categorical domains across nodes.");
+          {
+            GatherCategoricalDomainsTask gcdt = null;
+            if (PARTITIONED_CATEGORICALS) {
+              pcd = new PartitionedCategoricalDomains(mfpt._cKey, ecols, mfpt._parseSetup._parse_columns_indices);
+              pcd.build();
             } else
-              offendingColNames.add(setup._column_names[ecols[i]]);
+              gcdt = new GatherCategoricalDomainsTask(mfpt._cKey, ecols, mfpt._parseSetup._parse_columns_indices).doAllNodes();
+            //Test domains for excessive length.
+            List<String> offendingColNames = new ArrayList<>();
+            for (int i = 0; i < ecols.length; i++) {
+              int domainLength = pcd != null ? pcd.getDomainLength(i) : gcdt.getDomainLength(i);
+              if (domainLength < Categorical.MAX_CATEGORICAL_COUNT) {
+                if( domainLength==0 ) avs[ecols[i]].setBad(); // The all-NA column
+                else avs[ecols[i]].setDomain(pcd != null ? pcd.getDomain(i) : gcdt.getDomain(i));
+              } else
+                offendingColNames.add(setup._column_names[ecols[i]]);
+            }
+            if (offendingColNames.size() > 0)
+              throw new H2OParseException("Exceeded categorical limit on columns "+ offendingColNames+".   " +
+                      "Consider reparsing these columns as a string or skip parsing the offending columns by setting" +
+                      " the skipped_columns list in Python/R/Java APIs.");
+          }
+          Log.trace("Done collecting categorical domains across nodes.");
+        } else {
+          // Ignore offending domains
+          for (int i = 0; i < ecols.length; i++) {
+            avs[ecols[i]].setDomain(setup._domains[ecols[i]]);
           }
-          if (offendingColNames.size() > 0)
-            throw new H2OParseException("Exceeded categorical limit on columns "+ offendingColNames+".   " +
-                    "Consider reparsing these columns as a string or skip parsing the offending columns by setting" +
-                    " the skipped_columns list in Python/R/Java APIs.");
-        }
-        Log.trace("Done collecting categorical domains across nodes.");
-      } else {
-        // Ignore offending domains
-        for (int i = 0; i < ecols.length; i++) {
-          avs[ecols[i]].setDomain(setup._domains[ecols[i]]);
         }
-      }
 
-      job.update(0, "Compressing data.");
+        job.update(0, "Compressing data.");
+
+        fr = finalizer.finalize(job, AppendableVec.closeAll(avs), setup, mfpt._fileChunkOffsets);
+        fr.update(job);
+
+        Log.trace("Done compressing data.");
+        if (!setup.getParseType().isDomainProvided) {
+          // Update categoricals to the globally agreed numbering
+          Vec[] evecs = new Vec[ecols.length];
+          for( int i = 0; i < evecs.length; ++i ) evecs[i] = fr.vecs()[ecols[i]];
+          job.update(0, "Unifying categorical domains across nodes.");
+          {
+            if (pcd != null) pcd.publishMaps();
+            else {
+              // new CreateParse2GlobalCategoricalMaps(mfpt._cKey).doAll(evecs);
+              // Using Dtask since it starts and returns faster than an MRTask
+              CreateParse2GlobalCategoricalMaps[] fcdt = new CreateParse2GlobalCategoricalMaps[H2O.CLOUD.size()];
+              RPC[] rpcs = new RPC[H2O.CLOUD.size()];
+              for (int i = 0; i < fcdt.length; i++){
+                H2ONode[] nodes = H2O.CLOUD.members();
+                fcdt[i] = new CreateParse2GlobalCategoricalMaps(mfpt._cKey, fr._key, ecols, mfpt._parseSetup._parse_columns_indices);
+                rpcs[i] = new RPC<>(nodes[i], fcdt[i]).call();
+              }
+              for (RPC rpc : rpcs)
+                rpc.get();
+            }
 
-      fr = finalizer.finalize(job, AppendableVec.closeAll(avs), setup, mfpt._fileChunkOffsets);
-      fr.update(job);
-
-      Log.trace("Done compressing data.");
-      if (!setup.getParseType().isDomainProvided) {
-        // Update categoricals to the globally agreed numbering
-        Vec[] evecs = new Vec[ecols.length];
-        for( int i = 0; i < evecs.length; ++i ) evecs[i] = fr.vecs()[ecols[i]];
-        job.update(0, "Unifying categorical domains across nodes.");
-        {
-          // new CreateParse2GlobalCategoricalMaps(mfpt._cKey).doAll(evecs);
-          // Using Dtask since it starts and returns faster than an MRTask
-          CreateParse2GlobalCategoricalMaps[] fcdt = new CreateParse2GlobalCategoricalMaps[H2O.CLOUD.size()];
-          RPC[] rpcs = new RPC[H2O.CLOUD.size()];
-          for (int i = 0; i < fcdt.length; i++){
-            H2ONode[] nodes = H2O.CLOUD.members();
-            fcdt[i] = new CreateParse2GlobalCategoricalMaps(mfpt._cKey, fr._key, ecols, mfpt._parseSetup._parse_columns_indices);
-            rpcs[i] = new RPC<>(nodes[i], fcdt[i]).call();
+            new UpdateCategoricalChunksTask(mfpt._cKey, mfpt._chunk2ParseNodeMap).doAll(evecs);
+            MultiFileParseTask._categoricals.remove(mfpt._cKey);
           }
-          for (RPC rpc : rpcs)
-            rpc.get();
-
-          new UpdateCategoricalChunksTask(mfpt._cKey, mfpt._chunk2ParseNodeMap).doAll(evecs);
-          MultiFileParseTask._categoricals.remove(mfpt._cKey);
+          Log.trace("Done unifying categoricals across nodes.");
         }
-        Log.trace("Done unifying categoricals across nodes.");
+        unified = true;
+      } finally {
+        if (pcd != null && !unified) pcd.cleanup(); // Failed: drop what is left on the nodes
       }
     } else {                    // No categoricals case
       job.update(0,"Compressing data.");
@@ -527,7 +576,7 @@ public final class ParseDataset {
           }
         }
         // Store the local->global ordinal maps in DKV by node parse categorical key and node index
-        DKV.put(Key.make(_parseCatMapsKey.toString() + "parseCatMapNode" + H2O.SELF.index()), new CategoricalUpdateMap(_nodeOrdMaps));
+        DKV.put(categoricalUpdateMapKey(_parseCatMapsKey, H2O.SELF.index()), new CategoricalUpdateMap(_nodeOrdMaps));
       tryComplete();
     }
   }
@@ -548,7 +597,7 @@ public final class ParseDataset {
     }
 
     @Override public void map(Chunk [] chks){
-      CategoricalUpdateMap temp = DKV.getGet(Key.make(_parseCatMapsKey.toString() + "parseCatMapNode" + _chunk2ParseNodeMap[chks[0].cidx()]));
+      CategoricalUpdateMap temp = DKV.getGet(categoricalUpdateMapKey(_parseCatMapsKey, _chunk2ParseNodeMap[chks[0].cidx()]));
       if ( temp == null || temp.map == null)
         throw new H2OIllegalValueException("Missing categorical update map",this);
       int[][] _parse2GlobalCatMaps = temp.map;
@@ -557,18 +606,20 @@ public final class ParseDataset {
       final int cidx = chks[0].cidx();
       for(int i = 0; i < chks.length; ++i) {
         Chunk chk = chks[i];
+        if (_parse2GlobalCatMaps[i] == null) continue; // No levels or identity map on the parsing node: nothing changes
         if (!(chk instanceof CStrChunk)) {
           for( int j = 0; j < chk._len; ++j){
             if( chk.isNA(j) )continue;
             final int old = (int) chk.at8(j);
-            if (old < 0 || (_parse2GlobalCatMaps[i] != null && old >= _parse2GlobalCatMaps[i].length))
+            if (old < 0 || old >= _parse2GlobalCatMaps[i].length)
               chk.reportBrokenCategorical(i, j, old, _parse2GlobalCatMaps[i], _fr.vec(i).domain().length);
-            if(_parse2GlobalCatMaps[i] != null && _parse2GlobalCatMaps[i][old] < 0)
+            if(_parse2GlobalCatMaps[i][old] < 0)
               throw new H2OParseException("Error in unifying categorical values. This is typically "
                   +"caused by unrecognized characters in the data.\n The problem categorical value "
                   +"occurred in the " + PrettyPrint.withOrdinalIndicator(i+1)+ " categorical col, "
                   +PrettyPrint.withOrdinalIndicator(chk.start() + j) +" row.");
-            if (_parse2GlobalCatMaps[i] != null)
+            // Only rewrite the ids that change, unchanged chunks are not inflated
+            if (_parse2GlobalCatMaps[i][old] != old)
               chk.set(j, _parse2GlobalCatMaps[i][old]);
           }
           Log.trace("Updated domains for "+PrettyPrint.withOrdinalIndicator(i+1)+ " categorical column.");
@@ -578,7 +629,7 @@ public final class ParseDataset {
     }
     @Override public void postGlobal() {
       for (int i=0; i < H2O.CLOUD.size(); i++)
-        DKV.remove(Key.make(_parseCatMapsKey.toString() + "parseCatMapNode" + i));
+        DKV.remove(categoricalUpdateMapKey(_parseCatMapsKey, i));
     }
   }
   private static class GatherCategoricalDomainsTask extends MRTask<GatherCategoricalDomainsTask> {
@@ -1138,7 +1189,7 @@ public final class ParseDataset {
     // get all rollups started in parallell, otherwise this takes ages!
     Futures fs = new Futures();
     Vec[] vecArr = fr.vecs();
-    for(Vec v:vecArr)  v.startRollupStats(fs);
+    Vec.startRollupStats(vecArr, fs, false);
     fs.blockForPending();
 
     int namelen = 0;
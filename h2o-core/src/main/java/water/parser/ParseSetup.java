@@ -46,6 +46,7 @@ public class ParseSetup extends Iced {
   boolean _force_col_types = false; // at end of parsing, change column type to users specified ones
   boolean _tz_adjust_to_local = false;
   String[] _orig_column_types;  // copy over the original column type setup before translating to byte[]
+  String _row_filter;           // Rows to keep, e.g. "year >= 2020 && state == 'CA'"; only parsers which support it
 
   String[] _synthetic_column_names; // Columns with constant values to be added to parsed Frame
   String[][] _synthetic_column_values; // For each imported file contains array of values for each synthetic column
@@ -149,6 +150,17 @@ public class ParseSetup extends Iced {
     _synthetic_column_type = synthetic_column_type;
   }
 
+  /** Filter of the rows to parse, for the parsers which support it (Parquet): conditions on single columns
+   *  joined by {@code &&}, e.g. {@code "year >= 2020 && state == 'CA'"}; null to parse all the rows. */
+  public ParseSetup setRowFilter(String rowFilter) {
+    _row_filter = rowFilter;
+    return this;
+  }
+
+  public String getRowFilter() {
+    return _row_filter;
+  }
+
   public void setParquetColumnTypes(String[] columnTypes) {
     parquetColumnTypes = columnTypes.clone();
   }
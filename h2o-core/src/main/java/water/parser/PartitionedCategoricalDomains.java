@@ -0,0 +1,352 @@
+package water.parser;
+
+import jsr166y.CountedCompleter;
+import water.*;
+import water.nbhm.NonBlockingHashMap;
+import water.util.StringUtils;
+
+import java.util.*;
+
+import static water.util.ArrayUtils.encodeAsInt;
+
+/**
+ * Unifies the categorical domains of a parse across the nodes, with the levels partitioned by hash.
+ *
+ * Every node owns a range of the (mixed) hashes of the levels.  The nodes first split their
+ * node-local levels by owner.  Every owner then fetches its levels from all the nodes, removes
+ * the duplicates and sorts them.  The sorted partitions are disjoint, so the driver only has to
+ * merge them into the global sorted domains, and to turn the positions of the levels in their
+ * partitions into global ids.  Every node finally gets the global ids of its own levels, from
+ * which it builds its local to global maps for {@link ParseDataset}'s categorical chunks update.
+ *
+ * Unlike merging the sorted domains pairwise up the reduce tree, every level is deduplicated and
+ * sorted once, on its owner, and no node has to look up the whole global domain in its local maps.
+ */
+final class PartitionedCategoricalDomains {
+
+  // Levels of this node by owner, until the local to global maps are built
+  private static final NonBlockingHashMap<Key, LocalLevels> LOCAL = new NonBlockingHashMap<>();
+
+  private final Key _cKey;
+  private final int[] _ecols;        // Categorical columns, among the parsed ones
+  private final int[] _parseColumns; // Parsed columns, among all the columns
+  private final int[] _domainLengths;
+  private String[][] _domains;
+  private int[][][][] _globalIds;    // [node][col][owner][level]: global ids of the levels of each node
+
+  PartitionedCategoricalDomains(Key cKey, int[] ecols, int[] parseColumns) {
+    _cKey = cKey;
+    _ecols = ecols;
+    _parseColumns = parseColumns;
+    _domainLengths = new int[ecols.length];
+  }
+
+  /** Whether this node holds levels of the given parse */
+  static boolean hasLocalLevels(Key cKey) { return LOCAL.containsKey(cKey); }
+
+  /** Owner of a level, among the given number of nodes */
+  static int owner(BufferedString level, int nodes) {
+    int h = level.hashCode() * 0x9E3779B9; // Spread the hash over its high bits
+    return (int) (((h & 0xFFFFFFFFL) * nodes) >>> 32);
+  }
+
+  /** Drops the node-local categoricals, levels and maps of a parse which failed before its chunks were updated */
+  void cleanup() {
+    new DropLocalLevelsTask(_cKey).doAllNodes();
+  }
+
+  /** Builds the global domains, see {@link #getDomain} */
+  PartitionedCategoricalDomains build() {
+    new SplitLevelsTask(_cKey, _ecols, _parseColumns).doAllNodes();
+    Partition[] parts = new MergeLevelsTask(_cKey, _ecols.length).doAllNodes()._parts;
+    int nodes = parts.length;
+    _domains = new String[_ecols.length][];
+    _globalIds = new int[nodes][_ecols.length][nodes][];
+    for (int c = 0; c < _ecols.length; c++) {
+      for (Partition p : parts)
+        if (p != null) _domainLengths[c] += PackedDomains.sizeOf(p._levels[c]);
+      if (_domainLengths[c] >= Categorical.MAX_CATEGORICAL_COUNT) continue; // Reported by the caller
+      int[][] ranks = mergePartitions(parts, c);
+      for (int owner = 0; owner < nodes; owner++) {
+        if (parts[owner] == null) continue;
+        int[][] pos = parts[owner]._pos[c];
+        for (int node = 0; node < nodes; node++) {
+          if (pos[node] == null) continue;
+          int[] ids = _globalIds[node][c][owner] = new int[pos[node].length];
+          for (int i = 0; i < ids.length; i++) ids[i] = ranks[owner][pos[node][i]];
+        }
+      }
+    }
+    return this;
+  }
+
+  int getDomainLength(int colIdx) { return _domainLengths[colIdx]; }
+
+  String[] getDomain(int colIdx) { return _domains[colIdx]; }
+
+  /** Merges the sorted partitions of a column into its domain.
+   *  @return global id of each level of each partition */
+  private int[][] mergePartitions(Partition[] parts, final int c) {
+    final String[] domain = _domains[c] = new String[_domainLengths[c]];
+    int[][] ranks = new int[parts.length][];
+    final int[] pos = new int[parts.length], next = new int[parts.length];
+    final BufferedString[] heads = new BufferedString[parts.length];
+    PriorityQueue<Integer> queue = new PriorityQueue<>(Math.max(1, parts.length), new Comparator<Integer>() {
+      @Override public int compare(Integer a, Integer b) { return heads[a].compareTo(heads[b]); }
+    });
+    for (int p = 0; p < parts.length; p++) {
+      if (parts[p] == null) continue;
+      byte[] levels = parts[p]._levels[c];
+      ranks[p] = new int[PackedDomains.sizeOf(levels)];
+      heads[p] = new BufferedString(levels, 0, 0);
+      next[p] = 4;
+      if (advance(levels, heads[p], next, p)) queue.add(p);
+    }
+    for (int id = 0; !queue.isEmpty(); id++) {
+      int p = queue.poll();
+      BufferedString head = heads[p];
+      domain[id] = StringUtils.toString(head.getBuffer(), head.getOffset(), head.length());
+      ranks[p][pos[p]++] = id;
+      if (advance(parts[p]._levels[c], head, next, p)) queue.add(p);
+    }
+    return ranks;
+  }
+
+  // Points the head of the partition to its next level, false if none
+  private static boolean advance(byte[] levels, BufferedString head, int[] next, int p) {
+    if (next[p] >= levels.length) return false;
+    int len = encodeAsInt(levels, next[p]);
+    head.setOff(next[p] + 4);
+    head.setLen(len);
+    next[p] += 4 + len;
+    return true;
+  }
+
+  /** Publishes the local to global maps of every node, for the categorical chunks update */
+  void publishMaps() {
+    H2ONode[] nodes = H2O.CLOUD.members();
+    RPC[] rpcs = new RPC[nodes.length];
+    for (int i = 0; i < nodes.length; i++)
+      rpcs[i] = new RPC<>(nodes[i], new PublishMapTask(_cKey, _globalIds[i])).call();
+    for (RPC rpc : rpcs)
+      rpc.get();
+    _globalIds = null;
+  }
+
+  /** Levels of one node, split by owner */
+  private static final class LocalLevels {
+    final byte[][][] _levels; // [col][owner]: packed levels sent to the owner
+    final int[][][] _ids;     // [col][owner]: their local ids
+    final int[] _maxIds;      // [col]: largest local id, -1 if no levels
+    LocalLevels(int ncols) {
+      _levels = new byte[ncols][][];
+      _ids = new int[ncols][][];
+      _maxIds = new int[ncols];
+    }
+  }
+
+  /** Sorted and deduplicated levels of one owner */
+  static final class Partition extends Iced<Partition> {
+    byte[][] _levels; // [col]: packed sorted levels
+    int[][][] _pos;   // [col][node][level]: position in _levels of the levels sent by each node
+    Partition(int ncols) {
+      _levels = new byte[ncols][];
+      _pos = new int[ncols][][];
+    }
+  }
+
+  // Splits the levels of every node by owner
+  private static class SplitLevelsTask extends MRTask<SplitLevelsTask> {
+    private final Key _cKey;
+    private final int[] _ecols;
+    private final int[] _parseColumns;
+    SplitLevelsTask(Key cKey, int[] ecols, int[] parseColumns) { _cKey = cKey; _ecols = ecols; _parseColumns = parseColumns; }
+
+    @Override public void setupLocal() {
+      Categorical[] cats = ParseDataset.localCategoricals(_cKey);
+      if (cats == null) return;
+      int nodes = H2O.CLOUD.size();
+      LocalLevels local = new LocalLevels(_ecols.length);
+      for (int c = 0; c < _ecols.length; c++) {
+        int col = _parseColumns[_ecols[c]];
+        Categorical cat = cats[col];
+        cat.convertToUTF8(col + 1);
+        local._maxIds[c] = cat.size() == 0 ? -1 : cat.maxId();
+        int n = cat.size();
+        BufferedString[] levels = new BufferedString[n];
+        int[] ids = new int[n], owners = new int[n], counts = new int[nodes];
+        int k = 0;
+        for (Map.Entry<BufferedString, Integer> e : cat._map.entrySet()) {
+          levels[k] = e.getKey();
+          ids[k] = e.getValue();
+          counts[owners[k] = owner(levels[k], nodes)]++;
+          k++;
+        }
+        BufferedString[][] byOwner = new BufferedString[nodes][];
+        local._ids[c] = new int[nodes][];
+        for (int o = 0; o < nodes; o++) {
+          byOwner[o] = new BufferedString[counts[o]];
+          local._ids[c][o] = new int[counts[o]];
+        }
+        Arrays.fill(counts, 0);
+        for (int i = 0; i < k; i++) {
+          int o = owners[i];
+          byOwner[o][counts[o]] = levels[i];
+          local._ids[c][o][counts[o]++] = ids[i];
+        }
+        local._levels[c] = new byte[nodes][];
+        for (int o = 0; o < nodes; o++) local._levels[c][o] = PackedDomains.pack(byOwner[o]);
+      }
+      LOCAL.put(_cKey, local);
+    }
+  }
+
+  // Fetches the levels a node sent to the given owner
+  private static class FetchLevelsTask extends DTask<FetchLevelsTask> {
+    private final Key _cKey;
+    private final int _owner;
+    byte[][] _levels; // [col], null if the node has no categoricals
+    FetchLevelsTask(Key cKey, int owner) { _cKey = cKey; _owner = owner; }
+
+    @Override public void compute2() {
+      LocalLevels local = LOCAL.get(_cKey);
+      if (local != null) {
+        _levels = new byte[local._levels.length][];
+        for (int c = 0; c < _levels.length; c++) {
+          _levels[c] = local._levels[c][_owner];
+          local._levels[c][_owner] = null; // Only fetched once
+        }
+      }
+      tryComplete();
+    }
+  }
+
+  // Merges the levels of every owner, from all the nodes.  The levels are
+  // fetched, then merged column by column, by completers of this task: nothing
+  // blocks in setupLocal.
+  private static class MergeLevelsTask extends MRTask<MergeLevelsTask> {
+    private final Key _cKey;
+    private final int _ncols;
+    Partition[] _parts; // [owner]
+    MergeLevelsTask(Key cKey, int ncols) { _cKey = cKey; _ncols = ncols; }
+
+    @Override public void setupLocal() {
+      H2ONode[] nodes = H2O.CLOUD.members();
+      final int self = H2O.SELF.index();
+      final byte[][][] levels = new byte[nodes.length][][]; // [node][col]
+      final Partition part = new Partition(_ncols);
+      _parts = new Partition[nodes.length];
+      _parts[self] = part;
+      // Once the levels of all the nodes are in, merge every column
+      final H2O.H2OCountedCompleter fetched = new H2O.H2OCountedCompleter(this) {
+        @Override public void compute2() { throw H2O.fail(); }
+        @Override public void onCompletion(CountedCompleter caller) {
+          MergeLevelsTask.this.addToPendingCount(_ncols);
+          for (int c = 0; c < _ncols; c++) {
+            final int fc = c;
+            H2O.submitTask(new H2O.H2OCountedCompleter(MergeLevelsTask.this) {
+              @Override public void compute2() {
+                merge(levels, fc, part);
+                tryComplete();
+              }
+            });
+          }
+        }
+      };
+      addToPendingCount(1);
+      fetched.addToPendingCount(nodes.length - 1);
+      for (int i = 0; i < nodes.length; i++) {
+        if (i == self) continue;
+        final int node = i;
+        new RPC<>(nodes[i], new FetchLevelsTask(_cKey, self)).addCompleter(new H2O.H2OCallback<FetchLevelsTask>(fetched) {
+          @Override public void callback(FetchLevelsTask f) { levels[node] = f._levels; }
+        }).call();
+      }
+      FetchLevelsTask f = new FetchLevelsTask(_cKey, self);
+      f.compute2();
+      levels[self] = f._levels;
+      fetched.tryComplete();
+    }
+
+    private static void merge(byte[][][] levels, int c, Partition part) {
+      HashMap<BufferedString, Integer> index = new HashMap<>();
+      ArrayList<BufferedString> uniques = new ArrayList<>();
+      int[][] pos = part._pos[c] = new int[levels.length][];
+      for (int i = 0; i < levels.length; i++) {
+        if (levels[i] == null) continue;
+        byte[] ls = levels[i][c];
+        int[] p = pos[i] = new int[PackedDomains.sizeOf(ls)];
+        for (int k = 0, off = 4; k < p.length; k++) {
+          int len = encodeAsInt(ls, off);
+          BufferedString level = new BufferedString(ls, off + 4, len);
+          off += 4 + len;
+          Integer u = index.get(level);
+          if (u == null) {
+            index.put(level, u = uniques.size());
+            uniques.add(level);
+          }
+          p[k] = u;
+        }
+      }
+      final BufferedString[] sorted = uniques.toArray(new BufferedString[0]);
+      Integer[] order = new Integer[sorted.length];
+      for (int u = 0; u < order.length; u++) order[u] = u;
+      Arrays.sort(order, new Comparator<Integer>() {
+        @Override public int compare(Integer a, Integer b) { return sorted[a].compareTo(sorted[b]); }
+      });
+      int[] rank = new int[order.length];
+      BufferedString[] levelsSorted = new BufferedString[order.length];
+      for (int r = 0; r < order.length; r++) {
+        rank[order[r]] = r;
+        levelsSorted[r] = sorted[order[r]];
+      }
+      for (int[] p : pos)
+        if (p != null)
+          for (int k = 0; k < p.length; k++) p[k] = rank[p[k]];
+      part._levels[c] = PackedDomains.pack(levelsSorted);
+    }
+
+    @Override public void reduce(MergeLevelsTask mrt) {
+      if (_parts == null) _parts = mrt._parts;
+      else if (mrt._parts != null)
+        for (int i = 0; i < _parts.length; i++)
+          if (_parts[i] == null) _parts[i] = mrt._parts[i];
+    }
+  }
+
+  // Drops the levels and the local to global maps of a node
+  private static class DropLocalLevelsTask extends MRTask<DropLocalLevelsTask> {
+    private final Key _cKey;
+    DropLocalLevelsTask(Key cKey) { _cKey = cKey; }
+    @Override public void setupLocal() {
+      LOCAL.remove(_cKey);
+      ParseDataset.dropLocalCategoricals(_cKey);
+      DKV.remove(ParseDataset.categoricalUpdateMapKey(_cKey, H2O.SELF.index()));
+    }
+  }
+
+  // Builds and publishes the local to global maps of a node
+  private static class PublishMapTask extends DTask<PublishMapTask> {
+    private final Key _cKey;
+    private final int[][][] _globalIds; // [col][owner][level]
+    PublishMapTask(Key cKey, int[][][] globalIds) { _cKey = cKey; _globalIds = globalIds; }
+
+    @Override public void compute2() {
+      LocalLevels local = LOCAL.remove(_cKey);
+      if (local != null) {
+        int[][] maps = new int[local._ids.length][];
+        for (int c = 0; c < maps.length; c++) {
+          if (local._maxIds[c] < 0) continue;
+          int[] map = maps[c] = MemoryManager.malloc4(local._maxIds[c] + 1);
+          Arrays.fill(map, -1);
+          for (int o = 0; o < local._ids[c].length; o++) {
+            int[] ids = local._ids[c][o], global = _globalIds[c][o];
+            for (int i = 0; i < ids.length; i++) map[ids[i]] = global[i];
+          }
+        }
+        DKV.put(ParseDataset.categoricalUpdateMapKey(_cKey, H2O.SELF.index()), new ParseDataset.CategoricalUpdateMap(maps));
+      }
+      tryComplete();
+    }
+  }
+}
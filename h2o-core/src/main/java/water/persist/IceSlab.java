@@ -0,0 +1,155 @@
+package water.persist;
+
+import water.Key;
+import water.nbhm.NonBlockingHashMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Swap space for user-mode swapping (see -ice_mmap): a single file per node,
+ * memory-mapped in segments, with a free-list allocator.
+ *
+ * Storing a Value is a copy into the mapping (written back by the OS), reloading
+ * it is a copy out of the mapping - served from the OS page cache when the pages
+ * are still there, page-faulted in otherwise.  Compared to a file per Value there
+ * is no file to create, open, read and delete on every swap-out and swap-in.
+ *
+ * Space is handed out in whole pages; freed extents are reused best-fit (and
+ * split), they are not coalesced.  An extent never crosses a segment boundary,
+ * Values larger than a segment are left to the caller.
+ */
+final class IceSlab {
+  static final int PAGE = 1 << 12;
+  static final int SEGMENT = 1 << 28;
+
+  private final File _file;
+  private RandomAccessFile _raf;          // Opened on first store
+  private volatile MappedByteBuffer[] _segs = new MappedByteBuffer[0];
+  private long _top;                      // Bump-allocation pointer
+  // Free extents: offsets by number of pages
+  private final TreeMap<Integer,ArrayDeque<Long>> _free = new TreeMap<>();
+  // Where the stored Values are
+  private final NonBlockingHashMap<Key,Extent> _extents = new NonBlockingHashMap<>();
+
+  private static final class Extent {
+    final long _off;
+    final int _pages;
+    Extent(long off, int pages) { _off = off; _pages = pages; }
+  }
+
+  IceSlab(File file) { _file = file; }
+
+  boolean store(Key k, byte[] m) throws IOException { return store(k, ByteBuffer.wrap(m)); }
+
+  /** Store the bytes of the Value (the remaining bytes of the buffer) under the given Key, replacing any prior ones.
+   *  @return false if too big for the slab */
+  boolean store(Key k, ByteBuffer m) throws IOException {
+    if( m.remaining() > SEGMENT ) return false;
+    Extent e = alloc(Math.max(1, (m.remaining() + PAGE - 1) / PAGE));
+    ByteBuffer bb = segment(e._off);
+    bb.position((int) (e._off % SEGMENT));
+    bb.put(m);
+    Extent old = _extents.put(k, e);
+    if( old != null ) free(old);
+    return true;
+  }
+
+  /** Bytes stored under the given Key.
+   *  @return the bytes, or null if not in the slab */
+  byte[] load(Key k, int len) {
+    Extent e = _extents.get(k);
+    if( e == null || (long) e._pages * PAGE < len ) return null;
+    ByteBuffer bb = segment(e._off);
+    if( bb == null ) return null; // Racing reset
+    byte[] b = new byte[len];
+    bb.position((int) (e._off % SEGMENT));
+    bb.get(b);
+    // An extent is unmapped before it is freed (and then reused), so if it is
+    // still the Key's one the copy was not overwritten; else racing delete/store
+    return _extents.get(k) == e ? b : null;
+  }
+
+  /** Free the space of the given Key, if any. */
+  void delete(Key k) {
+    Extent e = _extents.remove(k);
+    if( e != null ) free(e);
+  }
+
+  boolean contains(Key k) { return _extents.containsKey(k); }
+
+  /** Bytes of the slab file in use, including the free extents. */
+  synchronized long size() { return _top; }
+
+  /** Forget everything; the file itself is deleted by the caller. */
+  synchronized void reset() {
+    _extents.clear();
+    _free.clear();
+    _top = 0;
+    _segs = new MappedByteBuffer[0];
+    if( _raf != null ) {
+      try { _raf.close(); } catch( IOException ignore ) { }
+      _raf = null;
+    }
+  }
+
+  // A private view of the segment holding the given offset; views are not
+  // shared, so that concurrent readers do not race on the position
+  private ByteBuffer segment(long off) {
+    MappedByteBuffer[] segs = _segs; // Read once!
+    int seg = (int) (off / SEGMENT);
+    return seg < segs.length ? segs[seg].duplicate() : null;
+  }
+
+  private synchronized Extent alloc(int pages) throws IOException {
+    Map.Entry<Integer,ArrayDeque<Long>> best = _free.ceilingEntry(pages);
+    if( best != null ) {       // Best fit from the free extents
+      long off = best.getValue().pop();
+      if( best.getValue().isEmpty() ) _free.remove(best.getKey());
+      if( best.getKey() > pages )
+        addFree(off + (long) pages * PAGE, best.getKey() - pages);
+      return new Extent(off, pages);
+    }
+    long len = (long) pages * PAGE;
+    long segEnd = (_top / SEGMENT + 1) * SEGMENT;
+    if( _top + len > segEnd ) { // Does not fit in the current segment; keep its tail
+      if( segEnd > _top ) addFree(_top, (int) ((segEnd - _top) / PAGE));
+      _top = segEnd;
+    }
+    int seg = (int) (_top / SEGMENT);
+    if( seg >= _segs.length ) map(seg);
+    long off = _top;
+    _top += len;
+    return new Extent(off, pages);
+  }
+
+  private synchronized void free(Extent e) { addFree(e._off, e._pages); }
+
+  private void addFree(long off, int pages) {
+    ArrayDeque<Long> offs = _free.get(pages);
+    if( offs == null ) _free.put(pages, offs = new ArrayDeque<>());
+    offs.push(off);
+  }
+
+  private void map(int seg) throws IOException {
+    if( _raf == null ) {
+      File dir = _file.getParentFile();
+      if( !dir.mkdirs() && !dir.exists() )
+        throw new IOException("mkdirs failed making " + dir);
+      _raf = new RandomAccessFile(_file, "rw");
+    }
+    // Mapping beyond the end of the file grows it; the new pages are sparse
+    MappedByteBuffer mbb = _raf.getChannel().map(FileChannel.MapMode.READ_WRITE, (long) seg * SEGMENT, SEGMENT);
+    MappedByteBuffer[] segs = Arrays.copyOf(_segs, seg + 1);
+    segs[seg] = mbb;
+    _segs = segs;
+  }
+}
@@ -2,6 +2,8 @@ package water.persist;
 
 import java.io.*;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 
 import water.*;
@@ -15,10 +17,13 @@ import water.util.Log;
 public final class PersistFS extends Persist {
   final File _root;
   final File _dir;
+  // Swap space for -ice_mmap
+  final IceSlab _slab;
 
   PersistFS(File root) {
     _root = root;
     _dir = new File(root, "ice" + H2O.API_PORT);
+    _slab = new IceSlab(new File(_dir, "swap.slab"));
     //deleteRecursive(_dir);
     // Make the directory as-needed
     root.mkdirs();
@@ -26,7 +31,7 @@ public final class PersistFS extends Persist {
       H2O.die("ice_root not a read/writable directory");
   }
 
-  public void cleanUp() { deleteRecursive(_dir); }
+  public void cleanUp() { _slab.reset(); deleteRecursive(_dir); }
 
   private static void deleteRecursive(File path) {
     if( !path.exists() ) return;
@@ -47,15 +52,18 @@ public final class PersistFS extends Persist {
   }
 
   @Override public byte[] load(Value v) throws IOException {
+    int len = v.persistedSize(); // Cold chunks are stored compressed
+    byte[] m = _slab.load(v._key, len);
+    if( m != null ) return m;
     File f = getFile(v);
-    if( f.length() < v._max ) { // Should be fully on disk...
+    if( f.length() < len ) { // Should be fully on disk...
       // or it's a racey delete of a spilled value
-      assert !v.isPersisted() : f.length() + " " + v._max + " " + v._key;
+      assert !v.isPersisted() : f.length() + " " + len + " " + v._key;
       return null; // No value
     }
     try (FileInputStream s = new FileInputStream(f)) {
       AutoBuffer ab = new AutoBuffer(s.getChannel(), true, Value.ICE);
-      byte[] b = ab.getA1(v._max);
+      byte[] b = ab.getA1(len);
       ab.close();
       return b;
     }
@@ -65,18 +73,21 @@ public final class PersistFS extends Persist {
   @Override
   public void store(Value v) throws IOException {
     assert !v.isPersisted();
+    ByteBuffer m = v.persistBuffer(); // we are not single threaded anymore
+    if (m.remaining() != v.persistedSize()) {
+      Log.warn("Value size mismatch? " + v._key + " byte[].len=" + m.remaining() + " v._max=" + v._max);
+      v._max = m.remaining(); // Implies update of underlying POJO, then re-serializing it without K/V storing it
+    }
+    if (H2O.ARGS.ice_mmap && _slab.store(v._key, m))
+      return;
+    _slab.delete(v._key); // Drop a stale copy, if the slab got turned off
     File dirs = new File(_dir, getIceDirectory(v._key));
     if (!dirs.mkdirs() && !dirs.exists())
       throw new java.io.IOException("mkdirs failed making " + dirs);
     try (FileOutputStream s = new FileOutputStream(getFile(v))) {
-      byte[] m = v.memOrLoad(); // we are not single threaded anymore
-      if (m != null && m.length != v._max) {
-        Log.warn("Value size mismatch? " + v._key + " byte[].len=" + m.length + " v._max=" + v._max);
-        v._max = m.length; // Implies update of underlying POJO, then re-serializing it without K/V storing it
-      }
-      new AutoBuffer(s.getChannel(), false, Value.ICE).putA1(m, m.length).close();
-    } catch (AutoBuffer.AutoBufferException abe) {
-      throw abe._ioe;
+      FileChannel ch = s.getChannel();
+      while (m.hasRemaining())
+        ch.write(m);
     }
   }
 
@@ -86,6 +97,7 @@ public final class PersistFS extends Persist {
   }
 
   @Override public void delete(Value v) {
+    if( _slab.contains(v._key) ) { _slab.delete(v._key); return; }
     getFile(v).delete();        // Silently ignore errors
     // Attempt to delete empty containing directory
     new File(_dir, getIceDirectory(v._key)).delete();
@@ -9,7 +9,9 @@ import water.rapids.ast.AstRoot;
 import water.rapids.ast.prims.operators.AstPlus;
 import water.util.Log;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
@@ -52,6 +54,10 @@ public class Session {
   // set.
   private NonBlockingHashSet<Key<Vec>> GLOBALS = new NonBlockingHashSet<>();
 
+  // Vecs of the temp frames which are swapped out of memory before other data
+  // (see EvictionHints), by frame.  Vecs shared with global frames are not.
+  private NonBlockingHashMap<Key, Key<Vec>[]> EVICT_FIRST = new NonBlockingHashMap<>();
+
   private final Properties properties = new Properties();
 
   /**
@@ -111,6 +117,7 @@ public class Session {
     // Remove all temp frames
     Futures fs = new Futures();
     for (Frame fr : FRAMES.values()) {
+      releaseEvictFirst(fr);
       fs = downRefCnt(fr, fs);   // Remove internal Vecs one by one
       DKV.remove(fr._key, fs);   // Shallow remove, internal Vecs removed 1-by-1
     }
@@ -226,9 +233,28 @@ public class Session {
     FRAMES.put(fr._key, fr);     // Track for session
     addRefCnt(fr, 1);            // Refcnt is also up: these Vecs stick around after single Rapids call for the next one
     DKV.put(fr);                // Into DKV, so e.g. Flow can view for debugging
+    evictFirst(fr);
     return fr;                  // Flow coding
   }
 
+  /**
+   * Hint that the Vecs of a temp frame go out of memory before other data, except for the ones shared with globals.
+   */
+  @SuppressWarnings("unchecked")
+  private void evictFirst(Frame fr) {
+    List<Key<Vec>> vecs = new ArrayList<>();
+    for (Key<Vec> vec : fr.keys())
+      if (!GLOBALS.contains(vec)) vecs.add(vec);
+    if (vecs.isEmpty()) return;
+    Key<Vec>[] old = EVICT_FIRST.put(fr._key, EvictionHints.evictFirst(vecs.toArray(new Key[0])));
+    if (old != null) EvictionHints.release(old, EvictionHints.EVICT_FIRST);
+  }
+
+  private void releaseEvictFirst(Frame fr) {
+    Key<Vec>[] vecs = EVICT_FIRST.remove(fr._key);
+    if (vecs != null) EvictionHints.release(vecs, EvictionHints.EVICT_FIRST);
+  }
+
   /**
    * Remove and delete a session-tracked frame.
    * Remove from all session tracking spaces.
@@ -244,6 +270,7 @@ public class Session {
           Keyed.remove(vec, fs, true);            // Remove unshared dead global
       }
     } else {                    // Else a temp and not a global
+      releaseEvictFirst(fr);
       fs = downRefCnt(fr, fs);   // Standard down-ref counting of all Vecs
       FRAMES.remove(fr._key);   // And remove from temps
     }
@@ -4,6 +4,7 @@ import water.Futures;
 import water.H2O;
 import water.MRTask;
 import water.MemoryManager;
+import water.fvec.CStrChunk;
 import water.fvec.Chunk;
 import water.fvec.Frame;
 import water.fvec.NewChunk;
@@ -216,6 +217,28 @@ abstract public class AstBinOp extends AstPrimitive {
     return new ValFrame(newfr);
   }
 
+  private static boolean isDictionaryEncoded(Chunk chk) {
+    return chk instanceof CStrChunk && ((CStrChunk) chk).isDictionaryEncoded();
+  }
+
+  /**
+   * Apply str_op to a dictionary encoded chunk and a string scalar: the op is evaluated
+   * just once for each distinct string of the chunk, rows only look up the result by dictionary code.
+   */
+  private void dict_op_scalar(CStrChunk chk, BufferedString conStr, boolean chkLeft, NewChunk cres) {
+    BufferedString vstr = new BufferedString();
+    double[] res = new double[chk.dictionarySize()];
+    for (int k = 0; k < res.length; k++) {
+      chk.dictionaryValue(vstr, k);
+      res[k] = chkLeft ? str_op(vstr, conStr) : str_op(conStr, vstr);
+    }
+    final double naRes = chkLeft ? str_op(null, conStr) : str_op(conStr, null);
+    for (int i = 0; i < chk._len; i++) {
+      int code = chk.codeAt(i);
+      cres.addNum(code < 0 ? naRes : res[code]);
+    }
+  }
+
   /**
    * Auto-widen the scalar to every element of the frame
    */
@@ -231,8 +254,12 @@ abstract public class AstBinOp extends AstPrimitive {
           // String Vectors: apply str_op as BufferedStrings to all elements
           if (vec.isString()) {
             final BufferedString conStr = new BufferedString(str);
-            for (int i = 0; i < chk._len; i++)
-              cres.addNum(str_op(chk.atStr(vstr, i), conStr));
+            if (isDictionaryEncoded(chk)) {
+              dict_op_scalar((CStrChunk) chk, conStr, true, cres);
+            } else {
+              for (int i = 0; i < chk._len; i++)
+                cres.addNum(str_op(chk.atStr(vstr, i), conStr));
+            }
           } else if (vec.isCategorical()) {
             // categorical Vectors: convert string to domain value; apply op (not
             // str_op).  Not sure what the "right" behavior here is, can
@@ -271,8 +298,12 @@ abstract public class AstBinOp extends AstPrimitive {
           // String Vectors: apply str_op as BufferedStrings to all elements
           if (vec.isString()) {
             final BufferedString conStr = new BufferedString(str);
-            for (int i = 0; i < chk._len; i++)
-              cres.addNum(str_op(conStr, chk.atStr(vstr, i)));
+            if (isDictionaryEncoded(chk)) {
+              dict_op_scalar((CStrChunk) chk, conStr, false, cres);
+            } else {
+              for (int i = 0; i < chk._len; i++)
+                cres.addNum(str_op(conStr, chk.atStr(vstr, i)));
+            }
           } else if (vec.isCategorical()) {
             // categorical Vectors: convert string to domain value; apply op (not
             // str_op).  Not sure what the "right" behavior here is, can
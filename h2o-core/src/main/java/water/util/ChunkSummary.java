@@ -18,6 +18,9 @@ public class ChunkSummary extends MRTask<ChunkSummary> {
       {"C0L","Constant long"},
       {"C0D","Constant double"},
       {"CBS","Binary"},
+      {"CBP","Bit-packed Integers"},
+      {"CRLE","Run-length Encoded"},
+      {"CDelta","Delta Encoded Integers"},
       {"CXI","Sparse Integers"},                   // Sparse ints
       {"CXF","Sparse Reals"},                   // Sparse ints
       {"C1","1-Byte Integers"},
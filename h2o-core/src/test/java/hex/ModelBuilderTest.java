@@ -280,6 +280,34 @@ public class ModelBuilderTest {
     }
   }
 
+  @Test
+  public void testProtectReleasedWhenStartFails() {
+    try {
+      Scope.enter();
+      Frame train = TestFrameCatalog.oneChunkFewRows();
+      Key chk = train.vec(0).chunkKey(0);
+
+      DummyModelParameters p = new DummyModelParameters("Failing Dummy", Key.make("dummy-failing-start"));
+      p._train = train._key;
+      p._response_column = train.name(3);
+      DummyModelBuilder bldr = new DummyModelBuilder(p) {
+        @Override
+        protected Driver trainModelImpl() {
+          throw new IllegalStateException("Cannot start");
+        }
+      };
+      try {
+        bldr.trainModel();
+        fail("Expected the start to fail");
+      } catch (IllegalStateException e) {
+        assertEquals("Cannot start", e.getMessage());
+      }
+      assertEquals(EvictionHints.NONE, EvictionHints.hint(chk));
+    } finally {
+      Scope.exit();
+    }
+  }
+
   @Test
   public void testValidationOfClassificationStoppingMetrics() {
     try {
@@ -0,0 +1,179 @@
+package water;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.fvec.C1NChunk;
+import water.fvec.Chunk;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ColdCompressorTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  private static C1NChunk makeChunk(boolean compressible) {
+    byte[] bs = new byte[100000];
+    Random r = new Random(42);
+    for (int i = 0; i < bs.length; i++)
+      bs[i] = (byte) (compressible ? (i / 100) % 16 : r.nextInt());
+    return new C1NChunk(bs);
+  }
+
+  @Test
+  public void testCompressCold() {
+    C1NChunk c = makeChunk(true);
+    byte[] expected = c.asBytes();
+    Value v = new Value(Key.make(), c);
+    assertTrue(v.compressCold());
+    assertTrue(v.isCompressed());
+    assertNull(v.rawMem());
+    assertNull(v.rawPOJO());
+    assertTrue(v.rawCompressedMem().length < expected.length / 4);
+    assertFalse(v.compressCold()); // already compressed
+    // decompressed on first access
+    Chunk c2 = v.get();
+    assertArrayEquals(expected, c2.asBytes());
+    assertFalse(v.isCompressed());
+    assertNull(v.rawCompressedMem());
+  }
+
+  @Test
+  public void testIncompressible() {
+    Value v = new Value(Key.make(), makeChunk(false));
+    assertFalse(v.compressCold());
+    assertFalse(v.canCompressCold()); // not tried again
+    assertNotNull(v.rawPOJO());
+    // tiny values are left alone
+    assertFalse(new Value(Key.make(), new C1NChunk(new byte[100])).compressCold());
+  }
+
+  @Test
+  public void testCleanerCompressesColdChunks() throws InterruptedException {
+    int oldSecs = H2O.ARGS.cold_compress_secs;
+    Key cold = Key.make(), hot = Key.make();
+    try {
+      H2O.ARGS.cold_compress_secs = 60;
+      DKV.put(cold, makeChunk(true));
+      DKV.put(hot, makeChunk(true));
+      Value vcold = DKV.get(cold), vhot = DKV.get(hot);
+      long ago = System.currentTimeMillis() - 1000L * 1000L;
+      vcold.touchAt(ago);
+      synchronized (Cleaner.THE_CLEANER) {
+        Cleaner.dirty_store(ago);
+        Cleaner.kick_store_cleaner();
+        Cleaner.block_for_test();
+      }
+      assertTrue(vcold.isCompressed());
+      assertFalse(vhot.isCompressed());
+      assertArrayEquals(makeChunk(true).asBytes(), ((Chunk) DKV.getGet(cold)).asBytes());
+    } finally {
+      H2O.ARGS.cold_compress_secs = oldSecs;
+      DKV.remove(cold);
+      DKV.remove(hot);
+    }
+  }
+
+  @Test
+  public void testWireFormat() {
+    C1NChunk c = makeChunk(true);
+    byte[] expected = c.asBytes();
+    Value v = new Value(Key.make(), c);
+    assertTrue(v.compressCold());
+    AutoBuffer ab = new AutoBuffer().put(v);
+    assertTrue(ab.position() < expected.length / 4); // shipped compressed
+    Value v2 = ab.flipForReading().get();
+    assertTrue(v2.isCompressed());
+    assertEquals(expected.length, v2._max);
+    assertArrayEquals(expected, v2.memOrLoad());
+    // uncompressed values keep the original format
+    Value v3 = new AutoBuffer().put(new Value(Key.make(), c)).flipForReading().get();
+    assertFalse(v3.isCompressed());
+    assertArrayEquals(expected, v3.memOrLoad());
+  }
+
+  @Test
+  public void testSwapCompressed() throws Exception {
+    C1NChunk c = makeChunk(true);
+    byte[] expected = c.asBytes();
+    Value v = new Value(Key.make(), c);
+    try {
+      assertTrue(v.compressCold());
+      v.storePersist();
+      assertTrue(v.isPersisted());
+      assertEquals(v.rawCompressedMem().length, v.persistedSize());
+      v.freeCompressedMem();
+      assertFalse(v.isEmpty());
+      assertArrayEquals(expected, v.memOrLoad());
+    } finally {
+      v.removePersist();
+    }
+  }
+
+  @Test
+  public void testOffHeap() throws Exception {
+    int oldMb = H2O.ARGS.off_heap_mb;
+    C1NChunk c = makeChunk(true);
+    byte[] expected = c.asBytes();
+    Value v = new Value(Key.make(), c);
+    try {
+      H2O.ARGS.off_heap_mb = 64;
+      long used = MemoryManager.offHeapUsed();
+      assertTrue(v.compressCold());
+      assertTrue(v.isCompressed());
+      assertTrue(v.isOffHeap());
+      assertNull(v.rawCompressedMem());
+      assertNull(v.rawMem());
+      assertNull(v.rawPOJO());
+      assertFalse(v.isEmpty());
+      assertEquals(used + v.compressedSize(), MemoryManager.offHeapUsed());
+      // shipped and swapped compressed, straight from off-heap
+      AutoBuffer ab = new AutoBuffer().put(v);
+      assertTrue(ab.position() < expected.length / 4);
+      Value v2 = ab.flipForReading().get();
+      assertTrue(v2.isCompressed());
+      assertArrayEquals(expected, v2.memOrLoad());
+      v.storePersist();
+      assertEquals(v.compressedSize(), v.persistedSize());
+      // decompressed on first access, off-heap bytes released
+      assertArrayEquals(expected, ((Chunk) v.get()).asBytes());
+      assertFalse(v.isOffHeap());
+      assertEquals(used, MemoryManager.offHeapUsed());
+      v.releaseOffHeap(); // no double release
+      assertEquals(used, MemoryManager.offHeapUsed());
+      // the swapped copy was written straight from the off-heap buffer
+      v.freeMem();
+      v.freePOJO();
+      assertArrayEquals(expected, v.memOrLoad());
+    } finally {
+      H2O.ARGS.off_heap_mb = oldMb;
+      v.removePersist();
+    }
+  }
+
+  @Test
+  public void testOffHeapReleasedOnRemove() {
+    int oldMb = H2O.ARGS.off_heap_mb;
+    Key k = Key.make();
+    try {
+      H2O.ARGS.off_heap_mb = 64;
+      long used = MemoryManager.offHeapUsed();
+      DKV.put(k, makeChunk(true));
+      Value v = DKV.get(k);
+      assertTrue(v.compressCold());
+      assertTrue(MemoryManager.offHeapUsed() > used);
+      DKV.remove(k);
+      assertEquals(used, MemoryManager.offHeapUsed());
+      // off-heap store off or full, compressed bytes stay on heap
+      H2O.ARGS.off_heap_mb = 0;
+      Value v2 = new Value(Key.make(), makeChunk(true));
+      assertTrue(v2.compressCold());
+      assertFalse(v2.isOffHeap());
+      assertNotNull(v2.rawCompressedMem());
+    } finally {
+      H2O.ARGS.off_heap_mb = oldMb;
+      DKV.remove(k);
+    }
+  }
+
+}
@@ -97,7 +97,59 @@ public class DKVTest extends TestUtil {
     }
   }
 
-  class Bytes extends Iced<Bytes> {
+  private static class GetAllTask extends MRTask<GetAllTask> {
+    final Key[] _keys;
+    final int[] _expected; // -1 for a missing key
+
+    GetAllTask(Key[] keys, int[] expected) { _keys = keys; _expected = expected; }
+
+    @Override public void setupLocal() {
+      Value[] vals = DKV.getAll(_keys);
+      assertEquals(_keys.length, vals.length);
+      for (int i = 0; i < _keys.length; ++i) {
+        if (_expected[i] == -1) {
+          assertNull(vals[i]);
+          continue;
+        }
+        Iced v = vals[i].get();
+        if (v instanceof Bytes) assertEquals(_expected[i], ((Bytes) v)._b.length);
+        else assertEquals(_expected[i], ((IcedInt) v)._val);
+        assertSame(vals[i], H2O.STORE.get(_keys[i])); // cached locally
+      }
+    }
+  }
+
+  @Test
+  public void testGetAll() {
+    final int n = H2O.CLOUD.size();
+    final int big = 7 << 20; // more than TaskGetKeys.MAX_BYTES per node, answered in several rounds
+    Key[] keys = new Key[n * 13 + 1];
+    int[] expected = new int[keys.length];
+    try {
+      for (int i = 0; i < n * 13; ++i) {
+        keys[i] = Key.make(Key.HIDDEN_USER_KEY, true, H2O.CLOUD._memary[i % n]);
+        if (i % 13 < 10) {
+          DKV.put(keys[i], new IcedInt(expected[i] = i));
+        } else {
+          DKV.put(keys[i], new Bytes(new byte[expected[i] = big + i]));
+        }
+      }
+      keys[keys.length - 1] = Key.make();
+      expected[keys.length - 1] = -1;
+      new GetAllTask(keys, expected).doAllNodes();
+      // duplicate keys
+      new GetAllTask(new Key[]{keys[0], keys[0], keys[1]}, new int[]{expected[0], expected[0], expected[1]}).doAllNodes();
+      // prefetch
+      Futures fs = DKV.prefetchAll(keys, new Futures());
+      fs.blockForPending();
+      assertEquals(expected[1], ((IcedInt) DKV.getGet(keys[1]))._val);
+    } finally {
+      for (Key k : keys)
+        if (k != null) DKV.remove(k);
+    }
+  }
+
+  static class Bytes extends Iced<Bytes> {
     public byte[] _b;
     Bytes(byte[] b) { _b = b; }
   }
@@ -0,0 +1,133 @@
+package water;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+
+import static org.junit.Assert.*;
+
+public class EvictionPolicyTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  private static Value chunkValue(Vec vec, int cidx, long touched, int hits) {
+    Value v = new Value(vec.chunkKey(cidx), vec.chunkForChunkIdx(cidx));
+    for (int i = 0; i < hits; i++) v.get();
+    v.touchAt(touched);
+    return v;
+  }
+
+  @Test
+  public void testCostAware() {
+    Frame fr = null;
+    try {
+      fr = new TestFrameBuilder()
+              .withColNames("A", "B")
+              .withDataForCol(0, ard(1, 2, 3))
+              .withDataForCol(1, ard(4, 5, 6))
+              .build();
+      EvictionPolicy p = new CostAwareEvictionPolicy();
+      long now = System.currentTimeMillis(), t = now - 60000;
+      Vec a = fr.vec(0);
+      Value once = chunkValue(a, 0, t, 1);
+      Value often = chunkValue(a, 0, t, 100);
+      assertEquals(1, once.accessCount());
+      assertEquals(100, often.accessCount());
+      long tOnce = p.evictionTime(once._key, once, now);
+      long tOften = p.evictionTime(often._key, often, now);
+      assertTrue(tOnce >= t);
+      assertEquals(5 * CostAwareEvictionPolicy.HIT_MSECS, tOften - tOnce);
+      // LRU is just the last access
+      assertEquals(t, EvictionPolicy.LRU.evictionTime(often._key, often, now));
+      // hints move the eviction
+      Key<Vec>[] vecs = EvictionHints.protect(fr);
+      try {
+        assertEquals(EvictionHints.PROTECT, EvictionHints.hint(once._key));
+        assertEquals(EvictionHints.NONE, EvictionHints.hint(a._key)); // only Chunks
+        assertEquals(tOnce + CostAwareEvictionPolicy.PROTECT_MSECS, p.evictionTime(once._key, once, now));
+        // protection wins over evict-first
+        EvictionHints.evictFirst(vecs);
+        assertEquals(EvictionHints.PROTECT, EvictionHints.hint(once._key));
+      } finally {
+        EvictionHints.release(vecs, EvictionHints.PROTECT);
+      }
+      assertEquals(EvictionHints.EVICT_FIRST, EvictionHints.hint(once._key));
+      assertEquals(tOnce - CostAwareEvictionPolicy.EVICT_FIRST_MSECS, p.evictionTime(once._key, once, now));
+      EvictionHints.release(vecs, EvictionHints.EVICT_FIRST);
+      assertEquals(EvictionHints.NONE, EvictionHints.hint(once._key));
+    } finally {
+      if (fr != null) fr.delete();
+    }
+  }
+
+  @Test
+  public void testJobProtect() {
+    Frame fr = null;
+    try {
+      fr = new TestFrameBuilder()
+              .withColNames("A")
+              .withDataForCol(0, ard(1, 2, 3))
+              .build();
+      final Key chk = fr.vec(0).chunkKey(0);
+      final Job<Frame> j = new Job<>(Key.make(), Frame.class.getName(), "Test Job");
+      final int[] seen = new int[1];
+      j.protect(fr).start(new H2O.H2OCountedCompleter() {
+        @Override public void compute2() {
+          seen[0] = EvictionHints.hint(chk);
+          tryComplete();
+        }
+      }, 1).get();
+      assertEquals(EvictionHints.PROTECT, seen[0]);
+      assertEquals(EvictionHints.NONE, EvictionHints.hint(chk)); // released when done
+    } finally {
+      if (fr != null) fr.delete();
+    }
+  }
+
+  @Test
+  public void testScopeEvictFirst() {
+    Scope.enter();
+    try {
+      Frame fr = Scope.track(new TestFrameBuilder()
+              .withColNames("A")
+              .withDataForCol(0, ard(1, 2, 3))
+              .build());
+      Key chk = fr.vec(0).chunkKey(0);
+      Scope.enter();
+      Scope.evictFirst(fr);
+      assertEquals(EvictionHints.EVICT_FIRST, EvictionHints.hint(chk));
+      Scope.exit(fr._key);
+      assertEquals(EvictionHints.NONE, EvictionHints.hint(chk));
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testBatchedHints() {
+    Key<Vec>[] vecs = new Key[]{Vec.newKey(), Vec.newKey()};
+    int pending = EvictionHints.pending();
+    // a release cancels out the not yet sent set
+    EvictionHints.queue(vecs, EvictionHints.PROTECT, 1);
+    EvictionHints.queue(vecs, EvictionHints.EVICT_FIRST, 1);
+    assertEquals(pending + 2, EvictionHints.pending());
+    EvictionHints.queue(vecs, EvictionHints.PROTECT, -1);
+    assertEquals(pending + 2, EvictionHints.pending());
+    EvictionHints.queue(vecs, EvictionHints.EVICT_FIRST, -1);
+    assertEquals(pending, EvictionHints.pending());
+  }
+
+  @Test
+  public void testPluggable() {
+    EvictionPolicy old = MemoryManager.evictionPolicy();
+    try {
+      MemoryManager.setEvictionPolicy(EvictionPolicy.LRU);
+      assertSame(EvictionPolicy.LRU, Cleaner.Histo.current(true)._policy);
+    } finally {
+      MemoryManager.setEvictionPolicy(old);
+    }
+    assertSame(old, Cleaner.Histo.current(true)._policy);
+  }
+}
@@ -0,0 +1,106 @@
+package water;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.api.JobsHandler;
+import water.api.schemas3.JobProfileV3;
+import water.api.schemas3.KeyV3;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+
+import static org.junit.Assert.*;
+
+public class JobProfilerTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  private static class Sum extends MRTask<Sum> {
+    double _sum;
+    @Override public void map(Chunk c) { for (int i = 0; i < c._len; i++) _sum += c.atd(i); }
+    @Override public void reduce(Sum mrt) { _sum += mrt._sum; }
+  }
+
+  // Launches a nested MRTask from each map call
+  private static class Nested extends MRTask<Nested> {
+    private final Frame _fr;
+    Nested(Frame fr) { _fr = fr; }
+    @Override public void map(Chunk c) { new Sum().doAll(_fr); }
+  }
+
+  private static class Driver extends H2O.H2OCountedCompleter<Driver> {
+    private final Frame _fr;
+    double _sum;
+    Driver(Frame fr) { _fr = fr; }
+    @Override public void compute2() {
+      _sum = new Sum().doAll(_fr)._sum + new Sum().doAll(_fr)._sum;
+      new Nested(_fr).doAll(_fr);
+      tryComplete();
+    }
+  }
+
+  private static Job<Frame> run(Frame fr, boolean profile) {
+    Job<Frame> job = new Job<>(null, Frame.class.getName(), "Profiled");
+    if (profile) job.profile();
+    Driver d = new Driver(fr);
+    job.start(d, 1).get();
+    assertEquals(12, d._sum, 0);
+    return job;
+  }
+
+  // Totals of the given task over all the nodes
+  private static JobProfiler.TaskProfile total(JobProfiler.TaskProfile[] profiles, Class<?> task) {
+    JobProfiler.TaskProfile tot = new JobProfiler.TaskProfile();
+    tot._phases = new long[JobProfiler.Phase.values().length];
+    for (JobProfiler.TaskProfile tp : profiles) {
+      if (!tp._task.equals(task.getName())) continue;
+      tot._launched += tp._launched;
+      tot._maps += tp._maps;
+      for (int i = 0; i < tot._phases.length; i++) tot._phases[i] += tp._phases[i];
+    }
+    return tot;
+  }
+
+  @Test
+  public void testProfile() {
+    Frame fr = null;
+    Job<Frame> job = null, job2 = null;
+    try {
+      fr = new TestFrameBuilder()
+              .withColNames("A")
+              .withDataForCol(0, ard(1, 2, 3))
+              .withChunkLayout(1, 2)
+              .build();
+      job = run(fr, true);
+      assertTrue(job.isProfiled());
+      JobProfiler.TaskProfile[] profiles = JobProfiler.collect(job._key);
+      JobProfiler.TaskProfile sum = total(profiles, Sum.class);
+      JobProfiler.TaskProfile nested = total(profiles, Nested.class);
+      assertEquals(2 + 2, sum._launched); // 2 from the driver, 1 nested per chunk
+      assertEquals(2 * 4, sum._maps);
+      assertEquals(1, nested._launched);
+      assertEquals(2, nested._maps);
+      assertTrue(sum.get(JobProfiler.Phase.MAP) > 0);
+      assertTrue(nested.get(JobProfiler.Phase.MAP) >= sum.get(JobProfiler.Phase.MAP) / 2); // Nested ones run in map
+
+      JobProfileV3 s = new JobProfileV3();
+      s.job_id = new KeyV3.JobKeyV3(job._key);
+      s = new JobsHandler().profile(3, s);
+      assertTrue(s.profiled);
+      assertTrue(s.entries.length >= 2);
+      assertTrue(s.folded, s.folded.contains(Sum.class.getName() + ";"));
+      if (H2O.CLOUD.size() > 1) {
+        assertTrue(sum.get(JobProfiler.Phase.REMOTE_WAIT) > 0);
+        assertTrue(sum.get(JobProfiler.Phase.SENT) > 0);
+        assertTrue(sum.get(JobProfiler.Phase.RECEIVED) > 0);
+      }
+
+      job2 = run(fr, false);
+      assertFalse(job2.isProfiled());
+      assertEquals(0, JobProfiler.collect(job2._key).length);
+    } finally {
+      if (fr != null) fr.delete();
+      if (job != null) job.remove();
+      if (job2 != null) job2.remove();
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package water;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.api.NanoResponse;
+import water.api.RequestServer;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.util.StringUtils;
+
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+public class MetricsTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  private static final Metrics.Family<Metrics.Counter> TEST_COUNTER =
+      Metrics.counter("h2o_test_events_total", "Events \\ of the test", "kind", "name");
+  private static final Metrics.Family<Metrics.Summary> TEST_SUMMARY =
+      Metrics.summary("h2o_test_duration_seconds", "Durations of the test", Metrics.MILLIS);
+
+  @Test
+  public void testFormat() {
+    TEST_COUNTER.labels("a", "x\"y\\z").inc();
+    TEST_COUNTER.labels("a", "x\"y\\z").add(2);
+    TEST_SUMMARY.get().observe(1500);
+    TEST_SUMMARY.get().observe(500);
+    String text = Metrics.toPrometheus();
+    assertTrue(text, text.contains("# HELP h2o_test_events_total Events \\\\ of the test\n# TYPE h2o_test_events_total counter\n"));
+    assertTrue(text, text.contains("h2o_test_events_total{kind=\"a\",name=\"x\\\"y\\\\z\"} 3\n"));
+    assertTrue(text, text.contains("# TYPE h2o_test_duration_seconds summary\n"));
+    assertTrue(text, text.contains("h2o_test_duration_seconds_count 2\n"));
+    assertTrue(text, text.contains("h2o_test_duration_seconds_sum 2.0\n"));
+    assertSame(TEST_COUNTER.labels("a", "x\"y\\z"), TEST_COUNTER.labels("a", "x\"y\\z"));
+  }
+
+  private static class Noop extends MRTask<Noop> {
+    @Override public void map(Chunk c) {}
+  }
+
+  @Test
+  public void testInternals() {
+    Frame fr = null;
+    try {
+      fr = new TestFrameBuilder()
+              .withColNames("A")
+              .withDataForCol(0, ard(1, 2, 3))
+              .build();
+      String launched = "h2o_mrtask_launched_total{task=\"" + Noop.class.getName() + "\"} ";
+      long before = sampleValue(Metrics.toPrometheus(), launched);
+      new Noop().doAll(fr);
+      new Noop().doAll(fr);
+      String text = Metrics.toPrometheus();
+      assertEquals(before + 2, sampleValue(text, launched));
+      assertEquals(before + 2, sampleValue(text, "h2o_mrtask_duration_seconds_count{task=\"" + Noop.class.getName() + "\"} "));
+      String local = "h2o_dkv_gets_total{source=\"local\"} ";
+      long gets = sampleValue(text, local);
+      assertNotNull(DKV.get(fr._key));
+      assertTrue(sampleValue(Metrics.toPrometheus(), local) > gets);
+      assertTrue(text, text.contains("h2o_fj_queue_depth{priority=\"" + H2O.MIN_HI_PRIORITY + "\"} "));
+      assertTrue(text, text.contains("# TYPE h2o_memory_blocked_seconds summary\n"));
+      assertTrue(text, text.contains("# TYPE h2o_cleaner_swapped_bytes_total counter\n"));
+      assertTrue(text, text.contains("# TYPE h2o_rpc_retries_total counter\n"));
+    } finally {
+      if (fr != null) fr.delete();
+    }
+  }
+
+  @Test
+  public void testRoute() throws Exception {
+    NanoResponse r = RequestServer.serve("/3/Metrics", "GET", new Properties(), new Properties(), null);
+    assertEquals(RequestServer.HTTP_OK, r.status);
+    assertEquals(Metrics.CONTENT_TYPE, r.mimeType);
+    byte[] b = new byte[r.data.available()];
+    assertEquals(b.length, r.data.read(b));
+    String text = StringUtils.toString(b, 0, b.length);
+    assertTrue(text, text.contains("# TYPE h2o_mrtask_launched_total counter\n"));
+  }
+
+  private static long sampleValue(String text, String sample) {
+    int i = text.indexOf(sample);
+    if (i < 0) return 0;
+    int end = text.indexOf('\n', i);
+    return Long.parseLong(text.substring(i + sample.length(), end));
+  }
+}
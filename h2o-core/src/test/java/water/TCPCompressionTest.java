@@ -0,0 +1,142 @@
+package water;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TCPCompressionTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  @Test
+  public void testFrames() throws Exception {
+    final byte[] sparse = new byte[AutoBuffer.BBP_BIG._size];
+    for (int i = 0; i < sparse.length; i += 97) sparse[i] = (byte) i;
+    final byte[] random = new byte[40000];
+    new Random(42).nextBytes(random);
+    final Pipe pipe = Pipe.open();
+    final TCPCompression.Writer w = new TCPCompression.Writer(H2O.SELF);
+    final int[] wire = new int[2];
+    Thread writer = new Thread() {
+      @Override public void run() {
+        try {
+          w.start(pipe.sink());
+          wire[0] = w.write(pipe.sink(), ByteBuffer.wrap(sparse));
+          wire[1] = w.write(pipe.sink(), ByteBuffer.wrap(random));
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+      }
+    };
+    writer.start();
+    ByteBuffer marker = ByteBuffer.allocate(1);
+    pipe.source().read(marker);
+    assertEquals(TCPCompression.MARKER, marker.get(0));
+    TCPCompression.Reader r = new TCPCompression.Reader();
+    ByteBuffer bb = ByteBuffer.allocate(sparse.length + random.length);
+    bb.limit(1000);             // Smaller reads than a page
+    while (bb.position() < 1000) r.read(pipe.source(), bb);
+    bb.limit(bb.capacity());
+    while (bb.hasRemaining()) assertTrue(r.read(pipe.source(), bb) > 0);
+    writer.join();
+    assertArrayEquals(sparse, java.util.Arrays.copyOfRange(bb.array(), 0, sparse.length));
+    assertArrayEquals(random, java.util.Arrays.copyOfRange(bb.array(), sparse.length, bb.capacity()));
+    assertTrue(wire[0] < sparse.length / 10);           // Compressed
+    assertEquals(8 + random.length, wire[1]);          // Sent raw
+    assertEquals(1 + wire[0] + wire[1], r._wire);
+    pipe.sink().close();
+    assertEquals(-1, r.read(pipe.source(), ByteBuffer.allocate(10)));
+  }
+
+  @Test
+  public void testShouldCompress() {
+    boolean old = H2O.ARGS.tcp_compress;
+    try {
+      H2ONode h2o = H2O.SELF;
+      H2O.ARGS.tcp_compress = false;
+      assertFalse(TCPCompression.shouldCompress(h2o, 1 << 20));
+      H2O.ARGS.tcp_compress = true;
+      assertFalse(TCPCompression.shouldCompress(h2o, TCPCompression.MIN_SIZE - 1));
+      PeerStats ps = h2o._peerStats;
+      ps._zBytesPerSec = 500e6;
+      ps._zRatio = 0.1;
+      ps._largeSends.set(1);    // Not probing
+      ps._linkBytesPerSec = 100e6; // Slow link
+      assertTrue(TCPCompression.shouldCompress(h2o, 1 << 20));
+      ps._linkBytesPerSec = 5e9;   // Faster than the codec
+      assertFalse(TCPCompression.shouldCompress(h2o, 1 << 20));
+      ps._linkBytesPerSec = 100e6;
+      ps._zRatio = 0.9;            // Incompressible
+      assertFalse(TCPCompression.shouldCompress(h2o, 1 << 20));
+      ps._largeSends.set(TCPCompression.PROBE); // Probe once in a while regardless
+      assertTrue(TCPCompression.shouldCompress(h2o, 1 << 20));
+    } finally {
+      H2O.ARGS.tcp_compress = old;
+    }
+  }
+
+  @Test
+  public void testLinkEstimate() {
+    PeerStats ps = H2O.SELF._peerStats;
+    double old = ps._linkBytesPerSec;
+    try {
+      ps._linkBytesPerSec = 0;
+      TCPCompression.recordSend(H2O.SELF, TCPCompression.LINK_SAMPLE - 1, 1000); // Too small to tell
+      assertEquals(0, ps._linkBytesPerSec, 0);
+      TCPCompression.recordSend(H2O.SELF, TCPCompression.LINK_SAMPLE, 1000000000L);
+      assertEquals(TCPCompression.LINK_SAMPLE, ps._linkBytesPerSec, 1e-6);
+    } finally {
+      ps._linkBytesPerSec = old;
+    }
+  }
+
+  private static class SetCompress extends MRTask<SetCompress> {
+    private final boolean _on;
+    SetCompress(boolean on) { _on = on; }
+    @Override public void setupLocal() { H2O.ARGS.tcp_compress = _on; }
+  }
+
+  // Sparse, histogram-like, results shipped back from every node
+  private static class SparseResult extends MRTask<SparseResult> {
+    double[] _hist;
+    @Override public void setupLocal() {
+      _hist = new double[1 << 17];
+      for (int i = H2O.SELF.index(); i < _hist.length; i += 1000) _hist[i] = 1;
+    }
+    @Override public void reduce(SparseResult mrt) { water.util.ArrayUtils.add(_hist, mrt._hist); }
+  }
+
+  @Test
+  public void testRemoteCompressed() {
+    boolean old = H2O.ARGS.tcp_compress;
+    long received = 0, wire = 0;
+    for (H2ONode n : H2O.CLOUD.members()) {
+      received += n._peerStats.bytesReceived();
+      wire += n._peerStats.wireBytesReceived();
+    }
+    try {
+      new SetCompress(true).doAllNodes();
+      double[] hist = new SparseResult().doAllNodes()._hist;
+      int n = H2O.CLOUD.size();
+      double sum = 0, expected = 0;
+      for (double d : hist) sum += d;
+      for (H2ONode node : H2O.CLOUD.members()) expected += (hist.length - node.index() + 999) / 1000;
+      assertEquals(expected, sum, 0);
+      long received2 = 0, wire2 = 0;
+      for (H2ONode node : H2O.CLOUD.members()) {
+        received2 += node._peerStats.bytesReceived();
+        wire2 += node._peerStats.wireBytesReceived();
+      }
+      if (n > 1) { // The sparse results came back compressed
+        assertTrue(received2 - received > (8L << 17));
+        assertTrue((wire2 - wire) * 4 < received2 - received);
+      }
+    } finally {
+      new SetCompress(old).doAllNodes();
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package water;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.NewChunk;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class WorkStealingTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(3); }
+
+  // Slow on the first node only
+  private static class Skewed extends MRTask<Skewed> {
+    long _sum, _offHome;
+    @Override public void map(Chunk c, NewChunk nc) {
+      if (H2O.SELF.index() == 0)
+        try { Thread.sleep(20); } catch (InterruptedException ignore) {}
+      if (!c.vec().chunkKey(c.cidx()).home()) _offHome++;
+      for (int i = 0; i < c._len; i++) {
+        _sum += c.at8(i);
+        nc.addNum(2 * c.at8(i));
+      }
+    }
+    @Override public void reduce(Skewed mrt) { _sum += mrt._sum; _offHome += mrt._offHome; }
+  }
+
+  private static final int NCHKS = 40, CHK_ROWS = 100;
+
+  // 1..NCHKS*CHK_ROWS, in NCHKS chunks
+  private static Frame seq() {
+    long[] data = new long[NCHKS * CHK_ROWS];
+    for (int i = 0; i < data.length; i++) data[i] = i + 1;
+    long[] layout = new long[NCHKS];
+    Arrays.fill(layout, CHK_ROWS);
+    return new TestFrameBuilder()
+            .withColNames("A")
+            .withVecTypes(Vec.T_NUM)
+            .withDataForCol(0, data)
+            .withChunkLayout(layout)
+            .build();
+  }
+
+  @Test
+  public void testSkewed() {
+    Frame fr = null;
+    Vec out = null;
+    try {
+      fr = seq();
+      Vec v = fr.anyVec();
+      Skewed t = new Skewed().withWorkStealing().doAll(Vec.T_NUM, fr);
+      out = t.outputFrame().anyVec();
+      long n = NCHKS * CHK_ROWS;
+      assertEquals(n * (n + 1) / 2, t._sum);
+      assertEquals(v.length(), out.length());
+      for (long i = 0; i < out.length(); i += 997) assertEquals(2 * (i + 1), out.at8(i));
+      assertTrue("Expected some chunks stolen from the slow node", t._offHome > 0);
+    } finally {
+      if (fr != null) fr.delete();
+      if (out != null) out.remove();
+    }
+  }
+
+  @Test
+  public void testSteal() {
+    Frame fr = null;
+    try {
+      fr = seq();
+      Vec v = fr.anyVec();
+      assertEquals(NCHKS, v.nChunks());
+      int[] home = new int[NCHKS];
+      int nhome = 0;
+      for (int c = 0; c < NCHKS; c++) if (v.chunkKey(c).home()) home[nhome++] = c;
+      assertTrue(nhome > 2);
+      int nthreads = H2O.ARGS.nthreads;
+      WorkStealing.State s = new WorkStealing.State(new Vec[]{v}, null);
+      int[] later = s.steal(H2O.SELF, NCHKS);  // Nothing mapped yet
+      if ((nhome - nthreads + 1) / 2 > 0) assertEquals(0, later.length);
+      else assertNull(later);
+      assertTrue(s.claim(home[0]));
+      assertFalse(s.claim(home[0]));
+      s.mapped(1);                             // Cheaper to map than to move
+      assertNull(s.steal(H2O.SELF, NCHKS));
+      assertTrue(s.claim(home[1]));
+      s.mapped(1000000000L);                   // Slow
+      int[] stolen = s.steal(H2O.SELF, NCHKS);
+      int expected = (nhome - 2 - nthreads + 1) / 2;
+      if (expected <= 0) {
+        assertNull(stolen);
+        return;
+      }
+      assertEquals(expected, stolen.length);
+      for (int i = 0; i < stolen.length; i++) {
+        assertEquals(home[nhome - 1 - i], stolen[i]); // From the end
+        assertFalse(s.claim(stolen[i]));
+      }
+    } finally {
+      if (fr != null) fr.delete();
+    }
+  }
+}
@@ -194,12 +194,11 @@ public class C2SChunkTest extends TestUtil {
           if (exponent == 0 && 100000 >= Math.abs(bias)) continue;
           NewChunk nc = new NewChunk(null, 0);
           double[] expected = new double[nvals];
-          int j = 0;
-          for (int i = Short.MIN_VALUE + 1; i < Short.MAX_VALUE; i += stepsz) {
+          for (int j = 0; j < nvals; j++) {
+            int i = Short.MIN_VALUE + 1 + (int) ((j * 7919L) % nvals) * stepsz; // permuted, sorted values would be delta encoded
             nc.addNum(bias + i, exponent);
-            expected[j++] = Double.parseDouble((i + bias) + "e" + exponent);
+            expected[j] = Double.parseDouble((i + bias) + "e" + exponent);
           }
-          assert j == nvals;
           Chunk c = nc.compress().deepCopy();
           String msg = "exp = " + exponent + " b = " + bias + " c = " + c.getClass().getSimpleName();
           Assert.assertTrue(msg, c instanceof C2SChunk);
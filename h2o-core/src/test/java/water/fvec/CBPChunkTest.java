@@ -0,0 +1,128 @@
+package water.fvec;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.AutoBuffer;
+import water.TestUtil;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CBPChunkTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  private static NewChunk makeChunk(long bias, long range, int len, boolean withNAs, long seed) {
+    Random r = new Random(seed);
+    NewChunk nc = new NewChunk(null, 0);
+    nc.addNum(bias, 0);
+    nc.addNum(bias + range, 0);
+    for (int i = 2; i < len; i++) {
+      if (withNAs && r.nextInt(10) == 0)
+        nc.addNA();
+      else
+        nc.addNum(bias + (long) (r.nextDouble() * (range + 1)), 0);
+    }
+    return nc;
+  }
+
+  @Test
+  public void testCompress() {
+    for (int bpv = 2; bpv <= 31; bpv++) {
+      if (bpv % 8 == 0)
+        continue;
+      long range = (1L << bpv) - 2;
+      for (boolean withNAs : new boolean[]{false, true}) {
+        for (long bias : new long[]{0, -7, 1L << 40}) {
+          NewChunk nc = makeChunk(bias, range, 1000, withNAs, bpv);
+          double[] expected = new double[nc._len];
+          for (int i = 0; i < expected.length; i++)
+            expected[i] = nc.atd(i);
+          Chunk c = nc.compress();
+          assertTrue("bpv = " + bpv + " got " + c.getClass().getSimpleName(), c instanceof CBPChunk);
+          assertEquals(bpv, ((CBPChunk) c).bpv());
+          assertEquals(1000, c._len);
+          assertTrue(c.byteSize() < 1000 * ((bpv + 7) / 8));
+          checkValues(expected, c);
+          // serialization round trip
+          Chunk c2 = new AutoBuffer().put(c).flipForReading().get();
+          assertTrue(c2 instanceof CBPChunk);
+          checkValues(expected, c2);
+          // inflate & compress again
+          NewChunk nc2 = c.extractRows(new NewChunk(null, 0), 0, c._len);
+          Chunk c3 = nc2.compress();
+          assertArrayEquals(c.asBytes(), c3.asBytes());
+        }
+      }
+    }
+  }
+
+  private static void checkValues(double[] expected, Chunk c) {
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(Double.isNaN(expected[i]), c.isNA(i));
+      assertEquals(expected[i], c.atd(i), 0);
+      if (!Double.isNaN(expected[i]))
+        assertEquals((long) expected[i], c.at8(i));
+    }
+    double[] vals = c.getDoubles(new double[expected.length - 3], 3, expected.length, -1);
+    for (int i = 0; i < vals.length; i++)
+      assertEquals(Double.isNaN(expected[i + 3]) ? -1 : expected[i + 3], vals[i], 0);
+    int[] ids = new int[]{0, 5, 7, expected.length - 1};
+    double[] sparse = c.getDoubles(new double[ids.length], ids);
+    for (int i = 0; i < ids.length; i++)
+      assertEquals(expected[ids[i]], sparse[i], 0);
+  }
+
+  @Test
+  public void testIntegers() {
+    NewChunk nc = makeChunk(-100, 100, 333, true, 42);
+    double[] expected = new double[nc._len];
+    for (int i = 0; i < expected.length; i++)
+      expected[i] = nc.atd(i);
+    Chunk c = nc.compress();
+    assertTrue(c instanceof CBPChunk);
+    int[] vals = c.getIntegers(new int[expected.length], 0, expected.length, Integer.MIN_VALUE);
+    for (int i = 0; i < vals.length; i++)
+      assertEquals(Double.isNaN(expected[i]) ? Integer.MIN_VALUE : (int) expected[i], vals[i]);
+  }
+
+  @Test
+  public void testSet() {
+    NewChunk nc = makeChunk(10, 20, 100, false, 7);
+    Chunk c = nc.compress();
+    assertTrue(c.getClass().getSimpleName(), c instanceof CBPChunk);
+    assertEquals(5, ((CBPChunk) c).bpv());
+    // values in range and NAs are set in place
+    assertTrue(c.set_impl(3, 30));
+    assertTrue(c.set_impl(4, 10.0));
+    assertTrue(c.setNA_impl(5));
+    assertEquals(30, c.at8(3));
+    assertEquals(10, c.at8(4));
+    assertTrue(c.isNA(5));
+    // the neighbours are left untouched
+    NewChunk expected = makeChunk(10, 20, 100, false, 7);
+    for (int i = 0; i < 100; i++)
+      if (i < 3 || i > 5)
+        assertEquals(expected.atd(i), c.atd(i), 0);
+    // out of range values inflate the chunk
+    assertFalse(c.set_impl(6, 9));
+    assertFalse(c.set_impl(6, 41));
+    assertFalse(c.set_impl(6, 10.5));
+  }
+
+  @Test
+  public void testByteAlignedPreferred() {
+    // full byte/short ranges are stored as C1/C2 chunks
+    Chunk c1 = makeChunk(0, 200, 1000, true, 1).compress();
+    assertTrue(c1 instanceof C1Chunk);
+    Chunk c2 = makeChunk(-30000, 60000, 1000, true, 1).compress();
+    assertTrue(c2 instanceof C2Chunk);
+    // tiny chunks are not worth the header
+    Chunk small = makeChunk(0, 10, 10, false, 1).compress();
+    assertFalse(small instanceof CBPChunk);
+    // booleans stay bit vectors
+    Chunk bool = makeChunk(0, 1, 1000, true, 1).compress();
+    assertTrue(bool instanceof CBSChunk);
+  }
+
+}
@@ -0,0 +1,173 @@
+package water.fvec;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.AutoBuffer;
+import water.TestUtil;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CDeltaChunkTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  // near-monotonic timestamps (in ms) with small jitter
+  private static long[] makeTimestamps(int len, long start, int maxDelta, int jitter, double naRate, long seed) {
+    Random r = new Random(seed);
+    long[] ts = new long[len];
+    long t = start;
+    for (int i = 0; i < len; i++) {
+      t += r.nextInt(maxDelta + 1);
+      ts[i] = r.nextDouble() < naRate ? Long.MIN_VALUE : t - r.nextInt(jitter + 1);
+    }
+    return ts;
+  }
+
+  private static NewChunk makeChunk(long[] vals) {
+    NewChunk nc = new NewChunk(null, 0);
+    for (long v : vals) {
+      if (v == Long.MIN_VALUE) nc.addNA();
+      else nc.addNum(v, 0);
+    }
+    return nc;
+  }
+
+  @Test
+  public void testTimestamps() {
+    for (double naRate : new double[]{0, 0.05, 0.5}) {
+      long[] ts = makeTimestamps(10000, 1_600_000_000_000L, 1000, 50, naRate, 42);
+      Chunk c = makeChunk(ts).compress();
+      assertTrue(c.getClass().getSimpleName(), c instanceof CDeltaChunk);
+      assertTrue(c.byteSize() < ts.length * 3);
+      checkValues(ts, c);
+      // serialization round trip
+      Chunk c2 = new AutoBuffer().put(c).flipForReading().get();
+      assertTrue(c2 instanceof CDeltaChunk);
+      checkValues(ts, c2);
+      // inflate & compress again
+      Chunk c3 = c.extractRows(new NewChunk(null, 0), 0, c._len).compress();
+      assertArrayEquals(c.asBytes(), c3.asBytes());
+    }
+  }
+
+  @Test
+  public void testSortedIntegers() {
+    long[] vals = new long[5000];
+    Random r = new Random(7);
+    for (int i = 1; i < vals.length; i++)
+      vals[i] = vals[i - 1] + 1 + r.nextInt(3);
+    Chunk c = makeChunk(vals).compress();
+    assertTrue(c.getClass().getSimpleName(), c instanceof CDeltaChunk);
+    assertEquals(2, ((CDeltaChunk) c).bpv()); // deltas 1..3 + NA code
+    checkValues(vals, c);
+  }
+
+  @Test
+  public void testStrictlyMonotonic() {
+    long[] vals = new long[3000];
+    for (int i = 0; i < vals.length; i++)
+      vals[i] = 1_600_000_000_000L + 1000L * i;
+    vals[0] = Long.MIN_VALUE;
+    Chunk c = makeChunk(vals).compress();
+    assertTrue(c.getClass().getSimpleName(), c instanceof CDeltaChunk);
+    assertEquals(1, ((CDeltaChunk) c).bpv()); // constant delta + NA code
+    checkValues(vals, c);
+  }
+
+  @Test
+  public void testDecreasing() {
+    long[] vals = new long[1000];
+    for (int i = 0; i < vals.length; i++)
+      vals[i] = -100L * i + (i % 3) - Integer.MAX_VALUE;
+    Chunk c = makeChunk(vals).compress();
+    assertTrue(c.getClass().getSimpleName(), c instanceof CDeltaChunk);
+    checkValues(vals, c);
+  }
+
+  @Test
+  public void testRandomNotEncoded() {
+    long[] vals = new long[1000];
+    Random r = new Random(1);
+    for (int i = 0; i < vals.length; i++)
+      vals[i] = r.nextInt();
+    assertFalse(makeChunk(vals).compress() instanceof CDeltaChunk);
+  }
+
+  @Test
+  public void testSet() {
+    long[] ts = makeTimestamps(1000, 1_000_000, 10, 0, 0, 3);
+    Chunk c = makeChunk(ts).compress();
+    assertTrue(c instanceof CDeltaChunk);
+    assertTrue(c.set_impl(100, ts[100]));
+    assertTrue(c.set_impl(101, (double) ts[101]));
+    assertFalse(c.set_impl(100, ts[100] + 1));
+    assertFalse(c.setNA_impl(100));
+    checkValues(ts, c);
+  }
+
+  @Test
+  public void testRollups() {
+    long[] ts = makeTimestamps(3000, 1_500_000_000_000L, 100, 0, 0.1, 11);
+    Frame fr = new TestFrameBuilder()
+            .withVecTypes(Vec.T_TIME)
+            .withDataForCol(0, ts)
+            .withChunkLayout(1000, 2000)
+            .build();
+    try {
+      Vec v = fr.vec(0);
+      assertTrue(v.isTime());
+      for (int i = 0; i < v.nChunks(); i++)
+        assertTrue(v.chunkForChunkIdx(i) instanceof CDeltaChunk);
+      long min = Long.MAX_VALUE, max = Long.MIN_VALUE, nas = 0;
+      for (long t : ts) {
+        if (t == Long.MIN_VALUE) { nas++; continue; }
+        min = Math.min(min, t);
+        max = Math.max(max, t);
+      }
+      assertEquals(nas, v.naCnt());
+      assertEquals(min, (long) v.min());
+      assertEquals(max, (long) v.max());
+      for (int i = 0; i < ts.length; i++)
+        if (ts[i] != Long.MIN_VALUE)
+          assertEquals(ts[i], v.at8(i));
+    } finally {
+      fr.delete();
+    }
+  }
+
+  private static void checkValues(long[] expected, Chunk c) {
+    assertEquals(expected.length, c._len);
+    for (int i = 0; i < expected.length; i++) {
+      boolean na = expected[i] == Long.MIN_VALUE;
+      assertEquals(na, c.isNA(i));
+      if (!na) {
+        assertEquals(expected[i], c.at8(i));
+        assertEquals((double) expected[i], c.atd(i), 0);
+      }
+    }
+    // backward and random access
+    Random r = new Random(expected.length);
+    for (int k = 0; k < 2 * expected.length; k++) {
+      int i = k < expected.length ? expected.length - 1 - k : r.nextInt(expected.length);
+      if (expected[i] != Long.MIN_VALUE)
+        assertEquals(expected[i], c.at8(i));
+    }
+    for (int from : new int[]{0, 1, CDeltaChunk.BLOCK - 1, CDeltaChunk.BLOCK, 777}) {
+      double[] vals = c.getDoubles(new double[expected.length - from], from, expected.length, -1);
+      for (int i = 0; i < vals.length; i++)
+        assertEquals(expected[i + from] == Long.MIN_VALUE ? -1 : (double) expected[i + from], vals[i], 0);
+    }
+    int[] ids = new int[]{0, 5, 7, expected.length - 1};
+    double[] sparse = c.getDoubles(new double[ids.length], ids);
+    for (int i = 0; i < ids.length; i++)
+      assertEquals(expected[ids[i]] == Long.MIN_VALUE ? Double.NaN : (double) expected[ids[i]], sparse[i], 0);
+    // visitor
+    NewChunk nc = c.extractRows(new NewChunk(null, 0), 100, expected.length);
+    for (int i = 0; i < nc._len; i++) {
+      if (expected[i + 100] == Long.MIN_VALUE) assertTrue(nc.isNA(i));
+      else assertEquals(expected[i + 100], nc.at8(i));
+    }
+  }
+
+}
@@ -0,0 +1,163 @@
+package water.fvec;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.AutoBuffer;
+import water.TestUtil;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CRLEChunkTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  private static NewChunk makeRuns(double[] values, int runLen, int len, long seed) {
+    Random r = new Random(seed);
+    NewChunk nc = new NewChunk(null, 0);
+    while (nc._len < len) {
+      double v = values[r.nextInt(values.length)];
+      int n = Math.min(1 + r.nextInt(2 * runLen), len - nc._len);
+      for (int i = 0; i < n; i++) {
+        if (Double.isNaN(v)) nc.addNA();
+        else nc.addNum(v);
+      }
+    }
+    return nc;
+  }
+
+  private static double[] values(NewChunk nc) {
+    double[] expected = new double[nc._len];
+    for (int i = 0; i < expected.length; i++)
+      expected[i] = nc.atd(i);
+    return expected;
+  }
+
+  @Test
+  public void testIntegerRuns() {
+    double[][] domains = new double[][]{
+            {1, 2, 3, 4, 5},
+            {-1000, 0, 1000, Double.NaN},
+            {1e12, 1e12 + 1, 1e12 + 7}
+    };
+    for (double[] domain : domains) {
+      NewChunk nc = makeRuns(domain, 100, 5000, 42);
+      double[] expected = values(nc);
+      Chunk c = nc.compress();
+      assertTrue(c.getClass().getSimpleName(), c instanceof CRLEChunk);
+      assertFalse(c.hasFloat());
+      checkValues(expected, c);
+      checkRoundTrip(expected, c);
+    }
+  }
+
+  @Test
+  public void testBooleanRuns() {
+    // bit vectors are small already, only very long runs pay off
+    NewChunk nc = makeRuns(new double[]{0, 1}, 1000, 5000, 42);
+    double[] expected = values(nc);
+    Chunk c = nc.compress();
+    assertTrue(c.getClass().getSimpleName(), c instanceof CRLEChunk);
+    checkValues(expected, c);
+    assertTrue(makeRuns(new double[]{0, 1}, 100, 5000, 42).compress() instanceof CBSChunk);
+  }
+
+  @Test
+  public void testFloatRuns() {
+    NewChunk nc = makeRuns(new double[]{0.5, Math.PI, -1e-3, Double.NaN, 0}, 50, 3000, 7);
+    double[] expected = values(nc);
+    Chunk c = nc.compress();
+    assertTrue(c.getClass().getSimpleName(), c instanceof CRLEChunk);
+    assertTrue(c.hasFloat());
+    checkValues(expected, c);
+    checkRoundTrip(expected, c);
+  }
+
+  @Test
+  public void testShortRunsNotEncoded() {
+    NewChunk nc = makeRuns(new double[]{1, 2, 3, 4, 5}, 1, 5000, 42);
+    assertFalse(nc.compress() instanceof CRLEChunk);
+    // tiny chunks are left alone
+    nc = makeRuns(new double[]{1, 2}, 10, 40, 42);
+    assertFalse(nc.compress() instanceof CRLEChunk);
+  }
+
+  @Test
+  public void testRandomAccess() {
+    NewChunk nc = makeRuns(new double[]{3, 17, 42}, 30, 2000, 3);
+    double[] expected = values(nc);
+    Chunk c = nc.compress();
+    assertTrue(c instanceof CRLEChunk);
+    Random r = new Random(0xCAFE);
+    for (int k = 0; k < 10000; k++) {
+      int i = r.nextInt(expected.length);
+      assertEquals(expected[i], c.atd(i), 0);
+    }
+    for (int i = expected.length - 1; i >= 0; i--)
+      assertEquals(expected[i], c.atd(i), 0);
+  }
+
+  @Test
+  public void testSet() {
+    NewChunk nc = makeRuns(new double[]{3, 17, 42}, 30, 2000, 3);
+    double[] expected = values(nc);
+    Chunk c = nc.compress();
+    assertTrue(c instanceof CRLEChunk);
+    // setting the same value doesn't break the run
+    assertTrue(c.set_impl(10, (long) expected[10]));
+    assertTrue(c.set_impl(11, expected[11]));
+    // any other value does
+    assertFalse(c.set_impl(10, (long) expected[10] + 1));
+    assertFalse(c.set_impl(10, expected[10] + 0.5));
+    assertFalse(c.setNA_impl(10));
+    checkValues(expected, c);
+  }
+
+  private static void checkRoundTrip(double[] expected, Chunk c) {
+    // serialization round trip
+    Chunk c2 = new AutoBuffer().put(c).flipForReading().get();
+    assertTrue(c2 instanceof CRLEChunk);
+    checkValues(expected, c2);
+    // inflate & compress again
+    NewChunk nc = c.extractRows(new NewChunk(null, 0), 0, c._len);
+    Chunk c3 = nc.compress();
+    assertArrayEquals(c.asBytes(), c3.asBytes());
+  }
+
+  private static void checkValues(double[] expected, Chunk c) {
+    assertEquals(expected.length, c._len);
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(Double.isNaN(expected[i]), c.isNA(i));
+      assertEquals(expected[i], c.atd(i), 0);
+      if (!Double.isNaN(expected[i]) && !c.hasFloat())
+        assertEquals((long) expected[i], c.at8(i));
+    }
+    for (int from : new int[]{0, 1, 7, expected.length / 3}) {
+      double[] vals = c.getDoubles(new double[expected.length - from], from, expected.length, -1);
+      for (int i = 0; i < vals.length; i++)
+        assertEquals(Double.isNaN(expected[i + from]) ? -1 : expected[i + from], vals[i], 0);
+    }
+    int[] ids = new int[]{0, 5, 7, expected.length - 1};
+    double[] sparse = c.getDoubles(new double[ids.length], ids);
+    for (int i = 0; i < ids.length; i++)
+      assertEquals(expected[ids[i]], sparse[i], 0);
+    if (!c.hasFloat()) {
+      long[] longs = c.getLongs(new long[expected.length], 0, expected.length, Long.MIN_VALUE);
+      boolean fitsInt = true;
+      for (int i = 0; i < longs.length; i++) {
+        assertEquals(Double.isNaN(expected[i]) ? Long.MIN_VALUE : (long) expected[i], longs[i]);
+        fitsInt &= Double.isNaN(expected[i]) || Math.abs(expected[i]) < Integer.MAX_VALUE;
+      }
+      if (fitsInt) {
+        int[] ints = c.getIntegers(new int[expected.length], 0, expected.length, Integer.MIN_VALUE);
+        for (int i = 0; i < ints.length; i++)
+          assertEquals(Double.isNaN(expected[i]) ? Integer.MIN_VALUE : (int) expected[i], ints[i]);
+      }
+    }
+    // visitor
+    NewChunk nc = c.extractRows(new NewChunk(null, 0), 0, c._len);
+    for (int i = 0; i < expected.length; i++)
+      assertEquals(expected[i], nc.atd(i), 0);
+  }
+
+}
@@ -110,6 +110,76 @@ public class CStrChunkTest extends TestUtil {
     Assert.assertTrue("Sparse string has values: expected `bar`, got " + bufferedString, bufferedString.equalsAsciiString("bar"));
   }
   
+  private static NewChunk repeatedStrings(String[] domain, int len) {
+    NewChunk nc = new NewChunk(null, 0);
+    for (int i = 0; i < len; i++) {
+      String s = domain[(i * 7 + i / 3) % domain.length];
+      if (s == null) nc.addNA();
+      else nc.addStr(s);
+    }
+    return nc;
+  }
+
+  @Test
+  public void test_dictionary() {
+    String[] domain = {"http://example.com/a", null, "", "http://example.com/b", "Mozilla/5.0 (X11; Linux x86_64)", "\u017elu\u0165ou\u010dk\u00fd"};
+    NewChunk nc = repeatedStrings(domain, 10000);
+    String[] expected = new String[nc._len];
+    BufferedString tmpStr = new BufferedString();
+    for (int i = 0; i < expected.length; i++)
+      expected[i] = nc.isNA(i) ? null : nc.atStr(tmpStr, i).toString();
+
+    CStrChunk cc = (CStrChunk) nc.compress();
+    assertTrue(cc.isDictionaryEncoded());
+    assertFalse(cc._isAllASCII);
+    assertEquals(domain.length - 1, cc.dictionarySize());
+    assertTrue(cc._mem.length < expected.length * 5); // offsets + dictionary
+    for (int i = 0; i < expected.length; i++) {
+      if (expected[i] == null) {
+        assertTrue(cc.isNA(i));
+        assertEquals(-1, cc.codeAt(i));
+      } else {
+        assertEquals(expected[i], cc.atStr(tmpStr, i).toString());
+        assertEquals(expected[i], cc.dictionaryValue(tmpStr, cc.codeAt(i)).toString());
+      }
+    }
+    // codes are assigned in order of first occurrence
+    assertEquals(0, cc.codeAt(0));
+
+    Chunk cc2 = IcedUtils.deepCopy(cc);
+    assertTrue(((CStrChunk) cc2).isDictionaryEncoded());
+    for (int i = 0; i < expected.length; i++)
+      assertEquals(expected[i], cc2.isNA(i) ? null : cc2.atStr(tmpStr, i).toString());
+
+    Chunk cc3 = cc.extractRows(new NewChunk(null, 0), 0, cc._len).compress();
+    assertArrayEquals(cc._mem, cc3._mem);
+  }
+
+  @Test
+  public void test_distinct_strings_not_dictionary() {
+    NewChunk nc = new NewChunk(null, 0);
+    for (int i = 0; i < 1000; i++) nc.addStr("Foo" + i);
+    assertFalse(((CStrChunk) nc.compress()).isDictionaryEncoded());
+  }
+
+  @Test
+  public void test_dictionary_ascii_ops() {
+    String[] domain = {"  abc  ", "xyz", "   ", "Hello World "};
+    CStrChunk cc = (CStrChunk) repeatedStrings(domain, 1000).compress();
+    assertTrue(cc.isDictionaryEncoded());
+    assertTrue(cc._isAllASCII);
+    BufferedString tmpStr = new BufferedString();
+    Chunk trimmed = cc.asciiTrim(new NewChunk(null, 0)).compress();
+    Chunk sub = cc.asciiSubstring(new NewChunk(null, 0), 1, 4).compress();
+    Chunk upper = cc.asciiToUpper(new NewChunk(null, 0)).compress();
+    for (int i = 0; i < cc._len; i++) {
+      String s = cc.atStr(tmpStr, i).toString();
+      assertEquals(s.trim(), trimmed.atStr(tmpStr, i).toString());
+      assertEquals(s.substring(Math.min(1, s.length()), Math.min(4, s.length())), sub.atStr(tmpStr, i).toString());
+      assertEquals(s.toUpperCase(), upper.atStr(tmpStr, i).toString());
+    }
+  }
+
   @Test
   public void test_lstrip() {
     final List<String> content = Arrays.asList(
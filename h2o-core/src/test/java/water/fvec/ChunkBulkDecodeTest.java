@@ -0,0 +1,134 @@
+package water.fvec;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.TestUtil;
+import water.util.UnsafeUtils;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the bulk decode contract (getDoubles/getIntegers/getLongs/getNAs) against the per-row accessors
+ * for all the numeric chunk types.
+ */
+public class ChunkBulkDecodeTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  private interface Gen { double value(Random r, int i); }
+
+  private static Chunk make(int len, double naRate, long seed, Gen g) {
+    Random r = new Random(seed);
+    NewChunk nc = new NewChunk(null, 0);
+    for (int i = 0; i < len; i++) {
+      if (naRate > 0 && r.nextDouble() < naRate) nc.addNA();
+      else {
+        double d = g.value(r, i);
+        if (d == (long) d) nc.addNum((long) d, 0);
+        else nc.addNum(d);
+      }
+    }
+    return nc.compress();
+  }
+
+  private static Chunk scaled(int len, long seed) {
+    Random r = new Random(seed);
+    NewChunk nc = new NewChunk(null, 0);
+    for (int i = 0; i < len; i++) {
+      if (r.nextInt(10) == 0) nc.addNA();
+      else nc.addNum(r.nextInt(100_000_000), -2);
+    }
+    return nc.compress();
+  }
+
+  private static Chunk floats(int len, long seed) {
+    Random r = new Random(seed);
+    byte[] bs = new byte[len << 2];
+    for (int i = 0; i < len; i++)
+      UnsafeUtils.set4f(bs, i << 2, r.nextInt(10) == 0 ? Float.NaN : r.nextFloat());
+    return new C4FChunk(bs);
+  }
+
+  private static Chunk[] chunks() {
+    final int len = 1000;
+    return new Chunk[]{
+            new C0LChunk(42, len),
+            new C0LChunk(0, len),
+            new C0DChunk(3.5, len),
+            new C0DChunk(Double.NaN, len),
+            make(len, 0, 1, (r, i) -> r.nextInt(2)),                          // CBS 1 bit
+            make(len, 0.1, 1, (r, i) -> r.nextInt(2)),                        // CBS 2 bits
+            make(len, 0, 2, (r, i) -> r.nextInt(256)),                        // C1N
+            make(len, 0.1, 3, (r, i) -> r.nextInt(255)),                      // C1
+            make(len, 0.1, 4, (r, i) -> 1000 + r.nextInt(255)),               // C1S
+            make(len, 0.1, 5, (r, i) -> r.nextInt(64000) - 32000),            // C2
+            make(len, 0.1, 6, (r, i) -> 100000 + r.nextInt(65000)),           // C2S
+            make(len, 0.1, 7, (r, i) -> r.nextInt()),                         // C4
+            scaled(len, 8),                                                   // C4S
+            make(len, 0.1, 9, (r, i) -> r.nextLong() >> 4),                   // C8
+            make(len, 0.1, 10, (r, i) -> r.nextInt(100000) / 100.0),          // scaled decimals
+            floats(len, 11),                                                  // C4F
+            make(len, 0.1, 12, (r, i) -> r.nextDouble()),                     // C8D
+            make(len, 0.1, 13, (r, i) -> r.nextInt(1 << 12)),                 // CBP
+            make(len, 0, 14, (r, i) -> i / 100),                              // CRLE
+            make(len, 0.1, 15, (r, i) -> 1_600_000_000_000L + 1000L * i + r.nextInt(10)), // CDelta
+            make(len, 0, 16, (r, i) -> r.nextInt(20) == 0 ? r.nextInt(100) : 0),        // sparse zero
+            make(len, 0, 17, (r, i) -> r.nextInt(20) == 0 ? r.nextDouble() : 0),         // sparse zero, floats
+    };
+  }
+
+  @Test
+  public void testBulkDecode() {
+    Set<String> types = new HashSet<>();
+    for (Chunk c : chunks()) {
+      String name = c.getClass().getSimpleName();
+      types.add(name);
+      for (int[] range : new int[][]{{0, c._len}, {1, c._len}, {77, 321}, {c._len - 65, c._len}, {5, 5}}) {
+        checkRange(name, c, range[0], range[1]);
+      }
+    }
+    for (String t : new String[]{"C0LChunk", "C0DChunk", "CBSChunk", "C1NChunk", "C1Chunk", "C1SChunk", "C2Chunk",
+            "C2SChunk", "C4Chunk", "C4SChunk", "C8Chunk", "C4FChunk", "C8DChunk", "CBPChunk", "CRLEChunk",
+            "CDeltaChunk", "CXIChunk"})
+      assertTrue("Missing chunk type " + t + " in " + types, types.contains(t));
+  }
+
+  private static void checkRange(String name, Chunk c, int from, int to) {
+    int n = to - from;
+    double[] ds = c.getDoubles(new double[n], from, to, -7);
+    long[] nas = new long[(n + 63) >> 6];
+    int nNAs = c.getNAs(nas, from, to);
+    int cnt = 0;
+    for (int i = from; i < to; i++) {
+      boolean na = c.isNA(i);
+      assertEquals(name + " row " + i, na, (nas[(i - from) >> 6] & (1L << (i - from))) != 0);
+      if (na) cnt++;
+      assertEquals(name + " row " + i, na ? -7 : c.atd(i), ds[i - from], 0);
+    }
+    assertEquals(name, cnt, nNAs);
+    if (c.hasFloat())
+      return;
+    long[] ls = c.getLongs(new long[n], from, to, Long.MIN_VALUE);
+    for (int i = from; i < to; i++)
+      assertEquals(name + " row " + i, c.isNA(i) ? Long.MIN_VALUE : c.at8(i), ls[i - from]);
+    boolean fitsInt = true;
+    for (int i = from; i < to && fitsInt; i++)
+      fitsInt = c.isNA(i) || c.at8(i) == (int) c.at8(i);
+    if (fitsInt) {
+      int[] is = c.getIntegers(new int[n], from, to, Integer.MIN_VALUE);
+      for (int i = from; i < to; i++)
+        assertEquals(name + " row " + i, c.isNA(i) ? Integer.MIN_VALUE : (int) c.at8(i), is[i - from]);
+    } else {
+      try {
+        c.getIntegers(new int[n], from, to, Integer.MIN_VALUE);
+        fail(name + ": values outside of int range should not be silently truncated");
+      } catch (RuntimeException expected) {
+        // expected
+      }
+    }
+  }
+
+}
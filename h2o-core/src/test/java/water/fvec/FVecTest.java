@@ -10,6 +10,7 @@ import water.util.FileUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Random;
 
 import static org.junit.Assert.*;
 
@@ -239,4 +240,114 @@ public class FVecTest extends TestUtil {
       if( vec != null ) vec.remove();
     }
   }
+
+  // Frame-level rollups (one pass over all the columns) must match the per-Vec ones
+  @Test public void testFrameRollups() {
+    Vec src = null;
+    Frame fr = null, copy = null, fr2 = null;
+    try {
+      src = Vec.makeConN(50000, 8);
+      byte[] types = new byte[]{Vec.T_NUM, Vec.T_NUM, Vec.T_NUM, Vec.T_NUM, Vec.T_NUM, Vec.T_NUM, Vec.T_NUM, Vec.T_CAT, Vec.T_STR};
+      String[] names = new String[]{"gauss", "ints", "nas", "sparse", "const", "allNA", "seq", "cat", "str"};
+      String[][] domains = new String[types.length][];
+      domains[7] = new String[]{"a", "b", "c", "d", "e"};
+      fr = new MRTask() {
+        @Override public void map(Chunk[] cs, NewChunk[] ncs) {
+          Chunk c = cs[0];
+          Random r = new Random(c.start());
+          for (int i = 0; i < c._len; i++) {
+            ncs[0].addNum(r.nextGaussian());
+            ncs[1].addNum(r.nextInt(1000) - 500, 0);
+            if (r.nextInt(10) == 0) ncs[2].addNA(); else ncs[2].addNum(r.nextDouble() * 1e6);
+            ncs[3].addNum(r.nextInt(100) == 0 ? 1 : 0, 0);
+            ncs[4].addNum(42, 0);
+            ncs[5].addNA();
+            ncs[6].addNum(c.start() + i, 0);
+            ncs[7].addCategorical(r.nextInt(5));
+            ncs[8].addStr("s" + r.nextInt(10));
+          }
+        }
+      }.doAll(types, src).outputFrame(Key.<Frame>make(), names, domains);
+      copy = fr.deepCopy(Key.make().toString());
+      DKV.put(copy);
+      fr2 = fr.deepCopy(Key.make().toString());
+      DKV.put(fr2);
+
+      Futures fs = new Futures();
+      Vec.startRollupStats(fr.vecs(), fs, true);
+      fs.blockForPending();
+      for (Vec v : fr.vecs())
+        assertNotNull(RollupStats.getOrNull(v, v.rollupStatsKey()));
+      assertSameRollups(copy, fr);
+
+      // Some columns are being computed by somebody else already
+      fs = new Futures();
+      fr2.vec(3).startRollupStats(fs, true);
+      fr2.vec(0).startRollupStats(fs);
+      Vec.startRollupStats(fr2.vecs(), fs, true);
+      fs.blockForPending();
+      assertSameRollups(copy, fr2);
+    } finally {
+      if (src != null) src.remove();
+      if (fr != null) fr.delete();
+      if (copy != null) copy.delete();
+      if (fr2 != null) fr2.delete();
+    }
+  }
+
+  @Test(timeout = 60000)
+  public void testFrameRollupsReleaseLocksWhenVecDeleted() {
+    Frame fr = null;
+    Vec deleted = null;
+    try {
+      fr = new TestFrameBuilder()
+              .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_NUM)
+              .withDataForCol(0, ard(1, 2, 3, 4, 5, 6))
+              .withDataForCol(1, ard(2, 4, 6, 8, 10, 12))
+              .withDataForCol(2, ard(0, 0, 1, 1, 0, 0))
+              .withChunkLayout(2, 2, 2)
+              .build();
+      // Not locked by the frame pass (done already), deleted after the frame pass was started
+      deleted = fr.vec(2);
+      deleted.mean();
+      DKV.remove(deleted._key);
+      assertNull(RollupStats.getOrNull(fr.vec(0), fr.vec(0).rollupStatsKey()));
+      try {
+        H2O.submitTask(new RollupStats.ComputeFrameRollupsTask(fr.vecs(), false)).join();
+        fail("Expected the rollups to fail on the deleted Vec");
+      } catch (RuntimeException e) {
+        Throwable cause = e;
+        while (cause.getCause() != null && !(cause instanceof H2OConcurrentModificationException))
+          cause = cause.getCause();
+        assertTrue(cause.toString(), cause instanceof H2OConcurrentModificationException);
+      }
+      // The locks were released - the rollups of the other Vecs can be computed
+      assertNull(RollupStats.getOrNull(fr.vec(0), fr.vec(0).rollupStatsKey()));
+      assertEquals(3.5, fr.vec(0).mean(), 0);
+      assertEquals(7, fr.vec(1).mean(), 0);
+    } finally {
+      if (deleted != null) DKV.put(deleted);
+      if (fr != null) fr.delete();
+    }
+  }
+
+  private static void assertSameRollups(Frame expected, Frame actual) {
+    for (int i = 0; i < expected.numCols(); i++) {
+      Vec e = expected.vec(i), a = actual.vec(i);
+      String col = expected.name(i);
+      assertEquals(col, e.min(), a.min(), 0);
+      assertEquals(col, e.max(), a.max(), 0);
+      assertEquals(col, e.mean(), a.mean(), 1e-9 * Math.abs(e.mean()));
+      assertEquals(col, e.sigma(), a.sigma(), 1e-9 * Math.abs(e.sigma()));
+      assertEquals(col, e.naCnt(), a.naCnt());
+      assertEquals(col, e.nzCnt(), a.nzCnt());
+      assertEquals(col, e.isInt(), a.isInt());
+      assertEquals(col, e.byteSize(), a.byteSize());
+      assertEquals(col, RollupStats.get(e)._checksum, RollupStats.get(a)._checksum);
+      if (!e.isString()) {
+        assertArrayEquals(col, e.bins(), a.bins());
+        assertArrayEquals(col, e.pctiles(), a.pctiles(), 0);
+      }
+    }
+  }
 }
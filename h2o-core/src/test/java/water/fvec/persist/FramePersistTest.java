@@ -9,6 +9,7 @@ import water.DKV;
 import water.Key;
 import water.Scope;
 import water.fvec.Frame;
+import water.fvec.SnapshotVec;
 import water.fvec.Vec;
 import water.runner.CloudSize;
 import water.runner.H2ORunner;
@@ -16,8 +17,7 @@ import water.runner.H2ORunner;
 import java.io.File;
 import java.io.IOException;
 
-import static org.junit.Assert.assertArrayEquals;
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 import static water.TestUtil.*;
 
 @RunWith(H2ORunner.class)
@@ -91,6 +91,63 @@ public class FramePersistTest {
         }
     }
 
+    @Test
+    public void testLazyLoad() throws IOException {
+        Scope.enter();
+        try {
+            Frame f = Scope.track(createTestFrame());
+            Frame copy = Scope.track(f.deepCopy("lazy_copy"));
+            File dest = temp.newFolder();
+            String[] written = new FramePersist(f).saveToAndWait(dest.getAbsolutePath(), false);
+            for (String file : written) {
+                assertFalse(file, file.matches(".*_n\\d+_c\\d+$")); // chunk files do not depend on the nodes
+            }
+            f.remove(true);
+            Frame loaded = Scope.track(FramePersist.loadFrom(f._key, dest.getAbsolutePath(), null, true).get());
+            SnapshotVec v = (SnapshotVec) loaded.vec(0);
+            for (int cidx = 0; cidx < v.nChunks(); cidx++) {
+                assertFalse(v.isLoaded(cidx));
+            }
+            assertFrameEquals(copy, loaded, 0);
+            for (int cidx = 0; cidx < v.nChunks(); cidx++) {
+                assertTrue(v.isLoaded(cidx));
+            }
+        } finally {
+            Scope.exit();
+        }
+    }
+
+    @Test
+    public void testLoadColumns() throws IOException {
+        Scope.enter();
+        try {
+            Frame f = Scope.track(createTestFrame());
+            String[] columns = new String[] { f.name(7), f.name(2), f.name(19) };
+            Frame expected = Scope.track(f.subframe(columns).deepCopy("subset_copy"));
+            File dest = temp.newFolder();
+            new FramePersist(f).saveTo(dest.getAbsolutePath(), false).get();
+            f.remove(true);
+            Frame loaded = Scope.track(FramePersist.loadFrom(f._key, dest.getAbsolutePath(), columns, false).get());
+            assertArrayEquals(columns, loaded.names());
+            assertFrameEquals(expected, loaded, 0);
+        } finally {
+            Scope.exit();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLoadUnknownColumn() throws IOException {
+        Scope.enter();
+        try {
+            Frame f = Scope.track(createTestFrame());
+            File dest = temp.newFolder();
+            new FramePersist(f).saveTo(dest.getAbsolutePath(), false).get();
+            FramePersist.loadFrom(f._key, dest.getAbsolutePath(), new String[] { "no_such_column" }, true);
+        } finally {
+            Scope.exit();
+        }
+    }
+
     private static Frame createTestFrame() {
         CreateFrame cf = new CreateFrame();
         cf.rows = 10_000;
@@ -0,0 +1,191 @@
+package water.parser;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.util.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CsvFastTokenizerTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  @Test
+  public void testZeroBytes() {
+    long w = 0x00410042_00430000L;
+    assertEquals(0x80008000_80008080L, CsvFastTokenizer.zeroBytes(w));
+    assertEquals(0x80000000_00000000L, CsvFastTokenizer.zeroBytes(0x00010101_01010101L)); // No borrow from the zero byte
+    long sep = CsvFastTokenizer.broadcast((byte) ',');
+    byte[] bits = StringUtils.bytesOf("ab,cd,,e");
+    long v = 0;
+    for (int i = 7; i >= 0; i--) v = (v << 8) | (bits[i] & 0xFF);
+    assertEquals(0x00808000_00800000L, CsvFastTokenizer.zeroBytes(v ^ sep));
+  }
+
+  private static ParseSetup setup(int ncols) {
+    ParseSetup ps = new ParseSetup();
+    ps._parse_type = DefaultParserProviders.CSV_INFO;
+    ps._check_header = ParseSetup.NO_HEADER;
+    ps._separator = ',';
+    ps._number_columns = ncols;
+    ps._nonDataLineMarkers = new byte[]{'#'};
+    ps.setParseColumnIndices(ncols, null);
+    return ps;
+  }
+
+  @Test
+  public void testStopsAtFirstExoticLine() {
+    ParseSetup ps = setup(3);
+    boolean[] keep = {true, true, true};
+    String csv = "1,a,2.5\n-2, \"b\" ,1e3\n3%,c,1\n4,d,5\n";
+    byte[] bits = StringUtils.bytesOf(csv);
+    PreviewParseWriter dout = new PreviewParseWriter(3);
+    int resume = new CsvFastTokenizer(ps, keep, ps._nonDataLineMarkers, false).tokenize(bits, 0, dout);
+    assertEquals(csv.indexOf("3%"), resume);
+    assertEquals(2, dout.lineNum());
+
+    // Nothing tokenized
+    assertEquals(-1, new CsvFastTokenizer(ps, keep, ps._nonDataLineMarkers, false).tokenize(StringUtils.bytesOf("# comment\n1,a,2\n"), 0, new PreviewParseWriter(3)));
+    assertEquals(-1, new CsvFastTokenizer(ps, keep, ps._nonDataLineMarkers, false).tokenize(StringUtils.bytesOf("1,2\n1,a,2\n"), 0, new PreviewParseWriter(3)));
+    assertEquals(-1, new CsvFastTokenizer(ps, keep, ps._nonDataLineMarkers, false).tokenize(StringUtils.bytesOf("1,a,2\r\n1,a,2\n"), 0, new PreviewParseWriter(3)));
+    // The line ending on the last byte is left to the state machine
+    assertEquals(6, new CsvFastTokenizer(ps, keep, ps._nonDataLineMarkers, false).tokenize(StringUtils.bytesOf("1,a,2\n1,a,2\n"), 0, new PreviewParseWriter(3)));
+  }
+
+  private static final String[] WORDS = {"alpha", "beta", "gamma", "delta", "čaj", "NA", "missing", "x y"};
+
+  private static String field(Random r, int col) {
+    int k = r.nextInt(20);
+    switch (col) {
+      case 0: // integers
+        return k == 0 ? "" : k == 1 ? " " + r.nextInt(100) + " " : String.valueOf(r.nextInt(2000) - 1000);
+      case 1: // decimals
+        if (k == 0) return "\"" + (r.nextInt(1000) / 8.0) + "\"";
+        if (k == 1) return (r.nextInt(100) - 50) + ".5e" + (r.nextInt(10) - 5);
+        if (k == 2) return "7%";
+        if (k == 3) return "$3.5";
+        return String.valueOf(r.nextInt(100000) / 100.0 - 500);
+      case 2: // categoricals
+        String w = WORDS[r.nextInt(WORDS.length)];
+        if (k == 0) return "\"" + w + "\"";
+        if (k == 1) return "\"" + w + ", quoted\"";
+        return w;
+      case 3: // long numbers
+        if (k == 0) return "12345678901234567890123";
+        if (k == 1) return "-0.000000000000000000001";
+        return String.valueOf(r.nextLong() % 1000000000000000L);
+      default: // numbers forced to strings
+        return k == 0 ? "007" : k == 1 ? "\"15\"" : String.valueOf(r.nextInt(50));
+    }
+  }
+
+  private static File makeCsv(long seed) throws IOException {
+    Random r = new Random(seed);
+    StringBuilder sb = new StringBuilder("i,d,c,l,s\n");
+    for (int row = 0; row < 3000; row++) {
+      int k = r.nextInt(200);
+      if (k == 0) { sb.append("# comment\n"); continue; }
+      if (k == 1) { sb.append("\n"); continue; }
+      for (int col = 0; col < 5; col++) sb.append(col == 0 ? "" : ",").append(field(r, col));
+      sb.append(k == 2 ? "\r\n" : "\n");
+    }
+    File f = File.createTempFile("fast_tokenizer", ".csv");
+    f.deleteOnExit();
+    Files.write(f.toPath(), sb.toString().getBytes(StandardCharsets.UTF_8));
+    return f;
+  }
+
+  private static Frame parse(File f, final int[] skipped, boolean fast) {
+    boolean old = CsvParser.FAST_TOKENIZER;
+    CsvParser.FAST_TOKENIZER = fast;
+    try {
+      return parseTestFile(f.getAbsolutePath(), new ParseSetupTransformer() {
+        @Override
+        public ParseSetup transformSetup(ParseSetup ps) {
+          ps._chunk_size = 1013;
+          ps._column_types[4] = Vec.T_STR;
+          ps._na_strings = new String[][]{null, null, {"NA", "missing"}, null, null};
+          return ps;
+        }
+      }, skipped);
+    } finally {
+      CsvParser.FAST_TOKENIZER = old;
+    }
+  }
+
+  private static void assertSameParse(File f, int[] skipped) {
+    Frame slow = Scope.track(parse(f, skipped, false));
+    Frame fast = Scope.track(parse(f, skipped, true));
+    assertTrue(slow.anyVec().nChunks() > 10);
+    assertArrayEquals(slow.names(), fast.names());
+    for (int i = 0; i < slow.numCols(); i++) {
+      assertEquals(slow.vec(i).get_type_str(), fast.vec(i).get_type_str());
+      assertArrayEquals(slow.vec(i).domain(), fast.vec(i).domain());
+    }
+    assertBitIdentical(slow, fast);
+    for (int i = 0; i < slow.numCols(); i++) {
+      if (!slow.vec(i).isString()) continue;
+      for (long row = 0; row < slow.numRows(); row++)
+        assertEquals(String.valueOf(slow.vec(i).atStr(new BufferedString(), row)),
+                String.valueOf(fast.vec(i).atStr(new BufferedString(), row)));
+    }
+  }
+
+  @Test
+  public void testSameAsStateMachine() throws IOException {
+    Scope.enter();
+    try {
+      File f = makeCsv(0xCAFE);
+      assertSameParse(f, null);
+      assertSameParse(f, new int[]{1, 3});
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testHeaderAfterComments() throws IOException {
+    Scope.enter();
+    try {
+      for (String csv : new String[]{"# c\na,b\n1,2\n", "# c\n\n#d\na,b\n1,2\n3,4\n"}) {
+        File f = File.createTempFile("fast_tokenizer_header", ".csv");
+        f.deleteOnExit();
+        Files.write(f.toPath(), csv.getBytes(StandardCharsets.UTF_8));
+        Frame[] frs = new Frame[2];
+        for (int i = 0; i < 2; i++) {
+          boolean old = CsvParser.FAST_TOKENIZER;
+          CsvParser.FAST_TOKENIZER = i == 1;
+          try {
+            frs[i] = Scope.track(parseTestFile(f.getAbsolutePath(), new ParseSetupTransformer() {
+              @Override
+              public ParseSetup transformSetup(ParseSetup ps) {
+                ps._check_header = ParseSetup.HAS_HEADER;
+                ps._column_names = new String[]{"a", "b"};
+                return ps;
+              }
+            }));
+          } finally {
+            CsvParser.FAST_TOKENIZER = old;
+          }
+        }
+        Frame fast = frs[1];
+        assertArrayEquals(new String[]{"a", "b"}, fast.names());
+        assertEquals(csv.endsWith("3,4\n") ? 2 : 1, fast.numRows());
+        assertEquals(1, fast.vec(0).at8(0));
+        assertEquals(2, fast.vec(1).at8(0));
+        assertBitIdentical(frs[0], fast);
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+}
@@ -0,0 +1,118 @@
+package water.parser;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.H2O;
+import water.Key;
+import water.MRTask;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.Frame;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PartitionedCategoricalDomainsTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  @Test
+  public void testOwner() {
+    int[] counts = new int[7];
+    for (int i = 0; i < 70000; i++) {
+      int o = PartitionedCategoricalDomains.owner(new BufferedString("level" + i), counts.length);
+      assertTrue(o >= 0 && o < counts.length);
+      counts[o]++;
+    }
+    for (int c : counts) assertTrue(c > 9000 && c < 11000);
+    assertEquals(0, PartitionedCategoricalDomains.owner(new BufferedString("level"), 1));
+  }
+
+  private static File makeCsv(long seed) throws IOException {
+    Random r = new Random(seed);
+    StringBuilder sb = new StringBuilder("hi,lo,na,n\n");
+    for (int row = 0; row < 20000; row++) {
+      sb.append("h").append(r.nextInt(15000)).append(',')
+        .append(r.nextInt(10) == 0 ? "" : "čaj" + r.nextInt(5)).append(',')
+        .append(row < 10000 ? "" : "x" + r.nextInt(3)).append(',')
+        .append(r.nextInt(100)).append('\n');
+    }
+    File f = File.createTempFile("partitioned_domains", ".csv");
+    f.deleteOnExit();
+    Files.write(f.toPath(), sb.toString().getBytes(StandardCharsets.UTF_8));
+    return f;
+  }
+
+  private static Frame parse(File f, boolean partitioned) {
+    boolean old = ParseDataset.PARTITIONED_CATEGORICALS;
+    ParseDataset.PARTITIONED_CATEGORICALS = partitioned;
+    try {
+      return parseTestFile(f.getAbsolutePath(), new ParseSetupTransformer() {
+        @Override
+        public ParseSetup transformSetup(ParseSetup ps) {
+          ps._chunk_size = 4093;
+          return ps;
+        }
+      });
+    } finally {
+      ParseDataset.PARTITIONED_CATEGORICALS = old;
+    }
+  }
+
+  @Test
+  public void testSameAsGatheredDomains() throws IOException {
+    Scope.enter();
+    try {
+      File f = makeCsv(0xBEEF);
+      Frame gathered = Scope.track(parse(f, false));
+      Frame partitioned = Scope.track(parse(f, true));
+      assertTrue(gathered.anyVec().nChunks() > 10);
+      assertTrue(gathered.vec("hi").cardinality() > 10000);
+      for (int i = 0; i < gathered.numCols(); i++) {
+        assertEquals(gathered.vec(i).get_type_str(), partitioned.vec(i).get_type_str());
+        assertArrayEquals(gathered.vec(i).domain(), partitioned.vec(i).domain());
+      }
+      assertBitIdentical(gathered, partitioned);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  // Parses a column of levels on every node, like MultiFileParseTask
+  private static class LocalLevelsTask extends MRTask<LocalLevelsTask> {
+    private final Key _cKey;
+    LocalLevelsTask(Key cKey) { _cKey = cKey; }
+    @Override public void setupLocal() {
+      Categorical cat = ParseDataset.localCategoricals(_cKey, 1)[0];
+      for (int i = 0; i < 100; i++) cat.addKey(new BufferedString("l" + (i + 7 * H2O.SELF.index())));
+    }
+  }
+
+  private static class HeldLevelsTask extends MRTask<HeldLevelsTask> {
+    private final Key _cKey;
+    boolean _held;
+    HeldLevelsTask(Key cKey) { _cKey = cKey; }
+    @Override public void setupLocal() {
+      _held = PartitionedCategoricalDomains.hasLocalLevels(_cKey) || ParseDataset.localCategoricals(_cKey) != null;
+    }
+    @Override public void reduce(HeldLevelsTask mrt) { _held |= mrt._held; }
+  }
+
+  @Test
+  public void testCleanup() {
+    Key cKey = Key.make();
+    new LocalLevelsTask(cKey).doAllNodes();
+    PartitionedCategoricalDomains pcd = new PartitionedCategoricalDomains(cKey, new int[]{0}, new int[]{0});
+    pcd.build();
+    int n = 100 + 7 * (H2O.CLOUD.size() - 1);
+    assertEquals(n, pcd.getDomainLength(0));
+    assertEquals(n, pcd.getDomain(0).length);
+    assertTrue(new HeldLevelsTask(cKey).doAllNodes()._held);
+    pcd.cleanup(); // e.g. when a column has too many levels
+    assertFalse(new HeldLevelsTask(cKey).doAllNodes()._held);
+  }
+}
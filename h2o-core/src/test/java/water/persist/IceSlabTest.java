@@ -0,0 +1,148 @@
+package water.persist;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import water.H2O;
+import water.Key;
+import water.TestUtil;
+import water.Value;
+import water.fvec.C1NChunk;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class IceSlabTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private static byte[] bytes(int len, long seed) {
+    byte[] bs = new byte[len];
+    new Random(seed).nextBytes(bs);
+    return bs;
+  }
+
+  @Test
+  public void testStoreLoadDelete() throws Exception {
+    IceSlab slab = new IceSlab(new File(tmp.getRoot(), "ice/swap.slab"));
+    try {
+      Key k1 = Key.make(), k2 = Key.make();
+      byte[] b1 = bytes(10000, 1), b2 = bytes(1, 2);
+      assertNull(slab.load(k1, b1.length));
+      assertTrue(slab.store(k1, b1));
+      assertTrue(slab.store(k2, b2));
+      assertTrue(slab.contains(k1));
+      assertArrayEquals(b1, slab.load(k1, b1.length));
+      assertArrayEquals(b2, slab.load(k2, b2.length));
+      assertEquals(4 * IceSlab.PAGE, slab.size());
+      // freed space is reused, split in the best fitting extent
+      slab.delete(k1);
+      assertFalse(slab.contains(k1));
+      assertNull(slab.load(k1, b1.length));
+      Key k3 = Key.make(), k4 = Key.make();
+      byte[] b3 = bytes(IceSlab.PAGE, 3), b4 = bytes(2 * IceSlab.PAGE, 4);
+      assertTrue(slab.store(k3, b3));
+      assertTrue(slab.store(k4, b4));
+      assertEquals(4 * IceSlab.PAGE, slab.size());
+      assertArrayEquals(b3, slab.load(k3, b3.length));
+      assertArrayEquals(b4, slab.load(k4, b4.length));
+      assertArrayEquals(b2, slab.load(k2, b2.length));
+      // storing again replaces the prior bytes
+      byte[] b5 = bytes(100, 5);
+      assertTrue(slab.store(k4, b5));
+      assertArrayEquals(b5, slab.load(k4, b5.length));
+    } finally {
+      slab.reset();
+    }
+    assertEquals(0, slab.size());
+  }
+
+  @Test
+  public void testSegmentTail() throws Exception {
+    IceSlab slab = new IceSlab(new File(tmp.getRoot(), "ice/swap.slab"));
+    try {
+      byte[] big = bytes(IceSlab.SEGMENT - IceSlab.PAGE, 6);
+      byte[] b = bytes(3 * IceSlab.PAGE, 7);
+      Key k1 = Key.make(), k2 = Key.make(), k3 = Key.make();
+      assertTrue(slab.store(k1, big));
+      assertTrue(slab.store(k2, b)); // does not fit in the first segment
+      assertEquals(IceSlab.SEGMENT + b.length, slab.size());
+      assertTrue(slab.store(k3, bytes(10, 8))); // goes to the tail of the first segment
+      assertEquals(IceSlab.SEGMENT + b.length, slab.size());
+      assertArrayEquals(big, slab.load(k1, big.length));
+      assertArrayEquals(b, slab.load(k2, b.length));
+      assertFalse(slab.store(Key.make(), new byte[IceSlab.SEGMENT + 1]));
+    } finally {
+      slab.reset();
+    }
+  }
+
+  @Test(timeout = 60000)
+  public void testLoadRacingDeleteAndStore() throws Exception {
+    final IceSlab slab = new IceSlab(new File(tmp.getRoot(), "ice/swap.slab"));
+    final Key k = Key.make(), other = Key.make();
+    final byte[] mine = bytes(8 * IceSlab.PAGE, 10), theirs = bytes(8 * IceSlab.PAGE, 11);
+    final AtomicBoolean done = new AtomicBoolean();
+    // keeps freeing the Key's extent and handing it over to another Key
+    Thread writer = new Thread() {
+      @Override public void run() {
+        try {
+          while( !done.get() ) {
+            slab.store(k, mine);
+            slab.delete(k);
+            slab.store(other, theirs);
+            slab.delete(other);
+          }
+        } catch( Exception e ) {
+          throw new RuntimeException(e);
+        }
+      }
+    };
+    writer.start();
+    try {
+      long end = System.currentTimeMillis() + 2000;
+      while( System.currentTimeMillis() < end ) {
+        byte[] b = slab.load(k, mine.length);
+        if( b != null ) assertArrayEquals(mine, b);
+      }
+    } finally {
+      done.set(true);
+      writer.join();
+      slab.reset();
+    }
+  }
+
+  @Test
+  public void testSwapMmap() throws Exception {
+    boolean old = H2O.ARGS.ice_mmap;
+    byte[] bs = bytes(100000, 9);
+    Value v = new Value(Key.make(), new C1NChunk(bs));
+    PersistFS pfs = (PersistFS) H2O.getPM().getIce();
+    try {
+      H2O.ARGS.ice_mmap = true;
+      pfs.store(v);
+      assertTrue(pfs._slab.contains(v._key));
+      assertFalse(pfs.getFile(v).exists());
+      assertArrayEquals(bs, pfs.load(v));
+      pfs.delete(v);
+      assertFalse(pfs._slab.contains(v._key));
+      // with the slab off, a stale copy is dropped
+      pfs.store(v);
+      H2O.ARGS.ice_mmap = false;
+      pfs.store(v);
+      assertFalse(pfs._slab.contains(v._key));
+      assertTrue(pfs.getFile(v).exists());
+      assertArrayEquals(bs, pfs.load(v));
+      pfs.delete(v);
+      assertFalse(pfs.getFile(v).exists());
+    } finally {
+      H2O.ARGS.ice_mmap = old;
+    }
+  }
+}
@@ -4,6 +4,7 @@ import org.junit.After;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import water.TestUtil;
+import water.fvec.CStrChunk;
 import water.fvec.Frame;
 import water.fvec.TestFrameBuilder;
 import water.fvec.Vec;
@@ -40,6 +41,33 @@ public class AstEqTest extends TestUtil {
     results.delete();
   }
 
+  @Test
+  public void testStringScalarOnDictionaryChunks() {
+    String[] values = new String[1000];
+    String[] domain = {"alpha", "beta", "gamma", null};
+    for (int i = 0; i < values.length; i++)
+      values[i] = domain[(i / 7) % domain.length];
+    fr = new TestFrameBuilder()
+            .withName("testFrame")
+            .withColNames("ColA")
+            .withVecTypes(Vec.T_STR)
+            .withDataForCol(0, values)
+            .build();
+    assertTrue(((CStrChunk) fr.vec(0).chunkForChunkIdx(0)).isDictionaryEncoded());
+
+    Frame eq = Rapids.exec("(== (cols testFrame [0.0]) \"beta\")").getFrame();
+    Frame ne = Rapids.exec("(!= \"beta\" (cols testFrame [0.0]))").getFrame();
+    try {
+      for (int i = 0; i < values.length; i++) {
+        assertEquals("beta".equals(values[i]) ? 1 : 0, eq.vec(0).at(i), 0);
+        assertEquals("beta".equals(values[i]) ? 0 : 1, ne.vec(0).at(i), 0);
+      }
+    } finally {
+      eq.delete();
+      ne.delete();
+    }
+  }
+
   @After
   public void afterEach() {
     fr.delete();
@@ -379,6 +379,39 @@ public abstract class GenModel implements IGenModel, IGeneratedModel, Serializab
     throw new UnsupportedOperationException("`offset` column is not supported");
   }
 
+  /** Scores a block of rows at once. Each of the first {@code nrows} rows has the same layout as the input
+   *  of {@link #score0(double[], double[])} and predictions of row {@code i} are written into the pre-allocated
+   *  {@code preds[i]}. Both arrays can be larger than {@code nrows} so that the caller can re-use them across
+   *  batches. Same as with score0, the input rows can be modified in place (eg. by missing values imputation).
+   *  This default implementation scores the rows one by one; models with a cheaper way of scoring a whole block
+   *  of rows override it.
+   *  @param rows input rows (row-major)
+   *  @param offsets per-row offsets, null if the model doesn't use an offset column
+   *  @param preds output predictions, one array per row
+   *  @param nrows number of rows to score */
+  public void scoreBatch(double[][] rows, double[] offsets, double[][] preds, int nrows) {
+    checkBatch(rows, offsets, preds, nrows);
+    for (int i = 0; i < nrows; i++) {
+      if (offsets == null)
+        score0(rows[i], preds[i]);
+      else
+        score0(rows[i], offsets[i], preds[i]);
+    }
+  }
+
+  /** Scores all rows of a block, see {@link #scoreBatch(double[][], double[], double[][], int)}. */
+  public final void scoreBatch(double[][] rows, double[][] preds) {
+    scoreBatch(rows, null, preds, rows.length);
+  }
+
+  protected static void checkBatch(double[][] rows, double[] offsets, double[][] preds, int nrows) {
+    if (nrows < 0 || nrows > rows.length || nrows > preds.length)
+      throw new IllegalArgumentException("Invalid number of rows in a batch: " + nrows +
+              " (rows: " + rows.length + ", preds: " + preds.length + ")");
+    if (offsets != null && offsets.length < nrows)
+      throw new IllegalArgumentException("Expected at least " + nrows + " offsets, got " + offsets.length);
+  }
+
   /** Subclasses implement calibration of class probabilities. The input is array of
    *  predictions returned by the scoring function (score0). Supports classification
    *  models that were trained with calibration enabled. Original probabilities
@@ -82,6 +82,37 @@ public class DeeplearningMojoModel extends MojoModel {
     return modifyOutputs(neuronsInput, preds, dataRow);
   }
 
+  /**
+   * Pushes the whole block of rows through the network one layer at a time, this way each layer's weights
+   * are read once per block instead of once per row. Networks with Maxout layers are scored row by row.
+   */
+  @Override
+  public void scoreBatch(double[][] rows, double[] offsets, double[][] preds, int nrows) {
+    checkBatch(rows, offsets, preds, nrows);
+    boolean maxout = false;
+    for (String activation : _allActivations)
+      maxout |= NeuralNetwork.isMaxout(activation);
+    if (maxout || nrows == 0) {
+      super.scoreBatch(rows, offsets, preds, nrows);
+      return;
+    }
+    double[][] neuronsInput = new double[nrows][];
+    double[] _numsA = new double[_nums];
+    int[] _catsA = new int[_cats];
+    for (int r = 0; r < nrows; r++) {
+      neuronsInput[r] = new double[_units[0]];
+      setInput(rows[r], neuronsInput[r], _numsA, _catsA, _nums, _cats, _catoffsets, _normmul, _normsub, _use_all_factor_levels, true);
+    }
+    for (int layer=0; layer < _numLayers; layer++) {
+      ActivationUtils.ActivationFunctions activation = NeuralNetwork.activationFunction(_allActivations[layer]);
+      double[][] input2ActFun = NeuralNetwork.formNNInputs(_weightsAndBias[layer], neuronsInput, nrows, _units[layer + 1]);
+      for (int r = 0; r < nrows; r++)
+        neuronsInput[r] = activation.eval(input2ActFun[r], _all_drop_out_ratios[layer], 1);
+    }
+    for (int r = 0; r < nrows; r++)
+      modifyOutputs(neuronsInput[r], preds[r], rows[r]);
+  }
+
   public double[] modifyOutputs(double[] out, double[] preds, double[] dataRow) {
     if (this.isAutoEncoder()) { // only perform unscale numerical value if need
       if (_normmul != null && _normmul.length > 0) { // undo the standardization on output
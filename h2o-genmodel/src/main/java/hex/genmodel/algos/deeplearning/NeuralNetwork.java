@@ -75,6 +75,51 @@ public class NeuralNetwork {  // represent one layer of neural network
     return input2ActFun;
   }
 
+  /*
+  Batch version of formNNInputs for a block of rows. Each row of the weight matrix is applied to all rows
+  of the block before moving to the next one, so the weights are read only once per block. The order of
+  the summation is the same as in formNNInputs so that the results match bit by bit.
+   */
+  static double[][] formNNInputs(DeeplearningMojoModel.StoreWeightsBias weightsAndBias, double[][] inputs, int nrows,
+                                 int outSize) {
+    final float[] wValues = weightsAndBias._wValues;
+    final double[] bValues = weightsAndBias._bValues;
+    double[][] input2ActFun = new double[nrows][outSize];
+    int cols = wValues.length / outSize;
+    int extra=cols-cols%8;
+    int multiple = (cols/8)*8-1;
+    int idx = 0;
+    for (int row = 0; row < outSize; row++) {
+      for (int r = 0; r < nrows; r++) {
+        final double[] in = inputs[r];
+        double psum0 = 0, psum1 = 0, psum2 = 0, psum3 = 0, psum4 = 0, psum5 = 0, psum6 = 0, psum7 = 0;
+
+        for (int col=0; col < multiple; col+=8) {
+          int off=idx+col;
+          psum0 += wValues[off    ] * in[col    ];
+          psum1 += wValues[off + 1] * in[col + 1];
+          psum2 += wValues[off + 2] * in[col + 2];
+          psum3 += wValues[off + 3] * in[col + 3];
+          psum4 += wValues[off + 4] * in[col + 4];
+          psum5 += wValues[off + 5] * in[col + 5];
+          psum6 += wValues[off + 6] * in[col + 6];
+          psum7 += wValues[off + 7] * in[col + 7];
+        }
+        double acc = 0;
+        acc += psum0+psum1+psum2+psum3;
+        acc += psum4+psum5+psum6+psum7;
+
+        for (int col = extra; col<cols;col++) {
+          acc += wValues[idx+col]*in[col];
+        }
+        acc += bValues[row];
+        input2ActFun[r][row] = acc;
+      }
+      idx += cols;
+    }
+    return input2ActFun;
+  }
+
   public double[] formNNInputsMaxOut() {
     double[] input2ActFun = new double[_outSize*_maxK];
 
@@ -106,6 +151,14 @@ public class NeuralNetwork {  // represent one layer of neural network
   }
 
   public ActivationFunctions createActFuns(String activation) {
+    return activationFunction(activation);
+  }
+
+  static boolean isMaxout(String activation) {
+    return "Maxout".equals(activation) || "MaxoutWithDropout".equals(activation);
+  }
+
+  static ActivationFunctions activationFunction(String activation) {
     switch (activation) {
       case "Linear":
         return new LinearOut();
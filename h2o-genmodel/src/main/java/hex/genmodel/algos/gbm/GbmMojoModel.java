@@ -39,6 +39,14 @@ public final class GbmMojoModel extends SharedTreeMojoModelWithContributions imp
         return unifyPreds(row, offset, preds);
     }
 
+    @Override
+    public void scoreBatch(double[][] rows, double[] offsets, double[][] preds, int nrows) {
+        checkBatch(rows, offsets, preds, nrows);
+        super.scoreAllTrees(rows, preds, nrows);
+        for (int i = 0; i < nrows; i++)
+            unifyPreds(rows[i], offsets == null ? 0.0 : offsets[i], preds[i]);
+    }
+
     @Override
     public final double[] unifyPreds(double[] row, double offset, double[] preds) {
         if (_family == bernoulli || _family == quasibinomial || _family == modified_huber) {
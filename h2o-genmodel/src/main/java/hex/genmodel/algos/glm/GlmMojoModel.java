@@ -31,6 +31,32 @@ public class GlmMojoModel extends GlmMojoModelBase {
   }
   
   double[] glmScore0(double[] data, double offset, double[] preds) {
+    double mu = _linkFn.eval(linearPredictor(data) + offset);
+    return fillPreds(mu, preds);
+  }
+
+  /**
+   * Scores a block of rows in two passes: first all the linear predictors are calculated
+   * (tight dot-product loops without any virtual calls) and then the link function is applied.
+   */
+  @Override
+  public void scoreBatch(double[][] rows, double[] offsets, double[][] preds, int nrows) {
+    checkBatch(rows, offsets, preds, nrows);
+    final double[] etas = new double[nrows];
+    for (int i = 0; i < nrows; i++) {
+      if (_meanImputation)
+        super.imputeMissingWithMeans(rows[i]);
+      etas[i] = linearPredictor(rows[i]);
+    }
+    if (offsets != null) {
+      for (int i = 0; i < nrows; i++)
+        etas[i] += offsets[i];
+    }
+    for (int i = 0; i < nrows; i++)
+      fillPreds(_linkFn.eval(etas[i]), preds[i]);
+  }
+
+  private double linearPredictor(double[] data) {
     double eta = 0.0;
 
     if (!_useAllFactorLevels) { // skip level 0 of all factors
@@ -63,10 +89,10 @@ public class GlmMojoModel extends GlmMojoModelBase {
     for(int i = _cats; i < _beta.length - 1 - noff; ++i)
       eta += _beta[noff + i] * data[i];
     eta += _beta[_beta.length - 1]; // reduce intercept
-    eta += offset;
-
-    double mu = _linkFn.eval(eta);
+    return eta;
+  }
 
+  private double[] fillPreds(double mu, double[] preds) {
     if (_binomial) {
       preds[0] = (mu >= _defaultThreshold) ? 1 : 0; // threshold given by ROC
       preds[1] = 1.0 - mu; // class 0
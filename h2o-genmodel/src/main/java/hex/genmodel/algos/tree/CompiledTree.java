@@ -0,0 +1,226 @@
+package hex.genmodel.algos.tree;
+
+import hex.genmodel.utils.ByteBufferWrapper;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Decoded form of a single compressed tree (the byte[] representation used in MOJO files).
+ *
+ * The compressed tree has to be parsed again for every row and every tree when it is scored by
+ * {@link SharedTreeMojoModel#scoreTree(byte[], double[], boolean, String[][])}. This class decodes
+ * the tree just once into flat primitive arrays (struct-of-arrays) and scores the rows directly from them.
+ * Scoring gives exactly the same results as the `scoreTree` method (MOJO version 1.2 and newer).
+ *
+ * Internal nodes are identified by non-negative indices, leaves are referenced by negative indices
+ * ({@code ~leafIndex}).
+ */
+public final class CompiledTree implements Serializable {
+
+  private static final int NsdNaVsRest = NaSplitDir.NAvsREST.value();
+  private static final int NsdNaLeft = NaSplitDir.NALeft.value();
+  private static final int NsdLeft = NaSplitDir.Left.value();
+
+  private static final byte FLAG_NA_VS_REST = 1;
+  private static final byte FLAG_LEFTWARD = 2;
+  private static final byte FLAG_BITSET = 4;
+
+  // Bits of the bitsets are not copied, they are read from the original compressed tree
+  private final byte[] _bits;
+  private final int _root;
+
+  // Internal nodes
+  private int[] _colIds;
+  private byte[] _flags;
+  private float[] _splitVals;
+  private int[] _domainLens;  // length of the column's domain, -1 for numerical columns
+  private int[] _left;
+  private int[] _right;
+  private int[] _bsByteOffs;
+  private int[] _bsNBits;
+  private int[] _bsBitOffs;
+  private int _nnodes;
+
+  // Leaves
+  private float[] _leafValues;
+  private int _nleaves;
+
+  private CompiledTree(byte[] tree, String[][] domains) {
+    _bits = tree;
+    int initSize = 16;
+    _colIds = new int[initSize];
+    _flags = new byte[initSize];
+    _splitVals = new float[initSize];
+    _domainLens = new int[initSize];
+    _left = new int[initSize];
+    _right = new int[initSize];
+    _bsByteOffs = new int[initSize];
+    _bsNBits = new int[initSize];
+    _bsBitOffs = new int[initSize];
+    _leafValues = new float[initSize];
+    _root = decodeNode(new ByteBufferWrapper(tree), tree, domains);
+    trim();
+  }
+
+  /**
+   * Decodes a compressed tree.
+   * @param tree tree in the compressed form (MOJO version 1.2 and newer)
+   * @param domains domains of the model's features (as used when scoring the compressed tree)
+   * @return decoded tree
+   */
+  public static CompiledTree compile(byte[] tree, String[][] domains) {
+    return new CompiledTree(tree, domains);
+  }
+
+  public int numNodes() {
+    return _nnodes;
+  }
+
+  public int numLeaves() {
+    return _nleaves;
+  }
+
+  /**
+   * Computes the prediction of the tree for a given row.
+   * Same as {@code SharedTreeMojoModel.scoreTree(tree, row, false, domains)}.
+   */
+  public double score(double[] row) {
+    int node = _root;
+    int lastBs = -1; // last bitset seen on the path (replicates behavior of the compressed tree scoring)
+    while (node >= 0) {
+      final byte flags = _flags[node];
+      final boolean naVsRest = (flags & FLAG_NA_VS_REST) != 0;
+      final boolean bitset = (flags & FLAG_BITSET) != 0;
+      if (bitset && !naVsRest)
+        lastBs = node;
+      final double d = row[_colIds[node]];
+      final boolean right;
+      if (Double.isNaN(d) || (bitset && lastBs >= 0 && !bsIsInRange(lastBs, (int) d)) || (_domainLens[node] >= 0 && _domainLens[node] <= (int) d)) {
+        right = (flags & FLAG_LEFTWARD) == 0;
+      } else {
+        right = !naVsRest && (bitset ? bsContains(lastBs, (int) d) : d >= _splitVals[node]);
+      }
+      node = right ? _right[node] : _left[node];
+    }
+    return _leafValues[~node];
+  }
+
+  private boolean bsIsInRange(int node, int b) {
+    b -= _bsBitOffs[node];
+    return b >= 0 && b < _bsNBits[node];
+  }
+
+  private boolean bsContains(int node, int idx) {
+    idx -= _bsBitOffs[node];
+    assert (idx >= 0 && idx < _bsNBits[node]);
+    return (_bits[_bsByteOffs[node] + (idx >> 3)] & ((byte)1 << (idx & 7))) != 0;
+  }
+
+  // Decodes the node starting at the current position of the buffer, see SharedTreeMojoModel.scoreTree for details
+  // of the format.
+  private int decodeNode(ByteBufferWrapper ab, byte[] tree, String[][] domains) {
+    int nodeType = ab.get1U();
+    int colId = ab.get2();
+    if (colId == 65535) {
+      return addLeaf(ab.get4f());
+    }
+    final int node = addNode();
+    int naSplitDir = ab.get1U();
+    boolean naVsRest = naSplitDir == NsdNaVsRest;
+    boolean leftward = naSplitDir == NsdNaLeft || naSplitDir == NsdLeft;
+    int lmask = (nodeType & 51);
+    int equal = (nodeType & 12);  // Can be one of 0, 8, 12
+    assert equal != 4;  // no longer supported
+
+    byte flags = 0;
+    if (naVsRest) flags |= FLAG_NA_VS_REST;
+    if (leftward) flags |= FLAG_LEFTWARD;
+    if (equal != 0) flags |= FLAG_BITSET;
+    _colIds[node] = colId;
+    _flags[node] = flags;
+    _splitVals[node] = -1;
+    _domainLens[node] = domains != null && domains[colId] != null ? domains[colId].length : -1;
+    if (!naVsRest) {
+      if (equal == 0) {
+        _splitVals[node] = ab.get4f();
+      } else if (equal == 8) {
+        _bsBitOffs[node] = 0;
+        _bsNBits[node] = 32;
+        _bsByteOffs[node] = ab.position();
+        ab.skip(4);
+      } else {
+        _bsBitOffs[node] = ab.get2();
+        _bsNBits[node] = ab.get4();
+        _bsByteOffs[node] = ab.position();
+        ab.skip(((_bsNBits[node] - 1) >> 3) + 1);
+      }
+    }
+
+    final int leftSize;
+    switch (lmask) {
+      case 0:  leftSize = ab.get1U();  break;
+      case 1:  leftSize = ab.get2();  break;
+      case 2:  leftSize = ab.get3();  break;
+      case 3:  leftSize = ab.get4();  break;
+      case 48: leftSize = 4;  break;  // left child is a leaf
+      default:
+        throw new IllegalStateException("Illegal lmask value " + lmask + " in tree " + Arrays.toString(tree));
+    }
+    final int leftStart = ab.position();
+    final int rmask = (nodeType & 0xC0) >> 2;
+
+    int left = (lmask & 16) != 0 ? addLeaf(readFloat(tree, leftStart)) : decodeNode(at(tree, leftStart), tree, domains);
+    int right = (rmask & 16) != 0 ? addLeaf(readFloat(tree, leftStart + leftSize)) : decodeNode(at(tree, leftStart + leftSize), tree, domains);
+    _left[node] = left;
+    _right[node] = right;
+    return node;
+  }
+
+  private static ByteBufferWrapper at(byte[] tree, int pos) {
+    ByteBufferWrapper ab = new ByteBufferWrapper(tree);
+    ab.skip(pos);
+    return ab;
+  }
+
+  private static float readFloat(byte[] tree, int pos) {
+    return at(tree, pos).get4f();
+  }
+
+  private int addNode() {
+    if (_nnodes == _colIds.length) {
+      int newSize = _nnodes * 2;
+      _colIds = Arrays.copyOf(_colIds, newSize);
+      _flags = Arrays.copyOf(_flags, newSize);
+      _splitVals = Arrays.copyOf(_splitVals, newSize);
+      _domainLens = Arrays.copyOf(_domainLens, newSize);
+      _left = Arrays.copyOf(_left, newSize);
+      _right = Arrays.copyOf(_right, newSize);
+      _bsByteOffs = Arrays.copyOf(_bsByteOffs, newSize);
+      _bsNBits = Arrays.copyOf(_bsNBits, newSize);
+      _bsBitOffs = Arrays.copyOf(_bsBitOffs, newSize);
+    }
+    return _nnodes++;
+  }
+
+  private int addLeaf(float value) {
+    if (_nleaves == _leafValues.length)
+      _leafValues = Arrays.copyOf(_leafValues, _nleaves * 2);
+    _leafValues[_nleaves] = value;
+    return ~(_nleaves++);
+  }
+
+  private void trim() {
+    _colIds = Arrays.copyOf(_colIds, _nnodes);
+    _flags = Arrays.copyOf(_flags, _nnodes);
+    _splitVals = Arrays.copyOf(_splitVals, _nnodes);
+    _domainLens = Arrays.copyOf(_domainLens, _nnodes);
+    _left = Arrays.copyOf(_left, _nnodes);
+    _right = Arrays.copyOf(_right, _nnodes);
+    _bsByteOffs = Arrays.copyOf(_bsByteOffs, _nnodes);
+    _bsNBits = Arrays.copyOf(_bsNBits, _nnodes);
+    _bsBitOffs = Arrays.copyOf(_bsBitOffs, _nnodes);
+    _leafValues = Arrays.copyOf(_leafValues, _nleaves);
+  }
+
+}
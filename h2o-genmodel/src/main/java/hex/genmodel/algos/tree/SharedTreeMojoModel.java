@@ -73,6 +73,12 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
 
     protected double[] _orig_projection_array;
 
+    /**
+     * Decoded trees used for scoring instead of the compressed trees, null unless enabled
+     * by {@link #compileTrees()}. The layout is the same as of {@link #_compressed_trees}.
+     */
+    private CompiledTree[] _compiled_trees;
+
 
     protected void postInit() {
       if (_mojo_version == 1.0) {
@@ -83,6 +89,33 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
         _scoreTree = new ScoreTree2(); // Current version
     }
 
+    /**
+     * Opt-in scoring mode: decodes all the trees once into flat primitive arrays (see {@link CompiledTree})
+     * and uses them for scoring instead of parsing the compressed trees for every single row. This costs
+     * additional memory (roughly comparable to the size of the compressed trees) but makes scoring
+     * considerably faster, especially for models with many trees. The compressed trees are kept and still
+     * used for everything else (decision paths, tree graphs, contributions...).
+     * Should be called right after the model is loaded, before it is used for scoring.
+     *
+     * @return true if the trees were compiled, false if the MOJO version of the model is too old (&lt; 1.2)
+     *         and the model will keep scoring from the compressed trees
+     */
+    public boolean compileTrees() {
+      if (!(_scoreTree instanceof ScoreTree2))
+        return false;
+      CompiledTree[] compiledTrees = new CompiledTree[_compressed_trees.length];
+      for (int i = 0; i < _compressed_trees.length; i++) {
+        if (_compressed_trees[i] != null)
+          compiledTrees[i] = CompiledTree.compile(_compressed_trees[i], _domains);
+      }
+      _compiled_trees = compiledTrees;
+      return true;
+    }
+
+    public final boolean hasCompiledTrees() {
+      return _compiled_trees != null;
+    }
+
     @Override
     public final int getNTreeGroups() {
       return _ntree_groups;
@@ -844,6 +877,37 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
         scoreTreeRange(row, 0, _ntree_groups, preds);
     }
 
+    /**
+     * Score all trees for a block of rows and fill in the first {@code nrows} `preds` arrays.
+     * Trees are visited in the outer loop so that each tree is only looked up once per block
+     * and stays hot in the cache while all the rows are pushed through it.
+     */
+    protected void scoreAllTrees(double[][] rows, double[][] preds, int nrows) {
+        for (int r = 0; r < nrows; r++)
+            java.util.Arrays.fill(preds[r], 0);
+        final int clOffset = _nclasses == 1 ? 0 : 1;
+        for (int classIndex = 0; classIndex < _ntrees_per_group; classIndex++) {
+            int k = clOffset + classIndex;
+            int itree = treeIndex(0, classIndex);
+            for (int groupIndex = 0; groupIndex < _ntree_groups; groupIndex++) {
+                if (_compiled_trees != null) {
+                    CompiledTree tree = _compiled_trees[itree];
+                    if (tree != null) {
+                        for (int r = 0; r < nrows; r++)
+                            preds[r][k] += tree.score(rows[r]);
+                    }
+                } else {
+                    byte[] tree = _compressed_trees[itree];
+                    if (tree != null) { // Skip all empty trees
+                        for (int r = 0; r < nrows; r++)
+                            preds[r][k] += _scoreTree.scoreTree(tree, rows[r], false, _domains);
+                    }
+                }
+                itree++;
+            }
+        }
+    }
+
     /**
      * Transforms tree predictions into the final model predictions.
      * For classification: converts tree preds into probability distribution and picks predicted class.
@@ -875,6 +939,10 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
      */
     public final void scoreTreeRange(double[] row, int fromIndex, int toIndex, double[] preds) {
         final int clOffset = _nclasses == 1 ? 0 : 1;
+        if (_compiled_trees != null) {
+            scoreCompiledTreeRange(row, fromIndex, toIndex, preds, clOffset);
+            return;
+        }
         for (int classIndex = 0; classIndex < _ntrees_per_group; classIndex++) {
             int k = clOffset + classIndex;
             int itree = treeIndex(fromIndex, classIndex);
@@ -887,6 +955,20 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
         }
     }
 
+    private void scoreCompiledTreeRange(double[] row, int fromIndex, int toIndex, double[] preds, int clOffset) {
+        for (int classIndex = 0; classIndex < _ntrees_per_group; classIndex++) {
+            int k = clOffset + classIndex;
+            int itree = treeIndex(fromIndex, classIndex);
+            for (int groupIndex = fromIndex; groupIndex < toIndex; groupIndex++) {
+                CompiledTree tree = _compiled_trees[itree];
+                if (tree != null) { // Skip all empty trees
+                    preds[k] += tree.score(row);
+                }
+                itree++;
+            }
+        }
+    }
+
     // note that _ntree_group = _treekeys.length
     // ntrees_per_group = _treeKeys[0].length
     public String[] getDecisionPathNames() {
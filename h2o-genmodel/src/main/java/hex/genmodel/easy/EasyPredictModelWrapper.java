@@ -424,6 +424,19 @@ public class EasyPredictModelWrapper implements Serializable {
     return rowDataConverter.getErrorConsumer();
   }
 
+  PredictContributions getPredictContributions() {
+    return predictContributions;
+  }
+
+  /**
+   * Creates a new re-usable prediction context for this wrapper. The context avoids per-row allocations and column
+   * name lookups and is meant for high-throughput scoring. Contexts are not thread-safe, use one context per thread.
+   * @return new instance of PredictionContext
+   */
+  public PredictionContext newPredictionContext() {
+    return new PredictionContext(this, rowDataConverter);
+  }
+
   /**
    * Returns names of contributions for prediction results with constributions enabled. 
    * @return array of contribution names (array has same lenght as the actual contributions, last is BiasTerm)
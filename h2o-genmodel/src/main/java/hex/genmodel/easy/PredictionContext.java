@@ -0,0 +1,324 @@
+package hex.genmodel.easy;
+
+import hex.ModelCategory;
+import hex.genmodel.GenModel;
+import hex.genmodel.algos.tree.SharedTreeMojoModel;
+import hex.genmodel.algos.tree.TreeBackedMojoModel;
+import hex.genmodel.easy.exception.PredictException;
+import hex.genmodel.easy.prediction.BinomialModelPrediction;
+import hex.genmodel.easy.prediction.MultinomialModelPrediction;
+import hex.genmodel.easy.prediction.RegressionModelPrediction;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Re-usable prediction context for high-throughput scoring with {@link EasyPredictModelWrapper}.
+ *
+ * The regular predict methods of the wrapper allocate a new raw data array, a new array of predictions and a new
+ * prediction object for every call, and they look up every column of the {@link RowData} by name. The context
+ * instead resolves the mapping of column names and categorical encoders once, re-uses all its buffers and writes
+ * the results into prediction objects owned by the caller. Use as follows:
+ *
+ * <pre>
+ *     PredictionContext ctx = wrapper.newPredictionContext();
+ *     int colA = ctx.columnIndex("A"); // resolve the columns once
+ *     int colB = ctx.columnIndex("B");
+ *     BinomialModelPrediction p = new BinomialModelPrediction();
+ *     for (...) {
+ *       ctx.setValue(colA, 42.0);
+ *       ctx.setValue(colB, "level");
+ *       ctx.predictBinomial(p); // p is overwritten by each prediction
+ *     }
+ * </pre>
+ *
+ * Columns that were not set for a given row are treated as missing. Rows can also be given as {@link RowData},
+ * see {@link #setRow(RowData)}.
+ *
+ * The results are identical to the corresponding predict methods of the wrapper. Optional outputs enabled
+ * in the wrapper (leaf node assignments, staged probabilities, contributions) are supported but are not
+ * allocation-free.
+ *
+ * The context is not thread-safe, each scoring thread should create its own instance.
+ */
+public class PredictionContext {
+
+  private final EasyPredictModelWrapper _wrapper;
+  private final GenModel _m;
+  private final RowToRawDataConverter _converter;
+  private final boolean _supportsColumnSetters;
+
+  // Input columns, resolved once
+  private final Map<String, Integer> _columnIndices;
+  private final String[] _columnNames;
+  private final int[] _targetIndices;
+  private final CategoricalEncoder[] _encoders;
+
+  private final String[] _responseDomain;
+  private final boolean _binomial;
+  private final boolean _multinomial;
+  private final boolean _regression;
+  private final boolean _needsRawDataCopy;
+
+  // Re-used buffers
+  private final double[] _rawData;
+  private double[] _preds;
+  private double[] _row; // input of score0, this is usually _rawData (can be different for models expanding the input)
+  private double[] _rawDataCopy; // copy of the input row for additional outputs (leaf assignment, contributions...)
+
+  PredictionContext(EasyPredictModelWrapper wrapper, RowToRawDataConverter converter) {
+    _wrapper = wrapper;
+    _m = wrapper.m;
+    _converter = converter;
+    _supportsColumnSetters = converter.getClass() == RowToRawDataConverter.class;
+
+    Map<String, Integer> columnMapping = converter.getColumnMapping();
+    Map<Integer, CategoricalEncoder> domainMap = converter.getDomainMap();
+    _columnIndices = new HashMap<>();
+    _columnNames = new String[columnMapping.size()];
+    _targetIndices = new int[columnMapping.size()];
+    _encoders = new CategoricalEncoder[columnMapping.size()];
+    int nfeatures = _m.nfeatures();
+    for (Map.Entry<String, Integer> e : columnMapping.entrySet()) {
+      int targetIndex = e.getValue();
+      if (targetIndex >= nfeatures) // response column (same as in RowToRawDataConverter#convert)
+        continue;
+      int col = _columnIndices.size();
+      _columnIndices.put(e.getKey(), col);
+      _columnNames[col] = e.getKey();
+      _targetIndices[col] = targetIndex;
+      _encoders[col] = domainMap.get(targetIndex);
+    }
+
+    _binomial = _m.getModelCategories().contains(ModelCategory.Binomial);
+    _multinomial = _m.getModelCategories().contains(ModelCategory.Multinomial);
+    _regression = _m.getModelCategories().contains(ModelCategory.Regression);
+    String[] responseDomain = _m.isSupervised() ? _m.getDomainValues(_m.getResponseIdx()) : null;
+    if (responseDomain == null && _binomial && _m.getNumResponseClasses() == 2)
+      responseDomain = new String[]{"0", "1"}; // quasibinomial
+    _responseDomain = responseDomain;
+    _needsRawDataCopy = wrapper.getEnableLeafAssignment() || wrapper.getEnableStagedProbabilities() ||
+            wrapper.getEnableContributions();
+
+    _rawData = new double[nfeatures];
+    reset();
+  }
+
+  /**
+   * Resolves the name of an input column.
+   * @param columnName name of the column (case-sensitive)
+   * @return index of the column to be used with the setValue methods, -1 if the model doesn't use the column
+   */
+  public int columnIndex(String columnName) {
+    Integer col = _columnIndices.get(columnName);
+    return col != null ? col : -1;
+  }
+
+  /**
+   * Clears the current row, all columns become missing. This is done automatically after each prediction.
+   */
+  public void reset() {
+    Arrays.fill(_rawData, Double.NaN);
+    _row = _rawData;
+  }
+
+  /**
+   * Sets a value of a numeric column. For categorical columns only NaN (missing level) is accepted.
+   * @param column index of the column obtained by {@link #columnIndex(String)}, negative values are ignored
+   * @param value value of the column
+   * @return this context
+   * @throws PredictException if the value cannot be used for this column (same rules as for {@link RowData})
+   */
+  public PredictionContext setValue(int column, double value) throws PredictException {
+    checkColumnSetters();
+    if (column < 0)
+      return this;
+    if (_encoders[column] == null && !Double.isNaN(value)) {
+      _rawData[_targetIndices[column]] = value;
+    } else {
+      _converter.convertValue(_columnNames[column], value, _encoders[column], _targetIndices[column], _rawData);
+    }
+    return this;
+  }
+
+  /**
+   * Sets a value of a column, categorical levels are given by name, numbers will be parsed.
+   * @param column index of the column obtained by {@link #columnIndex(String)}, negative values are ignored
+   * @param value value of the column
+   * @return this context
+   * @throws PredictException if the value cannot be used for this column (same rules as for {@link RowData})
+   */
+  public PredictionContext setValue(int column, String value) throws PredictException {
+    checkColumnSetters();
+    if (column < 0)
+      return this;
+    _converter.convertValue(_columnNames[column], value, _encoders[column], _targetIndices[column], _rawData);
+    return this;
+  }
+
+  /**
+   * Replaces the current row with the values of a given {@link RowData}, the row data is looked up by column name
+   * the same way as in the predict methods of the wrapper (but the buffers are re-used).
+   * @param data input row
+   * @return this context
+   * @throws PredictException if the row cannot be converted
+   */
+  public PredictionContext setRow(RowData data) throws PredictException {
+    reset();
+    _row = _converter.convert(data, _rawData);
+    return this;
+  }
+
+  public BinomialModelPrediction predictBinomial(BinomialModelPrediction p) throws PredictException {
+    return predictBinomial(0.0, p);
+  }
+
+  /**
+   * Scores the current row with a Binomial model.
+   * @param offset offset of the prediction
+   * @param p caller-owned prediction object that will be overwritten with the result, its arrays are re-used
+   * @return the given prediction object
+   * @throws PredictException if the model is not a binomial model
+   */
+  public BinomialModelPrediction predictBinomial(double offset, BinomialModelPrediction p) throws PredictException {
+    checkCategory(_binomial, ModelCategory.Binomial);
+    double[] preds = score(ModelCategory.Binomial, offset);
+    p.labelIndex = (int) preds[0];
+    p.label = _responseDomain[p.labelIndex];
+    p.classProbabilities = copyProbabilities(preds, p.classProbabilities);
+    if (_m.calibrateClassProbabilities(preds)) {
+      p.calibratedClassProbabilities = copyProbabilities(preds, p.calibratedClassProbabilities);
+    } else {
+      p.calibratedClassProbabilities = null;
+    }
+    p.leafNodeAssignments = null;
+    p.leafNodeAssignmentIds = null;
+    p.stageProbabilities = null;
+    p.contributions = null;
+    if (_needsRawDataCopy) {
+      if (_wrapper.getEnableLeafAssignment()) {
+        SharedTreeMojoModel.LeafNodeAssignments assignments = leafNodeAssignments();
+        p.leafNodeAssignments = assignments._paths;
+        p.leafNodeAssignmentIds = assignments._nodeIds;
+      }
+      if (_wrapper.getEnableStagedProbabilities())
+        p.stageProbabilities = ((SharedTreeMojoModel) _m).scoreStagedPredictions(_rawDataCopy, preds.length);
+      if (_wrapper.getEnableContributions())
+        p.contributions = _wrapper.getPredictContributions().calculateContributions(_rawDataCopy);
+    }
+    reset();
+    return p;
+  }
+
+  public MultinomialModelPrediction predictMultinomial(MultinomialModelPrediction p) throws PredictException {
+    return predictMultinomial(0.0, p);
+  }
+
+  /**
+   * Scores the current row with a Multinomial model.
+   * @param offset offset of the prediction
+   * @param p caller-owned prediction object that will be overwritten with the result, its arrays are re-used
+   * @return the given prediction object
+   * @throws PredictException if the model is not a multinomial model
+   */
+  public MultinomialModelPrediction predictMultinomial(double offset, MultinomialModelPrediction p) throws PredictException {
+    checkCategory(_multinomial, ModelCategory.Multinomial);
+    double[] preds = score(ModelCategory.Multinomial, offset);
+    p.labelIndex = (int) preds[0];
+    p.label = _responseDomain[p.labelIndex];
+    p.classProbabilities = copyProbabilities(preds, p.classProbabilities);
+    p.leafNodeAssignments = null;
+    p.leafNodeAssignmentIds = null;
+    p.stageProbabilities = null;
+    if (_needsRawDataCopy) {
+      if (_wrapper.getEnableLeafAssignment()) {
+        SharedTreeMojoModel.LeafNodeAssignments assignments = leafNodeAssignments();
+        p.leafNodeAssignments = assignments._paths;
+        p.leafNodeAssignmentIds = assignments._nodeIds;
+      }
+      if (_wrapper.getEnableStagedProbabilities())
+        p.stageProbabilities = ((SharedTreeMojoModel) _m).scoreStagedPredictions(_rawDataCopy, preds.length);
+    }
+    reset();
+    return p;
+  }
+
+  public RegressionModelPrediction predictRegression(RegressionModelPrediction p) throws PredictException {
+    return predictRegression(0.0, p);
+  }
+
+  /**
+   * Scores the current row with a Regression model.
+   * @param offset offset of the prediction
+   * @param p caller-owned prediction object that will be overwritten with the result
+   * @return the given prediction object
+   * @throws PredictException if the model is not a regression model
+   */
+  public RegressionModelPrediction predictRegression(double offset, RegressionModelPrediction p) throws PredictException {
+    checkCategory(_regression, ModelCategory.Regression);
+    double[] preds = score(ModelCategory.Regression, offset);
+    p.value = preds[0];
+    p.leafNodeAssignments = null;
+    p.leafNodeAssignmentIds = null;
+    p.stageProbabilities = null;
+    p.contributions = null;
+    if (_needsRawDataCopy) {
+      if (_wrapper.getEnableLeafAssignment()) {
+        SharedTreeMojoModel.LeafNodeAssignments assignments = leafNodeAssignments();
+        p.leafNodeAssignments = assignments._paths;
+        p.leafNodeAssignmentIds = assignments._nodeIds;
+      }
+      if (_wrapper.getEnableStagedProbabilities())
+        p.stageProbabilities = ((SharedTreeMojoModel) _m).scoreStagedPredictions(_rawDataCopy, preds.length);
+      if (_wrapper.getEnableContributions())
+        p.contributions = _wrapper.getPredictContributions().calculateContributions(_rawDataCopy);
+    }
+    reset();
+    return p;
+  }
+
+  private SharedTreeMojoModel.LeafNodeAssignments leafNodeAssignments() {
+    return ((TreeBackedMojoModel) _m).getLeafNodeAssignments(_rawDataCopy);
+  }
+
+  private double[] score(ModelCategory c, double offset) {
+    if (_needsRawDataCopy) {
+      // score0 can modify the input row (eg. imputation), additional outputs need to see the original input
+      if (_rawDataCopy == null || _rawDataCopy.length != _row.length)
+        _rawDataCopy = new double[_row.length];
+      System.arraycopy(_row, 0, _rawDataCopy, 0, _row.length);
+    }
+    final int predsSize = _m.getPredsSize(c);
+    if (_preds == null || _preds.length != predsSize) {
+      _preds = new double[predsSize];
+    } else {
+      Arrays.fill(_preds, 0);
+    }
+    if (_m.requiresOffset() || offset != 0) {
+      return _m.score0(_row, offset, _preds);
+    } else {
+      return _m.score0(_row, _preds);
+    }
+  }
+
+  private double[] copyProbabilities(double[] preds, double[] target) {
+    final int nclasses = _m.getNumResponseClasses();
+    if (target == null || target.length != nclasses)
+      target = new double[nclasses];
+    System.arraycopy(preds, 1, target, 0, nclasses);
+    return target;
+  }
+
+  private void checkCategory(boolean supported, ModelCategory c) throws PredictException {
+    if (!supported)
+      throw new PredictException(c + " prediction type is not supported for this model.");
+  }
+
+  private void checkColumnSetters() {
+    if (!_supportsColumnSetters)
+      throw new UnsupportedOperationException("Model " + _m.getClass().getName() + " uses a custom input conversion, " +
+              "rows need to be provided using setRow(RowData).");
+  }
+
+}
@@ -114,4 +114,12 @@ public class RowToRawDataConverter implements Serializable {
     return _errorConsumer;
   }
 
+  Map<String, Integer> getColumnMapping() {
+    return _modelColumnNameToIndexMap;
+  }
+
+  Map<Integer, CategoricalEncoder> getDomainMap() {
+    return _domainMap;
+  }
+
 }
@@ -11,15 +11,11 @@ import hex.genmodel.easy.RowData;
 import hex.genmodel.easy.prediction.*;
 import hex.genmodel.utils.ArrayUtils;
 
-import java.io.BufferedWriter;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.IOException;
+import java.io.*;
 import java.util.*;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Simple driver program for reading a CSV file and making predictions.  Added support for separators that are
@@ -27,6 +23,11 @@ import java.util.concurrent.Future;
  * the special Java characters, I will do it for you.
  *
  * This driver program is used as a test harness by several tests in the testdir_javapredict directory.
+ *
+ * Large files can be scored in parallel (--threads): the input is read in batches of rows, the batches are scored
+ * by a pool of workers and written to the output in the original order. The number of batches in flight is bounded,
+ * the memory requirements don't depend on the size of the input. Files with extension ".gz" are read/written
+ * as gzip-compressed files.
  * <p></p>
  * See the top-of-tree master version of this file <a href="https://github.com/h2oai/h2o-3/blob/master/h2o-genmodel/src/main/java/hex/genmodel/tools/PredictCsv.java" target="_blank">here on github</a>.
  */
@@ -42,6 +43,8 @@ public class PredictCsv {
   private final boolean returnGLRMReconstruct;
   private final int glrmIterNumber;
   private final boolean outputHeader;
+  private final int threads;
+  private final int batchSize;
 
   // Model instance
   private EasyPredictModelWrapper modelWrapper;
@@ -51,7 +54,7 @@ public class PredictCsv {
           boolean useDecimalOutput, char separator, boolean setInvNumNA, 
           boolean getTreePath, boolean predictContributions, boolean predictCalibrated,
           boolean returnGLRMReconstruct, int glrmIterNumber,
-          boolean outputHeader) {
+          boolean outputHeader, int threads, int batchSize) {
     this.inputCSVFileName = inputCSVFileName;
     this.outputCSVFileName = outputCSVFileName;
     this.useDecimalOutput = useDecimalOutput;
@@ -63,6 +66,8 @@ public class PredictCsv {
     this.returnGLRMReconstruct = returnGLRMReconstruct;
     this.glrmIterNumber = glrmIterNumber;
     this.outputHeader = outputHeader;
+    this.threads = threads;
+    this.batchSize = batchSize;
   }
 
   public static void main(String[] args) {
@@ -155,12 +160,12 @@ public class PredictCsv {
     return useDecimalOutput? Double.toString(d) : Double.toHexString(d);
   }
 
-  private void writeTreePathNames(BufferedWriter output) throws Exception {
+  private void writeTreePathNames(Writer output) throws Exception {
     String[] columnNames = ((SharedTreeMojoModel) modelWrapper.m).getDecisionPathNames();
     writeColumnNames(output, columnNames);
   }
 
-  private void writeCalibratedOutputNames(BufferedWriter output) throws Exception {
+  private void writeCalibratedOutputNames(Writer output) throws Exception {
     String[] outputNames = modelWrapper.m.getOutputNames();
     String[] calibOutputNames = new String[outputNames.length - 1];
     for (int i = 0; i < calibOutputNames.length; i++) {
@@ -169,11 +174,11 @@ public class PredictCsv {
     writeColumnNames(output, ArrayUtils.append(outputNames, calibOutputNames));
   }
 
-  private void writeContributionNames(BufferedWriter output) throws Exception {
+  private void writeContributionNames(Writer output) throws Exception {
     writeColumnNames(output, modelWrapper.getContributionNames());
   }
 
-  private void writeColumnNames(BufferedWriter output, String[] columnNames) throws Exception {
+  private void writeColumnNames(Writer output, String[] columnNames) throws Exception {
     int lastIndex = columnNames.length-1;
     for (int index = 0; index < lastIndex; index++)  {
       output.write(columnNames[index]);
@@ -184,8 +189,8 @@ public class PredictCsv {
 
   public void run() throws Exception {
     ModelCategory category = modelWrapper.getModelCategory();
-    CSVReader reader = new CSVReader(new FileReader(inputCSVFileName), separator);
-    BufferedWriter output = new BufferedWriter(new FileWriter(outputCSVFileName));
+    CSVReader reader = new CSVReader(openInput(), separator);
+    BufferedWriter output = new BufferedWriter(openOutput());
 
     // Emit outputCSV column names.
     if (outputHeader) {
@@ -239,151 +244,262 @@ public class PredictCsv {
       else  // file empty, throw an error
         throw new Exception("Input dataset file is empty!");
 
+      if (threads > 1) {
+        predictParallel(reader, inputColumnNames, category, output);
+      } else {
+        while ((splitLine = reader.readNext()) != null) {
+          // Parse the CSV line.  Don't handle quoted commas.  This isn't a parser test.
+          RowData row = formatDataRow(splitLine, inputColumnNames);
+          // Do the prediction.
+          // Emit the result to the output file.
+          predictRow(row, category, output);
+          output.write("\n");
+          lineNum++;
+        }
+      }
+    }
+    catch (RowPredictionException e) {
+      throw new Exception("Prediction failed on line " + e.lineNum, e.getCause());
+    }
+    catch (Exception e) {
+      throw new Exception("Prediction failed on line " + lineNum, e);
+    } finally {
+      // Clean up.
+      output.close();
+      reader.close();
+    }
+  }
+
+  /**
+   * Scores the rest of the input in parallel. Batches of input rows are scored by a pool of workers, the main thread
+   * reads the input and writes out the results of finished batches in the order of the input. At most 2 batches
+   * per worker are in flight at any time.
+   */
+  private void predictParallel(CSVReader reader, String[] inputColumnNames, ModelCategory category,
+                               Writer output) throws Exception {
+    final int maxPending = 2 * threads;
+    final Deque<Future<String>> pending = new ArrayDeque<>(maxPending);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      int lineNum = 1;
+      List<String[]> batch = new ArrayList<>(batchSize);
+      String[] splitLine;
       while ((splitLine = reader.readNext()) != null) {
-        // Parse the CSV line.  Don't handle quoted commas.  This isn't a parser test.
-        RowData row = formatDataRow(splitLine, inputColumnNames);
-        // Do the prediction.
-        // Emit the result to the output file.
-        String offsetColumn = modelWrapper.m.getOffsetName();
-        double offset = offsetColumn==null ? 0 : Double.parseDouble((String) row.get(offsetColumn));
-        switch (category) {
-          case AutoEncoder: { // write the expanded predictions out
-            AutoEncoderModelPrediction p = modelWrapper.predictAutoEncoder(row);
-            for (int i=0; i < p.reconstructed.length; i++) {
-              output.write(myDoubleToString(p.reconstructed[i]));
-              if (i < p.reconstructed.length-1)
-                output.write(',');
+        batch.add(splitLine);
+        if (batch.size() == batchSize) {
+          if (pending.size() == maxPending)
+            writeBatch(pending.removeFirst(), output);
+          pending.addLast(executor.submit(new PredictBatchCallable(batch, lineNum, inputColumnNames, category)));
+          lineNum += batch.size();
+          batch = new ArrayList<>(batchSize);
+        }
+      }
+      if (!batch.isEmpty())
+        pending.addLast(executor.submit(new PredictBatchCallable(batch, lineNum, inputColumnNames, category)));
+      while (!pending.isEmpty())
+        writeBatch(pending.removeFirst(), output);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void writeBatch(Future<String> batch, Writer output) throws Exception {
+    try {
+      output.write(batch.get());
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Exception)
+        throw (Exception) cause;
+      throw e;
+    }
+  }
+
+  private class PredictBatchCallable implements Callable<String> {
+    private final List<String[]> lines;
+    private final int firstLineNum;
+    private final String[] inputColumnNames;
+    private final ModelCategory category;
+
+    private PredictBatchCallable(List<String[]> lines, int firstLineNum, String[] inputColumnNames,
+                                 ModelCategory category) {
+      this.lines = lines;
+      this.firstLineNum = firstLineNum;
+      this.inputColumnNames = inputColumnNames;
+      this.category = category;
+    }
+
+    @Override
+    public String call() throws Exception {
+      StringWriter output = new StringWriter(lines.size() * 32);
+      for (int i = 0; i < lines.size(); i++) {
+        try {
+          RowData row = formatDataRow(lines.get(i), inputColumnNames);
+          predictRow(row, category, output);
+          output.write("\n");
+        } catch (Exception e) {
+          throw new RowPredictionException(firstLineNum + i, e);
+        }
+      }
+      return output.toString();
+    }
+  }
+
+  private static class RowPredictionException extends Exception {
+    private final int lineNum;
+
+    private RowPredictionException(int lineNum, Exception cause) {
+      super(cause);
+      this.lineNum = lineNum;
+    }
+  }
+
+  private Reader openInput() throws IOException {
+    InputStream is = new FileInputStream(inputCSVFileName);
+    if (isGzipped(inputCSVFileName))
+      is = new GZIPInputStream(is, 1 << 16);
+    return new InputStreamReader(is);
+  }
+
+  private Writer openOutput() throws IOException {
+    OutputStream os = new FileOutputStream(outputCSVFileName);
+    if (isGzipped(outputCSVFileName))
+      os = new GZIPOutputStream(os, 1 << 16);
+    return new OutputStreamWriter(os);
+  }
+
+  private static boolean isGzipped(String fileName) {
+    return fileName.toLowerCase().endsWith(".gz");
+  }
+
+  private void predictRow(RowData row, ModelCategory category, Writer output) throws Exception {
+    String offsetColumn = modelWrapper.m.getOffsetName();
+    double offset = offsetColumn==null ? 0 : Double.parseDouble((String) row.get(offsetColumn));
+    switch (category) {
+      case AutoEncoder: { // write the expanded predictions out
+        AutoEncoderModelPrediction p = modelWrapper.predictAutoEncoder(row);
+        for (int i=0; i < p.reconstructed.length; i++) {
+          output.write(myDoubleToString(p.reconstructed[i]));
+          if (i < p.reconstructed.length-1)
+            output.write(',');
+        }
+        break;
+      }
+      case Binomial: {
+        BinomialModelPrediction p = modelWrapper.predictBinomial(row, offset);
+        if (getTreePath) {
+          writeTreePaths(p.leafNodeAssignments, output);
+        } else if (predictContributions) {
+          writeContributions(p.contributions, output);
+        } else {
+          output.write(p.label);
+          output.write(",");
+          for (int i = 0; i < p.classProbabilities.length; i++) {
+            if (i > 0) {
+              output.write(",");
             }
-            break;
+            output.write(myDoubleToString(p.classProbabilities[i]));
           }
-          case Binomial: {
-            BinomialModelPrediction p = modelWrapper.predictBinomial(row, offset);
-            if (getTreePath) {
-              writeTreePaths(p.leafNodeAssignments, output);
-            } else if (predictContributions) {
-              writeContributions(p.contributions, output);
-            } else {
-              output.write(p.label);
+          if (predictCalibrated) {
+            for (int i = 0; i < p.classProbabilities.length; i++) {
               output.write(",");
-              for (int i = 0; i < p.classProbabilities.length; i++) {
-                if (i > 0) {
-                  output.write(",");
-                }
-                output.write(myDoubleToString(p.classProbabilities[i]));
-              }
-              if (predictCalibrated) {
-                for (int i = 0; i < p.classProbabilities.length; i++) {
-                  output.write(",");
-                  double calibProb = p.calibratedClassProbabilities != null ? 
-                          p.calibratedClassProbabilities[i] : Double.NaN;
-                  output.write(myDoubleToString(calibProb));
-                }
-              }
+              double calibProb = p.calibratedClassProbabilities != null ? 
+                      p.calibratedClassProbabilities[i] : Double.NaN;
+              output.write(myDoubleToString(calibProb));
             }
-            break;
           }
-          case Multinomial: {
-            MultinomialModelPrediction p = modelWrapper.predictMultinomial(row);
-            if (getTreePath) {
-              writeTreePaths(p.leafNodeAssignments, output);
-            } else {
-              output.write(p.label);
+        }
+        break;
+      }
+      case Multinomial: {
+        MultinomialModelPrediction p = modelWrapper.predictMultinomial(row);
+        if (getTreePath) {
+          writeTreePaths(p.leafNodeAssignments, output);
+        } else {
+          output.write(p.label);
+          output.write(",");
+          for (int i = 0; i < p.classProbabilities.length; i++) {
+            if (i > 0) {
               output.write(",");
-              for (int i = 0; i < p.classProbabilities.length; i++) {
-                if (i > 0) {
-                  output.write(",");
-                }
-                output.write(myDoubleToString(p.classProbabilities[i]));
-              }
             }
-            break;
+            output.write(myDoubleToString(p.classProbabilities[i]));
           }
-          case Ordinal: {
-            OrdinalModelPrediction p = modelWrapper.predictOrdinal(row, offset);
-            output.write(p.label);
+        }
+        break;
+      }
+      case Ordinal: {
+        OrdinalModelPrediction p = modelWrapper.predictOrdinal(row, offset);
+        output.write(p.label);
+        output.write(",");
+        for (int i = 0; i < p.classProbabilities.length; i++) {
+          if (i > 0) {
             output.write(",");
-            for (int i = 0; i < p.classProbabilities.length; i++) {
-              if (i > 0) {
-                output.write(",");
-              }
-              output.write(myDoubleToString(p.classProbabilities[i]));
-            }
-            break;
-          }
-          case Clustering: {
-            ClusteringModelPrediction p = modelWrapper.predictClustering(row);
-            output.write(myDoubleToString(p.cluster));
-            break;
-          }
-
-          case Regression: {
-              RegressionModelPrediction p = modelWrapper.predictRegression(row, offset);
-              if (getTreePath) {
-                writeTreePaths(p.leafNodeAssignments, output);
-              } else if (predictContributions) {
-                writeContributions(p.contributions, output);
-              } else
-               output.write(myDoubleToString(p.value));
-
-            break;
           }
-          
-          case CoxPH: {
-              CoxPHModelPrediction p = modelWrapper.predictCoxPH(row, offset);
-              output.write(myDoubleToString(p.value));
+          output.write(myDoubleToString(p.classProbabilities[i]));
+        }
+        break;
+      }
+      case Clustering: {
+        ClusteringModelPrediction p = modelWrapper.predictClustering(row);
+        output.write(myDoubleToString(p.cluster));
+        break;
+      }
 
-            break;
-          }
+      case Regression: {
+          RegressionModelPrediction p = modelWrapper.predictRegression(row, offset);
+          if (getTreePath) {
+            writeTreePaths(p.leafNodeAssignments, output);
+          } else if (predictContributions) {
+            writeContributions(p.contributions, output);
+          } else
+           output.write(myDoubleToString(p.value));
 
-          case DimReduction: {
-            DimReductionModelPrediction p = modelWrapper.predictDimReduction(row);
-            double[] out;
+        break;
+      }
+      
+      case CoxPH: {
+          CoxPHModelPrediction p = modelWrapper.predictCoxPH(row, offset);
+          output.write(myDoubleToString(p.value));
 
-            if (returnGLRMReconstruct) {
-              out = p.reconstructed;  // reconstructed A
-            } else {
-              out = p.dimensions; // x factors
-            }
+        break;
+      }
 
-            int lastOne = out.length-1;
-            for (int i=0; i < out.length; i++) {
-              output.write(myDoubleToString(out[i]));
+      case DimReduction: {
+        DimReductionModelPrediction p = modelWrapper.predictDimReduction(row);
+        double[] out;
 
-              if (i < lastOne)
-                output.write(',');
-            }
-            break;
-          }
+        if (returnGLRMReconstruct) {
+          out = p.reconstructed;  // reconstructed A
+        } else {
+          out = p.dimensions; // x factors
+        }
 
-          case AnomalyDetection: {
-            AnomalyDetectionPrediction p = modelWrapper.predictAnomalyDetection(row);
-            double[] rawPreds = p.toPreds();
-            for (int i = 0; i < rawPreds.length - 1; i++) {
-              output.write(myDoubleToString(rawPreds[i]));
-              output.write(',');
-            }
-            output.write(myDoubleToString(rawPreds[rawPreds.length - 1]));
-            break;
-          }
+        int lastOne = out.length-1;
+        for (int i=0; i < out.length; i++) {
+          output.write(myDoubleToString(out[i]));
 
-          default:
-            throw new Exception("Unknown model category " + category);
+          if (i < lastOne)
+            output.write(',');
         }
+        break;
+      }
 
-        output.write("\n");
-        lineNum++;
+      case AnomalyDetection: {
+        AnomalyDetectionPrediction p = modelWrapper.predictAnomalyDetection(row);
+        double[] rawPreds = p.toPreds();
+        for (int i = 0; i < rawPreds.length - 1; i++) {
+          output.write(myDoubleToString(rawPreds[i]));
+          output.write(',');
+        }
+        output.write(myDoubleToString(rawPreds[rawPreds.length - 1]));
+        break;
       }
-    }
-    catch (Exception e) {
-      throw new Exception("Prediction failed on line " + lineNum, e);
-    } finally {
-      // Clean up.
-      output.close();
-      reader.close();
+
+      default:
+        throw new Exception("Unknown model category " + category);
     }
   }
 
-  private void writeHeader(String[] colNames, BufferedWriter output) throws Exception {
+  private void writeHeader(String[] colNames, Writer output) throws Exception {
     output.write(colNames[0]);
     for (int i = 1; i < colNames.length; i++) {
       output.write(",");
@@ -391,7 +507,7 @@ public class PredictCsv {
     }
   }
 
-  private void writeTreePaths(String[] treePaths, BufferedWriter output) throws Exception {
+  private void writeTreePaths(String[] treePaths, Writer output) throws Exception {
     int len = treePaths.length-1;
 
     for (int index=0; index<len; index++) {
@@ -401,7 +517,7 @@ public class PredictCsv {
     output.write(treePaths[len]);
   }
 
-  private void writeContributions(float[] contributions, BufferedWriter output) throws Exception {
+  private void writeContributions(float[] contributions, Writer output) throws Exception {
     for (int i = 0; i < contributions.length; i++) {
       if (i > 0) {
         output.write(",");
@@ -455,6 +571,9 @@ public class PredictCsv {
     System.out.println("     --glrmReconstruct will return the reconstructed dataset for GLRM mojo instead of X factor derived from the dataset.");
     System.out.println("     --glrmIterNumber integer indicating number of iterations to go through when constructing X factor derived from the dataset.");
     System.out.println("     --testConcurrent integer (for testing) number of concurrent threads that will be making predictions.");
+    System.out.println("     --threads number of threads used to score the input file (default is 1, 0 means all available cores).");
+    System.out.println("     --batchSize number of input rows scored together by one thread (default is 1000).");
+    System.out.println("     Input and output files with extension .gz are read and written as gzip-compressed files.");
     System.out.println();
     System.exit(1);
   }
@@ -579,6 +698,8 @@ public class PredictCsv {
     private boolean returnGLRMReconstruct;  // for GLRM, return x factor by default unless set this to true
     private int glrmIterNumber = -1;        // for GLRM, default to 100.
     private boolean outputHeader = true;    // should we write-out header to output files?
+    private int threads = 1;                // number of scoring threads
+    private int batchSize = 1000;           // number of rows scored by a thread at once
 
     // For Model Loading
     private int loadType = 0; // 0: load pojo, 1: load mojo, 2: load model, -1: special value when PredictCsv is used embedded and instance of Model is passed directly
@@ -588,12 +709,14 @@ public class PredictCsv {
 
     private PredictCsv newPredictCsv() {
       return new PredictCsv(inputCSVFileName, outputCSVFileName, useDecimalOutput, separator, setInvNumNA,
-              getTreePath, predictContributions, predictCalibrated, returnGLRMReconstruct, glrmIterNumber, outputHeader);
+              getTreePath, predictContributions, predictCalibrated, returnGLRMReconstruct, glrmIterNumber, outputHeader,
+              threads, batchSize);
     }
 
     private PredictCsv newConcurrentPredictCsv(int id) {
       return new PredictCsv(inputCSVFileName, outputCSVFileName + "." + id, useDecimalOutput, separator, setInvNumNA,
-              getTreePath, predictContributions, predictCalibrated, returnGLRMReconstruct, glrmIterNumber, outputHeader);
+              getTreePath, predictContributions, predictCalibrated, returnGLRMReconstruct, glrmIterNumber, outputHeader,
+              threads, batchSize);
     }
 
     private void parseArgs(String[] args) {
@@ -650,6 +773,16 @@ public class PredictCsv {
             case "--outputHeader":
               outputHeader = Boolean.parseBoolean(sarg);
               break;
+            case "--threads":
+              threads = Integer.parseInt(sarg);
+              if (threads <= 0)
+                threads = Runtime.getRuntime().availableProcessors();
+              break;
+            case "--batchSize":
+              batchSize = Integer.parseInt(sarg);
+              if (batchSize <= 0)
+                throw new IllegalArgumentException("Batch size needs to be a positive number, got: " + batchSize);
+              break;
             default:
               System.out.println("ERROR: Unknown command line argument: " + s);
               usage();
@@ -0,0 +1,75 @@
+package hex.genmodel.algos.deeplearning;
+
+import hex.genmodel.ModelMojoReader;
+import hex.genmodel.MojoReaderBackend;
+import hex.genmodel.MojoReaderBackendFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.URL;
+
+import static org.junit.Assert.*;
+
+public class DeeplearningMojoModelTest {
+
+  private DeeplearningMojoModel mojo;
+
+  @Before
+  public void setup() throws Exception {
+    // Deep Learning base model of a Stacked Ensemble trained on the titanic dataset
+    URL mojoSource = DeeplearningMojoModelTest.class.getResource("/hex/genmodel/algos/ensemble/binomial_titanic.zip");
+    assertNotNull(mojoSource);
+    MojoReaderBackend reader = MojoReaderBackendFactory.createReaderBackend(mojoSource, MojoReaderBackendFactory.CachingStrategy.MEMORY);
+    mojo = (DeeplearningMojoModel) ModelMojoReader.readFrom(new SubDirReaderBackend(reader, "models/DeepLearning/DeepLearning_0_AutoML_20181022_155341/"));
+    assertNotNull(mojo);
+  }
+
+  @Test
+  public void testScoreBatch() throws Exception {
+    // home.dest, cabin, embarked, sex, pclass, age, sibsp, parch, ticket, fare, boat, body
+    double[][] rows = {
+            {308, 43, 2, 1, 1, 29, 0, 0, 24160, 211.34, 2, Double.NaN},
+            {Double.NaN, Double.NaN, 2, 0, 3, 2, 4, 1, 347082, 31.28, Double.NaN, Double.NaN},
+            {Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN},
+            {369, 186, 3, 2, 2, 30, 1, 0, 12345, 15.5, 3, 120} // categorical levels out of the domains
+    };
+    double[][] preds = new double[rows.length + 1][3]; // batch buffers can be larger than the batch
+    double[][] expected = new double[rows.length][];
+    for (int i = 0; i < rows.length; i++) {
+      expected[i] = mojo.score0(rows[i].clone(), new double[3]);
+    }
+    mojo.scoreBatch(rows, null, preds, rows.length);
+    for (int i = 0; i < rows.length; i++) {
+      assertArrayEquals("Predictions for row #" + i, expected[i], preds[i], 0);
+    }
+    assertArrayEquals(new double[3], preds[rows.length], 0);
+  }
+
+  private static class SubDirReaderBackend implements MojoReaderBackend {
+    private final MojoReaderBackend _reader;
+    private final String _dir;
+
+    private SubDirReaderBackend(MojoReaderBackend reader, String dir) {
+      _reader = reader;
+      _dir = dir;
+    }
+
+    @Override
+    public BufferedReader getTextFile(String filename) throws IOException {
+      return _reader.getTextFile(_dir + filename);
+    }
+
+    @Override
+    public byte[] getBinaryFile(String filename) throws IOException {
+      return _reader.getBinaryFile(_dir + filename);
+    }
+
+    @Override
+    public boolean exists(String filename) {
+      return _reader.exists(_dir + filename);
+    }
+  }
+
+}
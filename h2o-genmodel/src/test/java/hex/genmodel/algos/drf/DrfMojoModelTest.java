@@ -0,0 +1,75 @@
+package hex.genmodel.algos.drf;
+
+import hex.genmodel.ModelMojoReader;
+import hex.genmodel.MojoReaderBackend;
+import hex.genmodel.MojoReaderBackendFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.URL;
+
+import static org.junit.Assert.*;
+
+public class DrfMojoModelTest {
+
+  private DrfMojoModel mojo;
+
+  @Before
+  public void setup() throws Exception {
+    // DRF base model of a Stacked Ensemble trained on the titanic dataset
+    URL mojoSource = DrfMojoModelTest.class.getResource("/hex/genmodel/algos/ensemble/binomial_titanic.zip");
+    assertNotNull(mojoSource);
+    MojoReaderBackend reader = MojoReaderBackendFactory.createReaderBackend(mojoSource, MojoReaderBackendFactory.CachingStrategy.MEMORY);
+    mojo = (DrfMojoModel) ModelMojoReader.readFrom(new SubDirReaderBackend(reader, "models/DRF/DRF_0_AutoML_20181022_155341/"));
+    assertNotNull(mojo);
+  }
+
+  @Test
+  public void testScoreBatch() throws Exception {
+    // pclass, sex, age, sibsp, parch, ticket, fare, cabin, embarked, boat, body, home.dest
+    double[][] rows = {
+            {1, 1, 29, 0, 0, 24160, 211.34, 43, 2, 2, Double.NaN, 308},
+            {3, 0, 2, 4, 1, 347082, 31.28, Double.NaN, 2, Double.NaN, Double.NaN, Double.NaN},
+            {Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN},
+            {2, 5, 30, 1, 0, 12345, 15.5, 200, 7, 3, 120, 400} // categorical levels out of the domains
+    };
+    double[][] preds = new double[rows.length + 1][3]; // batch buffers can be larger than the batch
+    double[][] expected = new double[rows.length][];
+    for (int i = 0; i < rows.length; i++) {
+      expected[i] = mojo.score0(rows[i].clone(), new double[3]);
+    }
+    mojo.scoreBatch(rows, null, preds, rows.length);
+    for (int i = 0; i < rows.length; i++) {
+      assertArrayEquals("Predictions for row #" + i, expected[i], preds[i], 0);
+    }
+    assertArrayEquals(new double[3], preds[rows.length], 0);
+  }
+
+  private static class SubDirReaderBackend implements MojoReaderBackend {
+    private final MojoReaderBackend _reader;
+    private final String _dir;
+
+    private SubDirReaderBackend(MojoReaderBackend reader, String dir) {
+      _reader = reader;
+      _dir = dir;
+    }
+
+    @Override
+    public BufferedReader getTextFile(String filename) throws IOException {
+      return _reader.getTextFile(_dir + filename);
+    }
+
+    @Override
+    public byte[] getBinaryFile(String filename) throws IOException {
+      return _reader.getBinaryFile(_dir + filename);
+    }
+
+    @Override
+    public boolean exists(String filename) {
+      return _reader.exists(_dir + filename);
+    }
+  }
+
+}
@@ -4,6 +4,7 @@ import com.google.common.io.ByteStreams;
 import hex.genmodel.ModelMojoReader;
 import hex.genmodel.MojoReaderBackend;
 import hex.genmodel.easy.EasyPredictModelWrapper;
+import hex.genmodel.easy.PredictionContext;
 import hex.genmodel.easy.RowData;
 import hex.genmodel.easy.exception.PredictException;
 import hex.genmodel.easy.prediction.BinomialModelPrediction;
@@ -14,6 +15,7 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.Random;
 
 import static org.junit.Assert.*;
 
@@ -34,6 +36,42 @@ public class GbmMojoModelTest {
     assertArrayEquals(new double[]{1, 0.5416688, 0.4583312}, preds, 1e-5);
   }
 
+  @Test
+  public void testScoreBatch() throws Exception {
+    double[][] rows = {
+            {18.7, 1.51, 1.003, 132.53, 1.15, 0.2, 1.153, 8.3, 0.34, 0.0, 0.0},
+            {15.2, 0.84, 1.21, 12.1, 3.4, 1.1, 2.2, 1.5, 0.9, 1.0, 1.0},
+            {Double.NaN, 1.51, Double.NaN, 132.53, 1.15, 0.2, 1.153, 8.3, 0.34, 0.0, Double.NaN}
+    };
+    double[][] preds = new double[rows.length + 1][3]; // batch buffers can be larger than the batch
+    mojo12.scoreBatch(rows, null, preds, rows.length);
+    for (int i = 0; i < rows.length; i++) {
+      double[] expected = mojo12.score0(rows[i], new double[3]);
+      assertArrayEquals("Predictions for row #" + i, expected, preds[i], 0);
+    }
+    assertArrayEquals(new double[3], preds[rows.length], 0);
+  }
+
+  @Test
+  public void testCompiledTrees() throws Exception {
+    GbmMojoModel compiled = (GbmMojoModel) ModelMojoReader.readFrom(new ClasspathReaderBackend());
+    assertTrue(compiled.compileTrees());
+    assertTrue(compiled.hasCompiledTrees());
+    assertFalse(mojo12.hasCompiledTrees());
+
+    Random r = new Random(42);
+    int nCats = mojo12.getDomainValues(mojo12.nfeatures() - 1).length;
+    for (int i = 0; i < 1000; i++) {
+      double[] row = new double[mojo12.nfeatures()];
+      for (int c = 0; c < row.length - 1; c++)
+        row[c] = r.nextInt(10) == 0 ? Double.NaN : r.nextGaussian() * 50;
+      row[row.length - 1] = r.nextInt(10) == 0 ? Double.NaN : r.nextInt(nCats + 2); // includes unseen levels
+      double[] expected = mojo12.score0(row, new double[3]);
+      double[] preds = compiled.score0(row, new double[3]);
+      assertArrayEquals("Predictions for row #" + i, expected, preds, 0);
+    }
+  }
+
   @Test
   public void scoreSingleTree() throws Exception {
     double[] row = {18.7, 1.51, 1.003, 132.53, 1.15, 0.2, 1.153, 8.3, 0.34, 0.0, 0.0};
@@ -104,6 +142,61 @@ public class GbmMojoModelTest {
     );
   }
 
+  @Test
+  public void testPredictionContext() throws Exception {
+    EasyPredictModelWrapper wrapper = new EasyPredictModelWrapper(
+            new EasyPredictModelWrapper.Config().setModel(mojo12).setEnableLeafAssignment(true)
+    );
+    PredictionContext ctx = wrapper.newPredictionContext();
+    assertEquals(-1, ctx.columnIndex("unknown"));
+    assertEquals(-1, ctx.columnIndex("Angaus")); // response is not an input
+
+    final String[] numCols = {"SegSumT", "SegTSeas", "SegLowFlow", "DSDist", "DSMaxSlope", "USAvgT", "USRainDays",
+            "USSlope", "USNative", "DSDam"};
+    final String[] methods = {"electric", "mixture", "net", null};
+    int[] numColIdx = new int[numCols.length];
+    for (int i = 0; i < numCols.length; i++)
+      numColIdx[i] = ctx.columnIndex(numCols[i]);
+    int methodIdx = ctx.columnIndex("Method");
+
+    BinomialModelPrediction p = new BinomialModelPrediction();
+    Random r = new Random(42);
+    for (int i = 0; i < 100; i++) {
+      RowData row = new RowData();
+      for (int j = 0; j < numCols.length; j++) {
+        if (r.nextInt(10) == 0)
+          continue; // missing value
+        double v = r.nextDouble() * 100;
+        row.put(numCols[j], v);
+        ctx.setValue(numColIdx[j], v);
+      }
+      String method = methods[r.nextInt(methods.length)];
+      if (method != null) {
+        row.put("Method", method);
+        ctx.setValue(methodIdx, method);
+      }
+      double[] classProbs = p.classProbabilities;
+      assertSame(p, ctx.predictBinomial(p));
+      if (classProbs != null)
+        assertSame(classProbs, p.classProbabilities); // buffers are re-used
+
+      BinomialModelPrediction expected = wrapper.predictBinomial(row);
+      assertEquals(expected.labelIndex, p.labelIndex);
+      assertEquals(expected.label, p.label);
+      assertArrayEquals(expected.classProbabilities, p.classProbabilities, 0);
+      assertArrayEquals(expected.calibratedClassProbabilities, p.calibratedClassProbabilities, 0);
+      assertArrayEquals(expected.leafNodeAssignments, p.leafNodeAssignments);
+
+      // the same row given as RowData
+      BinomialModelPrediction p2 = ctx.setRow(row).predictBinomial(new BinomialModelPrediction());
+      assertArrayEquals(expected.classProbabilities, p2.classProbabilities, 0);
+    }
+
+    // the row is cleared after each prediction
+    assertArrayEquals(wrapper.predictBinomial(new RowData()).classProbabilities,
+            ctx.predictBinomial(p).classProbabilities, 0);
+  }
+
   private static class ClasspathReaderBackend implements MojoReaderBackend {
     @Override
     public BufferedReader getTextFile(String filename) throws IOException {
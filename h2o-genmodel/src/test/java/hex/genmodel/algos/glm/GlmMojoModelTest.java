@@ -53,6 +53,26 @@ public class GlmMojoModelTest {
     }
   }
 
+  @Test
+  public void testScoreBatch() throws Exception {
+    double[][] data = new double[][]{
+            new double[]{2,73,2,1,7.9,18,6},
+            new double[]{1,51,3,1,8.9,0,6},
+            new double[]{1,Double.NaN,1,1,5.4,34,5} // value should be imputed
+    };
+    GlmMojoModel mojo = (GlmMojoModel) ModelMojoReader.readFrom(new ClasspathReaderBackend());
+
+    double[][] expPreds = new double[data.length][];
+    for (int i = 0; i < data.length; i++) {
+      expPreds[i] = mojo.score0(data[i].clone(), new double[3]);
+    }
+    double[][] preds = new double[data.length][3];
+    mojo.scoreBatch(data, preds);
+    for (int i = 0; i < data.length; i++) {
+      assertArrayEquals("Predictions for row #" + i, expPreds[i], preds[i], 0);
+    }
+  }
+
   private static class ClasspathReaderBackend implements MojoReaderBackend {
     @Override
     public BufferedReader getTextFile(String filename) throws IOException {
@@ -8,12 +8,20 @@ import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.generic.GenericRecordBuilder;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
+import org.apache.parquet.avro.AvroParquetReader;
 import org.apache.parquet.avro.AvroParquetWriter;
+import org.apache.parquet.column.Encoding;
 import org.apache.parquet.column.ParquetProperties;
 import org.apache.parquet.example.data.Group;
 import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetReader;
 import org.apache.parquet.hadoop.ParquetWriter;
 import org.apache.parquet.hadoop.example.GroupWriteSupport;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
 import org.apache.parquet.io.api.Binary;
 import org.apache.parquet.schema.MessageType;
 import org.junit.Assert;
@@ -23,11 +31,14 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 import water.*;
+import water.exceptions.H2OIllegalArgumentException;
+import water.fvec.AppendableVec;
 import water.fvec.Frame;
 import water.fvec.NFSFileVec;
 import water.fvec.TestFrameBuilder;
 import water.fvec.Vec;
 import water.parser.BufferedString;
+import water.parser.FVecParseWriter;
 import water.parser.ParseDataset;
 import water.parser.ParseSetup;
 import water.util.IcedInt;
@@ -40,6 +51,8 @@ import java.text.SimpleDateFormat;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.apache.parquet.hadoop.metadata.CompressionCodecName.UNCOMPRESSED;
@@ -363,6 +376,74 @@ public class ParseTestParquet extends TestUtil {
     assertFrameAssertion(assertion);
   }
 
+  @Test
+  public void testBatchAndRowReadersAgreeOnLeadingNAs() throws IOException {
+    final int nrows = 3000; // more than the preview, so that the setup doesn't see any value
+    File f = ParquetFileGenerator.generateLeadingNAsParquetFile(Files.createTempDir(), "leadingNAs.parquet", nrows, 1500);
+    String prop = H2O.OptArgs.SYSTEM_PROP_PREFIX + "parquet.batchRead";
+    Frame batch = null;
+    Frame rows = null;
+    try {
+      ParseSetupTransformer transformer = new ParseSetupTransformer() {
+        @Override
+        public ParseSetup transformSetup(ParseSetup guessedSetup) {
+          guessedSetup.disableParallelParse = disableParallelParse;
+          return guessedSetup;
+        }
+      };
+      batch = parseTestFile(f.getCanonicalPath(), transformer);
+      System.setProperty(prop, "false");
+      try {
+        rows = parseTestFile(f.getCanonicalPath(), transformer);
+      } finally {
+        System.clearProperty(prop);
+      }
+      assertArrayEquals(ar("int32_field", "double_field", "string_field", "row"), batch.names());
+      assertArrayEquals("Column types need to match!", rows.types(), batch.types());
+      assertEquals(Vec.T_NUM, batch.vec("int32_field").get_type());
+      assertEquals(Vec.T_NUM, batch.vec("double_field").get_type());
+      assertNotEquals(Vec.T_BAD, batch.vec("string_field").get_type());
+      assertFrameEquals(rows, batch, 0);
+    } finally {
+      if (batch != null) batch.delete();
+      if (rows != null) rows.delete();
+    }
+
+    // Both readers leave the parse writer with the same column types and line count, here promoting
+    // the int column which is only known to be numeric once its first value is read
+    NFSFileVec nfs = makeNfsFileVec(f.getCanonicalPath());
+    try {
+      ParquetMetadata footer = VecParquetReader.readFooter(VecParquetReader.readFooterAsBytes(nfs));
+      byte[] schemaTypes = new byte[]{Vec.T_BAD, Vec.T_NUM, Vec.T_STR, Vec.T_NUM};
+      boolean[] keep = new boolean[]{true, true, false, true};
+
+      byte[] batchTypes = new byte[]{Vec.T_BAD, Vec.T_NUM, Vec.T_NUM};
+      FVecParseWriter batchWriter = parseWriter(batchTypes);
+      try (VecParquetBatchReader reader = new VecParquetBatchReader(nfs, footer, schemaTypes, keep, false, null)) {
+        while (reader.readRowGroup(batchWriter) >= 0) ;
+      }
+
+      byte[] rowTypes = new byte[]{Vec.T_BAD, Vec.T_NUM, Vec.T_NUM};
+      FVecParseWriter rowWriter = parseWriter(rowTypes);
+      VecParquetReader reader = new VecParquetReader(nfs, footer, new WriterDelegate(rowWriter, 3), schemaTypes, keep, false);
+      while (reader.read() != null) ;
+
+      assertArrayEquals(rowTypes, batchTypes);
+      assertEquals(Vec.T_NUM, batchTypes[0]);
+      assertEquals(nrows, rowWriter.lineNum());
+      assertEquals(nrows, batchWriter.lineNum());
+    } finally {
+      nfs.remove();
+    }
+  }
+
+  private static FVecParseWriter parseWriter(byte[] ctypes) {
+    Vec.VectorGroup vg = new Vec.VectorGroup();
+    AppendableVec[] avs = new AppendableVec[ctypes.length];
+    for (int i = 0; i < avs.length; i++) avs[i] = new AppendableVec(vg.addVec(), Vec.T_NUM);
+    return new FVecParseWriter(vg, 0, null, ctypes, -1, avs);
+  }
+
   @Test
   public void testParseCategoricalsWithZeroCharacters() {
     FrameAssertion assertion = new GenFrameAssertion("nullCharacters.parquet", TestUtil.ari(1, 100), psTransformer) {
@@ -424,6 +505,196 @@ public class ParseTestParquet extends TestUtil {
     }
   }
 
+  @Test
+  public void testParseWithRowFilterAndSkippedColumns() throws IOException {
+    File f = ParquetFileGenerator.generateParquetFileRowGroups(Files.createTempDir(), "rowGroups.parquet", 1000);
+    NFSFileVec nfs = null;
+    Frame actual = null;
+    try {
+      // row groups where no row can match are skipped based on their statistics
+      nfs = makeNfsFileVec(f.getCanonicalPath());
+      ParquetMetadata footer = VecParquetReader.readFooter(VecParquetReader.readFooterAsBytes(nfs));
+      MessageType schema = footer.getFileMetaData().getSchema();
+      List<BlockMetaData> blocks = footer.getBlocks();
+      assertTrue("Expected several row groups, got " + blocks.size(), blocks.size() > 2);
+      List<BlockMetaData> kept = ParquetRowFilter.parse("id >= 900", schema).filterRowGroups(blocks, schema);
+      assertTrue(kept.size() < blocks.size());
+      assertFalse(kept.isEmpty());
+      nfs.remove();
+      nfs = null;
+
+      actual = parseTestFile(f.getCanonicalPath(), new ParseSetupTransformer() {
+        @Override
+        public ParseSetup transformSetup(ParseSetup guessedSetup) {
+          guessedSetup.disableParallelParse = disableParallelParse;
+          return guessedSetup.setRowFilter("id >= 900 && name != 'CAT_3'");
+        }
+      }, new int[]{2});
+      assertArrayEquals("Column names need to match!", ar("id", "name"), actual.names());
+      int row = 0;
+      for (int i = 900; i < 1000; i++) {
+        if (i % 10 == 3) continue;
+        assertEquals("Value in column id", i, actual.vec(0).at8(row));
+        assertEquals("Value in column name", "CAT_" + (i % 10), actual.vec(1).factor(actual.vec(1).at8(row)));
+        row++;
+      }
+      assertEquals(row, actual.numRows());
+    } finally {
+      if (nfs != null) nfs.remove();
+      if (actual != null) actual.delete();
+    }
+  }
+
+  @Test
+  public void testExportRowGroupsDictionariesAndStatistics() throws IOException {
+    if (disableParallelParse) return; // the export doesn't depend on the parse setup
+    final int nrows = 5000;
+    double[] nums = new double[nrows];
+    String[] cats = new String[nrows];
+    String[] strs = new String[nrows];
+    for (int i = 0; i < nrows; i++) {
+      nums[i] = i % 7 == 0 ? Double.NaN : i;
+      cats[i] = i % 11 == 0 ? null : "CAT_" + (i % 5);
+      strs[i] = "str_" + i;
+    }
+    File dir = new File(Files.createTempDir(), "export");
+    Frame fr = null;
+    Frame actual = null;
+    try {
+      fr = new TestFrameBuilder()
+              .withColNames("num", "cat", "str")
+              .withVecTypes(Vec.T_NUM, Vec.T_CAT, Vec.T_STR)
+              .withDataForCol(0, nums)
+              .withDataForCol(1, cats)
+              .withDataForCol(2, strs)
+              .withChunkLayout(2500, 2500)
+              .build();
+      Frame.exportParquet(fr, dir.getPath(), false, null, false, false, 4096).get();
+
+      // One part file per node holding chunks
+      File[] parts = dir.listFiles((d, name) -> name.startsWith("part-m-") && !name.endsWith(".crc"));
+      assertNotNull(parts);
+      Arrays.sort(parts);
+      assertTrue(parts.length >= 1 && parts.length <= Math.min(2, H2O.CLOUD.size()));
+      long rows = 0, numNulls = 0;
+      int rowGroups = 0;
+      double min = Double.MAX_VALUE, max = -Double.MAX_VALUE;
+      for (File part : parts) {
+        ParquetMetadata footer;
+        try (ParquetFileReader reader = ParquetFileReader.open(HadoopInputFile.fromPath(new Path(part.getPath()), new Configuration()))) {
+          footer = reader.getFooter();
+        }
+        for (BlockMetaData block : footer.getBlocks()) {
+          rowGroups++;
+          rows += block.getRowCount();
+          ColumnChunkMetaData num = block.getColumns().get(0);
+          assertFalse(num.getEncodings().toString(), num.getEncodings().contains(Encoding.PLAIN_DICTIONARY));
+          numNulls += num.getStatistics().getNumNulls();
+          min = Math.min(min, (Double) num.getStatistics().genericGetMin());
+          max = Math.max(max, (Double) num.getStatistics().genericGetMax());
+          Set<Encoding> catEncodings = block.getColumns().get(1).getEncodings();
+          // Parquet drops the dictionary of a small tail row group, where it doesn't pay off
+          if (block.getRowCount() >= 100)
+            assertTrue(catEncodings.toString(), catEncodings.contains(Encoding.PLAIN_DICTIONARY));
+        }
+      }
+      assertTrue("Expected several row groups, got " + rowGroups, rowGroups > parts.length);
+      assertEquals(nrows, rows);
+      assertEquals(715, numNulls); // multiples of 7 in [0, 5000)
+      assertEquals(1, min, 0);
+      assertEquals(4999, max, 0);
+
+      // Missing numbers are nulls (they used to be exported as NaN), as seen by a reader other than H2O
+      int read = 0;
+      for (File part : parts) {
+        try (ParquetReader<GenericRecord> reader = AvroParquetReader.<GenericRecord>builder(
+                HadoopInputFile.fromPath(new Path(part.getPath()), new Configuration())).build()) {
+          for (GenericRecord record = reader.read(); record != null; record = reader.read(), read++) {
+            int r = Integer.parseInt(record.get("str").toString().substring(4));
+            if (r % 7 == 0) assertNull(record.get("num"));
+            else assertEquals(nums[r], (Double) record.get("num"), 0);
+            assertEquals(r % 11 == 0 ? "" : cats[r], record.get("cat").toString());
+          }
+        }
+      }
+      assertEquals(nrows, read);
+
+      // The rows of a part file keep the order of the frame
+      if (parts.length == 1) {
+        actual = parseTestFile(parts[0].getPath());
+        assertEquals(nrows, actual.numRows());
+        for (int r = 0; r < nrows; r++) {
+          assertEquals(nums[r], actual.vec("num").at(r), 0);
+          if (r % 11 != 0)
+            assertEquals(cats[r], actual.vec("cat").stringAt(r));
+          assertEquals(strs[r], actual.vec("str").stringAt(r));
+        }
+      }
+    } finally {
+      if (fr != null) fr.delete();
+      if (actual != null) actual.delete();
+    }
+  }
+
+  @Test
+  public void testExportFailureReleasesPartFile() throws IOException {
+    if (disableParallelParse) return; // the export doesn't depend on the parse setup
+    File dir = new File(Files.createTempDir(), "export");
+    Frame fr = null;
+    try {
+      fr = new TestFrameBuilder()
+              .withColNames("cat")
+              .withVecTypes(Vec.T_CAT)
+              .withDataForCol(0, ar("a", "b", "c", "a"))
+              .withChunkLayout(2, 2)
+              .build();
+      // Levels the domain doesn't have make the writing of the first chunk fail
+      Vec cat = fr.vec(0);
+      cat.setDomain(new String[]{"a"});
+      DKV.put(cat);
+      try {
+        Frame.exportParquet(fr, dir.getPath(), false, null, false, false, 0).get();
+        fail("Expected the export to fail");
+      } catch (RuntimeException e) {
+        // expected
+      }
+      File[] parts = dir.listFiles((d, name) -> name.contains("part-m-"));
+      assertTrue(parts == null || parts.length == 0);
+      File fds = new File("/proc/self/fd");
+      if (fds.isDirectory()) { // Linux: no descriptor of this JVM points to the deleted part file
+        for (File fd : fds.listFiles()) {
+          try {
+            String target = java.nio.file.Files.readSymbolicLink(fd.toPath()).toString();
+            assertFalse(target, target.startsWith(dir.getPath()));
+          } catch (IOException ignore) { // closed in the meantime
+          }
+        }
+      }
+    } finally {
+      if (fr != null) fr.delete();
+    }
+  }
+
+  @Test
+  public void testParseWithInvalidRowFilter() throws IOException {
+    File f = ParquetFileGenerator.generateParquetFileRowGroups(Files.createTempDir(), "rowGroups.parquet", 10);
+    NFSFileVec nfs = makeNfsFileVec(f.getCanonicalPath());
+    try {
+      MessageType schema = VecParquetReader.readFooter(VecParquetReader.readFooterAsBytes(nfs)).getFileMetaData().getSchema();
+      assertNull(ParquetRowFilter.parse(" ", schema));
+      for (String invalid : ar("missing > 1", "id > abc", "name < 'CAT_1'", "id")) {
+        try {
+          ParquetRowFilter.parse(invalid, schema);
+          fail("Expected filter '" + invalid + "' to be rejected");
+        } catch (H2OIllegalArgumentException expected) {
+          // expected
+        }
+      }
+    } finally {
+      nfs.remove();
+    }
+  }
+
 }
 
 class ParquetFileGenerator {
@@ -524,6 +795,29 @@ class ParquetFileGenerator {
     return generateParquetFile(parentDir, filename, 0, null);
   }
 
+  static File generateLeadingNAsParquetFile(File parentDir, String filename, int nrows, int nas) throws IOException {
+    File f = new File(parentDir, filename);
+
+    Configuration conf = new Configuration();
+    MessageType schema = parseMessageType(
+            "message test { optional int32 int32_field; optional double double_field; optional binary string_field (UTF8); required int32 row; } ");
+    GroupWriteSupport.setSchema(schema, conf);
+    SimpleGroupFactory fact = new SimpleGroupFactory(schema);
+    try (ParquetWriter<Group> writer = new ParquetWriter<Group>(new Path(f.getPath()), new GroupWriteSupport(),
+            UNCOMPRESSED, 4096, 1024, 512, true, false, ParquetProperties.WriterVersion.PARQUET_2_0, conf)) {
+      for (int i = 0; i < nrows; i++) {
+        Group g = fact.newGroup();
+        if (i >= nas) {
+          g = g.append("int32_field", i)
+                  .append("double_field", i / 4.0)
+                  .append("string_field", "CAT_" + (i % 10));
+        }
+        writer.write(g.append("row", i));
+      }
+    }
+    return f;
+  }
+
   static File generateSparseParquetFile(File parentDir, String filename, int nrows) throws IOException {
     File f = new File(parentDir, filename);
 
@@ -570,6 +864,30 @@ class ParquetFileGenerator {
     return f;
   }
 
+  static File generateParquetFileRowGroups(File parentDir, String filename, int nrows) throws IOException {
+    File f = new File(parentDir, filename);
+
+    Configuration conf = new Configuration();
+    MessageType schema = parseMessageType(
+            "message test { required int32 id; required binary name (UTF8); required double val; } ");
+    GroupWriteSupport.setSchema(schema, conf);
+    SimpleGroupFactory fact = new SimpleGroupFactory(schema);
+    // small row groups, about a hundred rows each
+    ParquetWriter<Group> writer = new ParquetWriter<Group>(new Path(f.getPath()), new GroupWriteSupport(),
+            UNCOMPRESSED, 1024, 1024, 512, true, false, ParquetProperties.WriterVersion.PARQUET_2_0, conf);
+    try {
+      for (int i = 0; i < nrows; i++) {
+        writer.write(fact.newGroup()
+                .append("id", i)
+                .append("name", "CAT_" + (i % 10))
+                .append("val", i / 2.0));
+      }
+    } finally {
+      writer.close();
+    }
+    return f;
+  }
+
   static File generateParquetFileDecimals(File parentDir, String filename, int nrows) throws IOException {
     File f = new File(parentDir, filename);
 
@@ -0,0 +1,179 @@
+package water.parser.parquet;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.MessageType;
+import water.fvec.Chunk;
+import water.parser.BufferedString;
+import water.util.StringUtils;
+
+import java.util.Collections;
+
+import static water.fvec.Vec.*;
+
+/**
+ * Writes the rows of a set of aligned chunks as Parquet records.
+ *
+ * The values are sent to the {@link RecordConsumer} directly from the chunks' primitive data: numeric, time and
+ * categorical columns are decoded block by block using the bulk chunk API, categorical levels are converted
+ * to {@link Binary} once per column, and strings are passed as views of the chunk's bytes. There is no per-row
+ * allocation, the record is a reused {@link Row} cursor.
+ *
+ * Missing numeric, time and string values are written as nulls, missing categoricals as empty strings. Before
+ * the export wrote missing numeric values as NaN, which left the column statistics without min/max.
+ */
+class ChunkWriteSupport extends WriteSupport<ChunkWriteSupport.Row> {
+
+  private static final int BLOCK_SIZE = 1024;
+  private static final Binary EMPTY = Binary.fromConstantByteArray(new byte[0]);
+
+  /**
+   * Position of the record to be written; the same instance is passed to the writer for each row of its chunks.
+   */
+  static final class Row {
+    final Chunk[] _cs;
+    int _idx;
+
+    Row(Chunk[] cs) {
+      _cs = cs;
+    }
+  }
+
+  private final MessageType _schema;
+  private final String[] _colNames;
+  private final byte[] _colTypes;
+  private final Binary[][] _levels;
+  private final long _timestampAdjustment;
+
+  // Decoded block of rows [_blockStart, _blockEnd) of chunks _blockCs
+  private final double[][] _doubles;
+  private final long[][] _longs;
+  private final long[][] _nas;
+  private final int[][] _cats;
+  private Chunk[] _blockCs;
+  private int _blockStart;
+  private int _blockEnd;
+
+  private final BufferedString _str = new BufferedString();
+  private RecordConsumer _consumer;
+
+  ChunkWriteSupport(MessageType schema, String[] colNames, byte[] colTypes, String[][] domains, long timestampAdjustment) {
+    _schema = schema;
+    _colNames = colNames;
+    _colTypes = colTypes;
+    _timestampAdjustment = timestampAdjustment;
+    _levels = new Binary[colTypes.length][];
+    _doubles = new double[colTypes.length][];
+    _longs = new long[colTypes.length][];
+    _nas = new long[colTypes.length][];
+    _cats = new int[colTypes.length][];
+    for (int j = 0; j < colTypes.length; j++) {
+      switch (colTypes[j]) {
+        case T_STR:
+          break;
+        case T_CAT:
+          _levels[j] = new Binary[domains[j].length];
+          for (int l = 0; l < domains[j].length; l++)
+            _levels[j][l] = Binary.fromConstantByteArray(StringUtils.bytesOf(domains[j][l]));
+          _cats[j] = new int[BLOCK_SIZE];
+          break;
+        case T_TIME:
+          _longs[j] = new long[BLOCK_SIZE];
+          _nas[j] = new long[BLOCK_SIZE >> 6];
+          break;
+        case T_UUID:
+          throw new IllegalArgumentException("UUID column type is not supported. You can work around this by converting the column to a String.");
+        default:
+          _doubles[j] = new double[BLOCK_SIZE];
+      }
+    }
+  }
+
+  @Override
+  public WriteContext init(Configuration configuration) {
+    return new WriteContext(_schema, Collections.<String, String>emptyMap());
+  }
+
+  @Override
+  public void prepareForWrite(RecordConsumer recordConsumer) {
+    _consumer = recordConsumer;
+    _blockCs = null;
+  }
+
+  @Override
+  public void write(Row row) {
+    final int i = row._idx;
+    if (row._cs != _blockCs || i < _blockStart || i >= _blockEnd)
+      decodeBlock(row._cs, i);
+    final int r = i - _blockStart;
+    _consumer.startMessage();
+    for (int j = 0; j < _colTypes.length; j++) {
+      switch (_colTypes[j]) {
+        case T_TIME:
+          if ((_nas[j][r >> 6] & (1L << r)) == 0)
+            addLong(j, _longs[j][r] - _timestampAdjustment);
+          break;
+        case T_STR:
+          Chunk c = row._cs[j];
+          if (!c.isNA(i)) {
+            BufferedString s = c.atStr(_str, i);
+            addBinary(j, Binary.fromReusedByteArray(s.getBuffer(), s.getOffset(), s.length()));
+          }
+          break;
+        case T_CAT:
+          int level = _cats[j][r];
+          addBinary(j, level < 0 ? EMPTY : _levels[j][level]);
+          break;
+        default:
+          double d = _doubles[j][r];
+          if (!Double.isNaN(d))
+            addDouble(j, d);
+          break;
+      }
+    }
+    _consumer.endMessage();
+  }
+
+  private void decodeBlock(Chunk[] cs, int from) {
+    final int to = Math.min(from + BLOCK_SIZE, cs[0]._len);
+    for (int j = 0; j < _colTypes.length; j++) {
+      switch (_colTypes[j]) {
+        case T_STR:
+          break;
+        case T_CAT:
+          cs[j].getIntegers(_cats[j], from, to, -1);
+          break;
+        case T_TIME:
+          cs[j].getLongs(_longs[j], from, to, 0);
+          cs[j].getNAs(_nas[j], from, to);
+          break;
+        default:
+          cs[j].getDoubles(_doubles[j], from, to, Double.NaN);
+      }
+    }
+    _blockCs = cs;
+    _blockStart = from;
+    _blockEnd = to;
+  }
+
+  private void addLong(int field, long value) {
+    _consumer.startField(_colNames[field], field);
+    _consumer.addLong(value);
+    _consumer.endField(_colNames[field], field);
+  }
+
+  private void addDouble(int field, double value) {
+    _consumer.startField(_colNames[field], field);
+    _consumer.addDouble(value);
+    _consumer.endField(_colNames[field], field);
+  }
+
+  private void addBinary(int field, Binary value) {
+    _consumer.startField(_colNames[field], field);
+    _consumer.addBinary(value);
+    _consumer.endField(_colNames[field], field);
+  }
+
+}
@@ -3,17 +3,17 @@ package water.parser.parquet;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.parquet.column.ParquetProperties;
-import org.apache.parquet.example.data.Group;
-import org.apache.parquet.example.data.simple.SimpleGroupFactory;
 import org.apache.parquet.hadoop.ParquetFileWriter;
 import org.apache.parquet.hadoop.api.WriteSupport;
-import org.apache.parquet.hadoop.example.GroupWriteSupport;
 import org.apache.parquet.hadoop.metadata.CompressionCodecName;
-import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.hadoop.util.HadoopOutputFile;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.PositionOutputStream;
 import water.H2O;
 import water.MRTask;
 import water.fvec.Chunk;
 import water.fvec.Frame;
+import water.fvec.Vec;
 
 import static org.apache.parquet.hadoop.metadata.CompressionCodecName.GZIP;
 import static org.apache.parquet.hadoop.metadata.CompressionCodecName.UNCOMPRESSED;
@@ -23,15 +23,36 @@ import static water.parser.parquet.TypeUtils.getTimestampAdjustmentFromUtcToLoca
 
 import org.apache.parquet.hadoop.ParquetWriter;
 import org.apache.hadoop.fs.Path;
-import water.parser.BufferedString;
 import water.persist.PersistHdfs;
+import water.util.ArrayUtils;
+import water.util.Log;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 public class FrameParquetExporter  {
 
     public void export(H2O.H2OCountedCompleter<?> completer, String path, Frame frame, boolean force, String compression, boolean writeChecksum, boolean tzAdjustFromLocal) {
+        export(completer, path, frame, force, compression, writeChecksum, tzAdjustFromLocal, 0);
+    }
+
+    /**
+     * Exports the frame in parallel, each node writes the chunks it holds to its own part file. The rows of a part
+     * file are in the order of the frame, the part files of a multi-node cluster interleave the frame's chunks.
+     *
+     * @param rowGroupSize target size of the row groups in bytes, 0 to use Parquet's default (128MB)
+     */
+    public void export(H2O.H2OCountedCompleter<?> completer, String path, Frame frame, boolean force, String compression,
+                       boolean writeChecksum, boolean tzAdjustFromLocal, int rowGroupSize) {
+        if (rowGroupSize < 0) {
+            throw new IllegalArgumentException("Row group size must not be negative, got " + rowGroupSize + ".");
+        }
+        if (ArrayUtils.contains(frame.types(), T_UUID)) {
+            throw new IllegalArgumentException("UUID column type is not supported. You can work around this by converting the column to a String.");
+        }
         File f = new File(path);
         new FrameParquetExporter.PartExportParquetTask(
                 completer, 
@@ -43,7 +64,8 @@ public class FrameParquetExporter  {
                 force, 
                 compression,
                 writeChecksum,
-                tzAdjustFromLocal
+                tzAdjustFromLocal,
+                rowGroupSize
         ).dfork(frame);
     }
 
@@ -57,10 +79,12 @@ public class FrameParquetExporter  {
         final boolean _force;
         final boolean _writeChecksum;
         final boolean _tzAdjustFromLocal;
+        final int _rowGroupSize;
+        transient PartWriter _writer;
 
         PartExportParquetTask(H2O.H2OCountedCompleter<?> completer, String path, String messageTypeString,
                               String[] colNames, byte[] colTypes, String[][] domains, 
-                              boolean force, String compression, boolean writeChecksum, boolean tzAdjustFromLocal) {
+                              boolean force, String compression, boolean writeChecksum, boolean tzAdjustFromLocal, int rowGroupSize) {
             super(completer);
             _path = path;
             _compressionCodecName = getCompressionCodecName(compression);
@@ -71,6 +95,7 @@ public class FrameParquetExporter  {
             _force = force;
             _writeChecksum = writeChecksum;
             _tzAdjustFromLocal = tzAdjustFromLocal;
+            _rowGroupSize = rowGroupSize;
         }
 
         CompressionCodecName getCompressionCodecName(String compression) {
@@ -94,57 +119,138 @@ public class FrameParquetExporter  {
             return force ? ParquetFileWriter.Mode.OVERWRITE : ParquetFileWriter.Mode.CREATE;
         }
 
+        @Override
+        protected void setupLocal() {
+            Vec anyVec = _fr.anyVec();
+            int[] cidxs = new int[anyVec.nChunks()];
+            int n = 0;
+            for (int cidx = 0; cidx < cidxs.length; cidx++) {
+                if (anyVec.isHomedLocally(cidx)) cidxs[n++] = cidx;
+            }
+            if (n == 0) {
+                return; // No part file for a node without chunks
+            }
+            String partPath = _path + "/part-m-" + String.valueOf(100000 + H2O.SELF.index()).substring(1);
+            long timeStampAdjustment = _tzAdjustFromLocal ? getTimestampAdjustmentFromUtcToLocalInMillis() : 0L;
+            ChunkWriteSupport writeSupport = new ChunkWriteSupport(
+                    parseMessageType(_messageTypeString), _colNames, _colTypes, _domains, timeStampAdjustment);
+            try {
+                PartFile file = new PartFile(new Path(partPath), PersistHdfs.CONF);
+                _writer = new PartWriter(buildWriter(file, writeSupport, _compressionCodecName,
+                        PersistHdfs.CONF, getMode(_force), _writeChecksum, _rowGroupSize, _colNames, _colTypes),
+                        file, Arrays.copyOf(cidxs, n));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
         @Override
         public void map(Chunk[] cs) {
-            Chunk anyChunk = cs[0];
-            int partIdx = anyChunk.cidx();
-            String partPath = _path + "/part-m-" + String.valueOf(100000 + partIdx).substring(1);
-
-            SimpleGroupFactory fact = new SimpleGroupFactory(parseMessageType(_messageTypeString));
-            try (ParquetWriter<Group> writer = buildWriter(new Path(partPath), _compressionCodecName, PersistHdfs.CONF, parseMessageType(_messageTypeString), getMode(_force), _writeChecksum)) {
-                String currColName;
-                byte currColType;
-                long timeStampAdjustment = _tzAdjustFromLocal ? getTimestampAdjustmentFromUtcToLocalInMillis() : 0L;
-                for (int i = 0; i < anyChunk._len; i++) {
-                    Group group = fact.newGroup();
-                    for (int j = 0; j < cs.length; j++) {
-                        currColName = _colNames[j];
-                        currColType = _colTypes[j];
-                        switch (currColType) {
-                            case (T_UUID):
-                                throw new IllegalArgumentException("UUID column type is not supported. You can work around this by converting the column to a String.");
-                            case (T_TIME):
-                                if (!cs[j].isNA(i)) {
-                                    long timestamp = cs[j].at8(i);
-                                    long adjustedTimestamp = timestamp - timeStampAdjustment;
-                                    group = group.append(currColName, adjustedTimestamp);
-                                }
-                                break;
-                            case (T_STR):
-                                if (!cs[j].isNA(i)) {
-                                    group = group.append(currColName, cs[j].atStr(new BufferedString(), i).toString());
-                                }
-                                break;
-                            case (T_CAT):
-                                if (cs[j].isNA(i)) {
-                                    group = group.append(currColName, "");
-                                } else {
-                                    group = group.append(currColName, _domains[j][(int) cs[j].at8(i)]);
-                                }
-                                break;
-                            case (T_NUM):
-                            case (T_BAD):
-                            default:
-                                group = group.append(currColName, cs[j].atd(i));
-                                break;
+            try {
+                _writer.write(cs);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        protected void closeLocal() {
+            if (_writer == null) {
+                return;
+            }
+            try {
+                _writer.close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * Writes the chunks of a node to its part file, in the order of the frame. The chunks are mapped in parallel,
+     * a chunk which comes ahead of its turn is left for the thread writing the previous ones.
+     *
+     * The task does not close the writer when it fails, so a failed write aborts the part file right away: its
+     * stream is closed, the truncated file is deleted and the chunks which come later are dropped.
+     */
+    private static class PartWriter {
+        private final ParquetWriter<ChunkWriteSupport.Row> _writer;
+        private final PartFile _file;
+        private final int[] _cidxs; // chunks of this node, in the order they are written
+        private final Map<Integer, Chunk[]> _ready = new HashMap<>();
+        private int _next;
+        private boolean _writing;
+        private boolean _failed;
+
+        PartWriter(ParquetWriter<ChunkWriteSupport.Row> writer, PartFile file, int[] cidxs) {
+            _writer = writer;
+            _file = file;
+            _cidxs = cidxs;
+        }
+
+        void write(Chunk[] cs) throws IOException {
+            synchronized (this) {
+                assert Arrays.binarySearch(_cidxs, cs[0].cidx()) >= 0 : "Chunk " + cs[0].cidx() + " is not homed here";
+                if (_failed) {
+                    return;
+                }
+                _ready.put(cs[0].cidx(), cs);
+                if (_writing) {
+                    return;
+                }
+                _writing = true;
+            }
+            boolean drained = false;
+            try {
+                while (true) {
+                    Chunk[] next;
+                    synchronized (this) {
+                        next = _next < _cidxs.length ? _ready.remove(_cidxs[_next]) : null;
+                        if (next == null) {
+                            _writing = false;
+                            drained = true;
+                            return;
                         }
+                        _next++;
+                    }
+                    ChunkWriteSupport.Row row = new ChunkWriteSupport.Row(next);
+                    for (int i = 0; i < next[0]._len; i++) {
+                        row._idx = i;
+                        _writer.write(row);
+                    }
+                }
+            } catch (IOException | RuntimeException | Error e) {
+                abort();
+                throw e;
+            } finally {
+                if (!drained) {
+                    synchronized (this) {
+                        _writing = false;
                     }
-                    writer.write(group);
                 }
+            }
+        }
+
+        private void abort() {
+            synchronized (this) {
+                _failed = true;
+                _ready.clear();
+            }
+            // Not _writer.close(), which would flush the rows of a half-written record and add a footer
+            try {
+                _file.delete();
             } catch (IOException e) {
-                throw new RuntimeException(e);
+                Log.warn("Failed to delete the aborted part file " + _file.getPath(), e);
             }
         }
+
+        void close() throws IOException {
+            if (_failed) {
+                return;
+            }
+            assert _next == _cidxs.length : "Wrote " + _next + " out of " + _cidxs.length + " chunks";
+            _writer.close();
+        }
     }
 
     private static String generateMessageTypeString(Frame frame) {
@@ -173,29 +279,99 @@ public class FrameParquetExporter  {
         return mb.toString();
     }
 
-    private static ParquetWriter<Group> buildWriter(Path path, CompressionCodecName compressionCodecName, Configuration configuration, MessageType schema, ParquetFileWriter.Mode mode, boolean writeChecksum) throws IOException {
-        GroupWriteSupport.setSchema(schema, configuration);
+    /**
+     * Part file which keeps hold of its stream, so that it can be closed without the {@link ParquetWriter}.
+     */
+    private static class PartFile implements OutputFile {
+        private final Path _path;
+        private final Configuration _conf;
+        private final OutputFile _file;
+        private PositionOutputStream _out;
+
+        PartFile(Path path, Configuration conf) throws IOException {
+            _path = path;
+            _conf = conf;
+            _file = HadoopOutputFile.fromPath(path, conf);
+        }
+
+        @Override
+        public PositionOutputStream create(long blockSizeHint) throws IOException {
+            return _out = _file.create(blockSizeHint);
+        }
+
+        @Override
+        public PositionOutputStream createOrOverwrite(long blockSizeHint) throws IOException {
+            return _out = _file.createOrOverwrite(blockSizeHint);
+        }
+
+        @Override
+        public boolean supportsBlockSize() {
+            return _file.supportsBlockSize();
+        }
+
+        @Override
+        public long defaultBlockSize() {
+            return _file.defaultBlockSize();
+        }
+
+        @Override
+        public String getPath() {
+            return _file.getPath();
+        }
+
+        /** Closes the stream and deletes the file */
+        void delete() throws IOException {
+            try {
+                if (_out != null) _out.close();
+            } finally {
+                _path.getFileSystem(_conf).delete(_path, false);
+            }
+        }
+    }
 
+    private static ParquetWriter<ChunkWriteSupport.Row> buildWriter(PartFile file, ChunkWriteSupport writeSupport, CompressionCodecName compressionCodecName, 
+                                                                   Configuration configuration, ParquetFileWriter.Mode mode, boolean writeChecksum,
+                                                                   int rowGroupSize, String[] colNames, byte[] colTypes) throws IOException {
         // The filesystem is cached for a given path and configuration, 
         // therefore the following modification on the fs is a bit hacky as another process could use the same instance.
         // However, given the current use case and the fact that the changes impacts only the way files are written, it should be on the safe side.
-        FileSystem fs = path.getFileSystem(configuration);
+        FileSystem fs = file._path.getFileSystem(configuration);
         fs.setWriteChecksum(writeChecksum);
-        return new ParquetWriter.Builder(path) {
-            @Override
-            protected ParquetWriter.Builder self() {
-                return this;
-            }
-
-            @Override
-            protected WriteSupport<Group> getWriteSupport(Configuration conf) {
-                return new GroupWriteSupport();
-            }
-        }
-                .self()
+        ChunkWriterBuilder builder = new ChunkWriterBuilder(file, writeSupport)
                 .withCompressionCodec(compressionCodecName)
                 .withConf(configuration)
                 .withWriteMode(mode)
-                .build();
+                // min/max statistics of the column chunks and pages are written by default
+                .withDictionaryEncoding(false);
+        if (rowGroupSize > 0) {
+            builder.withRowGroupSize(rowGroupSize);
+        }
+        // Dictionaries pay off for the levels of categoricals (and repeated strings), for numbers they are mostly
+        // built only to be abandoned once they grow over the page size
+        for (int i = 0; i < colTypes.length; i++) {
+            if (colTypes[i] == T_CAT || colTypes[i] == T_STR) {
+                builder.withDictionaryEncoding(colNames[i], true);
+            }
+        }
+        return builder.build();
+    }
+
+    private static class ChunkWriterBuilder extends ParquetWriter.Builder<ChunkWriteSupport.Row, ChunkWriterBuilder> {
+        private final ChunkWriteSupport _writeSupport;
+
+        ChunkWriterBuilder(OutputFile file, ChunkWriteSupport writeSupport) {
+            super(file);
+            _writeSupport = writeSupport;
+        }
+
+        @Override
+        protected ChunkWriterBuilder self() {
+            return this;
+        }
+
+        @Override
+        protected WriteSupport<ChunkWriteSupport.Row> getWriteSupport(Configuration conf) {
+            return _writeSupport;
+        }
     }
 }
@@ -8,8 +8,8 @@ import water.util.ExportFileFormat;
 public class ParquetExporter implements BinaryFormatExporter {
 
     @Override
-    public H2O.H2OCountedCompleter export(Frame frame, String path, boolean force, String compression, boolean writeChecksum, boolean tzAdjustFromLocal) {
-        return new ExportParquetDriver(frame, path, force, compression, writeChecksum, tzAdjustFromLocal);
+    public H2O.H2OCountedCompleter export(Frame frame, String path, boolean force, String compression, boolean writeChecksum, boolean tzAdjustFromLocal, int rowGroupSize) {
+        return new ExportParquetDriver(frame, path, force, compression, writeChecksum, tzAdjustFromLocal, rowGroupSize);
     }
 
     @Override
@@ -26,21 +26,23 @@ public class ParquetExporter implements BinaryFormatExporter {
         boolean _writeChecksum;
 
         boolean _tzAdjustFromLocal;
+        int _rowGroupSize;
 
-        public ExportParquetDriver(Frame frame, String path, boolean force, String compression, boolean writeChecksum, boolean tzAdjustFromLocal) {
+        public ExportParquetDriver(Frame frame, String path, boolean force, String compression, boolean writeChecksum, boolean tzAdjustFromLocal, int rowGroupSize) {
             _frame = frame;
             _path = path;
             _force = force;
             _compression = compression;
             _writeChecksum = writeChecksum;
             _tzAdjustFromLocal = tzAdjustFromLocal;
+            _rowGroupSize = rowGroupSize;
         }
 
         @Override
         public void compute2() {
             // multipart export
             FrameParquetExporter parquetExporter = new FrameParquetExporter();
-            parquetExporter.export(this, _path, _frame, _force, _compression, _writeChecksum, _tzAdjustFromLocal);
+            parquetExporter.export(this, _path, _frame, _force, _compression, _writeChecksum, _tzAdjustFromLocal, _rowGroupSize);
         }
     }
 }
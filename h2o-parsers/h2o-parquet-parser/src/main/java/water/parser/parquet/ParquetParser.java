@@ -7,6 +7,7 @@ import org.apache.parquet.schema.MessageType;
 import org.apache.parquet.schema.OriginalType;
 import org.apache.parquet.schema.PrimitiveType;
 import org.apache.parquet.schema.Type;
+import water.H2O;
 import water.Job;
 import water.Key;
 import water.exceptions.H2OUnsupportedDataFileException;
@@ -41,6 +42,8 @@ public class ParquetParser extends Parser {
   @Override
   protected final StreamParseWriter sequentialParse(Vec vec, final StreamParseWriter dout) {
     final ParquetMetadata metadata = VecParquetReader.readFooter(_metadata);
+    if (useBatchReader(dout))
+      return sequentialBatchParse(vec, metadata, dout);
     final int nChunks = vec.nChunks();
     final long totalRecs = totalRecords(metadata);
     final long nChunkRecs = ((totalRecs / nChunks) + (totalRecs % nChunks > 0 ? 1 : 0));
@@ -75,6 +78,47 @@ public class ParquetParser extends Parser {
     return dout;
   }
 
+  private StreamParseWriter sequentialBatchParse(Vec vec, ParquetMetadata metadata, final StreamParseWriter dout) {
+    final int nChunks = vec.nChunks();
+    try (VecParquetBatchReader reader = newBatchReader(vec, metadata)) {
+      final long totalRecs = reader.rowCount();
+      final long nChunkRecs = ((totalRecs / nChunks) + (totalRecs % nChunks > 0 ? 1 : 0));
+      if (nChunkRecs != (int) nChunkRecs) {
+        throw new IllegalStateException("Unsupported Parquet file. Too many records (#" + totalRecs + ", nChunks=" + nChunks + ").");
+      }
+      // whole row groups go to a chunk, until it has its share of the records
+      StreamParseWriter nextChunk = dout;
+      for (int i = 0; i < nChunks; i++) {
+        long chunkRecs = 0;
+        int n;
+        while ((chunkRecs < nChunkRecs || i == nChunks - 1) && (n = reader.readRowGroup((FVecParseWriter) nextChunk)) >= 0)
+          chunkRecs += n;
+        if (_jobKey != null)
+          Job.update(vec.length() / nChunks, _jobKey);
+        nextChunk.close();
+        dout.reduce(nextChunk);
+        nextChunk = nextChunk.nextChunk();
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to parse records", e);
+    }
+    return dout;
+  }
+
+  // Column-batch reading needs the NewChunks, and is the only one supporting row filters
+  private boolean useBatchReader(ParseWriter dout) {
+    if (dout instanceof FVecParseWriter && (H2O.getSysBoolProperty("parquet.batchRead", true) || _setup.getRowFilter() != null))
+      return true;
+    if (_setup.getRowFilter() != null)
+      throw new IllegalStateException("Row filters are not supported when parsing Parquet into " + dout.getClass().getSimpleName());
+    return false;
+  }
+
+  private VecParquetBatchReader newBatchReader(Vec vec, ParquetMetadata metadata) {
+    ParquetRowFilter filter = ParquetRowFilter.parse(_setup.getRowFilter(), metadata.getFileMetaData().getSchema());
+    return new VecParquetBatchReader(vec, metadata, _setup.getColumnTypes(), _keepColumns, _setup.gettzAdjustToLocal(), filter);
+  }
+
   private long totalRecords(ParquetMetadata metadata) {
     long nr = 0;
     for (BlockMetaData meta : metadata.getBlocks()) {
@@ -100,6 +144,17 @@ public class ParquetParser extends Parser {
       return dout;
     }
     Log.info("Processing ", metadata.getBlocks().size(), " blocks of chunk #", cidx);
+    if (useBatchReader(dout)) {
+      try (VecParquetBatchReader reader = newBatchReader(vec, metadata)) {
+        int n;
+        do {
+          n = reader.readRowGroup((FVecParseWriter) dout);
+        } while (n >= 0);
+      } catch (IOException e) {
+        throw new RuntimeException("Failed to parse records", e);
+      }
+      return dout;
+    }
     VecParquetReader reader = new VecParquetReader(vec, metadata, dout, _setup.getColumnTypes(), _keepColumns, _setup.get_parse_columns_indices().length, _setup.gettzAdjustToLocal());
     try {
       Long recordNumber;
@@ -58,6 +58,8 @@ public class ParquetParserProvider extends BinaryParserProvider {
     ByteVec vec = (ByteVec) (frameOrVec instanceof Frame ? ((Frame) frameOrVec).vec(0) : frameOrVec);
     if (setup.getForceColTypes() && vec != null)
       setup.setParquetColumnTypes(extractColumnTypes(VecParquetReader.readFooter(VecParquetReader.readFooterAsBytes(vec), ParquetMetadataConverter.NO_FILTER)));
+    if (setup.getRowFilter() != null && vec != null) // fail early on an invalid filter
+      ParquetRowFilter.parse(setup.getRowFilter(), VecParquetReader.readFooter(VecParquetReader.readFooterAsBytes(vec)).getFileMetaData().getSchema());
     byte[] requestedTypes = setup.getColumnTypes();
     byte[] types = ParquetParser.correctTypeConversions(vec, requestedTypes);
     setup.setColumnTypes(types);
@@ -0,0 +1,262 @@
+package water.parser.parquet;
+
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnReadStore;
+import org.apache.parquet.column.ColumnReader;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.filter2.compat.RowGroupFilter;
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.filter2.predicate.Operators;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+import org.apache.parquet.schema.Types;
+import water.exceptions.H2OIllegalArgumentException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Filter of the rows of a Parquet file, see {@link water.parser.ParseSetup#setRowFilter}.
+ *
+ * The filter is a conjunction of conditions on single columns, e.g. {@code year >= 2020 && state == 'CA'}.
+ * Numeric columns support all the comparisons, string and boolean columns only {@code ==} and {@code !=}.
+ * Missing values never match.
+ *
+ * The conditions are first pushed down to the statistics of the row groups, so that row groups where
+ * no row can match are never read, and then evaluated on the rows of the remaining row groups.
+ */
+final class ParquetRowFilter {
+
+  enum Op {
+    EQ("=="), NE("!="), LE("<="), GE(">="), LT("<"), GT(">");
+    private final String _symbol;
+    Op(String symbol) { _symbol = symbol; }
+    static Op of(String symbol) {
+      for (Op op : values()) if (op._symbol.equals(symbol)) return op;
+      throw new IllegalArgumentException(symbol);
+    }
+    boolean test(int cmp) {
+      switch (this) {
+        case EQ: return cmp == 0;
+        case NE: return cmp != 0;
+        case LE: return cmp <= 0;
+        case GE: return cmp >= 0;
+        case LT: return cmp < 0;
+        default: return cmp > 0;
+      }
+    }
+  }
+
+  private static final Pattern CONDITION = Pattern.compile("^\\s*(.+?)\\s*(==|!=|<=|>=|<|>)\\s*(.+?)\\s*$");
+
+  /** A condition on a single column */
+  static final class Condition {
+    final String _column;
+    final PrimitiveType _type;
+    final Op _op;
+    final double _num;  // numeric and boolean (0/1) columns
+    final Binary _str;  // string columns
+
+    private Condition(String column, PrimitiveType type, Op op, double num, Binary str) {
+      _column = column; _type = type; _op = op; _num = num; _str = str;
+    }
+
+    boolean test(double v) {
+      if (Double.isNaN(v)) return _op == Op.NE;
+      return _op.test(v < _num ? -1 : v > _num ? 1 : 0);
+    }
+    boolean test(Binary v) { return _op.test(v.equals(_str) ? 0 : 1); }
+
+    /** @return the equivalent predicate on the statistics, or null if it cannot be expressed exactly */
+    FilterPredicate toPredicate() {
+      switch (_type.getPrimitiveTypeName()) {
+        case BOOLEAN:
+          Operators.BooleanColumn bc = FilterApi.booleanColumn(_column);
+          return _op == Op.EQ ? FilterApi.eq(bc, _num != 0) : FilterApi.notEq(bc, _num != 0);
+        case INT32:
+          if (_num != (int) _num) return null;
+          return compare(FilterApi.intColumn(_column), _op, (int) _num);
+        case INT64:
+          if (_num != (long) _num) return null;
+          return compare(FilterApi.longColumn(_column), _op, (long) _num);
+        case FLOAT:
+          if (_num != (float) _num) return null;
+          return compare(FilterApi.floatColumn(_column), _op, (float) _num);
+        case DOUBLE:
+          return compare(FilterApi.doubleColumn(_column), _op, _num);
+        case BINARY:
+          return compare(FilterApi.binaryColumn(_column), _op, _str);
+        default:
+          return null;
+      }
+    }
+
+    @Override public String toString() {
+      return _column + " " + _op._symbol + " " + (_str != null ? "'" + _str.toStringUsingUTF8() + "'" : _num);
+    }
+  }
+
+  private static <T extends Comparable<T>, C extends Operators.Column<T> & Operators.SupportsLtGt>
+  FilterPredicate compare(C column, Op op, T value) {
+    switch (op) {
+      case EQ: return FilterApi.eq(column, value);
+      case NE: return FilterApi.notEq(column, value);
+      case LE: return FilterApi.ltEq(column, value);
+      case GE: return FilterApi.gtEq(column, value);
+      case LT: return FilterApi.lt(column, value);
+      default: return FilterApi.gt(column, value);
+    }
+  }
+
+  // Conditions by column, in the order of first use
+  private final Map<String, List<Condition>> _byColumn;
+  private final Condition[] _conditions;
+
+  private ParquetRowFilter(Condition[] conditions) {
+    _conditions = conditions;
+    _byColumn = new LinkedHashMap<>();
+    for (Condition c : conditions) {
+      List<Condition> cs = _byColumn.get(c._column);
+      if (cs == null) _byColumn.put(c._column, cs = new ArrayList<>());
+      cs.add(c);
+    }
+  }
+
+  /**
+   * @param expr filter expression, see {@link water.parser.ParseSetup#setRowFilter}
+   * @param schema schema of the Parquet file
+   * @return the filter, or null if the expression is empty
+   * @throws H2OIllegalArgumentException if the expression is invalid for the schema
+   */
+  static ParquetRowFilter parse(String expr, MessageType schema) {
+    if (expr == null || expr.trim().isEmpty()) return null;
+    String[] parts = expr.split("&&");
+    Condition[] conditions = new Condition[parts.length];
+    for (int i = 0; i < parts.length; i++)
+      conditions[i] = parseCondition(parts[i], schema);
+    return new ParquetRowFilter(conditions);
+  }
+
+  private static Condition parseCondition(String s, MessageType schema) {
+    Matcher m = CONDITION.matcher(s);
+    if (!m.matches())
+      throw new H2OIllegalArgumentException("Invalid row filter condition '" + s.trim() + "', expected <column> <op> <value>");
+    String column = m.group(1);
+    Op op = Op.of(m.group(2));
+    String value = m.group(3);
+    if (!schema.containsField(column))
+      throw new H2OIllegalArgumentException("Row filter column '" + column + "' is not in the Parquet file");
+    Type t = schema.getType(column);
+    if (!t.isPrimitive())
+      throw new H2OIllegalArgumentException("Row filter column '" + column + "' is not a primitive column");
+    PrimitiveType pt = t.asPrimitiveType();
+    OriginalType ot = pt.getOriginalType();
+    switch (pt.getPrimitiveTypeName()) {
+      case INT32:
+      case INT64:
+      case FLOAT:
+      case DOUBLE:
+        if (ot != null && !ot.name().startsWith("INT_"))
+          break; // dates, times, decimals, and unsigned ints (ordered differently in the statistics)
+        try {
+          return new Condition(column, pt, op, Double.parseDouble(value), null);
+        } catch (NumberFormatException e) {
+          throw new H2OIllegalArgumentException("Row filter value '" + value + "' of numeric column '" + column + "' is not a number");
+        }
+      case BOOLEAN:
+        if (op != Op.EQ && op != Op.NE) break;
+        if (!"true".equalsIgnoreCase(value) && !"false".equalsIgnoreCase(value))
+          throw new H2OIllegalArgumentException("Row filter value '" + value + "' of boolean column '" + column + "' is not true or false");
+        return new Condition(column, pt, op, Boolean.parseBoolean(value.toLowerCase()) ? 1 : 0, null);
+      case BINARY:
+        if ((op != Op.EQ && op != Op.NE) || (ot != null && ot != OriginalType.UTF8 && ot != OriginalType.ENUM))
+          break;
+        return new Condition(column, pt, op, Double.NaN, Binary.fromString(unquote(value)));
+      default:
+        break;
+    }
+    throw new H2OIllegalArgumentException("Row filter condition '" + s.trim() + "' is not supported for column '" +
+            column + "' of Parquet type " + pt.getPrimitiveTypeName() + (ot != null ? " (" + ot + ")" : ""));
+  }
+
+  private static String unquote(String s) {
+    if (s.length() >= 2 && (s.charAt(0) == '\'' || s.charAt(0) == '"') && s.charAt(s.length() - 1) == s.charAt(0))
+      return s.substring(1, s.length() - 1);
+    return s;
+  }
+
+  /** @return the row groups where some rows may match, based on their statistics */
+  List<BlockMetaData> filterRowGroups(List<BlockMetaData> blocks, MessageType schema) {
+    FilterPredicate pred = null;
+    for (Condition c : _conditions) {
+      FilterPredicate p = c.toPredicate();
+      if (p != null) pred = pred == null ? p : FilterApi.and(pred, p);
+    }
+    if (pred == null) return blocks;
+    return RowGroupFilter.filterRowGroups(FilterCompat.get(pred), blocks, schema);
+  }
+
+  /** @return the schema of the filtered columns */
+  MessageType projection(MessageType schema) {
+    Types.MessageTypeBuilder b = Types.buildMessage();
+    for (String column : _byColumn.keySet()) b.addField(schema.getType(column));
+    return b.named(schema.getName());
+  }
+
+  /**
+   * Evaluates the filter on a row group.
+   * @param store column readers of the row group, with (at least) the filtered columns
+   * @param schema schema of the store
+   * @param rows number of rows of the row group
+   * @return which rows match
+   */
+  boolean[] matches(ColumnReadStore store, MessageType schema, int rows) {
+    boolean[] mask = new boolean[rows];
+    Arrays.fill(mask, true);
+    for (Map.Entry<String, List<Condition>> e : _byColumn.entrySet()) {
+      ColumnDescriptor desc = schema.getColumnDescription(new String[]{e.getKey()});
+      ColumnReader cr = store.getColumnReader(desc);
+      Condition[] cs = e.getValue().toArray(new Condition[0]);
+      PrimitiveType.PrimitiveTypeName type = desc.getPrimitiveType().getPrimitiveTypeName();
+      int maxDef = desc.getMaxDefinitionLevel();
+      for (int r = 0; r < rows; r++) {
+        if (cr.getCurrentDefinitionLevel() < maxDef) mask[r] = false;
+        else if (!mask[r]) cr.skip();
+        else {
+          if (type == PrimitiveType.PrimitiveTypeName.BINARY) {
+            Binary v = cr.getBinary();
+            for (Condition c : cs) mask[r] &= c.test(v);
+          } else {
+            double v;
+            switch (type) {
+              case BOOLEAN: v = cr.getBoolean() ? 1 : 0; break;
+              case INT32: v = cr.getInteger(); break;
+              case INT64: v = cr.getLong(); break;
+              case FLOAT: v = cr.getFloat(); break;
+              default: v = cr.getDouble(); break;
+            }
+            for (Condition c : cs) mask[r] &= c.test(v);
+          }
+        }
+        cr.consume();
+      }
+    }
+    return mask;
+  }
+
+  @Override public String toString() {
+    StringBuilder sb = new StringBuilder();
+    for (Condition c : _conditions) sb.append(sb.length() == 0 ? "" : " && ").append(c);
+    return sb.toString();
+  }
+}
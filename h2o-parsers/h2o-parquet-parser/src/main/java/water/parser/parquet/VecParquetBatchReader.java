@@ -0,0 +1,312 @@
+package water.parser.parquet;
+
+import org.apache.parquet.column.ColumnReader;
+import org.apache.parquet.column.Dictionary;
+import org.apache.parquet.column.impl.ColumnReadStoreImpl;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.Converter;
+import org.apache.parquet.io.api.GroupConverter;
+import org.apache.parquet.io.api.PrimitiveConverter;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Types;
+import water.fvec.Vec;
+import water.parser.BufferedString;
+import water.parser.FVecParseWriter;
+import water.parser.parquet.ext.DecimalUtils;
+import water.util.Log;
+import water.util.StringUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static water.parser.parquet.TypeUtils.getTimestampAdjustmentFromUtcToLocalInMillis;
+
+/**
+ * Column-batch Parquet reader working on H2O's Vecs.
+ *
+ * Unlike {@link VecParquetReader}, which assembles records and hands them to {@link ChunkConverter} value by value,
+ * this reader decodes a whole row group one column at a time, adding the values of each column to a
+ * {@link FVecParseWriter} before moving on to the next one. Only the parsed columns are read from the file (column projection). Given a
+ * {@link ParquetRowFilter}, row groups are first selected based on their statistics, and only the matching rows
+ * of the remaining row groups are written.
+ *
+ * The conversions of the Parquet types to H2O's types are the same as in {@link ChunkConverter}.
+ */
+final class VecParquetBatchReader implements Closeable {
+
+  private static final long EPOCH_MILLIS = Instant.EPOCH.toEpochMilli();
+  private static final long MILLIS_IN_A_DAY = 24 * 60 * 60 * 1000;
+  private static final byte[] TRUE = StringUtils.bytesOf("True");
+  private static final byte[] FALSE = StringUtils.bytesOf("False");
+
+  private final Vec _vec;
+  private final ParquetMetadata _metadata;  // Only the row groups which may have matching rows
+  private final ParquetRowFilter _filter;
+  private final MessageType _projection;    // Parsed columns
+  private final MessageType _filterProjection;
+  private final ColumnWriter[] _writers;    // By field of the projection
+  private final int _maxStringSize;
+
+  private ParquetFileReader _reader;
+  private ParquetFileReader _filterReader;  // Reads the filtered columns, in step with _reader
+  private FVecParseWriter _writer;
+
+  VecParquetBatchReader(Vec vec, ParquetMetadata metadata, byte[] chunkSchema, boolean[] keepColumns,
+                        boolean adjustTimezone, ParquetRowFilter filter) {
+    MessageType schema = metadata.getFileMetaData().getSchema();
+    _vec = vec;
+    _filter = filter;
+    if (filter != null) {
+      List<BlockMetaData> blocks = filter.filterRowGroups(metadata.getBlocks(), schema);
+      if (blocks.size() < metadata.getBlocks().size())
+        Log.debug("Row filter '", filter, "' skipped ", metadata.getBlocks().size() - blocks.size(), " of ",
+                metadata.getBlocks().size(), " row groups based on their statistics");
+      _metadata = new ParquetMetadata(metadata.getFileMetaData(), blocks);
+      _filterProjection = filter.projection(schema);
+    } else {
+      _metadata = metadata;
+      _filterProjection = null;
+    }
+    _maxStringSize = WriterDelegate.maxStringSize();
+    long tsAdjustment = adjustTimezone ? getTimestampAdjustmentFromUtcToLocalInMillis() : 0;
+    Types.MessageTypeBuilder projection = Types.buildMessage();
+    List<ColumnWriter> writers = new ArrayList<>();
+    int colIdx = 0; // index to columns actually parsed
+    for (int i = 0; i < schema.getFieldCount(); i++) {
+      if (!keepColumns[i]) continue; // never read from the file
+      PrimitiveType pt = schema.getType(i).asPrimitiveType();
+      projection.addField(pt);
+      writers.add(new ColumnWriter(colIdx++, kindOf(chunkSchema[i], pt), pt, tsAdjustment));
+    }
+    _projection = projection.named(schema.getName());
+    _writers = writers.toArray(new ColumnWriter[0]);
+  }
+
+  /** @return number of rows in the row groups to read, before filtering the rows */
+  long rowCount() {
+    long n = 0;
+    for (BlockMetaData block : _metadata.getBlocks()) n += block.getRowCount();
+    return n;
+  }
+
+  /**
+   * Decodes the next row group into the given writer.
+   * @return number of rows written, or -1 if all row groups were read
+   */
+  int readRowGroup(FVecParseWriter writer) throws IOException {
+    if (_reader == null) {
+      VecReaderEnv env = VecReaderEnv.make(_vec);
+      _reader = open(env, _projection);
+      if (_filter != null) _filterReader = open(env, _filterProjection);
+    }
+    PageReadStore pages = _reader.readNextRowGroup();
+    if (pages == null) return -1;
+    int rows = (int) pages.getRowCount(); // checked by ParquetParser#checkCompatibility
+    String createdBy = _metadata.getFileMetaData().getCreatedBy();
+    boolean[] mask = null;
+    int written = rows;
+    if (_filter != null) {
+      PageReadStore filterPages = _filterReader.readNextRowGroup();
+      PrimitiveConverter[] skip = new PrimitiveConverter[_filterProjection.getFieldCount()];
+      for (int i = 0; i < skip.length; i++) skip[i] = new PrimitiveConverter() {};
+      mask = _filter.matches(new ColumnReadStoreImpl(filterPages, new RootConverter(skip), _filterProjection, createdBy),
+              _filterProjection, rows);
+      written = 0;
+      for (boolean m : mask) if (m) written++;
+    }
+    if (writer != _writer) { // String sizes are limited per chunk
+      _writer = writer;
+      for (ColumnWriter cw : _writers) cw._rawSize = 0;
+    }
+    ColumnReadStoreImpl store = new ColumnReadStoreImpl(pages, new RootConverter(_writers), _projection, createdBy);
+    for (int i = 0; i < _writers.length; i++) {
+      _writers[i].write(store.getColumnReader(_projection.getColumns().get(i)), rows, mask, writer);
+    }
+    writer.newLines(written);
+    return written;
+  }
+
+  private ParquetFileReader open(VecReaderEnv env, MessageType projection) throws IOException {
+    ParquetFileReader reader = new ParquetFileReader(env.getConf(), env.getPath(), _metadata);
+    reader.setRequestedSchema(projection);
+    return reader;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      if (_reader != null) _reader.close();
+    } finally {
+      if (_filterReader != null) _filterReader.close();
+    }
+  }
+
+  // How the values of a column are decoded and written
+  enum Kind {
+    INT, LONG, BOOLEAN_NUM, FLOAT, DOUBLE,
+    DECIMAL_INT, DECIMAL_LONG, DECIMAL_BINARY,
+    TIMESTAMP, TIMESTAMP_INT96, DATE,
+    CONVERTER // Strings and booleans as categoricals, through the PrimitiveConverter methods
+  }
+
+  // Mirrors ChunkConverter#newConverter
+  static Kind kindOf(byte vecType, PrimitiveType parquetType) {
+    PrimitiveTypeName ptn = parquetType.getPrimitiveTypeName();
+    OriginalType ot = parquetType.getOriginalType();
+    switch (vecType) {
+      case Vec.T_BAD:
+      case Vec.T_CAT:
+      case Vec.T_STR:
+        if (ptn == PrimitiveTypeName.BOOLEAN)
+          return Kind.CONVERTER;
+      case Vec.T_UUID:
+      case Vec.T_TIME:
+        if (OriginalType.TIMESTAMP_MILLIS.equals(ot) || ptn == PrimitiveTypeName.INT96)
+          return ptn == PrimitiveTypeName.INT96 ? Kind.TIMESTAMP_INT96 : Kind.TIMESTAMP;
+        else if (OriginalType.DATE.equals(ot) || ptn == PrimitiveTypeName.INT32)
+          return Kind.DATE;
+        else
+          return Kind.CONVERTER;
+      case Vec.T_NUM:
+        if (OriginalType.DECIMAL.equals(ot))
+          return ptn == PrimitiveTypeName.INT32 ? Kind.DECIMAL_INT :
+                  ptn == PrimitiveTypeName.INT64 ? Kind.DECIMAL_LONG : Kind.DECIMAL_BINARY;
+        switch (ptn) {
+          case BOOLEAN: return Kind.BOOLEAN_NUM;
+          case INT32: return Kind.INT;
+          case INT64: return Kind.LONG;
+          case FLOAT: return Kind.FLOAT;
+          case DOUBLE: return Kind.DOUBLE;
+          default: return Kind.CONVERTER; // Binary values, stored as NAs
+        }
+      default:
+        throw new UnsupportedOperationException("Unsupported type " + vecType);
+    }
+  }
+
+  private static final class RootConverter extends GroupConverter {
+    private final PrimitiveConverter[] _converters;
+    RootConverter(PrimitiveConverter[] converters) { _converters = converters; }
+    @Override public Converter getConverter(int fieldIndex) { return _converters[fieldIndex]; }
+    @Override public void start() {}
+    @Override public void end() {}
+  }
+
+  /**
+   * Writes the values of one column of a row group. Numbers are read as primitives, strings go through the
+   * converter methods, so that the values of dictionary-encoded pages are converted once per dictionary. All the
+   * values are added through the column methods of the writer, like {@link ChunkConverter} does, so that the
+   * writer keeps track of the column types the same way.
+   */
+  private final class ColumnWriter extends PrimitiveConverter {
+    private final BufferedString _bs = new BufferedString();
+
+    final int _col;
+    private final Kind _kind;
+    private final PrimitiveType _type;
+    private final long _tsAdjustment;
+    private final boolean _dictionarySupport;
+    private byte[][] _dict;
+    int _rawSize; // Size of the strings written to the current chunk, -1 once over the limit
+    private FVecParseWriter _w;
+
+    ColumnWriter(int col, Kind kind, PrimitiveType type, long tsAdjustment) {
+      _col = col;
+      _kind = kind;
+      _type = type;
+      _tsAdjustment = tsAdjustment;
+      _dictionarySupport = kind == Kind.CONVERTER &&
+              (type.getOriginalType() == OriginalType.UTF8 || type.getOriginalType() == OriginalType.ENUM);
+    }
+
+    void write(ColumnReader cr, int rows, boolean[] mask, FVecParseWriter w) {
+      _w = w;
+      final int maxDef = cr.getDescriptor().getMaxDefinitionLevel();
+      final int scale = _type.getDecimalMetadata() != null ? _type.getDecimalMetadata().getScale() : 0;
+      for (int r = 0; r < rows; r++) {
+        if (cr.getCurrentDefinitionLevel() < maxDef) {
+          if (mask == null || mask[r]) w.addInvalidCol(_col);
+        } else if (mask != null && !mask[r]) {
+          cr.skip();
+        } else {
+          switch (_kind) {
+            case INT: w.addNumCol(_col, cr.getInteger(), 0); break;
+            case LONG: w.addNumCol(_col, cr.getLong(), 0); break;
+            case BOOLEAN_NUM: w.addNumCol(_col, cr.getBoolean() ? 1 : 0, 0); break;
+            case FLOAT: w.addNumCol(_col, cr.getFloat()); break;
+            case DOUBLE: w.addNumCol(_col, cr.getDouble()); break;
+            case DECIMAL_INT: w.addNumCol(_col, cr.getInteger(), -scale); break;
+            case DECIMAL_LONG: w.addNumCol(_col, cr.getLong(), -scale); break;
+            case DECIMAL_BINARY:
+              w.addNumCol(_col, DecimalUtils.binaryToDecimal(cr.getBinary(), _type.getDecimalMetadata().getPrecision(), scale).doubleValue());
+              break;
+            case TIMESTAMP: w.addNumCol(_col, cr.getLong() + _tsAdjustment, 0); break;
+            case TIMESTAMP_INT96:
+              w.addNumCol(_col, ParquetInt96TimestampConverter.getTimestampMillis(cr.getBinary()) + _tsAdjustment, 0);
+              break;
+            case DATE: w.addNumCol(_col, EPOCH_MILLIS + cr.getInteger() * MILLIS_IN_A_DAY, 0); break;
+            default: cr.writeCurrentValueToConverter(); break;
+          }
+        }
+        cr.consume();
+      }
+      _w = null;
+    }
+
+    private void writeStr(byte[] data) {
+      if (_rawSize == -1) { // already exceeded max length
+        _w.addInvalidCol(_col);
+        return;
+      }
+      long totalSize = (long) data.length + _rawSize;
+      if (totalSize > _maxStringSize) {
+        _rawSize = -1;
+        Log.err("Total String size limit reached: skipping remaining values in column: " + _col + "!");
+        _w.addInvalidCol(_col);
+        return;
+      }
+      _rawSize += data.length;
+      _bs.set(data);
+      _w.addStrCol(_col, _bs);
+    }
+
+    @Override
+    public void addBoolean(boolean value) {
+      writeStr(value ? TRUE : FALSE);
+    }
+
+    @Override
+    public void addBinary(Binary value) {
+      writeStr(StringUtils.bytesOf(value.toStringUsingUTF8()));
+    }
+
+    @Override
+    public boolean hasDictionarySupport() {
+      return _dictionarySupport;
+    }
+
+    @Override
+    public void setDictionary(Dictionary dictionary) {
+      _dict = new byte[dictionary.getMaxId() + 1][];
+      for (int i = 0; i <= dictionary.getMaxId(); i++) {
+        _dict[i] = StringUtils.bytesOf(dictionary.decodeToBinary(i).toStringUsingUTF8());
+      }
+    }
+
+    @Override
+    public void addValueFromDictionary(int dictionaryId) {
+      writeStr(_dict[dictionaryId]);
+    }
+  }
+
+}
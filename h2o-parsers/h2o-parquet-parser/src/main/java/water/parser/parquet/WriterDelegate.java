@@ -22,14 +22,14 @@ final class WriterDelegate {
   private int _col;
 
   WriterDelegate(ParseWriter writer, int numCols) {
-    _maxStringSize = getMaxStringSize();
+    _maxStringSize = maxStringSize();
     _numCols = numCols;
     _colRawSize = new int[numCols];
     setWriter(writer);
   }
 
   // For unit tests only: allows to set maximum string size in a test for all nodes
-  private int getMaxStringSize() {
+  static int maxStringSize() {
     Iced<?> maxSize = DKV.getGet(Key.make(WriterDelegate.class.getCanonicalName() + "_maxStringSize"));
     return (maxSize instanceof IcedInt) ? ((IcedInt) maxSize)._val : MAX_STR_LEN;
   }
@@ -1911,17 +1911,20 @@ def export_file(frame, path, force=False, sep=",", compression=None, parts=1, he
                ),  "Export File").poll()
 
 
-def load_frame(frame_id, path, force=True):
+def load_frame(frame_id, path, force=True, columns=None, lazy=False):
     """
     Load frame previously stored in H2O's native format.
 
-    This will load a data frame from file-system location. Stored data can be loaded only with a cluster of the same
-    size and same version the the one which wrote the data. The provided directory must be accessible from all nodes 
-    (HDFS, NFS). Provided frame_id must be the same as the one used when writing the data.
+    This will load a data frame from file-system location. Stored data can be loaded by a cluster of any size
+    running the same version as the one which wrote the data. The provided directory must be accessible from all
+    nodes (HDFS, NFS). Provided frame_id must be the same as the one used when writing the data.
     
     :param frame_id: the frame ID of the original frame
     :param path: a filesystem location where to look for frame data
     :param force: overwrite an already existing frame (defaults to true)
+    :param columns: names of the columns to load (defaults to all columns)
+    :param lazy: only load the frame metadata, the data is read from ``path`` when first used, so ``path`` must stay
+        available as long as the frame is used (defaults to false)
     :returns: A Frame object.
     
     :examples:
@@ -1930,7 +1933,7 @@ def load_frame(frame_id, path, force=True):
     """
     H2OJob(api(
         "POST /3/Frames/load",
-        data={"frame_id": frame_id, "dir": path, "force": force}
+        data={"frame_id": frame_id, "dir": path, "force": force, "columns": columns, "lazy": lazy}
     ), "Load frame data").poll()
     return get_frame(frame_id)
 